@@ -0,0 +1,159 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.concurrent;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Completion of {@link BasicFuture} compared to the monitor based
+ * {@link LegacyBasicFuture} it replaced.
+ * <ul>
+ * <li>{@code completeAndGet}: every thread completes and reads back its own futures,
+ * as done by the I/O dispatch threads of an async client.</li>
+ * <li>{@code race}: several threads race to complete the same future, as done
+ * by a lease request timing out while a connection is being released.</li>
+ * <li>{@code handoff}: one thread blocks in {@code get()} while another one
+ * completes the future, as done by a blocking caller of an async client.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class BasicFutureBenchmark {
+
+    private static final Object RESULT = new Object();
+
+    @Param({"LEGACY", "LOCK_FREE"})
+    public String impl;
+
+    private FutureCallback<Object> callback;
+    private volatile Future<Object> current;
+    private AtomicReference<Future<Object>> slot;
+
+    @Setup
+    public void setup() {
+        this.callback = new FutureCallback<Object>() {
+
+            @Override
+            public void completed(final Object result) {
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+            }
+
+            @Override
+            public void cancelled() {
+            }
+
+        };
+        this.current = createFuture();
+        this.slot = new AtomicReference<>(null);
+    }
+
+    private Future<Object> createFuture() {
+        switch (this.impl) {
+            case "LEGACY":
+                return new LegacyBasicFuture<>(this.callback);
+            case "LOCK_FREE":
+                return new BasicFuture<>(this.callback);
+            default:
+                throw new IllegalArgumentException("Unsupported implementation: " + this.impl);
+        }
+    }
+
+    private static boolean complete(final Future<Object> future, final Object result) {
+        if (future instanceof BasicFuture) {
+            return ((BasicFuture<Object>) future).completed(result);
+        }
+        return ((LegacyBasicFuture<Object>) future).completed(result);
+    }
+
+    @Benchmark
+    @Group("completeAndGet")
+    @GroupThreads(4)
+    public Object completeAndGet() throws Exception {
+        final Future<Object> future = createFuture();
+        complete(future, RESULT);
+        return future.get();
+    }
+
+    @Benchmark
+    @Group("race")
+    @GroupThreads(4)
+    public boolean race() {
+        final Future<Object> future = this.current;
+        if (complete(future, RESULT)) {
+            this.current = createFuture();
+            return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public Object handoffWaiter() throws Exception {
+        final Future<Object> future = createFuture();
+        this.slot.set(future);
+        try {
+            return future.get(10, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException ex) {
+            // the completer may have already stopped at the end of an iteration
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public boolean handoffCompleter() {
+        final Future<Object> future = this.slot.getAndSet(null);
+        return future != null && complete(future, RESULT);
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl.io;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.jmh.RequestHeads;
+import org.apache.hc.core5.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Message head line reading with the classic (blocking) {@link SessionInputBufferImpl}.
+ * Each invocation reads all lines of one request head, or parses the entire request
+ * head including its headers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionInputBufferBenchmark {
+
+    @Param({"US-ASCII", "UTF-8"})
+    public String charset;
+
+    @Param({"8", "48"})
+    public int headerCount;
+
+    private ByteArrayInputStream inputStream;
+    private SessionInputBufferImpl inbuf;
+    private CharArrayBuffer lineBuffer;
+    private DefaultHttpRequestParser parser;
+
+    @Setup
+    public void setup() {
+        this.inputStream = new ByteArrayInputStream(RequestHeads.create(this.headerCount).getBytes(StandardCharsets.US_ASCII));
+        this.inbuf = "UTF-8".equals(this.charset) ?
+                new SessionInputBufferImpl(8192, StandardCharsets.UTF_8.newDecoder()) :
+                new SessionInputBufferImpl(8192);
+        this.lineBuffer = new CharArrayBuffer(256);
+        this.parser = new DefaultHttpRequestParser();
+    }
+
+    @Benchmark
+    public int readLines() throws Exception {
+        this.inputStream.reset();
+        this.inbuf.clear();
+        int count = 0;
+        for (;;) {
+            this.lineBuffer.clear();
+            final int len = this.inbuf.readLine(this.lineBuffer, this.inputStream);
+            if (len <= 0) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public ClassicHttpRequest parseHead() throws Exception {
+        this.inputStream.reset();
+        this.inbuf.clear();
+        return this.parser.parse(this.inbuf, this.inputStream);
+    }
+
+}
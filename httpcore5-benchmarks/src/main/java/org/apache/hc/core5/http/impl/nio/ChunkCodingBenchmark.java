@@ -0,0 +1,125 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
+import org.apache.hc.core5.jmh.DiscardingByteChannel;
+import org.apache.hc.core5.jmh.ReplayingByteChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Chunk coded message body processing with {@link ChunkDecoder} and {@link ChunkEncoder}.
+ * Each invocation encodes or decodes one complete message body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkCodingBenchmark {
+
+    @Param({"1024", "65536"})
+    public int contentLength;
+
+    @Param({"1024", "8192"})
+    public int chunkSize;
+
+    private ReplayingByteChannel inputChannel;
+    private DiscardingByteChannel outputChannel;
+    private SessionInputBufferImpl inbuf;
+    private SessionOutputBufferImpl outbuf;
+    private BasicHttpTransportMetrics metrics;
+    private ByteBuffer content;
+    private ByteBuffer dst;
+
+    @Setup
+    public void setup() throws Exception {
+        final byte[] data = new byte[this.contentLength];
+        Arrays.fill(data, (byte) 'a');
+        final StringBuilder buffer = new StringBuilder();
+        for (int off = 0; off < data.length; off += this.chunkSize) {
+            final int len = Math.min(this.chunkSize, data.length - off);
+            buffer.append(Integer.toHexString(len)).append("\r\n");
+            buffer.append(new String(data, off, len, StandardCharsets.US_ASCII)).append("\r\n");
+        }
+        buffer.append("0\r\n\r\n");
+        this.inputChannel = new ReplayingByteChannel(buffer.toString().getBytes(StandardCharsets.US_ASCII), 8192);
+        this.outputChannel = new DiscardingByteChannel();
+        this.inbuf = new SessionInputBufferImpl(8192, 256);
+        this.outbuf = new SessionOutputBufferImpl(8192, 256);
+        this.metrics = new BasicHttpTransportMetrics();
+        this.content = ByteBuffer.wrap(data);
+        this.dst = ByteBuffer.allocate(8192);
+    }
+
+    @Benchmark
+    public long decode() throws Exception {
+        this.inputChannel.rewind();
+        final ChunkDecoder decoder = new ChunkDecoder(this.inputChannel, this.inbuf, this.metrics);
+        long total = 0;
+        while (!decoder.isCompleted()) {
+            this.dst.clear();
+            final int bytesRead = decoder.read(this.dst);
+            if (bytesRead > 0) {
+                total += bytesRead;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long encode() throws Exception {
+        this.content.rewind();
+        final ChunkEncoder encoder = new ChunkEncoder(this.outputChannel, this.outbuf, this.metrics, this.chunkSize);
+        while (this.content.hasRemaining()) {
+            final int limit = this.content.limit();
+            this.content.limit(Math.min(limit, this.content.position() + this.chunkSize));
+            encoder.write(this.content);
+            this.content.limit(limit);
+        }
+        encoder.complete(null);
+        this.outbuf.flush(this.outputChannel);
+        return this.outputChannel.getTotal();
+    }
+
+}
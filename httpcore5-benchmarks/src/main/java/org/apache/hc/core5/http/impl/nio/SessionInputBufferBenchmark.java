@@ -0,0 +1,118 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl.nio;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.jmh.ReplayingByteChannel;
+import org.apache.hc.core5.jmh.RequestHeads;
+import org.apache.hc.core5.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Message head line reading with the non-blocking {@link SessionInputBufferImpl}.
+ * Each invocation reads all lines of one request head delivered by the channel in
+ * fragments of the given size, or parses the entire request head including its headers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionInputBufferBenchmark {
+
+    @Param({"US-ASCII", "UTF-8"})
+    public String charset;
+
+    @Param({"8", "48"})
+    public int headerCount;
+
+    @Param({"64", "8192"})
+    public int fragmentSize;
+
+    private ReplayingByteChannel channel;
+    private SessionInputBufferImpl inbuf;
+    private CharArrayBuffer lineBuffer;
+    private DefaultHttpRequestParser<HttpRequest> parser;
+
+    @Setup
+    public void setup() {
+        this.channel = new ReplayingByteChannel(RequestHeads.create(this.headerCount).getBytes(StandardCharsets.US_ASCII), this.fragmentSize);
+        this.inbuf = "UTF-8".equals(this.charset) ?
+                new SessionInputBufferImpl(8192, 256, 0, StandardCharsets.UTF_8) :
+                new SessionInputBufferImpl(8192, 256);
+        this.lineBuffer = new CharArrayBuffer(256);
+        this.parser = new DefaultHttpRequestParser<>(DefaultHttpRequestFactory.INSTANCE);
+    }
+
+    @Benchmark
+    public int readLines() throws Exception {
+        this.channel.rewind();
+        int count = 0;
+        for (;;) {
+            this.lineBuffer.clear();
+            while (!this.inbuf.readLine(this.lineBuffer, false)) {
+                if (this.inbuf.fill(this.channel) == -1) {
+                    return count;
+                }
+            }
+            if (this.lineBuffer.isEmpty()) {
+                return count;
+            }
+            count++;
+        }
+    }
+
+    @Benchmark
+    public HttpRequest parseHead() throws Exception {
+        this.channel.rewind();
+        this.parser.reset();
+        for (;;) {
+            final HttpRequest request = this.parser.parse(this.inbuf, false);
+            if (request != null) {
+                return request;
+            }
+            if (this.inbuf.fill(this.channel) == -1) {
+                return null;
+            }
+        }
+    }
+
+}
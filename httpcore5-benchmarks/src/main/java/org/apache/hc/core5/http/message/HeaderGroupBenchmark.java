@@ -0,0 +1,92 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.message;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.Header;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link HeaderGroup} lookups on a typical set of message headers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeaderGroupBenchmark {
+
+    @Param({"8", "32"})
+    public int headerCount;
+
+    private HeaderGroup headerGroup;
+
+    @Setup
+    public void setup() {
+        this.headerGroup = new HeaderGroup();
+        this.headerGroup.addHeader(new BasicHeader("Content-Type", "text/plain; charset=UTF-8"));
+        this.headerGroup.addHeader(new BasicHeader("Set-Cookie", "a=1"));
+        this.headerGroup.addHeader(new BasicHeader("Set-Cookie", "b=2"));
+        for (int i = this.headerGroup.getAllHeaders().length; i < this.headerCount - 1; i++) {
+            this.headerGroup.addHeader(new BasicHeader("X-Custom-Header-" + i, "value " + i));
+        }
+        this.headerGroup.addHeader(new BasicHeader("Content-Length", "1024"));
+    }
+
+    @Benchmark
+    public Header getFirstHeader() {
+        return this.headerGroup.getFirstHeader("content-length");
+    }
+
+    @Benchmark
+    public Header getLastHeader() {
+        return this.headerGroup.getLastHeader("content-type");
+    }
+
+    @Benchmark
+    public Header[] getHeaders() {
+        return this.headerGroup.getHeaders("set-cookie");
+    }
+
+    @Benchmark
+    public boolean containsHeaderMissing() {
+        return this.headerGroup.containsHeader("transfer-encoding");
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.message;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * HTTP/1.1 request line, status line and header parsing with {@link BasicLineParser}
+ * and {@link LazyLineParser}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LineParserBenchmark {
+
+    private static final String[] HEADER_LINES = {
+            "Host: www.example.com",
+            "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:56.0) Gecko/20100101 Firefox/56.0",
+            "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+            "Accept-Language: en-US,en;q=0.5",
+            "Accept-Encoding: gzip, deflate, br",
+            "Cookie: JSESSIONID=1A530637289A03B07199A44E8D531427; _ga=GA1.2.1536289312.1508063283",
+            "Connection: keep-alive",
+            "Cache-Control: max-age=0"
+    };
+
+    @Param({"basic", "lazy"})
+    public String parserType;
+
+    private BasicLineParser parser;
+    private CharArrayBuffer requestLine;
+    private CharArrayBuffer statusLine;
+    private CharArrayBuffer[] headerLines;
+
+    private static CharArrayBuffer toBuffer(final String s) {
+        final CharArrayBuffer buffer = new CharArrayBuffer(s.length());
+        buffer.append(s);
+        return buffer;
+    }
+
+    @Setup
+    public void setup() {
+        this.parser = "lazy".equals(this.parserType) ? LazyLineParser.INSTANCE : BasicLineParser.INSTANCE;
+        this.requestLine = toBuffer("GET /search/results?q=http+parser&page=2&lang=en-US HTTP/1.1");
+        this.statusLine = toBuffer("HTTP/1.1 200 OK");
+        this.headerLines = new CharArrayBuffer[HEADER_LINES.length];
+        for (int i = 0; i < HEADER_LINES.length; i++) {
+            this.headerLines[i] = toBuffer(HEADER_LINES[i]);
+        }
+    }
+
+    @Benchmark
+    public RequestLine parseRequestLine() throws Exception {
+        return this.parser.parseRequestLine(this.requestLine);
+    }
+
+    @Benchmark
+    public StatusLine parseStatusLine() throws Exception {
+        return this.parser.parseStatusLine(this.statusLine);
+    }
+
+    @Benchmark
+    public void parseHeaders(final Blackhole blackhole) throws Exception {
+        for (final CharArrayBuffer headerLine : this.headerLines) {
+            blackhole.consume(this.parser.parseHeader(headerLine));
+        }
+    }
+
+    @Benchmark
+    public void parseHeadersAndAccess(final Blackhole blackhole) throws Exception {
+        for (final CharArrayBuffer headerLine : this.headerLines) {
+            final Header header = this.parser.parseHeader(headerLine);
+            blackhole.consume(header.getName());
+            blackhole.consume(header.getValue());
+        }
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncRequesterBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncServerBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.BasicResponseProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.util.Timeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of a large static file served by {@link FileEntityProducer} over a persistent
+ * plain HTTP/1.1 connection, either transferred directly from the file or read through
+ * an intermediate buffer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileEntityProducerBenchmark {
+
+    private static final Timeout TIMEOUT = Timeout.ofSeconds(30);
+
+    @Param({"true", "false"})
+    public boolean fileTransfer;
+
+    @Param({"16777216"})
+    public int contentLength;
+
+    private File file;
+    private HttpAsyncServer server;
+    private HttpAsyncRequester requester;
+    private HttpHost target;
+
+    @Setup
+    public void setup() throws Exception {
+        file = File.createTempFile("benchmark", ".bin");
+        try (final RandomAccessFile accessFile = new RandomAccessFile(file, "rw")) {
+            accessFile.setLength(contentLength);
+        }
+        server = AsyncServerBootstrap.bootstrap()
+                .register("*", new AsyncServerRequestHandler<Message<HttpRequest, Void>>() {
+
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+                            final HttpRequest request, final HttpContext context) throws HttpException {
+                        return new BasicRequestConsumer<>(new NoopEntityConsumer());
+                    }
+
+                    @Override
+                    public void handle(
+                            final Message<HttpRequest, Void> requestMessage,
+                            final ResponseTrigger responseTrigger,
+                            final HttpContext context) throws HttpException, IOException {
+                        final FileEntityProducer entityProducer = new FileEntityProducer(
+                                file, ContentType.APPLICATION_OCTET_STREAM);
+                        responseTrigger.submitResponse(new BasicResponseProducer(
+                                HttpStatus.SC_OK,
+                                fileTransfer ? entityProducer : new BufferedEntityProducer(entityProducer)));
+                    }
+
+                })
+                .create();
+        server.start();
+        final ListenerEndpoint listener = server.listen(new InetSocketAddress("localhost", 0)).get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        target = new HttpHost("localhost", address.getPort());
+
+        requester = AsyncRequesterBootstrap.bootstrap().create();
+        requester.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        requester.shutdown(ShutdownType.IMMEDIATE);
+        server.shutdown(ShutdownType.IMMEDIATE);
+        file.delete();
+    }
+
+    @Benchmark
+    public Message<HttpResponse, Void> transfer() throws Exception {
+        return requester.execute(
+                new BasicRequestProducer("GET", target, "/"),
+                new BasicResponseConsumer<>(new NoopEntityConsumer()),
+                TIMEOUT, null).get();
+    }
+
+    /**
+     * Hides the file transfer capability of the data stream channel forcing
+     * content to be written out through the buffered path.
+     */
+    static class BufferedEntityProducer implements AsyncEntityProducer {
+
+        private final AsyncEntityProducer wrapped;
+
+        BufferedEntityProducer(final AsyncEntityProducer wrapped) {
+            this.wrapped = wrapped;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return wrapped.isRepeatable();
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            wrapped.failed(cause);
+        }
+
+        @Override
+        public long getContentLength() {
+            return wrapped.getContentLength();
+        }
+
+        @Override
+        public String getContentType() {
+            return wrapped.getContentType();
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return wrapped.getContentEncoding();
+        }
+
+        @Override
+        public boolean isChunked() {
+            return wrapped.isChunked();
+        }
+
+        @Override
+        public Set<String> getTrailerNames() {
+            return wrapped.getTrailerNames();
+        }
+
+        @Override
+        public int available() {
+            return wrapped.available();
+        }
+
+        @Override
+        public void produce(final DataStreamChannel channel) throws IOException {
+            wrapped.produce(new DataStreamChannel() {
+
+                @Override
+                public void requestOutput() {
+                    channel.requestOutput();
+                }
+
+                @Override
+                public int write(final ByteBuffer src) throws IOException {
+                    return channel.write(src);
+                }
+
+                @Override
+                public void endStream(final List<? extends Header> trailers) throws IOException {
+                    channel.endStream(trailers);
+                }
+
+                @Override
+                public void endStream() throws IOException {
+                    channel.endStream();
+                }
+
+            });
+        }
+
+        @Override
+        public void releaseResources() {
+            wrapped.releaseResources();
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.hpack;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HPACK header block encoding and decoding.
+ * <p>
+ * {@code *Literal} benchmarks exercise literal representations with Huffman coded strings,
+ * which is what a connection sees on the first request or with an exhausted dynamic table.
+ * {@code *Indexed} benchmarks exercise the steady state of a long lived connection where
+ * the same header fields are referenced from the dynamic table.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HPackBenchmark {
+
+    static final List<Header> REQUEST_HEADERS = Arrays.<Header>asList(
+            new BasicHeader(":method", "GET"),
+            new BasicHeader(":scheme", "https"),
+            new BasicHeader(":authority", "www.example.com"),
+            new BasicHeader(":path", "/search/results?q=http%2F2+header+compression&page=2&lang=en-US"),
+            new BasicHeader("user-agent", "Mozilla/5.0 (X11; Linux x86_64; rv:56.0) Gecko/20100101 Firefox/56.0"),
+            new BasicHeader("accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8"),
+            new BasicHeader("accept-language", "en-US,en;q=0.5"),
+            new BasicHeader("accept-encoding", "gzip, deflate, br"),
+            new BasicHeader("cookie", "JSESSIONID=1A530637289A03B07199A44E8D531427; _ga=GA1.2.1536289312.1508063283; " +
+                    "_gid=GA1.2.1171427285.1508063283; prefs=lang%3Den%26tz%3DEurope%2FBerlin"),
+            new BasicHeader("cache-control", "max-age=0"),
+            new BasicHeader("x-request-id", "f058ebd6-02f7-4d3f-942e-904344e8cde5"));
+
+    private HPackEncoder literalEncoder;
+    private HPackEncoder indexedEncoder;
+    private HPackDecoder decoder;
+    private ByteArrayBuffer encoded;
+    private byte[] literalBlock;
+    private byte[] indexedBlock;
+
+    @Setup
+    public void setup() throws Exception {
+        this.literalEncoder = new HPackEncoder(StandardCharsets.US_ASCII);
+        this.literalEncoder.setMaxTableSize(0);
+        this.indexedEncoder = new HPackEncoder(StandardCharsets.US_ASCII);
+        this.encoded = new ByteArrayBuffer(1024);
+
+        this.indexedEncoder.encodeHeaders(this.encoded, REQUEST_HEADERS);
+        this.literalBlock = this.encoded.toByteArray();
+        this.encoded.clear();
+        this.indexedEncoder.encodeHeaders(this.encoded, REQUEST_HEADERS);
+        this.indexedBlock = this.encoded.toByteArray();
+        this.encoded.clear();
+
+        this.decoder = new HPackDecoder(StandardCharsets.US_ASCII);
+        this.decoder.decodeHeaders(ByteBuffer.wrap(this.literalBlock));
+    }
+
+    @Benchmark
+    public ByteArrayBuffer encodeLiteral() throws Exception {
+        this.encoded.clear();
+        this.literalEncoder.encodeHeaders(this.encoded, REQUEST_HEADERS);
+        return this.encoded;
+    }
+
+    @Benchmark
+    public ByteArrayBuffer encodeIndexed() throws Exception {
+        this.encoded.clear();
+        this.indexedEncoder.encodeHeaders(this.encoded, REQUEST_HEADERS);
+        return this.encoded;
+    }
+
+    @Benchmark
+    public List<Header> decodeLiteral() throws Exception {
+        // Literals with incremental indexing keep re-inserting the same fields
+        // into the dynamic table, which is a valid steady state
+        return this.decoder.decodeHeaders(ByteBuffer.wrap(this.literalBlock));
+    }
+
+    @Benchmark
+    public List<Header> decodeIndexed() throws Exception {
+        return this.decoder.decodeHeaders(ByteBuffer.wrap(this.indexedBlock));
+    }
+
+}
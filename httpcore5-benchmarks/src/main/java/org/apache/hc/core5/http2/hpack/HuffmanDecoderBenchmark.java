@@ -0,0 +1,107 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.hpack;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Huffman string decoding with the table driven {@link HuffmanDecoder} compared
+ * to the tree based {@link LegacyHuffmanDecoder} it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HuffmanDecoderBenchmark {
+
+    @Param({"path", "user-agent", "cookie"})
+    public String sample;
+
+    private LegacyHuffmanDecoder legacyDecoder;
+    private ByteBuffer src;
+    private ByteArrayBuffer out;
+
+    @Setup
+    public void setup() throws Exception {
+        final String value;
+        switch (this.sample) {
+            case "path":
+                value = "/search/results?q=http%2F2+header+compression&page=2&lang=en-US";
+                break;
+            case "user-agent":
+                value = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) " +
+                        "Chrome/61.0.3163.100 Safari/537.36";
+                break;
+            case "cookie":
+                value = "JSESSIONID=1A530637289A03B07199A44E8D531427; _ga=GA1.2.1536289312.1508063283; " +
+                        "_gid=GA1.2.1171427285.1508063283; prefs=lang%3Den%26tz%3DEurope%2FBerlin; " +
+                        "csrftoken=Bq7dNc0kT5QX2W3hJmYvLz8uPaS9eRf4";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown sample: " + this.sample);
+        }
+        final ByteArrayBuffer encoded = new ByteArrayBuffer(256);
+        Huffman.ENCODER.encode(encoded, ByteBuffer.wrap(value.getBytes(StandardCharsets.US_ASCII)));
+        this.src = ByteBuffer.wrap(encoded.toByteArray());
+        this.out = new ByteArrayBuffer(256);
+        this.legacyDecoder = new LegacyHuffmanDecoder(Huffman.CODES, Huffman.LENGTHS);
+    }
+
+    @Benchmark
+    public ByteArrayBuffer decode() throws Exception {
+        this.src.rewind();
+        this.out.clear();
+        Huffman.DECODER.decode(this.out, this.src);
+        return this.out;
+    }
+
+    @Benchmark
+    public ByteArrayBuffer decodeLegacy() throws Exception {
+        this.src.rewind();
+        this.out.clear();
+        this.legacyDecoder.decode(this.out, this.src);
+        return this.out;
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.hpack;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hc.core5.util.ByteArrayBuffer;
+
+/**
+ * Tree based Huffman decoder formerly used by HPACK. Kept as a baseline
+ * for {@link HuffmanDecoderBenchmark}.
+ */
+final class LegacyHuffmanDecoder {
+
+    private final Node root;
+
+    LegacyHuffmanDecoder(final int[] codes, final byte[] lengths) {
+        root = buildTree(codes, lengths);
+    }
+
+    void decode(final ByteArrayBuffer out, final ByteBuffer src) throws HPackException {
+        Node node = this.root;
+        int current = 0;
+        int bits = 0;
+        while (src.hasRemaining()) {
+            final int b = src.get() & 0xFF;
+            current = (current << 8) | b;
+            bits += 8;
+            while (bits >= 8) {
+                final int c = (current >>> (bits - 8)) & 0xFF;
+                node = node.children[c];
+                bits -= node.bits;
+                if (node.isTerminal()) {
+                    if (node.symbol == Huffman.EOS) {
+                        throw new HPackException("EOS decoded");
+                    }
+                    out.append(node.symbol);
+                    node = root;
+                }
+            }
+        }
+
+        while (bits > 0) {
+            final int c = (current << (8 - bits)) & 0xFF;
+            node = node.children[c];
+            if (node.isTerminal() && node.bits <= bits) {
+                bits -= node.bits;
+                out.append(node.symbol);
+                node = this.root;
+            } else {
+                break;
+            }
+        }
+
+        final int mask = (1 << bits) - 1;
+        if ((current & mask) != mask) {
+            throw new HPackException("Invalid padding");
+        }
+    }
+
+    private static Node buildTree(final int[] codes, final byte[] lengths) {
+        final Node root = new Node();
+        for (int symbol = 0; symbol < codes.length; symbol++) {
+
+            final int code = codes[symbol];
+            int length = lengths[symbol];
+
+            Node current = root;
+            while (length > 8) {
+                length -= 8;
+                final int i = (code >>> length) & 0xFF;
+                if (current.children[i] == null) {
+                    current.children[i] = new Node();
+                }
+                current = current.children[i];
+            }
+
+            final Node terminal = new Node(symbol, length);
+            final int shift = 8 - length;
+            final int start = (code << shift) & 0xFF;
+            final int end = 1 << shift;
+            for (int i = start; i < start + end; i++) {
+                current.children[i] = terminal;
+            }
+        }
+        return root;
+    }
+
+    static final class Node {
+
+        final int symbol;
+        final int bits;
+        final Node[] children;
+
+        Node() {
+            this.symbol = 0;
+            this.bits = 8;
+            this.children = new Node[256];
+        }
+
+        Node(final int symbol, final int bits) {
+            this.symbol = symbol;
+            this.bits = bits;
+            this.children = null;
+        }
+
+        boolean isTerminal() {
+            return this.children == null;
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http2.frame.DefaultFrameFactory;
+import org.apache.hc.core5.http2.frame.FrameConsts;
+import org.apache.hc.core5.http2.frame.FrameFactory;
+import org.apache.hc.core5.http2.frame.RawFrame;
+import org.apache.hc.core5.jmh.DiscardingByteChannel;
+import org.apache.hc.core5.jmh.ReplayingByteChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * HTTP/2 frame reading and writing with {@link FrameInputBuffer} and {@link FrameOutputBuffer}.
+ * Figures are reported per frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameBufferBenchmark {
+
+    private static final int FRAME_COUNT = 16;
+
+    @Param({"128", "16384"})
+    public int payloadSize;
+
+    private final FrameFactory frameFactory = DefaultFrameFactory.INSTANCE;
+
+    private ByteBuffer payload;
+    private ReplayingByteChannel inputChannel;
+    private DiscardingByteChannel outputChannel;
+    private FrameInputBuffer inbuf;
+    private FrameOutputBuffer outbuf;
+
+    @Setup
+    public void setup() throws Exception {
+        final byte[] data = new byte[this.payloadSize];
+        Arrays.fill(data, (byte) 'a');
+        this.payload = ByteBuffer.wrap(data);
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final WritableByteChannel channel = Channels.newChannel(content);
+        final FrameOutputBuffer frameWriter = new FrameOutputBuffer(FrameConsts.MIN_FRAME_SIZE);
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            frameWriter.write(this.frameFactory.createData(1, this.payload.duplicate(), false), channel);
+        }
+        this.inputChannel = new ReplayingByteChannel(content.toByteArray(), Integer.MAX_VALUE);
+        this.outputChannel = new DiscardingByteChannel();
+        this.inbuf = new FrameInputBuffer(FrameConsts.MIN_FRAME_SIZE);
+        this.outbuf = new FrameOutputBuffer(FrameConsts.MIN_FRAME_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT)
+    public void read(final Blackhole blackhole) throws Exception {
+        this.inputChannel.rewind();
+        int count = 0;
+        while (count < FRAME_COUNT) {
+            final RawFrame frame = this.inbuf.read(this.inputChannel);
+            if (frame != null) {
+                blackhole.consume(frame);
+                count++;
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT)
+    public void write() throws Exception {
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            this.outbuf.write(this.frameFactory.createData(1, this.payload.duplicate(), false), this.outputChannel);
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.jmh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * {@link ReadableByteChannel} that replays the same content every time it gets rewound.
+ * Content is returned in fragments of at most the given size in order to simulate
+ * partial reads from a socket.
+ *
+ * @since 5.0
+ */
+public final class ReplayingByteChannel implements ReadableByteChannel {
+
+    private final ByteBuffer content;
+    private final int fragmentSize;
+
+    public ReplayingByteChannel(final byte[] content, final int fragmentSize) {
+        this.content = ByteBuffer.wrap(content);
+        this.fragmentSize = fragmentSize;
+    }
+
+    public void rewind() {
+        this.content.rewind();
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        if (!this.content.hasRemaining()) {
+            return -1;
+        }
+        final int chunk = Math.min(Math.min(this.fragmentSize, dst.remaining()), this.content.remaining());
+        final int limit = this.content.limit();
+        this.content.limit(this.content.position() + chunk);
+        dst.put(this.content);
+        this.content.limit(limit);
+        return chunk;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.jmh;
+
+/**
+ * Sample HTTP/1.1 request heads for message parsing benchmarks.
+ *
+ * @since 5.0
+ */
+public final class RequestHeads {
+
+    private static final String REQUEST_LINE =
+            "GET /search/results?q=http+parser&page=2&lang=en-US HTTP/1.1\r\n";
+
+    private static final String[] BROWSER_HEADERS = {
+            "Host: www.example.com\r\n",
+            "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:56.0) Gecko/20100101 Firefox/56.0\r\n",
+            "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8\r\n",
+            "Accept-Language: en-US,en;q=0.5\r\n",
+            "Accept-Encoding: gzip, deflate, br\r\n",
+            "Cookie: JSESSIONID=1A530637289A03B07199A44E8D531427; _ga=GA1.2.1536289312.1508063283\r\n",
+            "Connection: keep-alive\r\n",
+            "Cache-Control: max-age=0\r\n"
+    };
+
+    private RequestHeads() {
+    }
+
+    /**
+     * Creates a request head with the given number of headers. The first headers are
+     * those a typical browser sends, the rest are the kind of tracing and forwarding
+     * headers added by proxies and gateways.
+     */
+    public static String create(final int headerCount) {
+        final StringBuilder buf = new StringBuilder(REQUEST_LINE);
+        for (int i = 0; i < headerCount; i++) {
+            if (i < BROWSER_HEADERS.length) {
+                buf.append(BROWSER_HEADERS[i]);
+            } else {
+                final int n = i - BROWSER_HEADERS.length;
+                buf.append("X-Gateway-Hop-").append(n).append(": for=10.1.").append(n)
+                        .append(".17; proto=https; by=gateway-").append(n).append(".example.internal\r\n");
+            }
+        }
+        buf.append("\r\n");
+        return buf.toString();
+    }
+
+}
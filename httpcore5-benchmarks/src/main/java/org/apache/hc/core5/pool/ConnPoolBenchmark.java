@@ -0,0 +1,126 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.pool;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.io.GracefullyCloseable;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.util.Timeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lease / release round trips on a shared connection pool by multiple threads.
+ * <p>
+ * The pool is sized so that requests never have to wait for a connection,
+ * so the figures reflect the cost of pool bookkeeping and lock contention only.
+ * Use {@code -t} to vary the number of threads.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ConnPoolBenchmark {
+
+    static class DummyConn implements GracefullyCloseable {
+
+        @Override
+        public void shutdown(final ShutdownType shutdownType) {
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+
+    }
+
+    @Param({"STRICT", "LAX", "STRIPED"})
+    public PoolConcurrencyPolicy policy;
+
+    @Param({"1", "16"})
+    public int routeCount;
+
+    private String[] routes;
+    private ManagedConnPool<String, DummyConn> pool;
+
+    @Setup
+    public void setup() {
+        this.routes = new String[this.routeCount];
+        for (int i = 0; i < this.routes.length; i++) {
+            this.routes[i] = "route-" + i;
+        }
+        final int maxPerRoute = 64;
+        switch (this.policy) {
+            case STRICT:
+                this.pool = new StrictConnPool<>(maxPerRoute, maxPerRoute * this.routeCount);
+                break;
+            case LAX:
+                this.pool = new LaxConnPool<>(maxPerRoute);
+                break;
+            case STRIPED:
+                this.pool = new StripedConnPool<>(maxPerRoute, maxPerRoute * this.routeCount);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported policy: " + this.policy);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pool.shutdown(ShutdownType.IMMEDIATE);
+    }
+
+    @Benchmark
+    public PoolEntry<String, DummyConn> leaseRelease() throws Exception {
+        final String route = this.routes[ThreadLocalRandom.current().nextInt(this.routes.length)];
+        final PoolEntry<String, DummyConn> entry = this.pool.lease(route, null, Timeout.DISABLED, null).get();
+        if (!entry.hasConnection()) {
+            entry.assignConnection(new DummyConn());
+        }
+        this.pool.release(entry, true);
+        return entry;
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.io.ShutdownType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Event processing rate of a server I/O reactor echoing single bytes back to
+ * a number of client connections. Each operation makes every connection
+ * exchange one byte with the server.
+ * <p>
+ * The I/O dispatcher iterates over selected keys without generating garbage
+ * only if it can replace the selected key set of the JRE selector, which with
+ * Java 9 and newer requires
+ * {@code -jvmArgsAppend --add-opens=java.base/sun.nio.ch=ALL-UNNAMED}.
+ * Comparing runs with and without that option isolates the effect.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IOReactorEventBenchmark {
+
+    @Param({"16"})
+    public int connections;
+
+    private DefaultListeningIOReactor ioReactor;
+    private SocketChannel[] channels;
+    private ByteBuffer buffer;
+
+    static class EchoHandler implements IOEventHandler {
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        @Override
+        public void connected(final IOSession session) {
+            session.setEvent(SelectionKey.OP_READ);
+        }
+
+        @Override
+        public void inputReady(final IOSession session) {
+            final ByteChannel channel = session.channel();
+            try {
+                if (channel.read(buffer) < 0) {
+                    session.close();
+                    return;
+                }
+                buffer.flip();
+                channel.write(buffer);
+                buffer.clear();
+            } catch (final IOException ex) {
+                session.close();
+            }
+        }
+
+        @Override
+        public void outputReady(final IOSession session) {
+            session.clearEvent(SelectionKey.OP_WRITE);
+        }
+
+        @Override
+        public void timeout(final IOSession session) {
+            session.close();
+        }
+
+        @Override
+        public void exception(final IOSession session, final Exception cause) {
+            session.close();
+        }
+
+        @Override
+        public void disconnected(final IOSession session) {
+        }
+
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        ioReactor = new DefaultListeningIOReactor(new IOEventHandlerFactory() {
+
+            @Override
+            public IOEventHandler createHandler(final ProtocolIOSession ioSession, final Object attachment) {
+                return new EchoHandler();
+            }
+
+        }, IOReactorConfig.custom()
+                .setIoThreadCount(1)
+                .build(), null);
+        ioReactor.start();
+        final ListenerEndpoint endpoint = ioReactor.listen(new InetSocketAddress("localhost", 0)).get();
+        final InetSocketAddress address = (InetSocketAddress) endpoint.getAddress();
+        channels = new SocketChannel[connections];
+        for (int i = 0; i < connections; i++) {
+            channels[i] = SocketChannel.open(new InetSocketAddress("localhost", address.getPort()));
+            channels[i].socket().setTcpNoDelay(true);
+        }
+        buffer = ByteBuffer.allocateDirect(1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (final SocketChannel channel: channels) {
+            channel.close();
+        }
+        ioReactor.shutdown(ShutdownType.IMMEDIATE);
+    }
+
+    @Benchmark
+    public void exchange() throws IOException {
+        for (final SocketChannel channel: channels) {
+            buffer.clear();
+            channel.write(buffer);
+        }
+        for (final SocketChannel channel: channels) {
+            buffer.clear();
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of stream");
+            }
+        }
+    }
+
+}
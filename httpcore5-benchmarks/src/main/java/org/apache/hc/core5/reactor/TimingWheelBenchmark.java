@@ -0,0 +1,191 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.io.ShutdownType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per select interval cost of session timeout checks with a large number of
+ * idle sessions: {@link TimeoutCheckPolicy#FULL_SCAN} compared to
+ * {@link TimeoutCheckPolicy#TIMING_WHEEL}.
+ * <p>
+ * Each invocation advances the clock by one select interval. Sessions that time out
+ * are immediately replaced by a fresh one in order to keep the number of sessions
+ * constant.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimingWheelBenchmark {
+
+    private static final long SELECT_INTERVAL = 1000;
+    private static final int SOCKET_TIMEOUT = 30000;
+
+    static class IdleChannel extends InternalChannel {
+
+        long lastReadTime;
+
+        IdleChannel(final long lastReadTime) {
+            this.lastReadTime = lastReadTime;
+        }
+
+        @Override
+        void onIOEvent(final int ops) throws IOException {
+        }
+
+        @Override
+        void onTimeout() throws IOException {
+            // Pretend the timed out session got replaced by a new one
+            this.lastReadTime += SOCKET_TIMEOUT;
+        }
+
+        @Override
+        void onException(final Exception cause) {
+        }
+
+        @Override
+        int getTimeout() {
+            return SOCKET_TIMEOUT;
+        }
+
+        @Override
+        long getLastReadTime() {
+            return this.lastReadTime;
+        }
+
+        @Override
+        public void shutdown(final ShutdownType shutdownType) {
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+
+    }
+
+    static class StubSelectionKey extends SelectionKey {
+
+        @Override
+        public SelectableChannel channel() {
+            return null;
+        }
+
+        @Override
+        public Selector selector() {
+            return null;
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public int interestOps() {
+            return SelectionKey.OP_READ;
+        }
+
+        @Override
+        public SelectionKey interestOps(final int ops) {
+            return this;
+        }
+
+        @Override
+        public int readyOps() {
+            return 0;
+        }
+
+    }
+
+    @Param({"10000", "100000"})
+    public int sessionCount;
+
+    private SelectionKey[] keys;
+    private TimingWheel timingWheel;
+    private long now;
+
+    @Setup
+    public void setup() {
+        this.now = 0;
+        this.keys = new SelectionKey[this.sessionCount];
+        this.timingWheel = new TimingWheel(SELECT_INTERVAL, this.now);
+        for (int i = 0; i < this.keys.length; i++) {
+            final SelectionKey key = new StubSelectionKey();
+            // Spread last activity evenly over one timeout period
+            key.attach(new IdleChannel(-(i % SOCKET_TIMEOUT)));
+            this.keys[i] = key;
+            this.timingWheel.schedule(key);
+        }
+        this.timingWheel.expire(this.now);
+    }
+
+    @Benchmark
+    public long fullScan() {
+        this.now += SELECT_INTERVAL;
+        final long currentTime = this.now;
+        for (final SelectionKey key : this.keys) {
+            final Object attachment = key.attachment();
+            if (attachment instanceof InternalChannel) {
+                ((InternalChannel) attachment).checkTimeout(currentTime);
+            }
+        }
+        return currentTime;
+    }
+
+    @Benchmark
+    public long timingWheel() {
+        this.now += SELECT_INTERVAL;
+        this.timingWheel.expire(this.now);
+        return this.now;
+    }
+
+}
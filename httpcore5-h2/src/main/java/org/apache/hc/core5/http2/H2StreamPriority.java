@@ -0,0 +1,76 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2;
+
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * HTTP/2 stream priority weight as defined by RFC 7540, section 5.3.
+ * <p>
+ * The weight of a request stream can be set by placing an {@link Integer}
+ * attribute with the name {@link #WEIGHT} in the execution context
+ * of the request prior to its execution. Streams with a greater weight
+ * are given a proportionally larger share of the connection output.
+ * </p>
+ *
+ * @since 5.0
+ */
+public final class H2StreamPriority {
+
+    public static final int MIN_WEIGHT = 1;
+    public static final int MAX_WEIGHT = 256;
+    public static final int DEFAULT_WEIGHT = 16;
+
+    /**
+     * Attribute name of an {@link Integer} object that represents
+     * the weight of the stream carrying the message exchange.
+     */
+    public static final String WEIGHT = HttpContext.RESERVED_PREFIX + "h2-stream-weight";
+
+    private H2StreamPriority() {
+        // Do not allow utility class to be instantiated.
+    }
+
+    public static void setWeight(final HttpContext context, final int weight) {
+        Args.notNull(context, "HTTP context");
+        context.setAttribute(WEIGHT, Integer.valueOf(
+                Args.checkRange(weight, MIN_WEIGHT, MAX_WEIGHT, "Stream weight")));
+    }
+
+    public static int getWeight(final HttpContext context) {
+        final Object obj = context != null ? context.getAttribute(WEIGHT) : null;
+        if (obj instanceof Integer) {
+            final int weight = ((Integer) obj).intValue();
+            if (weight >= MIN_WEIGHT && weight <= MAX_WEIGHT) {
+                return weight;
+            }
+        }
+        return DEFAULT_WEIGHT;
+    }
+
+}
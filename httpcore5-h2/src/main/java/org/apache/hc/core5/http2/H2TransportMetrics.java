@@ -28,6 +28,7 @@
 package org.apache.hc.core5.http2;
 
 import org.apache.hc.core5.http.io.HttpTransportMetrics;
+import org.apache.hc.core5.http2.frame.FrameType;
 
 /**
  * The point of access to connection statistics.
@@ -38,4 +39,23 @@ public interface H2TransportMetrics extends HttpTransportMetrics {
 
     long getFramesTransferred();
 
+    /**
+     * Returns the number of read or write operations performed on the underlying
+     * channel in order to transfer frames.
+     */
+    long getIoOperations();
+
+    /**
+     * Returns the number of frames of the given type transferred.
+     */
+    long getFramesTransferred(FrameType frameType);
+
+    /**
+     * Returns the total cost charged for received frames against the frame budget
+     * of the connection.
+     *
+     * @see org.apache.hc.core5.http2.config.H2Config#getFrameBudget()
+     */
+    long getFrameCost();
+
 }
@@ -31,6 +31,8 @@
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.http2.frame.FrameConsts;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 /**
  * HTTP/2 protocol configuration.
@@ -48,9 +50,16 @@ public class H2Config {
     private final int initialWindowSize;
     private final int maxFrameSize;
     private final int maxHeaderListSize;
+    private final int outputQuantum;
+    private final ByteBufferAllocator byteBufferAllocator;
+    private final int maxWindowSize;
+    private final int outputBatchSize;
+    private final int frameBudget;
 
     H2Config(final int headerTableSize, final boolean pushEnabled, final int maxConcurrentStreams,
-             final int initialWindowSize, final int maxFrameSize, final int maxHeaderListSize) {
+             final int initialWindowSize, final int maxFrameSize, final int maxHeaderListSize,
+             final int outputQuantum, final ByteBufferAllocator byteBufferAllocator, final int maxWindowSize,
+             final int outputBatchSize, final int frameBudget) {
         super();
         this.headerTableSize = headerTableSize;
         this.pushEnabled = pushEnabled;
@@ -58,6 +67,11 @@ public class H2Config {
         this.initialWindowSize = initialWindowSize;
         this.maxFrameSize = maxFrameSize;
         this.maxHeaderListSize = maxHeaderListSize;
+        this.outputQuantum = outputQuantum;
+        this.byteBufferAllocator = byteBufferAllocator;
+        this.maxWindowSize = maxWindowSize;
+        this.outputBatchSize = outputBatchSize;
+        this.frameBudget = frameBudget;
     }
 
     public int getHeaderTableSize() {
@@ -84,6 +98,59 @@ public int getMaxHeaderListSize() {
         return maxHeaderListSize;
     }
 
+    /**
+     * Returns the number of bytes a stream with the default weight may send
+     * per round of weighted round robin output scheduling before yielding
+     * to other streams.
+     *
+     * @see org.apache.hc.core5.http2.H2StreamPriority
+     */
+    public int getOutputQuantum() {
+        return outputQuantum;
+    }
+
+    /**
+     * Allocator of frame input and output buffers.
+     */
+    public ByteBufferAllocator getByteBufferAllocator() {
+        return byteBufferAllocator;
+    }
+
+    /**
+     * Returns the upper bound of receive windows sized dynamically from the estimated
+     * bandwidth-delay product of the connection. Stream windows start at
+     * {@link #getInitialWindowSize()} and grow up to this value, which also limits
+     * the connection window. Values not greater than the initial window size disable
+     * the dynamic sizing.
+     */
+    public int getMaxWindowSize() {
+        return maxWindowSize;
+    }
+
+    /**
+     * Returns the maximum number of bytes of pending frames aggregated into a single
+     * write operation per output event. Control frames and data frames committed
+     * in between output events are batched together and {@code WINDOW_UPDATE} frames
+     * for the same stream are coalesced. The batch can always hold at least one frame
+     * of {@link #getMaxFrameSize()}. Zero disables batching and frames are written
+     * out as soon as they are committed.
+     */
+    public int getOutputBatchSize() {
+        return outputBatchSize;
+    }
+
+    /**
+     * Returns the maximum cost of frames the opposite endpoint may send per second.
+     * Control frames, {@code HEADERS}, {@code CONTINUATION} and empty {@code DATA}
+     * frames cost one unit each and decoding of header blocks is charged extra in
+     * proportion to their size. The connection is terminated with
+     * {@code ENHANCE_YOUR_CALM} once the budget is exceeded. Zero disables
+     * the accounting.
+     */
+    public int getFrameBudget() {
+        return frameBudget;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -93,6 +160,11 @@ public String toString() {
                 .append(", initialWindowSize=").append(this.initialWindowSize)
                 .append(", maxFrameSize=").append(this.maxFrameSize)
                 .append(", maxHeaderListSize=").append(this.maxHeaderListSize)
+                .append(", outputQuantum=").append(this.outputQuantum)
+                .append(", byteBufferAllocator=").append(this.byteBufferAllocator)
+                .append(", maxWindowSize=").append(this.maxWindowSize)
+                .append(", outputBatchSize=").append(this.outputBatchSize)
+                .append(", frameBudget=").append(this.frameBudget)
                 .append("]");
         return builder.toString();
     }
@@ -109,7 +181,12 @@ public static H2Config.Builder copy(final H2Config config) {
                 .setMaxConcurrentStreams(config.getMaxConcurrentStreams())
                 .setInitialWindowSize(config.getInitialWindowSize())
                 .setMaxFrameSize(config.getMaxFrameSize())
-                .setMaxHeaderListSize(config.getMaxHeaderListSize());
+                .setMaxHeaderListSize(config.getMaxHeaderListSize())
+                .setOutputQuantum(config.getOutputQuantum())
+                .setByteBufferAllocator(config.getByteBufferAllocator())
+                .setMaxWindowSize(config.getMaxWindowSize())
+                .setOutputBatchSize(config.getOutputBatchSize())
+                .setFrameBudget(config.getFrameBudget());
     }
 
     public static class Builder {
@@ -120,6 +197,11 @@ public static class Builder {
         private int initialWindowSize;
         private int maxFrameSize;
         private int maxHeaderListSize;
+        private int outputQuantum;
+        private ByteBufferAllocator byteBufferAllocator;
+        private int maxWindowSize;
+        private int outputBatchSize;
+        private int frameBudget;
 
         Builder() {
             this.headerTableSize = 8192;
@@ -128,6 +210,11 @@ public static class Builder {
             this.initialWindowSize = 65535;
             this.maxFrameSize  = FrameConsts.MIN_FRAME_SIZE * 4;
             this.maxHeaderListSize = FrameConsts.MAX_FRAME_SIZE;
+            this.outputQuantum = FrameConsts.MIN_FRAME_SIZE;
+            this.byteBufferAllocator = HeapByteBufferAllocator.INSTANCE;
+            this.maxWindowSize = 0;
+            this.outputBatchSize = 0;
+            this.frameBudget = 0;
         }
 
         public Builder setHeaderTableSize(final int headerTableSize) {
@@ -165,9 +252,40 @@ public Builder setMaxHeaderListSize(final int maxHeaderListSize) {
             return this;
         }
 
+        public Builder setOutputQuantum(final int outputQuantum) {
+            Args.positive(outputQuantum, "Output quantum");
+            this.outputQuantum = outputQuantum;
+            return this;
+        }
+
+        public Builder setByteBufferAllocator(final ByteBufferAllocator byteBufferAllocator) {
+            this.byteBufferAllocator = byteBufferAllocator;
+            return this;
+        }
+
+        public Builder setMaxWindowSize(final int maxWindowSize) {
+            Args.notNegative(maxWindowSize, "Max window size");
+            this.maxWindowSize = maxWindowSize;
+            return this;
+        }
+
+        public Builder setOutputBatchSize(final int outputBatchSize) {
+            Args.notNegative(outputBatchSize, "Output batch size");
+            this.outputBatchSize = outputBatchSize;
+            return this;
+        }
+
+        public Builder setFrameBudget(final int frameBudget) {
+            Args.notNegative(frameBudget, "Frame budget");
+            this.frameBudget = frameBudget;
+            return this;
+        }
+
         public H2Config build() {
             return new H2Config(
-                    headerTableSize, pushEnabled, maxConcurrentStreams, initialWindowSize, maxFrameSize, maxHeaderListSize);
+                    headerTableSize, pushEnabled, maxConcurrentStreams, initialWindowSize, maxFrameSize, maxHeaderListSize,
+                    outputQuantum, byteBufferAllocator != null ? byteBufferAllocator : HeapByteBufferAllocator.INSTANCE,
+                    maxWindowSize, outputBatchSize, frameBudget);
         }
 
     }
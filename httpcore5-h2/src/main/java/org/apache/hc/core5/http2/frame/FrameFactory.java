@@ -96,6 +96,17 @@ public RawFrame createGoAway(final int lastStream, final H2Error error, final St
 
     public abstract RawFrame createData(int streamId, ByteBuffer payload, boolean endStream);
 
+    public RawFrame createPriority(final int streamId, final int streamDependency, final boolean exclusive, final int weight) {
+        Args.positive(streamId, "Stream id");
+        Args.notNegative(streamDependency, "Stream dependency");
+        Args.checkRange(weight, 1, 256, "Weight");
+        final ByteBuffer payload = ByteBuffer.allocate(5);
+        payload.putInt(exclusive ? streamDependency | 0x80000000 : streamDependency);
+        payload.put((byte) (weight - 1));
+        payload.flip();
+        return new RawFrame(FrameType.PRIORITY.getValue(), 0, streamId, payload);
+    }
+
     public RawFrame createWindowUpdate(final int streamId, final int increment) {
         Args.notNegative(streamId, "Stream id");
         Args.positive(increment, "Increment");
@@ -28,23 +28,36 @@
 package org.apache.hc.core5.http2.hpack;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.hc.core5.util.ByteArrayBuffer;
 
 /**
  * This Huffman codec implementation has been derived from Twitter HPack project
  * (https://github.com/twitter/hpack)
+ * <p>
+ * The decoder consumes input one byte at a time using a state transition
+ * table held in a flat array. Each state corresponds to a partially decoded
+ * code and owns a block of 256 entries, one per possible value of the next
+ * eight input bits. An entry either names the next state or the decoded
+ * symbol together with the number of input bits its code actually takes.
+ * </p>
  */
 final class HuffmanDecoder {
 
-    private final HuffmanNode root;
+    // Entry layout: [terminal flag:1][symbol or next state:20][bits consumed:8]
+    private static final int TERMINAL = 1 << 28;
+
+    private final int[] table;
 
     HuffmanDecoder(final int[] codes, final byte[] lengths) {
-        root = buildTree(codes, lengths);
+        table = buildTable(codes, lengths);
     }
 
     void decode(final ByteArrayBuffer out, final ByteBuffer src) throws HPackException {
-        HuffmanNode node = this.root;
+        final int[] table = this.table;
+        int state = 0;
         int current = 0;
         int bits = 0;
         while (src.hasRemaining()) {
@@ -53,25 +66,28 @@ void decode(final ByteArrayBuffer out, final ByteBuffer src) throws HPackExcepti
             bits += 8;
             while (bits >= 8) {
                 final int c = (current >>> (bits - 8)) & 0xFF;
-                node = node.getChild(c);
-                bits -= node.getBits();
-                if (node.isTerminal()) {
-                    if (node.getSymbol() == Huffman.EOS) {
+                final int entry = table[(state << 8) | c];
+                bits -= entry & 0xFF;
+                if ((entry & TERMINAL) != 0) {
+                    final int symbol = (entry & ~TERMINAL) >>> 8;
+                    if (symbol == Huffman.EOS) {
                         throw new HPackException("EOS decoded");
                     }
-                    out.append(node.getSymbol());
-                    node = root;
+                    out.append(symbol);
+                    state = 0;
+                } else {
+                    state = entry >>> 8;
                 }
             }
         }
 
         while (bits > 0) {
             final int c = (current << (8 - bits)) & 0xFF;
-            node = node.getChild(c);
-            if (node.isTerminal() && node.getBits() <= bits) {
-                bits -= node.getBits();
-                out.append(node.getSymbol());
-                node = this.root;
+            final int entry = table[(state << 8) | c];
+            if ((entry & TERMINAL) != 0 && (entry & 0xFF) <= bits) {
+                bits -= entry & 0xFF;
+                out.append((entry & ~TERMINAL) >>> 8);
+                state = 0;
             } else {
                 break;
             }
@@ -86,35 +102,42 @@ void decode(final ByteArrayBuffer out, final ByteBuffer src) throws HPackExcepti
         }
     }
 
-    private static HuffmanNode buildTree(final int[] codes, final byte[] lengths) {
-        final HuffmanNode root = new HuffmanNode();
+    private static int[] buildTable(final int[] codes, final byte[] lengths) {
+        final List<int[]> states = new ArrayList<>();
+        states.add(new int[256]);
         for (int symbol = 0; symbol < codes.length; symbol++) {
 
             final int code = codes[symbol];
             int length = lengths[symbol];
 
-            HuffmanNode current = root;
+            int state = 0;
             while (length > 8) {
-                if (current.isTerminal()) {
-                    throw new IllegalStateException("Invalid Huffman code: prefix not unique");
-                }
                 length -= 8;
                 final int i = (code >>> length) & 0xFF;
-                if (!current.hasChild(i)) {
-                    current.setChild(i, new HuffmanNode());
+                final int[] block = states.get(state);
+                if (block[i] == 0) {
+                    states.add(new int[256]);
+                    block[i] = ((states.size() - 1) << 8) | 8;
+                } else if ((block[i] & TERMINAL) != 0) {
+                    throw new IllegalStateException("Invalid Huffman code: prefix not unique");
                 }
-                current = current.getChild(i);
+                state = block[i] >>> 8;
             }
 
-            final HuffmanNode terminal = new HuffmanNode(symbol, length);
+            final int terminal = TERMINAL | (symbol << 8) | length;
             final int shift = 8 - length;
             final int start = (code << shift) & 0xFF;
             final int end = 1 << shift;
+            final int[] block = states.get(state);
             for (int i = start; i < start + end; i++) {
-                current.setChild(i, terminal);
+                block[i] = terminal;
             }
         }
-        return root;
+        final int[] table = new int[states.size() << 8];
+        for (int i = 0; i < states.size(); i++) {
+            System.arraycopy(states.get(i), 0, table, i << 8, 256);
+        }
+        return table;
     }
 
-}
\ No newline at end of file
+}
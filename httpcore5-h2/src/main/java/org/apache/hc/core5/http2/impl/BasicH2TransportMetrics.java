@@ -28,9 +28,11 @@
 package org.apache.hc.core5.http2.impl;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
 import org.apache.hc.core5.http2.H2TransportMetrics;
+import org.apache.hc.core5.http2.frame.FrameType;
 
 /**
  * Default implementation of {@link H2TransportMetrics}.
@@ -40,9 +42,15 @@
 public class BasicH2TransportMetrics extends BasicHttpTransportMetrics implements H2TransportMetrics {
 
     private final AtomicLong framesTransferred;
+    private final AtomicLong ioOperations;
+    private final AtomicLongArray framesByType;
+    private final AtomicLong frameCost;
 
     public BasicH2TransportMetrics() {
         this.framesTransferred = new AtomicLong(0);
+        this.ioOperations = new AtomicLong(0);
+        this.framesByType = new AtomicLongArray(FrameType.values().length);
+        this.frameCost = new AtomicLong(0);
     }
 
     @Override
@@ -54,4 +62,34 @@ public void incrementFramesTransferred() {
         framesTransferred.incrementAndGet();
     }
 
+    public void incrementFramesTransferred(final int frameType) {
+        framesTransferred.incrementAndGet();
+        if (frameType >= 0 && frameType < framesByType.length()) {
+            framesByType.incrementAndGet(frameType);
+        }
+    }
+
+    @Override
+    public long getFramesTransferred(final FrameType frameType) {
+        return frameType != null ? framesByType.get(frameType.getValue()) : 0;
+    }
+
+    @Override
+    public long getFrameCost() {
+        return frameCost.get();
+    }
+
+    public void incrementFrameCost(final int cost) {
+        frameCost.addAndGet(cost);
+    }
+
+    @Override
+    public long getIoOperations() {
+        return ioOperations.get();
+    }
+
+    public void incrementIoOperations() {
+        ioOperations.incrementAndGet();
+    }
+
 }
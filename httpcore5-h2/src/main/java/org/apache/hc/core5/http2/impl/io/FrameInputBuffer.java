@@ -84,6 +84,7 @@ void fillBuffer(final InputStream instream, final int requiredLen) throws IOExce
                 off = 0;
             }
             final int bytesRead = instream.read(buffer, off + dataLen, buffer.length - dataLen);
+            metrics.incrementIoOperations();
             if (bytesRead == -1) {
                 if (dataLen > 0) {
                     throw new H2CorruptFrameException("Corrupt or incomplete HTTP2 frame");
@@ -129,7 +130,7 @@ public RawFrame read(final InputStream instream) throws IOException {
         off += frameLen;
         dataLen -= frameLen;
 
-        this.metrics.incrementFramesTransferred();
+        this.metrics.incrementFramesTransferred(type);
 
         return frame;
     }
@@ -103,8 +103,9 @@ public void write(final RawFrame frame, final OutputStream outstream) throws IOE
             buffer[frameLen++] = 0;
         }
         outstream.write(buffer, 0, frameLen);
+        metrics.incrementIoOperations();
 
-        metrics.incrementFramesTransferred();
+        metrics.incrementFramesTransferred(frame.getType());
         metrics.incrementBytesTransferred(frameLen);
     }
 
@@ -33,6 +33,7 @@
 import java.nio.charset.CharacterCodingException;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -40,6 +41,7 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -62,16 +64,19 @@
 import org.apache.hc.core5.http.impl.CharCodingSupport;
 import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
 import org.apache.hc.core5.http.nio.AsyncPushProducer;
+import org.apache.hc.core5.http.nio.RetainableBuffer;
 import org.apache.hc.core5.http.nio.command.ExecutionCommand;
 import org.apache.hc.core5.http.nio.command.ShutdownCommand;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.http2.H2ConnectionException;
 import org.apache.hc.core5.http2.H2Error;
+import org.apache.hc.core5.http2.H2StreamPriority;
 import org.apache.hc.core5.http2.H2StreamResetException;
 import org.apache.hc.core5.http2.config.H2Config;
 import org.apache.hc.core5.http2.config.H2Param;
 import org.apache.hc.core5.http2.config.H2Setting;
+import org.apache.hc.core5.http2.frame.FrameConsts;
 import org.apache.hc.core5.http2.frame.FrameFactory;
 import org.apache.hc.core5.http2.frame.FrameFlag;
 import org.apache.hc.core5.http2.frame.FrameType;
@@ -88,6 +93,8 @@
 import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 import org.apache.hc.core5.util.Identifiable;
 
 abstract class AbstractHttp2StreamMultiplexer implements Identifiable, HttpConnection {
@@ -109,10 +116,15 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
     private final BasicHttpConnectionMetrics connMetrics;
     private final FrameInputBuffer inputBuffer;
     private final FrameOutputBuffer outputBuffer;
+    private final boolean hibernateBuffers;
     private final Deque<RawFrame> outputQueue;
+    private final boolean batchOutput;
+    private final Map<Integer, Integer> pendingWindowUpdates;
     private final HPackEncoder hPackEncoder;
     private final HPackDecoder hPackDecoder;
     private final Map<Integer, Http2Stream> streamMap;
+    private final Http2StreamScheduler<Http2Stream> streamScheduler;
+    private final Http2StreamScheduler.OutputHandler<Http2Stream> streamOutputHandler;
     private final Queue<AsyncPingHandler> pingHandlers;
     private final AtomicInteger connInputWindow;
     private final AtomicInteger connOutputWindow;
@@ -120,12 +132,16 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
     private final AtomicInteger outputRequests;
     private final AtomicInteger lastStreamId;
     private final Http2StreamListener streamListener;
+    private final BdpEstimator bdpEstimator;
+    private final int connWindowSize;
+    private final FrameBudget frameBudget;
 
     private ConnectionHandshake connState = ConnectionHandshake.READY;
     private SettingsHandshake localSettingState = SettingsHandshake.READY;
     private SettingsHandshake remoteSettingState = SettingsHandshake.READY;
     private H2Config remoteConfig;
     private int lowMark;
+    private volatile int localWindowSize;
 
     private Continuation continuation;
 
@@ -150,9 +166,15 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
         this.inputMetrics = new BasicH2TransportMetrics();
         this.outputMetrics = new BasicH2TransportMetrics();
         this.connMetrics = new BasicHttpConnectionMetrics(inputMetrics, outputMetrics);
-        this.inputBuffer = new FrameInputBuffer(this.inputMetrics, this.localConfig.getMaxFrameSize());
-        this.outputBuffer = new FrameOutputBuffer(this.outputMetrics, this.localConfig.getMaxFrameSize());
+        final ByteBufferAllocator allocator = this.localConfig.getByteBufferAllocator();
+        this.inputBuffer = new FrameInputBuffer(this.inputMetrics, this.localConfig.getMaxFrameSize(), allocator);
+        this.outputBuffer = new FrameOutputBuffer(
+                this.outputMetrics, this.localConfig.getMaxFrameSize(), this.localConfig.getOutputBatchSize(), allocator);
+        // Idle buffers are only worth giving up if the allocator can recycle them
+        this.hibernateBuffers = !(allocator instanceof HeapByteBufferAllocator);
         this.outputQueue = new ConcurrentLinkedDeque<>();
+        this.batchOutput = this.localConfig.getOutputBatchSize() > 0;
+        this.pendingWindowUpdates = this.batchOutput ? new LinkedHashMap<Integer, Integer>() : null;
         this.pingHandlers = new ConcurrentLinkedQueue<>();
         this.outputLock = new ReentrantLock();
         this.outputRequests = new AtomicInteger(0);
@@ -160,6 +182,36 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
         this.hPackEncoder = new HPackEncoder(CharCodingSupport.createEncoder(charCodingConfig));
         this.hPackDecoder = new HPackDecoder(CharCodingSupport.createDecoder(charCodingConfig));
         this.streamMap = new ConcurrentHashMap<>();
+        this.streamScheduler = new Http2StreamScheduler<>(this.localConfig.getOutputQuantum());
+        this.streamOutputHandler = new Http2StreamScheduler.OutputHandler<Http2Stream>() {
+
+            @Override
+            public boolean isActive(final Http2Stream stream) {
+                return streamMap.get(stream.getId()) == stream;
+            }
+
+            @Override
+            public void produceOutput(final Http2Stream stream) throws HttpException, IOException {
+                if (!stream.isLocalClosed() && stream.getOutputWindow().get() > 0) {
+                    stream.produceOutput();
+                }
+                if (stream.isTerminated()) {
+                    streamMap.remove(stream.getId());
+                    stream.releaseResources();
+                }
+            }
+
+            @Override
+            public boolean isOutputBlocked() {
+                outputLock.lock();
+                try {
+                    return AbstractHttp2StreamMultiplexer.this.isOutputBlocked();
+                } finally {
+                    outputLock.unlock();
+                }
+            }
+
+        };
         this.connInputWindow = new AtomicInteger(localConfig.getInitialWindowSize());
         this.connOutputWindow = new AtomicInteger(H2Config.DEFAULT.getInitialWindowSize());
 
@@ -169,6 +221,16 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
         this.remoteConfig = H2Config.DEFAULT;
         this.lowMark = this.remoteConfig.getInitialWindowSize() / 2;
         this.streamListener = streamListener;
+        this.localWindowSize = this.localConfig.getInitialWindowSize();
+        if (this.localConfig.getMaxWindowSize() > this.localWindowSize) {
+            this.bdpEstimator = new BdpEstimator(this.localWindowSize, this.localConfig.getMaxWindowSize());
+            this.connWindowSize = this.localConfig.getMaxWindowSize();
+        } else {
+            this.bdpEstimator = null;
+            this.connWindowSize = Integer.MAX_VALUE;
+        }
+        this.frameBudget = this.localConfig.getFrameBudget() > 0 ? new FrameBudget(
+                this.localConfig.getFrameBudget(), TimeUnit.SECONDS.toNanos(1), System.nanoTime()) : null;
     }
 
     @Override
@@ -218,12 +280,42 @@ private int updateOutputWindow(
         return newSize;
     }
 
-    private void commitFrameInternal(final RawFrame frame) throws IOException {
-        if (outputBuffer.isEmpty() && outputQueue.isEmpty()) {
-            if (streamListener != null) {
-                streamListener.onFrameOutput(this, frame.getStreamId(), frame);
-            }
+    private boolean isOutputBlocked() {
+        if (!outputQueue.isEmpty()) {
+            return true;
+        }
+        if (batchOutput) {
+            // Do not fill up the tail of the batch with undersized DATA frames
+            return outputBuffer.getRemainingCapacity() < FrameConsts.HEAD_LEN + FrameConsts.MIN_FRAME_SIZE;
+        }
+        return !outputBuffer.isEmpty();
+    }
+
+    private void writeFrame(final RawFrame frame) throws IOException {
+        if (streamListener != null) {
+            streamListener.onFrameOutput(this, frame.getStreamId(), frame);
+        }
+        if (batchOutput) {
+            outputBuffer.append(frame);
+        } else {
             outputBuffer.write(frame, ioSession.channel());
+        }
+    }
+
+    private void flushOutputBatch() throws IOException {
+        outputLock.lock();
+        try {
+            if (!outputBuffer.isEmpty()) {
+                outputBuffer.flush(ioSession.channel());
+            }
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    private void commitFrameInternal(final RawFrame frame) throws IOException {
+        if (outputQueue.isEmpty() && (batchOutput ? outputBuffer.hasCapacity(frame) : outputBuffer.isEmpty())) {
+            writeFrame(frame);
         } else {
             outputQueue.addLast(frame);
         }
@@ -321,13 +413,24 @@ private void streamDataFrame(
         }
         updateOutputWindow(0, connOutputWindow, -chunk);
         updateOutputWindow(streamId, streamOutputWindow, -chunk);
-        outputBuffer.write(dataFrame, ioSession.channel());
+        if (batchOutput) {
+            outputBuffer.append(dataFrame);
+        } else {
+            outputBuffer.write(dataFrame, ioSession.channel());
+        }
     }
 
     private int streamData(
-            final int streamId, final AtomicInteger streamOutputWindow, final ByteBuffer payload) throws IOException {
-        if (outputBuffer.isEmpty() && outputQueue.isEmpty()) {
-            final int capacity = Math.min(connOutputWindow.get(), streamOutputWindow.get());
+            final int streamId,
+            final AtomicInteger streamOutputWindow,
+            final AtomicInteger streamOutputCredit,
+            final ByteBuffer payload) throws IOException {
+        if (!isOutputBlocked()) {
+            int capacity = Math.min(
+                    Math.min(connOutputWindow.get(), streamOutputWindow.get()), streamOutputCredit.get());
+            if (batchOutput) {
+                capacity = Math.min(capacity, outputBuffer.getRemainingCapacity() - FrameConsts.HEAD_LEN);
+            }
             if (capacity <= 0) {
                 return 0;
             }
@@ -348,6 +451,7 @@ private int streamData(
                 }
             }
             payload.position(payload.position() + chunk);
+            streamOutputCredit.addAndGet(-chunk);
             ioSession.setEvent(SelectionKey.OP_WRITE);
             return chunk;
         } else {
@@ -359,15 +463,52 @@ private void updateInputCapacity(
             final int streamId, final AtomicInteger inputWindow, final int inputCapacity) throws IOException {
         if (inputCapacity > 0) {
             final int streamWinSize = inputWindow.get();
-            final int chunk = inputCapacity - streamWinSize;
+            // With dynamic window sizing the stream window also bounds the amount of data buffered per stream
+            final int chunk = (bdpEstimator != null ? Math.min(inputCapacity, localWindowSize) : inputCapacity) - streamWinSize;
             if (chunk > 0) {
-                final RawFrame windowUpdateFrame = frameFactory.createWindowUpdate(streamId, chunk);
-                commitFrame(windowUpdateFrame);
+                commitWindowUpdate(streamId, chunk);
                 updateInputWindow(streamId, inputWindow, chunk);
             }
         }
     }
 
+    private void commitWindowUpdate(final int streamId, final int delta) throws IOException {
+        if (batchOutput) {
+            // Coalesced with other updates of the same window until the next output event
+            outputLock.lock();
+            try {
+                final Integer pending = pendingWindowUpdates.get(streamId);
+                pendingWindowUpdates.put(streamId, pending != null ? pending + delta : delta);
+            } finally {
+                outputLock.unlock();
+            }
+            ioSession.setEvent(SelectionKey.OP_WRITE);
+        } else {
+            commitFrame(frameFactory.createWindowUpdate(streamId, delta));
+        }
+    }
+
+    private void writeWindowUpdates() throws IOException {
+        for (final Iterator<Map.Entry<Integer, Integer>> it = pendingWindowUpdates.entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<Integer, Integer> entry = it.next();
+            final int streamId = entry.getKey();
+            if (streamId > 0) {
+                final Http2Stream stream = streamMap.get(streamId);
+                if (stream == null || stream.isRemoteClosed() || stream.isLocalReset()) {
+                    // The stream may have been reset after the update got scheduled
+                    it.remove();
+                    continue;
+                }
+            }
+            final RawFrame frame = frameFactory.createWindowUpdate(streamId, entry.getValue());
+            if (!outputBuffer.hasCapacity(frame)) {
+                break;
+            }
+            writeFrame(frame);
+            it.remove();
+        }
+    }
+
     private void requestSessionOutput() {
         outputRequests.incrementAndGet();
         ioSession.setEvent(SelectionKey.OP_WRITE);
@@ -395,16 +536,37 @@ public final void onConnect(final ByteBuffer prefeed) throws HttpException, IOEx
             inputBuffer.put(prefeed);
         }
         connState = ConnectionHandshake.ACTIVE;
-        final RawFrame settingsFrame = frameFactory.createSettings(
+        commitFrame(createLocalSettings());
+        localSettingState = SettingsHandshake.TRANSMITTED;
+    }
+
+    private RawFrame createLocalSettings() {
+        return frameFactory.createSettings(
                 new H2Setting(H2Param.HEADER_TABLE_SIZE, localConfig.getHeaderTableSize()),
                 new H2Setting(H2Param.ENABLE_PUSH, localConfig.isPushEnabled() ? 1 : 0),
                 new H2Setting(H2Param.MAX_CONCURRENT_STREAMS, localConfig.getMaxConcurrentStreams()),
-                new H2Setting(H2Param.INITIAL_WINDOW_SIZE, localConfig.getInitialWindowSize()),
+                new H2Setting(H2Param.INITIAL_WINDOW_SIZE, localWindowSize),
                 new H2Setting(H2Param.MAX_FRAME_SIZE, localConfig.getMaxFrameSize()),
                 new H2Setting(H2Param.MAX_HEADER_LIST_SIZE, localConfig.getMaxHeaderListSize()));
+    }
 
-        commitFrame(settingsFrame);
-        localSettingState = SettingsHandshake.TRANSMITTED;
+    /**
+     * Raises the initial window size of new streams and the windows of open streams
+     * to the given size. Unlike {@code WINDOW_UPDATE}, {@code SETTINGS} also applies
+     * to streams the peer is yet to open.
+     */
+    private void expandLocalWindowSize(final int windowSize) throws IOException {
+        final int delta = windowSize - localWindowSize;
+        if (delta <= 0) {
+            return;
+        }
+        localWindowSize = windowSize;
+        commitFrame(createLocalSettings());
+        for (final Http2Stream stream: streamMap.values()) {
+            if (!stream.isRemoteClosed()) {
+                updateInputWindow(stream.getId(), stream.getInputWindow(), delta);
+            }
+        }
     }
 
     public final void onInput() throws HttpException, IOException {
@@ -418,45 +580,61 @@ public final void onInput() throws HttpException, IOException {
                 }
                 consumeFrame(frame);
             }
+            if (hibernateBuffers) {
+                inputBuffer.hibernate();
+            }
         }
     }
 
     public final void onOutput() throws HttpException, IOException {
+        final int connWinSize = connInputWindow.get();
+        if (connWinSize < lowMark) {
+            final int delta = this.remoteConfig.getInitialWindowSize() - connWinSize;
+            if (delta > 0) {
+                commitWindowUpdate(0, delta);
+                updateInputWindow(0, connInputWindow, delta);
+            }
+        }
+
         outputLock.lock();
         try {
-            if (!outputBuffer.isEmpty()) {
-                outputBuffer.flush(ioSession.channel());
-            }
-            while (outputBuffer.isEmpty()) {
-                final RawFrame frame = outputQueue.poll();
-                if (frame != null) {
-                    if (streamListener != null) {
-                        streamListener.onFrameOutput(this, frame.getStreamId(), frame);
+            if (batchOutput) {
+                // Pending frames get appended to the batch and written out together with DATA frames
+                writeWindowUpdates();
+                for (;;) {
+                    final RawFrame frame = outputQueue.peekFirst();
+                    if (frame != null && outputBuffer.hasCapacity(frame)) {
+                        outputQueue.pollFirst();
+                        writeFrame(frame);
+                    } else {
+                        break;
+                    }
+                }
+            } else {
+                if (!outputBuffer.isEmpty()) {
+                    outputBuffer.flush(ioSession.channel());
+                }
+                while (outputBuffer.isEmpty()) {
+                    final RawFrame frame = outputQueue.poll();
+                    if (frame != null) {
+                        writeFrame(frame);
+                    } else {
+                        break;
                     }
-                    outputBuffer.write(frame, ioSession.channel());
-                } else {
-                    break;
                 }
             }
         } finally {
             outputLock.unlock();
         }
 
-        final int connWinSize = connInputWindow.get();
-        if (connWinSize < lowMark) {
-            final int delta = this.remoteConfig.getInitialWindowSize() - connWinSize;
-            if (delta > 0) {
-                final RawFrame windowUpdateFrame = frameFactory.createWindowUpdate(0, delta);
-                commitFrame(windowUpdateFrame);
-                updateInputWindow(0, connInputWindow, delta);
-            }
-        }
-
         if (connState.compareTo(ConnectionHandshake.SHUTDOWN) < 0) {
 
             if (connOutputWindow.get() > 0 && remoteSettingState == SettingsHandshake.ACKED) {
                 produceOutput();
             }
+            if (batchOutput) {
+                flushOutputBatch();
+            }
             final int pendingOutputRequests = outputRequests.get();
             boolean outputPending = false;
             if (!streamMap.isEmpty() && connOutputWindow.get() > 0) {
@@ -474,7 +652,8 @@ public final void onOutput() throws HttpException, IOException {
             if (!outputPending) {
                 outputLock.lock();
                 try {
-                    if (!outputBuffer.isEmpty() || !outputQueue.isEmpty()) {
+                    if (!outputBuffer.isEmpty() || !outputQueue.isEmpty()
+                            || (batchOutput && !pendingWindowUpdates.isEmpty())) {
                         outputPending = true;
                     }
                 } finally {
@@ -486,6 +665,8 @@ public final void onOutput() throws HttpException, IOException {
             } else {
                 outputRequests.addAndGet(-pendingOutputRequests);
             }
+        } else if (batchOutput) {
+            flushOutputBatch();
         }
 
         if (connState.compareTo(ConnectionHandshake.ACTIVE) <= 0 && remoteSettingState == SettingsHandshake.ACKED) {
@@ -504,6 +685,16 @@ public final void onOutput() throws HttpException, IOException {
                 connState = ConnectionHandshake.SHUTDOWN;
             }
         }
+        if (hibernateBuffers) {
+            outputLock.lock();
+            try {
+                if (outputQueue.isEmpty()) {
+                    outputBuffer.hibernate();
+                }
+            } finally {
+                outputLock.unlock();
+            }
+        }
         if (connState.compareTo(ConnectionHandshake.SHUTDOWN) >= 0) {
             outputLock.lock();
             try {
@@ -532,6 +723,7 @@ public final void onTimeout() throws HttpException, IOException {
             stream.reset(new H2StreamResetException(H2Error.NO_ERROR, "Timeout due to inactivity"));
         }
         streamMap.clear();
+        streamScheduler.clear();
     }
 
     public final void onDisconnect() {
@@ -562,6 +754,13 @@ public final void onDisconnect() {
                 break;
             }
         }
+        inputBuffer.release();
+        outputLock.lock();
+        try {
+            outputBuffer.release();
+        } finally {
+            outputLock.unlock();
+        }
     }
 
     private void processPendingCommands() throws IOException, HttpException {
@@ -579,6 +778,7 @@ private void processPendingCommands() throws IOException, HttpException {
                         stream.cancel();
                     }
                     streamMap.clear();
+                    streamScheduler.clear();
                     connState = ConnectionHandshake.SHUTDOWN;
                 } else {
                     if (connState.compareTo(ConnectionHandshake.ACTIVE) <= 0) {
@@ -597,7 +797,7 @@ private void processPendingCommands() throws IOException, HttpException {
                 final Http2StreamChannelImpl channel = new Http2StreamChannelImpl(
                         streamId,
                         true,
-                        localConfig.getInitialWindowSize(),
+                        localWindowSize,
                         remoteConfig.getInitialWindowSize());
                 final AsyncClientExchangeHandler exchangeHandler = executionCommand.getExchangeHandler();
                 final CancellableDependency cancellableDependency = executionCommand.getCancellableDependency();
@@ -612,6 +812,7 @@ private void processPendingCommands() throws IOException, HttpException {
                         context);
                 final Http2Stream stream = new Http2Stream(channel, streamHandler, false);
                 streamMap.put(streamId, stream);
+                streamScheduler.add(stream);
 
                 if (stream.isOutputReady()) {
                     stream.produceOutput();
@@ -673,6 +874,7 @@ public final void onException(final Exception cause) {
                 stream.releaseResources();
             }
             streamMap.clear();
+            streamScheduler.clear();
             if (!(cause instanceof ConnectionClosedException)) {
                 if (connState.compareTo(ConnectionHandshake.GRACEFUL_SHUTDOWN) <= 0) {
                     final H2Error errorCode;
@@ -685,6 +887,9 @@ public final void onException(final Exception cause) {
                     }
                     final RawFrame goAway = frameFactory.createGoAway(processedRemoteStreamId, errorCode, cause.getMessage());
                     commitFrame(goAway);
+                    if (batchOutput) {
+                        flushOutputBatch();
+                    }
                 }
             }
             connState = ConnectionHandshake.SHUTDOWN;
@@ -715,6 +920,11 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
         if (continuation != null && frameType != FrameType.CONTINUATION) {
             throw new H2ConnectionException(H2Error.PROTOCOL_ERROR, "CONTINUATION frame expected");
         }
+        if (frameBudget != null) {
+            final int cost = FrameBudget.getCost(frame);
+            inputMetrics.incrementFrameCost(cost);
+            frameBudget.chargeFrame(frame.getType(), cost, System.nanoTime());
+        }
         if (connState.compareTo(ConnectionHandshake.GRACEFUL_SHUTDOWN) >= 0) {
             if (streamId > processedRemoteStreamId && !idGenerator.isSameSide(streamId)) {
                 // ignore the frame
@@ -751,7 +961,7 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                     final Http2StreamChannelImpl channel = new Http2StreamChannelImpl(
                             streamId,
                             false,
-                            localConfig.getInitialWindowSize(),
+                            localWindowSize,
                             remoteConfig.getInitialWindowSize());
                     final Http2StreamHandler streamHandler = createRemotelyInitiatedStream(
                             channel, httpProcessor, connMetrics);
@@ -760,6 +970,7 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                         stream.produceOutput();
                     }
                     streamMap.put(streamId, stream);
+                    streamScheduler.add(stream);
                 }
 
                 try {
@@ -858,9 +1069,13 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                     throw new H2ConnectionException(H2Error.FRAME_SIZE_ERROR, "Invalid PING frame payload");
                 }
                 if (frame.isFlagSet(FrameFlag.ACK)) {
-                    final AsyncPingHandler pingHandler = pingHandlers.poll();
-                    if (pingHandler != null) {
-                        pingHandler.consumeResponse(ping);
+                    if (bdpEstimator != null && BdpEstimator.isProbe(ping)) {
+                        expandLocalWindowSize(bdpEstimator.onPingAck(System.nanoTime()));
+                    } else {
+                        final AsyncPingHandler pingHandler = pingHandlers.poll();
+                        if (pingHandler != null) {
+                            pingHandler.consumeResponse(ping);
+                        }
                     }
                 } else {
                     final ByteBuffer pong = ByteBuffer.allocate(ping.remaining());
@@ -896,9 +1111,27 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                 }
             }
             break;
-            case PRIORITY:
-                // Stream priority not supported
-                break;
+            case PRIORITY: {
+                if (streamId == 0) {
+                    throw new H2ConnectionException(H2Error.PROTOCOL_ERROR, "Illegal stream id: " + streamId);
+                }
+                final ByteBuffer payload = frame.getPayload();
+                if (payload == null || payload.remaining() != 5) {
+                    throw new H2ConnectionException(H2Error.FRAME_SIZE_ERROR, "Invalid PRIORITY frame payload");
+                }
+                final Http2Stream stream = streamMap.get(streamId);
+                try {
+                    consumePriority(streamId, payload, stream);
+                } catch (final H2StreamResetException ex) {
+                    if (stream != null) {
+                        stream.localReset(ex);
+                    } else if (streamId <= lastStreamId.get()) {
+                        commitFrame(frameFactory.createResetStream(streamId, ex.getCode()));
+                    }
+                    // RST_STREAM must not be sent for idle streams
+                }
+            }
+            break;
             case PUSH_PROMISE: {
                 if (mode == Mode.SERVER) {
                     throw new H2ConnectionException(H2Error.PROTOCOL_ERROR, "Push not supported");
@@ -930,12 +1163,13 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                 final Http2StreamChannelImpl channel = new Http2StreamChannelImpl(
                         promisedStreamId,
                         false,
-                        localConfig.getInitialWindowSize(),
+                        localWindowSize,
                         remoteConfig.getInitialWindowSize());
                 final Http2StreamHandler streamHandler = createRemotelyInitiatedStream(
                         channel, httpProcessor, connMetrics);
                 final Http2Stream promisedStream = new Http2Stream(channel, streamHandler, true);
                 streamMap.put(promisedStreamId, promisedStream);
+                streamScheduler.add(promisedStream);
 
                 try {
                     consumePushPromiseFrame(frame, payload, promisedStream);
@@ -974,6 +1208,7 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                         stream.reset(new H2StreamResetException(errorCode, "Connection terminated by the peer"));
                     }
                     streamMap.clear();
+                    streamScheduler.clear();
                     connState = ConnectionHandshake.SHUTDOWN;
                 }
             }
@@ -988,18 +1223,22 @@ private void consumeDataFrame(final RawFrame frame, final Http2Stream stream) th
         if (payload != null) {
             final int frameLength = frame.getLength();
             final int streamWinSize = updateInputWindow(streamId, stream.getInputWindow(), -frameLength);
-            if (streamWinSize < lowMark && !stream.isRemoteClosed()) {
+            final int streamLowMark = bdpEstimator != null ? Math.max(localWindowSize / 2, lowMark) : lowMark;
+            if (streamWinSize < streamLowMark && !stream.isRemoteClosed()) {
                 stream.produceInputCapacityUpdate();
             }
             final int connWinSize = updateInputWindow(0, connInputWindow, -frameLength);
-            if (connWinSize < lowMark) {
-                final int chunk = Integer.MAX_VALUE - connWinSize;
+            final int connLowMark = bdpEstimator != null ? Math.max(connWindowSize / 2, lowMark) : lowMark;
+            if (connWinSize < connLowMark) {
+                final int chunk = connWindowSize - connWinSize;
                 if (chunk > 0) {
-                    final RawFrame windowUpdateFrame = frameFactory.createWindowUpdate(0, chunk);
-                    commitFrame(windowUpdateFrame);
+                    commitWindowUpdate(0, chunk);
                     updateInputWindow(0, connInputWindow, chunk);
                 }
             }
+            if (bdpEstimator != null && bdpEstimator.onData(frameLength, System.nanoTime())) {
+                commitFrame(frameFactory.createPing(BdpEstimator.createPingData()));
+            }
         }
         if (stream.isRemoteClosed()) {
             throw new H2StreamResetException(H2Error.STREAM_CLOSED, "Stream already closed");
@@ -1010,7 +1249,29 @@ private void consumeDataFrame(final RawFrame frame, final Http2Stream stream) th
         if (frame.isFlagSet(FrameFlag.END_STREAM)) {
             stream.setRemoteEndStream();
         }
-        stream.consumeData(payload);
+        if (payload != null && stream.isRetainingData()) {
+            // Hand over the payload without copying. Stream credit is returned once it has been released.
+            final RetainedPayload retainedPayload = new RetainedPayload(
+                    stream, inputBuffer.retainStorage(), payload, frame.getLength());
+            try {
+                stream.consumeData(retainedPayload);
+            } finally {
+                retainedPayload.release();
+            }
+        } else {
+            stream.consumeData(payload);
+        }
+    }
+
+    private List<Header> decodeHeaders(final ByteBuffer src) throws HttpException, IOException {
+        final int blockLength = src.remaining();
+        final List<Header> headers = hPackDecoder.decodeHeaders(src);
+        if (frameBudget != null) {
+            final int cost = FrameBudget.getHeaderCost(blockLength, headers.size());
+            inputMetrics.incrementFrameCost(cost);
+            frameBudget.charge(cost);
+        }
+        return headers;
     }
 
     private void consumePushPromiseFrame(final RawFrame frame, final ByteBuffer payload, final Http2Stream promisedStream) throws HttpException, IOException {
@@ -1019,7 +1280,7 @@ private void consumePushPromiseFrame(final RawFrame frame, final ByteBuffer payl
             continuation = new Continuation(promisedStreamId, frame.getType(), true);
         }
         if (continuation == null) {
-            final List<Header> headers = hPackDecoder.decodeHeaders(payload);
+            final List<Header> headers = decodeHeaders(payload);
             if (promisedStreamId > processedRemoteStreamId) {
                 processedRemoteStreamId = promisedStreamId;
             }
@@ -1041,13 +1302,20 @@ private void consumeHeaderFrame(final RawFrame frame, final Http2Stream stream)
             continuation = new Continuation(streamId, frame.getType(), frame.isFlagSet(FrameFlag.END_STREAM));
         }
         final ByteBuffer payload = frame.getPayloadContent();
+        H2StreamResetException priorityError = null;
         if (frame.isFlagSet(FrameFlag.PRIORITY)) {
-            // Priority not supported
-            payload.getInt();
-            payload.get();
+            try {
+                consumePriority(streamId, payload, stream);
+            } catch (final H2StreamResetException ex) {
+                // The header block must still be decoded to keep the HPACK state in sync
+                priorityError = ex;
+            }
         }
         if (continuation == null) {
-            final List<Header> headers = hPackDecoder.decodeHeaders(payload);
+            final List<Header> headers = decodeHeaders(payload);
+            if (priorityError != null) {
+                throw priorityError;
+            }
             if (stream.isRemoteInitiated() && streamId > processedRemoteStreamId) {
                 processedRemoteStreamId = streamId;
             }
@@ -1069,6 +1337,20 @@ private void consumeHeaderFrame(final RawFrame frame, final Http2Stream stream)
             stream.consumeHeader(headers);
         } else {
             continuation.copyPayload(payload);
+            continuation.resetCause = priorityError;
+        }
+    }
+
+    private void consumePriority(
+            final int streamId, final ByteBuffer payload, final Http2Stream stream) throws H2StreamResetException {
+        final int streamDependency = payload.getInt() & 0x7fffffff;
+        final int weight = (payload.get() & 0xff) + 1;
+        if (streamDependency == streamId) {
+            throw new H2StreamResetException(H2Error.PROTOCOL_ERROR, "Stream cannot depend on itself");
+        }
+        // Stream dependencies are not tracked; weights are applied to streams as given
+        if (stream != null) {
+            stream.setWeight(weight);
         }
     }
 
@@ -1077,7 +1359,12 @@ private void consumeContinuationFrame(final RawFrame frame, final Http2Stream st
         final ByteBuffer payload = frame.getPayload();
         continuation.copyPayload(payload);
         if (frame.isFlagSet(FrameFlag.END_HEADERS)) {
-            final List<Header> headers = hPackDecoder.decodeHeaders(continuation.getContent());
+            final List<Header> headers = decodeHeaders(continuation.getContent());
+            if (continuation.resetCause != null) {
+                final H2StreamResetException resetCause = continuation.resetCause;
+                continuation = null;
+                throw resetCause;
+            }
             if (stream.isRemoteInitiated() && streamId > processedRemoteStreamId) {
                 processedRemoteStreamId = streamId;
             }
@@ -1171,20 +1458,7 @@ private void consumeSettingsFrame(final ByteBuffer payload) throws HttpException
     }
 
     private void produceOutput() throws HttpException, IOException {
-        for (final Iterator<Map.Entry<Integer, Http2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-            final Map.Entry<Integer, Http2Stream> entry = it.next();
-            final Http2Stream stream = entry.getValue();
-            if (!stream.isLocalClosed() && stream.getOutputWindow().get() > 0) {
-                stream.produceOutput();
-            }
-            if (stream.isTerminated()) {
-                it.remove();
-                stream.releaseResources();
-            }
-            if (!outputQueue.isEmpty()) {
-                break;
-            }
-        }
+        streamScheduler.produceOutput(streamOutputHandler);
     }
 
     @Override
@@ -1248,6 +1522,8 @@ private static class Continuation {
         final boolean endStream;
         final ByteArrayBuffer headerBuffer;
 
+        H2StreamResetException resetCause;
+
         private Continuation(final int streamId, final int type, final boolean endStream) {
             this.streamId = streamId;
             this.type = type;
@@ -1274,7 +1550,10 @@ private class Http2StreamChannelImpl implements Http2StreamChannel {
         private final int id;
         private final AtomicInteger inputWindow;
         private final AtomicInteger outputWindow;
+        private final AtomicInteger outputCredit;
+        private final AtomicInteger releasedInput;
 
+        private volatile int weight;
         private volatile boolean idle;
         private volatile boolean remoteEndStream;
         private volatile boolean localEndStream;
@@ -1286,6 +1565,9 @@ private class Http2StreamChannelImpl implements Http2StreamChannel {
             this.idle = idle;
             this.inputWindow = new AtomicInteger(initialInputWindowSize);
             this.outputWindow = new AtomicInteger(initialOutputWindowSize);
+            this.outputCredit = new AtomicInteger(0);
+            this.releasedInput = new AtomicInteger(0);
+            this.weight = H2StreamPriority.DEFAULT_WEIGHT;
         }
 
         int getId() {
@@ -1300,6 +1582,20 @@ AtomicInteger getInputWindow() {
             return inputWindow;
         }
 
+        AtomicInteger getOutputCredit() {
+            return outputCredit;
+        }
+
+        int getWeight() {
+            return weight;
+        }
+
+        @Override
+        public void setWeight(final int weight) {
+            this.weight = Args.checkRange(weight, H2StreamPriority.MIN_WEIGHT, H2StreamPriority.MAX_WEIGHT,
+                    "Stream weight");
+        }
+
         @Override
         public void submit(final List<Header> headers, final boolean endStream) throws IOException {
             outputLock.lock();
@@ -1312,6 +1608,9 @@ public void submit(final List<Header> headers, final boolean endStream) throws I
                 }
                 idle = false;
                 commitHeaders(id, headers, endStream);
+                if (mode == Mode.CLIENT && weight != H2StreamPriority.DEFAULT_WEIGHT) {
+                    commitFrameInternal(frameFactory.createPriority(id, 0, false, weight));
+                }
                 if (endStream) {
                     localEndStream = true;
                 }
@@ -1329,7 +1628,7 @@ public void push(final List<Header> headers, final AsyncPushProducer pushProduce
             final Http2StreamChannelImpl channel = new Http2StreamChannelImpl(
                     promisedStreamId,
                     true,
-                    localConfig.getInitialWindowSize(),
+                    localWindowSize,
                     remoteConfig.getInitialWindowSize());
             final HttpCoreContext context = HttpCoreContext.create();
             context.setAttribute(HttpCoreContext.SSL_SESSION, getSSLSession());
@@ -1338,6 +1637,7 @@ public void push(final List<Header> headers, final AsyncPushProducer pushProduce
                     channel, httpProcessor, connMetrics, pushProducer, context);
             final Http2Stream stream = new Http2Stream(channel, streamHandler, false);
             streamMap.put(promisedStreamId, stream);
+            streamScheduler.add(stream);
 
             outputLock.lock();
             try {
@@ -1360,6 +1660,20 @@ public void update(final int increment) throws IOException {
             updateInputCapacity(id, inputWindow, increment);
         }
 
+        void releaseInput(final int length) throws IOException {
+            if (remoteEndStream || isLocalReset()) {
+                return;
+            }
+            // Return credit in chunks of at least half the window to avoid a WINDOW_UPDATE per frame
+            if (releasedInput.addAndGet(length) >= Math.max(localWindowSize / 2, 1)) {
+                final int increment = releasedInput.getAndSet(0);
+                if (increment > 0) {
+                    commitWindowUpdate(id, increment);
+                    updateInputWindow(id, inputWindow, increment);
+                }
+            }
+        }
+
         @Override
         public int write(final ByteBuffer payload) throws IOException {
             outputLock.lock();
@@ -1367,7 +1681,7 @@ public int write(final ByteBuffer payload) throws IOException {
                 if (localEndStream) {
                     return 0;
                 }
-                return streamData(id, outputWindow, payload);
+                return streamData(id, outputWindow, outputCredit, payload);
             } finally {
                 outputLock.unlock();
             }
@@ -1465,6 +1779,7 @@ public String toString() {
                     "id=" + id +
                     ", inputWindow=" + inputWindow +
                     ", outputWindow=" + outputWindow +
+                    ", weight=" + weight +
                     ", remoteEndStream=" + remoteEndStream +
                     ", localEndStream=" + localEndStream +
                     ']';
@@ -1472,7 +1787,7 @@ public String toString() {
 
     }
 
-    private static class Http2Stream {
+    private static class Http2Stream implements Http2StreamScheduler.Stream {
 
         private final Http2StreamChannelImpl channel;
         private final Http2StreamHandler handler;
@@ -1503,6 +1818,20 @@ AtomicInteger getInputWindow() {
             return channel.getInputWindow();
         }
 
+        @Override
+        public AtomicInteger getOutputCredit() {
+            return channel.getOutputCredit();
+        }
+
+        @Override
+        public int getWeight() {
+            return channel.getWeight();
+        }
+
+        void setWeight(final int weight) {
+            channel.setWeight(weight);
+        }
+
         boolean isTerminated() {
             return channel.isLocalClosed() && (channel.isRemoteClosed() || channel.isResetDeadline());
         }
@@ -1550,6 +1879,22 @@ void consumeData(final ByteBuffer src) throws HttpException, IOException {
             }
         }
 
+        boolean isRetainingData() {
+            return handler.isRetainingData();
+        }
+
+        void consumeData(final RetainableBuffer src) throws HttpException, IOException {
+            try {
+                handler.consumeData(src, channel.isRemoteClosed());
+            } catch (final ProtocolException ex) {
+                localReset(ex, H2Error.PROTOCOL_ERROR);
+            }
+        }
+
+        void releaseInput(final int length) throws IOException {
+            channel.releaseInput(length);
+        }
+
         boolean isOutputReady() {
             return handler.isOutputReady();
         }
@@ -1607,4 +1952,71 @@ public String toString() {
 
     }
 
+    private static final class RetainedPayload implements RetainableBuffer {
+
+        private final Http2Stream stream;
+        private final FrameInputBuffer.Storage storage;
+        private final ByteBuffer payload;
+        private final int frameLength;
+        private final AtomicInteger refCount;
+
+        RetainedPayload(
+                final Http2Stream stream,
+                final FrameInputBuffer.Storage storage,
+                final ByteBuffer payload,
+                final int frameLength) {
+            this.stream = stream;
+            this.storage = storage;
+            this.payload = payload.slice();
+            this.frameLength = frameLength;
+            this.refCount = new AtomicInteger(1);
+        }
+
+        @Override
+        public ByteBuffer data() {
+            return payload.duplicate();
+        }
+
+        @Override
+        public int length() {
+            return payload.remaining();
+        }
+
+        @Override
+        public RetainableBuffer retain() {
+            for (;;) {
+                final int count = refCount.get();
+                if (count <= 0) {
+                    throw new IllegalStateException("Buffer already released");
+                }
+                if (refCount.compareAndSet(count, count + 1)) {
+                    return this;
+                }
+            }
+        }
+
+        @Override
+        public boolean release() {
+            final int count = refCount.decrementAndGet();
+            if (count < 0) {
+                throw new IllegalStateException("Buffer already released");
+            }
+            if (count > 0) {
+                return false;
+            }
+            storage.release();
+            try {
+                stream.releaseInput(frameLength);
+            } catch (final IOException ignore) {
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "[length=" + length() + ", refCount=" + refCount.get() + "]";
+        }
+
+    }
+
 }
@@ -0,0 +1,117 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Estimates the bandwidth-delay product of an HTTP/2 connection by measuring
+ * how many bytes arrive over the round trip of a PING frame.
+ * <p>
+ * A PING gets sent with the first DATA frame received while no probe is
+ * outstanding. Once it is acknowledged, the bytes received in the meantime
+ * give a BDP sample. If the sample is close to the current estimate and the
+ * bandwidth is at least as high as the best one observed so far, the peer is
+ * likely to be limited by the receive window and the estimate is doubled.
+ * This follows the approach of the gRPC transports.
+ * </p>
+ * <p>
+ * Instances are not thread-safe and are expected to be used by the I/O thread only.
+ * </p>
+ */
+final class BdpEstimator {
+
+    private static final byte[] PING_DATA = new byte[] {'*', '*', 'b', 'd', 'p', '*', '*', '*'};
+
+    private final int maxWindowSize;
+
+    private int estimate;
+    private long sample;
+    private boolean probing;
+    private long probeStart;
+    private double maxBandwidth;
+
+    BdpEstimator(final int initialWindowSize, final int maxWindowSize) {
+        this.estimate = initialWindowSize;
+        this.maxWindowSize = maxWindowSize;
+    }
+
+    /**
+     * Returns the current BDP estimate.
+     */
+    int getEstimate() {
+        return estimate;
+    }
+
+    /**
+     * Accounts for a received DATA frame.
+     *
+     * @return {@code true} if a PING probe should be sent.
+     */
+    boolean onData(final int bytes, final long nanoTime) {
+        if (estimate >= maxWindowSize) {
+            return false;
+        }
+        if (probing) {
+            sample += bytes;
+            return false;
+        }
+        probing = true;
+        probeStart = nanoTime;
+        sample = bytes;
+        return true;
+    }
+
+    /**
+     * Completes the outstanding probe.
+     *
+     * @return new BDP estimate.
+     */
+    int onPingAck(final long nanoTime) {
+        if (!probing) {
+            return estimate;
+        }
+        probing = false;
+        final long rtt = Math.max(nanoTime - probeStart, 1L);
+        final double bandwidth = (double) sample / rtt;
+        if (sample >= estimate * 2L / 3 && bandwidth >= maxBandwidth) {
+            maxBandwidth = bandwidth;
+            estimate = (int) Math.min(sample * 2, maxWindowSize);
+        }
+        return estimate;
+    }
+
+    static ByteBuffer createPingData() {
+        return ByteBuffer.wrap(PING_DATA);
+    }
+
+    static boolean isProbe(final ByteBuffer data) {
+        return data.remaining() == PING_DATA.length && data.equals(ByteBuffer.wrap(PING_DATA));
+    }
+
+}
@@ -47,10 +47,13 @@
 import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
 import org.apache.hc.core5.http.nio.RequestChannel;
+import org.apache.hc.core5.http.nio.RetainableBuffer;
+import org.apache.hc.core5.http.nio.RetainingDataConsumer;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.http2.H2ConnectionException;
 import org.apache.hc.core5.http2.H2Error;
+import org.apache.hc.core5.http2.H2StreamPriority;
 import org.apache.hc.core5.http2.impl.DefaultH2RequestConverter;
 import org.apache.hc.core5.http2.impl.DefaultH2ResponseConverter;
 
@@ -132,6 +135,7 @@ private void commitRequest(final HttpRequest request, final EntityDetails entity
             httpProcessor.process(request, entityDetails, context);
 
             final List<Header> headers = DefaultH2RequestConverter.INSTANCE.convert(request);
+            outputChannel.setWeight(H2StreamPriority.getWeight(context));
             outputChannel.submit(headers, entityDetails == null);
             connMetrics.incrementRequestCount();
 
@@ -238,6 +242,23 @@ public void consumeData(final ByteBuffer src, final boolean endStream) throws Ht
         }
     }
 
+    @Override
+    public boolean isRetainingData() {
+        return exchangeHandler instanceof RetainingDataConsumer;
+    }
+
+    @Override
+    public void consumeData(final RetainableBuffer src, final boolean endStream) throws HttpException, IOException {
+        if (done.get() || responseState != MessageState.BODY) {
+            throw new ProtocolException("Unexpected message data");
+        }
+        ((RetainingDataConsumer) exchangeHandler).consume(src);
+        if (endStream) {
+            responseState = MessageState.COMPLETE;
+            exchangeHandler.streamEnd(null);
+        }
+    }
+
     @Override
     public void failed(final Exception cause) {
         try {
@@ -43,6 +43,8 @@
 import org.apache.hc.core5.http.impl.nio.MessageState;
 import org.apache.hc.core5.http.nio.AsyncPushConsumer;
 import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.http.nio.RetainableBuffer;
+import org.apache.hc.core5.http.nio.RetainingDataConsumer;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.http2.H2ConnectionException;
@@ -167,6 +169,24 @@ public void consumeData(final ByteBuffer src, final boolean endStream) throws Ht
         }
     }
 
+    @Override
+    public boolean isRetainingData() {
+        return exchangeHandler instanceof RetainingDataConsumer;
+    }
+
+    @Override
+    public void consumeData(final RetainableBuffer src, final boolean endStream) throws HttpException, IOException {
+        if (responseState != MessageState.BODY) {
+            throw new ProtocolException("Unexpected message data");
+        }
+        Asserts.notNull(exchangeHandler, "Exchange handler");
+        ((RetainingDataConsumer) exchangeHandler).consume(src);
+        if (endStream) {
+            responseState = MessageState.COMPLETE;
+            exchangeHandler.streamEnd(null);
+        }
+    }
+
     public boolean isDone() {
         return responseState == MessageState.COMPLETE;
     }
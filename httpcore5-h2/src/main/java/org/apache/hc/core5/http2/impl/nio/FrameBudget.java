@@ -0,0 +1,155 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hc.core5.http2.H2ConnectionException;
+import org.apache.hc.core5.http2.H2Error;
+import org.apache.hc.core5.http2.frame.FrameFlag;
+import org.apache.hc.core5.http2.frame.FrameType;
+import org.apache.hc.core5.http2.frame.RawFrame;
+
+/**
+ * Charges the cost of processing frames received from the opposite endpoint
+ * against a budget replenished at the start of every time window.
+ * <p>
+ * Frames that make the endpoint do work without letting any application data
+ * through, such as control frames, header blocks and empty {@code DATA} frames,
+ * cost one unit each. Decoding of header blocks is charged an extra unit per
+ * kilobyte of the encoded block and per sixteen decoded fields. Non-empty
+ * {@code DATA} frames and {@code WINDOW_UPDATE} frames are already bounded by flow
+ * control and cost nothing. Once the total cost within a window exceeds the budget
+ * the connection is considered abusive and gets terminated with
+ * {@link H2Error#ENHANCE_YOUR_CALM}.
+ * </p>
+ * <p>
+ * Instances are not thread-safe and are expected to be used by the I/O thread only.
+ * </p>
+ */
+final class FrameBudget {
+
+    static final int HPACK_BYTES_PER_UNIT = 1024;
+    static final int HPACK_FIELDS_PER_UNIT = 16;
+
+    private final int budget;
+    private final long windowNanos;
+    private final int[] frameCounts;
+
+    private long windowStart;
+    private long windowCost;
+
+    FrameBudget(final int budget, final long windowNanos, final long nanoTime) {
+        this.budget = budget;
+        this.windowNanos = windowNanos;
+        this.frameCounts = new int[FrameType.values().length];
+        this.windowStart = nanoTime;
+    }
+
+    /**
+     * Returns the cost of processing the given frame, excluding header decoding.
+     */
+    static int getCost(final RawFrame frame) {
+        final FrameType frameType = FrameType.valueOf(frame.getType());
+        if (frameType == null) {
+            return 1;
+        }
+        switch (frameType) {
+            case DATA:
+                if (frame.isFlagSet(FrameFlag.END_STREAM)) {
+                    return 0;
+                }
+                final ByteBuffer payload = frame.getPayloadContent();
+                return payload == null || !payload.hasRemaining() ? 1 : 0;
+            case WINDOW_UPDATE:
+                return 0;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Returns the cost of decoding a header block of the given length into
+     * the given number of fields.
+     */
+    static int getHeaderCost(final int blockLength, final int fieldCount) {
+        return blockLength / HPACK_BYTES_PER_UNIT + fieldCount / HPACK_FIELDS_PER_UNIT;
+    }
+
+    /**
+     * Returns the total cost charged within the current window.
+     */
+    long getWindowCost() {
+        return windowCost;
+    }
+
+    /**
+     * Returns the number of frames of the given type charged within the current window.
+     */
+    int getFrameCount(final FrameType frameType) {
+        return frameCounts[frameType.getValue()];
+    }
+
+    /**
+     * Accounts for a received frame.
+     *
+     * @throws H2ConnectionException if the budget of the current window is exceeded.
+     */
+    void chargeFrame(final int frameType, final int cost, final long nanoTime) throws H2ConnectionException {
+        if (nanoTime - windowStart >= windowNanos) {
+            windowStart = nanoTime;
+            windowCost = 0;
+            Arrays.fill(frameCounts, 0);
+        }
+        if (frameType >= 0 && frameType < frameCounts.length) {
+            frameCounts[frameType]++;
+        }
+        charge(cost);
+    }
+
+    /**
+     * Accounts for work not attributed to a particular frame such as
+     * the decoding of a header block.
+     *
+     * @throws H2ConnectionException if the budget of the current window is exceeded.
+     */
+    void charge(final int cost) throws H2ConnectionException {
+        windowCost += cost;
+        if (windowCost > budget) {
+            int top = 0;
+            for (int i = 1; i < frameCounts.length; i++) {
+                if (frameCounts[i] > frameCounts[top]) {
+                    top = i;
+                }
+            }
+            throw new H2ConnectionException(H2Error.ENHANCE_YOUR_CALM, "Frame budget exceeded ("
+                    + frameCounts[top] + " " + FrameType.toString(top) + " frames)");
+        }
+    }
+
+}
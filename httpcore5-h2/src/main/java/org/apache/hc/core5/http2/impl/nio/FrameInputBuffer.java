@@ -29,6 +29,7 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http2.H2ConnectionException;
@@ -40,6 +41,8 @@
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 /**
  * Frame input buffer for HTTP/2 non-blocking connections.
@@ -48,12 +51,47 @@
  */
 public final class FrameInputBuffer {
 
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
     enum State { HEAD_EXPECTED, PAYLOAD_EXPECTED }
 
+    /**
+     * Reference counted buffer storage shared with payload views retained past
+     * frame processing. The storage is returned to the allocator once the input
+     * buffer and all retained views have released it.
+     */
+    final class Storage {
+
+        private final ByteBuffer buffer;
+        private final AtomicInteger refCount;
+
+        Storage(final ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.refCount = new AtomicInteger(1);
+        }
+
+        void retain() {
+            refCount.incrementAndGet();
+        }
+
+        void release() {
+            if (refCount.decrementAndGet() == 0) {
+                allocator.release(buffer);
+            }
+        }
+
+        boolean isShared() {
+            return refCount.get() > 1;
+        }
+
+    }
+
     private final BasicH2TransportMetrics metrics;
     private final int maxFramePayloadSize;
-    private final byte[] bytes;
-    private final ByteBuffer buffer;
+    private final int bufferLen;
+    private final ByteBufferAllocator allocator;
+    private ByteBuffer buffer;
+    private Storage storage;
 
     private State state;
     private int payloadLen;
@@ -61,19 +99,37 @@ enum State { HEAD_EXPECTED, PAYLOAD_EXPECTED }
     private int flags;
     private int streamId;
 
-    FrameInputBuffer(final BasicH2TransportMetrics metrics, final int bufferLen, final int maxFramePayloadSize) {
+    FrameInputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int bufferLen,
+            final int maxFramePayloadSize,
+            final ByteBufferAllocator allocator) {
         Args.notNull(metrics, "HTTP2 transport metrcis");
         Args.positive(maxFramePayloadSize, "Maximum payload size");
         this.metrics = metrics;
         this.maxFramePayloadSize = maxFramePayloadSize;
-        this.bytes = new byte[bufferLen];
-        this.buffer = ByteBuffer.wrap(bytes);
-        this.buffer.flip();
+        this.bufferLen = bufferLen;
+        this.allocator = Args.notNull(allocator, "Buffer allocator");
+        this.buffer = allocateBuffer();
         this.state = State.HEAD_EXPECTED;
     }
 
+    FrameInputBuffer(final BasicH2TransportMetrics metrics, final int bufferLen, final int maxFramePayloadSize) {
+        this(metrics, bufferLen, maxFramePayloadSize, HeapByteBufferAllocator.INSTANCE);
+    }
+
+    /**
+     * @since 5.0
+     */
+    public FrameInputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int maxFramePayloadSize,
+            final ByteBufferAllocator allocator) {
+        this(metrics, FrameConsts.HEAD_LEN + maxFramePayloadSize, maxFramePayloadSize, allocator);
+    }
+
     public FrameInputBuffer(final BasicH2TransportMetrics metrics, final int maxFramePayloadSize) {
-        this(metrics, FrameConsts.HEAD_LEN + maxFramePayloadSize, maxFramePayloadSize);
+        this(metrics, maxFramePayloadSize, HeapByteBufferAllocator.INSTANCE);
     }
 
     public FrameInputBuffer(final int maxFramePayloadSize) {
@@ -81,16 +137,18 @@ public FrameInputBuffer(final int maxFramePayloadSize) {
     }
 
     public void put(final ByteBuffer src) {
-        if (buffer.hasRemaining()) {
-            buffer.compact();
-        } else {
-            buffer.clear();
+        if (buffer.capacity() == 0) {
+            buffer = allocateBuffer();
         }
+        final int position = prepareForInput(src.remaining());
         buffer.put(src);
-        buffer.flip();
+        endInput(position);
     }
 
     public RawFrame read(final ReadableByteChannel channel) throws IOException {
+        if (buffer.capacity() == 0) {
+            buffer = allocateBuffer();
+        }
         for (;;) {
             switch (state) {
                 case HEAD_EXPECTED:
@@ -120,20 +178,26 @@ public RawFrame read(final ReadableByteChannel channel) throws IOException {
                             }
                             buffer.reset();
                         }
-                        final ByteBuffer payload = payloadLen > 0 ? ByteBuffer.wrap(bytes, buffer.position(), payloadLen) : null;
+                        final ByteBuffer payload;
+                        if (payloadLen > 0) {
+                            payload = buffer.duplicate();
+                            payload.limit(buffer.position() + payloadLen);
+                        } else {
+                            payload = null;
+                        }
                         buffer.position(buffer.position() + payloadLen);
                         state = State.HEAD_EXPECTED;
-                        metrics.incrementFramesTransferred();
+                        metrics.incrementFramesTransferred(type);
                         return new RawFrame(type, flags, streamId, payload);
                     }
             }
-            if (buffer.hasRemaining()) {
-                buffer.compact();
-            } else {
-                buffer.clear();
-            }
+            // Read at least enough to complete the pending frame head or payload
+            final int required = (state == State.HEAD_EXPECTED ? FrameConsts.HEAD_LEN : payloadLen)
+                    - buffer.remaining();
+            final int position = prepareForInput(required);
             final int bytesRead = channel.read(buffer);
-            buffer.flip();
+            metrics.incrementIoOperations();
+            endInput(position);
             if (bytesRead > 0) {
                 metrics.incrementBytesTransferred(bytesRead);
             }
@@ -150,7 +214,126 @@ public RawFrame read(final ReadableByteChannel channel) throws IOException {
         return null;
     }
 
+    /**
+     * Retains the storage backing payload views of frames read so far, preventing
+     * it from being overwritten with new input or returned to the allocator until
+     * released.
+     */
+    Storage retainStorage() {
+        if (storage == null) {
+            storage = new Storage(buffer);
+        }
+        storage.retain();
+        return storage;
+    }
+
+    /**
+     * Switches the buffer to write mode making room for at least the given number
+     * of bytes of new input. Retained payload views never extend past the current
+     * position, so as long as the storage has enough room left after the unprocessed
+     * input new input gets appended to it even if the storage is still referenced
+     * by retained views. Otherwise unprocessed input is moved to the start of the
+     * storage, or to new storage if the current one is still referenced.
+     *
+     * @return the position of unprocessed input to be passed to {@link #endInput(int)}.
+     */
+    private int prepareForInput(final int len) {
+        final Storage currentStorage = storage;
+        if (currentStorage != null && currentStorage.isShared()
+                && buffer.capacity() - buffer.limit() >= len) {
+            final int position = buffer.position();
+            buffer.position(buffer.limit());
+            buffer.limit(buffer.capacity());
+            return position;
+        }
+        detachStorage();
+        if (buffer.hasRemaining()) {
+            buffer.compact();
+        } else {
+            buffer.clear();
+        }
+        return 0;
+    }
+
+    /**
+     * Switches the buffer back to read mode after new input has been written.
+     */
+    private void endInput(final int position) {
+        buffer.limit(buffer.position());
+        buffer.position(position);
+    }
+
+    /**
+     * Moves unprocessed input to new storage if the current one is still referenced
+     * by retained payload views. Only unprocessed input is copied.
+     */
+    private void detachStorage() {
+        final Storage oldStorage = storage;
+        if (oldStorage == null) {
+            return;
+        }
+        storage = null;
+        if (oldStorage.isShared()) {
+            final ByteBuffer newBuffer = allocator.allocate(bufferLen);
+            newBuffer.put(buffer);
+            newBuffer.flip();
+            buffer = newBuffer;
+            oldStorage.release();
+        }
+    }
+
+    private ByteBuffer allocateBuffer() {
+        final ByteBuffer newBuffer = this.allocator.allocate(this.bufferLen);
+        newBuffer.flip();
+        return newBuffer;
+    }
+
+    /**
+     * Returns the buffer storage to the allocator discarding any unprocessed input.
+     * The storage is re-allocated should this buffer be used again.
+     *
+     * @since 5.0
+     */
+    public void release() {
+        final ByteBuffer oldBuffer = this.buffer;
+        if (oldBuffer.capacity() > 0) {
+            this.buffer = EMPTY_BUFFER;
+            this.state = State.HEAD_EXPECTED;
+            releaseStorage(oldBuffer);
+        }
+    }
+
+    private void releaseStorage(final ByteBuffer oldBuffer) {
+        final Storage oldStorage = this.storage;
+        if (oldStorage != null) {
+            this.storage = null;
+            oldStorage.release();
+        } else {
+            this.allocator.release(oldBuffer);
+        }
+    }
+
+    /**
+     * Returns the buffer storage to the allocator if it holds no unprocessed input.
+     * The storage is re-allocated once more input is expected.
+     *
+     * @return {@code true} if the buffer storage has been released,
+     *   {@code false} otherwise.
+     *
+     * @since 5.0
+     */
+    public boolean hibernate() {
+        final ByteBuffer oldBuffer = this.buffer;
+        if (oldBuffer.capacity() == 0 || oldBuffer.hasRemaining()) {
+            return false;
+        }
+        this.buffer = EMPTY_BUFFER;
+        releaseStorage(oldBuffer);
+        return true;
+    }
+
     public void reset() {
+        detachStorage();
         buffer.compact();
         state = State.HEAD_EXPECTED;
     }
@@ -38,6 +38,8 @@
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 /**
  * Frame output buffer for HTTP/2 non-blocking connections.
@@ -46,16 +48,47 @@
  */
 public final class FrameOutputBuffer {
 
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
     private final BasicH2TransportMetrics metrics;
     private final int maxFramePayloadSize;
-    private final ByteBuffer buffer;
-
-    public FrameOutputBuffer(final BasicH2TransportMetrics metrics, final int maxFramePayloadSize) {
+    private final ByteBufferAllocator allocator;
+    private final int bufferSize;
+    private ByteBuffer buffer;
+
+    /**
+     * Creates frame output buffer capable of holding {@code batchSize} bytes of
+     * appended frames but no less than one frame of the maximum size.
+     *
+     * @since 5.0
+     */
+    public FrameOutputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int maxFramePayloadSize,
+            final int batchSize,
+            final ByteBufferAllocator allocator) {
         Args.notNull(metrics, "HTTP2 transport metrcis");
         Args.positive(maxFramePayloadSize, "Maximum payload size");
+        Args.notNegative(batchSize, "Batch size");
         this.metrics = metrics;
         this.maxFramePayloadSize = maxFramePayloadSize;
-        this.buffer = ByteBuffer.allocate(FrameConsts.HEAD_LEN + maxFramePayloadSize);
+        this.allocator = Args.notNull(allocator, "Buffer allocator");
+        this.bufferSize = Math.max(FrameConsts.HEAD_LEN + maxFramePayloadSize, batchSize);
+        this.buffer = allocator.allocate(this.bufferSize);
+    }
+
+    /**
+     * @since 5.0
+     */
+    public FrameOutputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int maxFramePayloadSize,
+            final ByteBufferAllocator allocator) {
+        this(metrics, maxFramePayloadSize, 0, allocator);
+    }
+
+    public FrameOutputBuffer(final BasicH2TransportMetrics metrics, final int maxFramePayloadSize) {
+        this(metrics, maxFramePayloadSize, HeapByteBufferAllocator.INSTANCE);
     }
 
     public FrameOutputBuffer(final int maxFramePayloadSize) {
@@ -70,15 +103,21 @@ public void write(final RawFrame frame, final WritableByteChannel channel) throw
             throw new H2ConnectionException(H2Error.FRAME_SIZE_ERROR, "Frame size exceeds maximum");
         }
 
-        buffer.putInt((payload != null ? payload.remaining() << 8 : 0) | (frame.getType() & 0xff));
-        buffer.put((byte) (frame.getFlags() & 0xff));
-        buffer.putInt(frame.getStreamId());
+        ensureAllocated();
+        writeHead(frame, payload);
 
         if (payload != null) {
             if (channel instanceof GatheringByteChannel) {
                 buffer.flip();
-                ((GatheringByteChannel) channel).write(new ByteBuffer[]{buffer, payload});
-                buffer.compact();
+                try {
+                    final long bytesWritten = ((GatheringByteChannel) channel).write(new ByteBuffer[]{buffer, payload});
+                    metrics.incrementIoOperations();
+                    if (bytesWritten > 0) {
+                        metrics.incrementBytesTransferred(bytesWritten);
+                    }
+                } finally {
+                    buffer.compact();
+                }
                 if (payload.hasRemaining()) {
                     buffer.put(payload);
                 }
@@ -89,7 +128,64 @@ public void write(final RawFrame frame, final WritableByteChannel channel) throw
 
         flush(channel);
 
-        metrics.incrementFramesTransferred();
+        metrics.incrementFramesTransferred(frame.getType());
+    }
+
+    /**
+     * Determines whether the frame can be appended to the buffer without exceeding its capacity.
+     *
+     * @since 5.0
+     */
+    public boolean hasCapacity(final RawFrame frame) {
+        final ByteBuffer payload = frame.getPayload();
+        return FrameConsts.HEAD_LEN + (payload != null ? payload.remaining() : 0) <= getRemainingCapacity();
+    }
+
+    /**
+     * Returns the number of bytes that can still be appended to the buffer.
+     *
+     * @since 5.0
+     */
+    public int getRemainingCapacity() {
+        return buffer.capacity() > 0 ? buffer.remaining() : bufferSize;
+    }
+
+    /**
+     * Appends the frame to the buffer without writing it out. Appended frames are
+     * written to the channel by the next {@link #flush(WritableByteChannel)} as a single
+     * write operation.
+     *
+     * @since 5.0
+     */
+    public void append(final RawFrame frame) throws IOException {
+        Args.notNull(frame, "Frame");
+
+        final ByteBuffer payload = frame.getPayload();
+        if (payload != null && payload.remaining() > maxFramePayloadSize) {
+            throw new H2ConnectionException(H2Error.FRAME_SIZE_ERROR, "Frame size exceeds maximum");
+        }
+        if (!hasCapacity(frame)) {
+            throw new IllegalStateException("Insufficient frame buffer capacity");
+        }
+        ensureAllocated();
+        writeHead(frame, payload);
+        if (payload != null) {
+            buffer.put(payload);
+        }
+
+        metrics.incrementFramesTransferred(frame.getType());
+    }
+
+    private void ensureAllocated() {
+        if (buffer.capacity() == 0) {
+            buffer = allocator.allocate(bufferSize);
+        }
+    }
+
+    private void writeHead(final RawFrame frame, final ByteBuffer payload) {
+        buffer.putInt((payload != null ? payload.remaining() << 8 : 0) | (frame.getType() & 0xff));
+        buffer.put((byte) (frame.getFlags() & 0xff));
+        buffer.putInt(frame.getStreamId());
     }
 
     public void flush(final WritableByteChannel channel) throws IOException {
@@ -97,6 +193,7 @@ public void flush(final WritableByteChannel channel) throws IOException {
             buffer.flip();
             try {
                 final int bytesWritten = channel.write(buffer);
+                metrics.incrementIoOperations();
                 if (bytesWritten > 0) {
                     metrics.incrementBytesTransferred(bytesWritten);
                 }
@@ -106,6 +203,39 @@ public void flush(final WritableByteChannel channel) throws IOException {
         }
     }
 
+    /**
+     * Returns the buffer storage to the allocator discarding any unflushed output.
+     * The storage is re-allocated should this buffer be used again.
+     *
+     * @since 5.0
+     */
+    public void release() {
+        final ByteBuffer oldBuffer = this.buffer;
+        if (oldBuffer.capacity() > 0) {
+            this.buffer = EMPTY_BUFFER;
+            this.allocator.release(oldBuffer);
+        }
+    }
+
+    /**
+     * Returns the buffer storage to the allocator if it holds no unflushed output.
+     * The storage is re-allocated once another frame is written.
+     *
+     * @return {@code true} if the buffer storage has been released,
+     *   {@code false} otherwise.
+     *
+     * @since 5.0
+     */
+    public boolean hibernate() {
+        final ByteBuffer oldBuffer = this.buffer;
+        if (oldBuffer.capacity() == 0 || oldBuffer.position() > 0) {
+            return false;
+        }
+        this.buffer = EMPTY_BUFFER;
+        this.allocator.release(oldBuffer);
+        return true;
+    }
+
     public boolean isEmpty() {
         return buffer.position() == 0;
     }
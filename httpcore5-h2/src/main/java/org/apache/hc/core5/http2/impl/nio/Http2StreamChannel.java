@@ -43,4 +43,12 @@ interface Http2StreamChannel extends DataStreamChannel, CapacityChannel, Cancell
 
     void push(List<Header> headers, AsyncPushProducer pushProducer) throws HttpException, IOException;
 
+    /**
+     * Sets the weight of the stream used to determine its share of
+     * the connection output relative to other streams.
+     *
+     * @param weight stream weight in the range of 1 to 256.
+     */
+    void setWeight(int weight);
+
 }
@@ -33,6 +33,7 @@
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpException;
 import org.apache.hc.core5.http.nio.ResourceHolder;
+import org.apache.hc.core5.http.nio.RetainableBuffer;
 
 interface Http2StreamHandler extends ResourceHolder {
 
@@ -48,6 +49,14 @@ interface Http2StreamHandler extends ResourceHolder {
 
     void consumeData(ByteBuffer src, boolean endStream) throws HttpException, IOException;
 
+    /**
+     * Determines whether message data can be passed on to the consumer
+     * with {@link #consumeData(RetainableBuffer, boolean)}.
+     */
+    boolean isRetainingData();
+
+    void consumeData(RetainableBuffer src, boolean endStream) throws HttpException, IOException;
+
     void failed(Exception cause);
 
 }
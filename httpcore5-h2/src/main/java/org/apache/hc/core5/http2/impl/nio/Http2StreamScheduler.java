@@ -0,0 +1,157 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http2.H2StreamPriority;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Weighted round robin scheduler of stream output based on the deficit
+ * round robin algorithm.
+ * <p>
+ * Streams take turns producing output. On its turn a stream may write
+ * as many bytes as its output credit allows. The credit is replenished
+ * with a quantum proportional to the stream weight once the stream has
+ * used it up or has no more output to produce, at which point the stream
+ * is moved to the end of the queue. If the connection cannot accept more
+ * data while the current stream still has credit left the stream retains
+ * its turn until the next round.
+ * </p>
+ *
+ * @param <T> stream type.
+ */
+final class Http2StreamScheduler<T extends Http2StreamScheduler.Stream> {
+
+    interface Stream {
+
+        int getWeight();
+
+        AtomicInteger getOutputCredit();
+
+    }
+
+    interface OutputHandler<T> {
+
+        boolean isActive(T stream);
+
+        void produceOutput(T stream) throws HttpException, IOException;
+
+        boolean isOutputBlocked();
+
+    }
+
+    private final int quantum;
+    private final Deque<T> queue;
+    // ConcurrentLinkedDeque#size() traverses the whole deque
+    private final AtomicInteger count;
+
+    Http2StreamScheduler(final int quantum) {
+        this.quantum = Args.positive(quantum, "Quantum");
+        this.queue = new ConcurrentLinkedDeque<>();
+        this.count = new AtomicInteger(0);
+    }
+
+    int getQuantum(final int weight) {
+        return Math.max(1, (int) ((long) quantum * weight / H2StreamPriority.DEFAULT_WEIGHT));
+    }
+
+    void add(final T stream) {
+        stream.getOutputCredit().set(getQuantum(stream.getWeight()));
+        queue.addLast(stream);
+        count.incrementAndGet();
+    }
+
+    int size() {
+        return count.get();
+    }
+
+    private void removeFirst() {
+        queue.pollFirst();
+        count.decrementAndGet();
+    }
+
+    /**
+     * Gives streams a turn to produce output for as long as the connection
+     * can accept more data and streams keep on producing output.
+     * <p>
+     * This method must be called from one thread at a time.
+     * </p>
+     */
+    void produceOutput(final OutputHandler<T> handler) throws HttpException, IOException {
+        for (;;) {
+            boolean progress = false;
+            final int n = count.get();
+            for (int i = 0; i < n; i++) {
+                if (handler.isOutputBlocked()) {
+                    return;
+                }
+                final T stream = queue.peekFirst();
+                if (stream == null) {
+                    return;
+                }
+                if (!handler.isActive(stream)) {
+                    removeFirst();
+                    continue;
+                }
+                final AtomicInteger credit = stream.getOutputCredit();
+                final int before = credit.get();
+                handler.produceOutput(stream);
+                if (!handler.isActive(stream)) {
+                    removeFirst();
+                    continue;
+                }
+                final int after = credit.get();
+                if (after < before) {
+                    progress = true;
+                }
+                if (after > 0 && handler.isOutputBlocked()) {
+                    // retain the turn
+                    return;
+                }
+                queue.pollFirst();
+                credit.set(getQuantum(stream.getWeight()));
+                queue.addLast(stream);
+            }
+            if (!progress) {
+                return;
+            }
+        }
+    }
+
+    void clear() {
+        while (queue.pollFirst() != null) {
+            count.decrementAndGet();
+        }
+    }
+
+}
@@ -49,6 +49,8 @@
 import org.apache.hc.core5.http.nio.DataStreamChannel;
 import org.apache.hc.core5.http.nio.HandlerFactory;
 import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.http.nio.RetainableBuffer;
+import org.apache.hc.core5.http.nio.RetainingDataConsumer;
 import org.apache.hc.core5.http.nio.support.ImmediateResponseExchangeHandler;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
@@ -271,6 +273,24 @@ public void consumeData(final ByteBuffer src, final boolean endStream) throws Ht
         }
     }
 
+    @Override
+    public boolean isRetainingData() {
+        return exchangeHandler instanceof RetainingDataConsumer;
+    }
+
+    @Override
+    public void consumeData(final RetainableBuffer src, final boolean endStream) throws HttpException, IOException {
+        if (done.get() || requestState != MessageState.BODY) {
+            throw new ProtocolException("Unexpected message data");
+        }
+        Asserts.notNull(exchangeHandler, "Exchange handler");
+        ((RetainingDataConsumer) exchangeHandler).consume(src);
+        if (endStream) {
+            requestState = MessageState.COMPLETE;
+            exchangeHandler.streamEnd(null);
+        }
+    }
+
     @Override
     public boolean isOutputReady() {
         return responseState == MessageState.BODY && exchangeHandler != null && exchangeHandler.available() > 0;
@@ -44,6 +44,7 @@
 import org.apache.hc.core5.http.nio.AsyncPushProducer;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
 import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.http.nio.RetainableBuffer;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.http2.H2ConnectionException;
@@ -128,6 +129,16 @@ public void consumeData(final ByteBuffer src, final boolean endStream) throws Ht
         throw new ProtocolException("Unexpected message data");
     }
 
+    @Override
+    public boolean isRetainingData() {
+        return false;
+    }
+
+    @Override
+    public void consumeData(final RetainableBuffer src, final boolean endStream) throws HttpException, IOException {
+        throw new ProtocolException("Unexpected message data");
+    }
+
     @Override
     public boolean isOutputReady() {
         switch (responseState) {
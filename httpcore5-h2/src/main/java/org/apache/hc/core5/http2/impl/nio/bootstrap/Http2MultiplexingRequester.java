@@ -33,6 +33,7 @@
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.CancellableDependency;
@@ -62,7 +63,7 @@
 import org.apache.hc.core5.http.nio.support.BasicClientExchangeHandler;
 import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
-import org.apache.hc.core5.http2.nio.pool.H2ConnPool;
+import org.apache.hc.core5.http2.nio.pool.H2MultiConnPool;
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.net.URIAuthority;
 import org.apache.hc.core5.reactor.Command;
@@ -79,15 +80,27 @@
  */
 public class Http2MultiplexingRequester extends AsyncRequester{
 
-    private final H2ConnPool connPool;
-
+    private final H2MultiConnPool connPool;
+
+    /**
+     * @param maxConnectionsPerHost maximum number of connections per host.
+     * @param maxStreamsPerConnection number of concurrent streams a connection
+     *   is expected to support.
+     * @param streamHighWaterMark number of active streams on all connections
+     *   to a host at which another connection gets opened.
+     *
+     * @see H2MultiConnPool
+     */
     public Http2MultiplexingRequester(
             final IOReactorConfig ioReactorConfig,
             final IOEventHandlerFactory eventHandlerFactory,
             final Decorator<IOSession> ioSessionDecorator,
             final IOSessionListener sessionListener,
             final Resolver<HttpHost, InetSocketAddress> addressResolver,
-            final TlsStrategy tlsStrategy) {
+            final TlsStrategy tlsStrategy,
+            final int maxConnectionsPerHost,
+            final int maxStreamsPerConnection,
+            final int streamHighWaterMark) {
         super(eventHandlerFactory, ioReactorConfig, ioSessionDecorator, sessionListener, new Callback<IOSession>() {
 
             @Override
@@ -96,7 +109,19 @@ public void execute(final IOSession session) {
             }
 
         }, DefaultAddressResolver.INSTANCE);
-        this.connPool = new H2ConnPool(this, addressResolver, tlsStrategy);
+        this.connPool = new H2MultiConnPool(this, addressResolver, tlsStrategy,
+                maxConnectionsPerHost, maxStreamsPerConnection, streamHighWaterMark);
+    }
+
+    public Http2MultiplexingRequester(
+            final IOReactorConfig ioReactorConfig,
+            final IOEventHandlerFactory eventHandlerFactory,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final Resolver<HttpHost, InetSocketAddress> addressResolver,
+            final TlsStrategy tlsStrategy) {
+        this(ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, addressResolver, tlsStrategy,
+                1, H2MultiConnPool.DEFAULT_MAX_STREAMS_PER_CONNECTION, H2MultiConnPool.DEFAULT_MAX_STREAMS_PER_CONNECTION);
     }
 
     public void closeIdle(final TimeValue idleTime) {
@@ -152,10 +177,18 @@ public void sendRequest(
 
                         @Override
                         public void completed(final IOSession ioSession) {
+                            final AtomicBoolean released = new AtomicBoolean(false);
                             ioSession.enqueue(new ExecutionCommand(new AsyncClientExchangeHandler() {
 
+                                private void releaseStream() {
+                                    if (released.compareAndSet(false, true)) {
+                                        connPool.releaseSession(target, ioSession);
+                                    }
+                                }
+
                                 @Override
                                 public void releaseResources() {
+                                    releaseStream();
                                     exchangeHandler.releaseResources();
                                 }
 
@@ -202,11 +235,13 @@ public void streamEnd(final List<? extends Header> trailers) throws HttpExceptio
 
                                 @Override
                                 public void cancel() {
+                                    releaseStream();
                                     exchangeHandler.cancel();
                                 }
 
                                 @Override
                                 public void failed(final Exception cause) {
+                                    releaseStream();
                                     exchangeHandler.failed(cause);
                                 }
 
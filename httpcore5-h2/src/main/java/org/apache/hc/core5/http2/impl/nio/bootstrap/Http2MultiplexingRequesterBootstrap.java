@@ -43,6 +43,7 @@
 import org.apache.hc.core5.http2.impl.nio.ClientHttp2StreamMultiplexerFactory;
 import org.apache.hc.core5.http2.impl.nio.Http2OnlyClientProtocolNegotiator;
 import org.apache.hc.core5.http2.impl.nio.Http2StreamListener;
+import org.apache.hc.core5.http2.nio.pool.H2MultiConnPool;
 import org.apache.hc.core5.http2.nio.support.DefaultAsyncPushConsumerFactory;
 import org.apache.hc.core5.http2.ssl.H2ClientTlsStrategy;
 import org.apache.hc.core5.reactor.IOEventHandler;
@@ -69,6 +70,9 @@ public class Http2MultiplexingRequesterBootstrap {
     private Decorator<IOSession> ioSessionDecorator;
     private IOSessionListener sessionListener;
     private Http2StreamListener streamListener;
+    private int maxConnectionsPerHost;
+    private int maxStreamsPerConnection;
+    private int streamHighWaterMark;
 
     private Http2MultiplexingRequesterBootstrap() {
         this.pushConsumerList = new ArrayList<>();
@@ -148,6 +152,41 @@ public final Http2MultiplexingRequesterBootstrap setStreamListener(final Http2St
         return this;
     }
 
+    /**
+     * Sets maximum number of HTTP/2 connections per host. Defaults to {@code 1}.
+     *
+     * @since 5.0
+     */
+    public final Http2MultiplexingRequesterBootstrap setMaxConnectionsPerHost(final int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        return this;
+    }
+
+    /**
+     * Sets number of concurrent streams an HTTP/2 connection is expected to support.
+     * Requests beyond that limit are preferably sent over other connections to the same host.
+     * Defaults to {@link H2MultiConnPool#DEFAULT_MAX_STREAMS_PER_CONNECTION}.
+     *
+     * @since 5.0
+     */
+    public final Http2MultiplexingRequesterBootstrap setMaxStreamsPerConnection(final int maxStreamsPerConnection) {
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+        return this;
+    }
+
+    /**
+     * Sets number of active streams on every connection to a host at which another
+     * connection to the host gets opened, as long as there are fewer than
+     * {@link #setMaxConnectionsPerHost(int) max connections per host}.
+     * Defaults to the {@link #setMaxStreamsPerConnection(int) max streams per connection}.
+     *
+     * @since 5.0
+     */
+    public final Http2MultiplexingRequesterBootstrap setStreamHighWaterMark(final int streamHighWaterMark) {
+        this.streamHighWaterMark = streamHighWaterMark;
+        return this;
+    }
+
     /**
      * Assigns {@link UriPatternType} for handler registration.
      */
@@ -197,6 +236,7 @@ public Http2MultiplexingRequester create() {
                 h2Config != null ? h2Config : H2Config.DEFAULT,
                 charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
                 streamListener);
+        final int maxStreams = maxStreamsPerConnection > 0 ? maxStreamsPerConnection : H2MultiConnPool.DEFAULT_MAX_STREAMS_PER_CONNECTION;
         return new Http2MultiplexingRequester(
                 ioReactorConfig,
                 new IOEventHandlerFactory() {
@@ -210,7 +250,10 @@ public IOEventHandler createHandler(final ProtocolIOSession ioSession, final Obj
                 ioSessionDecorator,
                 sessionListener,
                 DefaultAddressResolver.INSTANCE,
-                tlsStrategy != null ? tlsStrategy : new H2ClientTlsStrategy());
+                tlsStrategy != null ? tlsStrategy : new H2ClientTlsStrategy(),
+                maxConnectionsPerHost > 0 ? maxConnectionsPerHost : 1,
+                maxStreams,
+                streamHighWaterMark > 0 ? streamHighWaterMark : maxStreams);
     }
 
 }
@@ -97,6 +97,16 @@ protected Future<IOSession> connectSession(
             final HttpHost namedEndpoint,
             final Timeout requestTimeout,
             final FutureCallback<IOSession> callback) {
+        return connectSession(connectionInitiator, addressResolver, tlsStrategy, namedEndpoint, requestTimeout, callback);
+    }
+
+    static Future<IOSession> connectSession(
+            final ConnectionInitiator connectionInitiator,
+            final Resolver<HttpHost, InetSocketAddress> addressResolver,
+            final TlsStrategy tlsStrategy,
+            final HttpHost namedEndpoint,
+            final Timeout requestTimeout,
+            final FutureCallback<IOSession> callback) {
         final InetSocketAddress remoteAddress = addressResolver.resolve(namedEndpoint);
         return connectionInitiator.connect(namedEndpoint, remoteAddress, null, requestTimeout, null, new FutureCallback<IOSession>() {
 
@@ -133,7 +143,13 @@ public void cancelled() {
     protected void validateSession(
             final IOSession ioSession,
             final Callback<Boolean> callback) {
-        final TimeValue timeValue = validateAfterInactivity;
+        validateSession(ioSession, validateAfterInactivity, callback);
+    }
+
+    static void validateSession(
+            final IOSession ioSession,
+            final TimeValue timeValue,
+            final Callback<Boolean> callback) {
         if (TimeValue.isPositive(timeValue)) {
             final long lastAccessTime = Math.min(ioSession.getLastReadTime(), ioSession.getLastWriteTime());
             final long deadline = lastAccessTime + timeValue.toMillis();
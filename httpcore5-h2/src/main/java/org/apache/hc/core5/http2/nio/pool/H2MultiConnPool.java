@@ -0,0 +1,504 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.nio.pool;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.function.Resolver;
+import org.apache.hc.core5.http.ConnectionClosedException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.impl.DefaultAddressResolver;
+import org.apache.hc.core5.http.nio.command.ShutdownCommand;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.io.GracefullyCloseable;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * HTTP/2 session pool that can maintain several connections per host.
+ * <p>
+ * The pool keeps track of the number of streams leased on each connection.
+ * Each {@link #getSession(HttpHost, Timeout, FutureCallback)} call leases one
+ * stream on the least loaded connection to the host. The stream must be given back
+ * with {@link #releaseSession(HttpHost, IOSession)} once the message exchange
+ * is over. Another connection gets opened once all connections to the host have
+ * at least {@code streamHighWaterMark} streams leased, up to
+ * {@code maxConnectionsPerHost} connections. Requests that cannot be placed
+ * below {@code maxStreamsPerConnection} wait for a pending connection,
+ * if there is one, and otherwise get queued by the least loaded connection.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class H2MultiConnPool implements GracefullyCloseable {
+
+    /**
+     * Default number of concurrent streams a connection is expected to support.
+     * This is the lowest value of {@code SETTINGS_MAX_CONCURRENT_STREAMS} RFC 7540
+     * recommends peers to advertise.
+     */
+    public static final int DEFAULT_MAX_STREAMS_PER_CONNECTION = 100;
+
+    private final ConnectionInitiator connectionInitiator;
+    private final Resolver<HttpHost, InetSocketAddress> addressResolver;
+    private final TlsStrategy tlsStrategy;
+    private final int maxConnectionsPerHost;
+    private final int maxStreamsPerConnection;
+    private final int streamHighWaterMark;
+    private final ConcurrentMap<HttpHost, PoolEntry> sessionPool;
+    private final AtomicBoolean closed;
+
+    private volatile TimeValue validateAfterInactivity;
+
+    /**
+     * @param maxConnectionsPerHost maximum number of connections per host.
+     * @param maxStreamsPerConnection number of concurrent streams a connection
+     *   is expected to support.
+     * @param streamHighWaterMark number of leased streams on all connections
+     *   to a host at which another connection gets opened.
+     */
+    public H2MultiConnPool(
+            final ConnectionInitiator connectionInitiator,
+            final Resolver<HttpHost, InetSocketAddress> addressResolver,
+            final TlsStrategy tlsStrategy,
+            final int maxConnectionsPerHost,
+            final int maxStreamsPerConnection,
+            final int streamHighWaterMark) {
+        super();
+        this.connectionInitiator = Args.notNull(connectionInitiator, "Connection initiator");
+        this.addressResolver = addressResolver != null ? addressResolver : DefaultAddressResolver.INSTANCE;
+        this.tlsStrategy = tlsStrategy;
+        this.maxConnectionsPerHost = Args.positive(maxConnectionsPerHost, "Max connections per host");
+        this.maxStreamsPerConnection = Args.positive(maxStreamsPerConnection, "Max streams per connection");
+        this.streamHighWaterMark = Args.positive(streamHighWaterMark, "Stream high-water mark");
+        this.sessionPool = new ConcurrentHashMap<>();
+        this.closed = new AtomicBoolean(false);
+    }
+
+    public H2MultiConnPool(
+            final ConnectionInitiator connectionInitiator,
+            final Resolver<HttpHost, InetSocketAddress> addressResolver,
+            final TlsStrategy tlsStrategy) {
+        this(connectionInitiator, addressResolver, tlsStrategy,
+                1, DEFAULT_MAX_STREAMS_PER_CONNECTION, DEFAULT_MAX_STREAMS_PER_CONNECTION);
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public int getMaxStreamsPerConnection() {
+        return maxStreamsPerConnection;
+    }
+
+    public int getStreamHighWaterMark() {
+        return streamHighWaterMark;
+    }
+
+    public TimeValue getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(final TimeValue timeValue) {
+        this.validateAfterInactivity = timeValue;
+    }
+
+    private void closeSession(final IOSession ioSession, final ShutdownType shutdownType) {
+        if (shutdownType == ShutdownType.GRACEFUL) {
+            ioSession.enqueue(new ShutdownCommand(ShutdownType.GRACEFUL), Command.Priority.NORMAL);
+        } else {
+            ioSession.shutdown(shutdownType);
+        }
+    }
+
+    @Override
+    public void shutdown(final ShutdownType shutdownType) {
+        if (closed.compareAndSet(false, true)) {
+            for (final PoolEntry poolEntry : sessionPool.values()) {
+                synchronized (poolEntry) {
+                    for (final SessionEntry sessionEntry: poolEntry.sessions) {
+                        closeSession(sessionEntry.session, shutdownType);
+                    }
+                    poolEntry.sessions.clear();
+                    for (final Future<IOSession> sessionFuture: poolEntry.sessionFutures) {
+                        sessionFuture.cancel(true);
+                    }
+                    poolEntry.sessionFutures.clear();
+                    for (;;) {
+                        final FutureCallback<SessionEntry> callback = poolEntry.requestQueue.poll();
+                        if (callback != null) {
+                            callback.cancelled();
+                        } else {
+                            break;
+                        }
+                    }
+                }
+            }
+            sessionPool.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        shutdown(ShutdownType.GRACEFUL);
+    }
+
+    private PoolEntry getPoolEntry(final HttpHost endpoint) {
+        PoolEntry poolEntry = sessionPool.get(endpoint);
+        if (poolEntry == null) {
+            final PoolEntry newPoolEntry = new PoolEntry();
+            poolEntry = sessionPool.putIfAbsent(endpoint, newPoolEntry);
+            if (poolEntry == null) {
+                poolEntry = newPoolEntry;
+            }
+        }
+        return poolEntry;
+    }
+
+    /**
+     * Leases a stream on the least loaded connection to the given host, opening
+     * a new connection if necessary.
+     */
+    public Future<IOSession> getSession(
+            final HttpHost endpoint,
+            final Timeout requestTimeout,
+            final FutureCallback<IOSession> callback) {
+        Args.notNull(endpoint, "Endpoint");
+        Asserts.check(!closed.get(), "Connection pool shut down");
+        final BasicFuture<IOSession> future = new BasicFuture<>(callback);
+        final PoolEntry poolEntry = getPoolEntry(endpoint);
+        leaseSession(poolEntry, endpoint, requestTimeout, new FutureCallback<SessionEntry>() {
+
+            @Override
+            public void completed(final SessionEntry sessionEntry) {
+                H2ConnPool.validateSession(sessionEntry.session, validateAfterInactivity, new Callback<Boolean>() {
+
+                    @Override
+                    public void execute(final Boolean result) {
+                        if (result) {
+                            if (!future.completed(sessionEntry.session)) {
+                                releaseSession(endpoint, sessionEntry.session);
+                            }
+                        } else {
+                            discardSession(poolEntry, sessionEntry);
+                            leaseSession(poolEntry, endpoint, requestTimeout, new FutureCallback<SessionEntry>() {
+
+                                @Override
+                                public void completed(final SessionEntry sessionEntry) {
+                                    if (!future.completed(sessionEntry.session)) {
+                                        releaseSession(endpoint, sessionEntry.session);
+                                    }
+                                }
+
+                                @Override
+                                public void failed(final Exception ex) {
+                                    future.failed(ex);
+                                }
+
+                                @Override
+                                public void cancelled() {
+                                    future.cancel();
+                                }
+
+                            });
+                        }
+                    }
+
+                });
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                future.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel();
+            }
+
+        });
+        return future;
+    }
+
+    /**
+     * Gives back a stream previously leased on the given session.
+     */
+    public void releaseSession(final HttpHost endpoint, final IOSession ioSession) {
+        final PoolEntry poolEntry = sessionPool.get(endpoint);
+        if (poolEntry != null) {
+            synchronized (poolEntry) {
+                for (final SessionEntry sessionEntry: poolEntry.sessions) {
+                    if (sessionEntry.session == ioSession) {
+                        if (sessionEntry.streams > 0) {
+                            sessionEntry.streams--;
+                        }
+                        processRequestQueue(poolEntry, null, null);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void discardSession(final PoolEntry poolEntry, final SessionEntry sessionEntry) {
+        synchronized (poolEntry) {
+            if (poolEntry.sessions.remove(sessionEntry)) {
+                closeSession(sessionEntry.session, ShutdownType.GRACEFUL);
+            }
+        }
+    }
+
+    private void leaseSession(
+            final PoolEntry poolEntry,
+            final HttpHost namedEndpoint,
+            final Timeout requestTimeout,
+            final FutureCallback<SessionEntry> callback) {
+        synchronized (poolEntry) {
+            final SessionEntry leastLoaded = poolEntry.leastLoaded();
+            final int pending = poolEntry.sessionFutures.size();
+            final boolean saturated = leastLoaded == null || leastLoaded.streams >= streamHighWaterMark;
+            final boolean canConnect = poolEntry.sessions.size() + pending < maxConnectionsPerHost;
+            if (saturated && canConnect && pending == 0) {
+                connectSession(poolEntry, namedEndpoint, requestTimeout);
+            }
+            if (leastLoaded != null && poolEntry.requestQueue.isEmpty()
+                    && (leastLoaded.streams < maxStreamsPerConnection || poolEntry.sessionFutures.isEmpty())) {
+                leastLoaded.streams++;
+                callback.completed(leastLoaded);
+            } else {
+                poolEntry.requestQueue.add(callback);
+            }
+        }
+    }
+
+    /**
+     * Hands queued requests over to connections with spare streams. If all connections
+     * are saturated opens another connection, provided the endpoint is given, or,
+     * if there can be no more connections to the host, hands the requests over
+     * to the least loaded connection.
+     */
+    private void processRequestQueue(
+            final PoolEntry poolEntry,
+            final HttpHost namedEndpoint,
+            final Timeout requestTimeout) {
+        for (;;) {
+            final FutureCallback<SessionEntry> callback = poolEntry.requestQueue.peek();
+            if (callback == null) {
+                break;
+            }
+            final SessionEntry leastLoaded = poolEntry.leastLoaded();
+            if (leastLoaded == null) {
+                break;
+            }
+            if (leastLoaded.streams >= maxStreamsPerConnection) {
+                if (!poolEntry.sessionFutures.isEmpty() || namedEndpoint == null) {
+                    break;
+                }
+                if (poolEntry.sessions.size() < maxConnectionsPerHost) {
+                    connectSession(poolEntry, namedEndpoint, requestTimeout);
+                    break;
+                }
+            }
+            poolEntry.requestQueue.remove();
+            leastLoaded.streams++;
+            callback.completed(leastLoaded);
+        }
+    }
+
+    private void connectSession(
+            final PoolEntry poolEntry,
+            final HttpHost namedEndpoint,
+            final Timeout requestTimeout) {
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final Future<IOSession> sessionFuture = H2ConnPool.connectSession(
+                connectionInitiator,
+                addressResolver,
+                tlsStrategy,
+                namedEndpoint,
+                requestTimeout,
+                new FutureCallback<IOSession>() {
+
+                    @Override
+                    public void completed(final IOSession result) {
+                        synchronized (poolEntry) {
+                            done.set(true);
+                            poolEntry.sessionFutures.clear();
+                            if (closed.get()) {
+                                closeSession(result, ShutdownType.IMMEDIATE);
+                                return;
+                            }
+                            poolEntry.sessions.add(new SessionEntry(result));
+                            processRequestQueue(poolEntry, namedEndpoint, requestTimeout);
+                        }
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        synchronized (poolEntry) {
+                            done.set(true);
+                            poolEntry.sessionFutures.clear();
+                            for (;;) {
+                                final FutureCallback<SessionEntry> callback = poolEntry.requestQueue.poll();
+                                if (callback != null) {
+                                    final SessionEntry leastLoaded = poolEntry.leastLoaded();
+                                    if (leastLoaded != null) {
+                                        leastLoaded.streams++;
+                                        callback.completed(leastLoaded);
+                                    } else {
+                                        callback.failed(ex);
+                                    }
+                                } else {
+                                    break;
+                                }
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        failed(new ConnectionClosedException("Connection request cancelled"));
+                    }
+
+                });
+        if (!done.get()) {
+            poolEntry.sessionFutures.add(sessionFuture);
+        }
+    }
+
+    public void closeIdle(final TimeValue idleTime) {
+        final long deadline = System.currentTimeMillis() - (TimeValue.isPositive(idleTime) ? idleTime.toMillis() : 0);
+        for (final PoolEntry poolEntry: sessionPool.values()) {
+            synchronized (poolEntry) {
+                for (final Iterator<SessionEntry> it = poolEntry.sessions.iterator(); it.hasNext(); ) {
+                    final SessionEntry sessionEntry = it.next();
+                    if (sessionEntry.streams == 0 && sessionEntry.session.getLastReadTime() <= deadline) {
+                        closeSession(sessionEntry.session, ShutdownType.GRACEFUL);
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of open connections to the given host.
+     */
+    public int getSessionCount(final HttpHost endpoint) {
+        final PoolEntry poolEntry = sessionPool.get(endpoint);
+        if (poolEntry == null) {
+            return 0;
+        }
+        synchronized (poolEntry) {
+            poolEntry.purgeClosed();
+            return poolEntry.sessions.size();
+        }
+    }
+
+    public Set<HttpHost> getRoutes() {
+        return new HashSet<>(sessionPool.keySet());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("I/O session routes: ");
+        buffer.append(sessionPool.size());
+        buffer.append("; max connections per host: ");
+        buffer.append(maxConnectionsPerHost);
+        return buffer.toString();
+    }
+
+    static class SessionEntry {
+
+        final IOSession session;
+        int streams;
+
+        SessionEntry(final IOSession session) {
+            this.session = session;
+        }
+
+    }
+
+    static class PoolEntry {
+
+        final List<SessionEntry> sessions;
+        final List<Future<IOSession>> sessionFutures;
+        final Queue<FutureCallback<SessionEntry>> requestQueue;
+
+        PoolEntry() {
+            this.sessions = new ArrayList<>();
+            this.sessionFutures = new ArrayList<>(1);
+            this.requestQueue = new ArrayDeque<>();
+        }
+
+        void purgeClosed() {
+            for (final Iterator<SessionEntry> it = sessions.iterator(); it.hasNext(); ) {
+                if (it.next().session.isClosed()) {
+                    it.remove();
+                }
+            }
+        }
+
+        SessionEntry leastLoaded() {
+            purgeClosed();
+            SessionEntry leastLoaded = null;
+            for (final SessionEntry sessionEntry: sessions) {
+                if (leastLoaded == null || sessionEntry.streams < leastLoaded.streams) {
+                    leastLoaded = sessionEntry;
+                }
+            }
+            return leastLoaded;
+        }
+
+    }
+
+}
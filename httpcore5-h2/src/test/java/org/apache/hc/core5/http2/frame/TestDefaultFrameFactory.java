@@ -81,6 +81,22 @@ public void testResetStreamFrame() throws Exception {
         Assert.assertEquals(H2Error.INTERNAL_ERROR.getCode(), payload.getInt());
     }
 
+    @Test
+    public void testPriorityFrame() throws Exception {
+
+        final FrameFactory frameFactory = new DefaultFrameFactory();
+        final Frame<ByteBuffer> priorityFrame = frameFactory.createPriority(5, 3, true, 256);
+
+        Assert.assertEquals(FrameType.PRIORITY.value, priorityFrame.getType());
+        Assert.assertEquals(5, priorityFrame.getStreamId());
+        Assert.assertEquals(0, priorityFrame.getFlags());
+        final ByteBuffer payload = priorityFrame.getPayload();
+        Assert.assertNotNull(payload);
+        Assert.assertEquals(5, payload.remaining());
+        Assert.assertEquals(0x80000003, payload.getInt());
+        Assert.assertEquals(255, payload.get() & 0xff);
+    }
+
     @Test
     public void testGoAwayFrame() throws Exception {
 
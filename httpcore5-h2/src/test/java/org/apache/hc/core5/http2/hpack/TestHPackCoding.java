@@ -180,6 +180,38 @@ public void testHuffmanDecodingRFC7541Examples() throws Exception {
         Assert.assertFalse("Decoding completed", src.hasRemaining());
     }
 
+    @Test(expected = HPackException.class)
+    public void testHuffmanDecodingEOS() throws Exception {
+        // 30 bit EOS code followed by 2 bits of padding
+        final ByteBuffer src = createByteBuffer(0x84, 0xff, 0xff, 0xff, 0xff);
+
+        final ByteArrayBuffer buffer = new ByteArrayBuffer(16);
+        HPackDecoder.decodeHuffman(buffer, src);
+    }
+
+    @Test(expected = HPackException.class)
+    public void testHuffmanDecodingInvalidPadding() throws Exception {
+        // 'w' (1111000) followed by a padding of zero bit
+        final ByteBuffer src = createByteBuffer(0x81, 0xf0);
+
+        final ByteArrayBuffer buffer = new ByteArrayBuffer(16);
+        HPackDecoder.decodeHuffman(buffer, src);
+    }
+
+    @Test
+    public void testHuffmanDecodingAllSymbols() throws Exception {
+        final byte[] data = new byte[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        final ByteArrayBuffer encoded = new ByteArrayBuffer(512);
+        HPackEncoder.encodeHuffman(encoded, ByteBuffer.wrap(data));
+
+        final ByteArrayBuffer buffer = new ByteArrayBuffer(256);
+        Huffman.DECODER.decode(buffer, wrap(encoded));
+        Assert.assertArrayEquals(data, buffer.toByteArray());
+    }
+
     private static ByteBuffer createByteBuffer(final String s, final Charset charset) {
 
         return ByteBuffer.wrap(s.getBytes(charset));
@@ -0,0 +1,96 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBdpEstimator {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * Simulates one PING round trip over a link that delivers as much data as
+     * the receive window permits.
+     */
+    private static int roundTrip(final BdpEstimator estimator, final int window, final long start) {
+        Assert.assertTrue(estimator.onData(16384, start));
+        for (int received = 16384; received < window; received += 16384) {
+            Assert.assertFalse(estimator.onData(16384, start + RTT * received / window));
+        }
+        return estimator.onPingAck(start + RTT);
+    }
+
+    @Test
+    public void testWindowGrowsWhileSaturated() throws Exception {
+        final BdpEstimator estimator = new BdpEstimator(65536, 1 << 20);
+        int window = estimator.getEstimate();
+        long time = 0;
+        for (int i = 0; i < 4; i++) {
+            final int newWindow = roundTrip(estimator, window, time);
+            Assert.assertEquals(window * 2, newWindow);
+            window = newWindow;
+            time += RTT;
+        }
+        Assert.assertEquals(1 << 20, window);
+        Assert.assertFalse(estimator.onData(16384, time));
+    }
+
+    @Test
+    public void testWindowStableWhenNotSaturated() throws Exception {
+        final BdpEstimator estimator = new BdpEstimator(65536, 1 << 20);
+        long time = 0;
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(estimator.onData(16384, time));
+            Assert.assertEquals(65536, estimator.onPingAck(time + RTT));
+            time += RTT;
+        }
+    }
+
+    @Test
+    public void testWindowStableWhenBandwidthDrops() throws Exception {
+        final BdpEstimator estimator = new BdpEstimator(65536, 1 << 20);
+        final int window = roundTrip(estimator, 65536, 0);
+        Assert.assertEquals(131072, window);
+        // Same amount of data over a much longer round trip
+        Assert.assertTrue(estimator.onData(65536, RTT));
+        Assert.assertFalse(estimator.onData(65536, RTT * 2));
+        Assert.assertEquals(131072, estimator.onPingAck(RTT * 5));
+    }
+
+    @Test
+    public void testProbeData() throws Exception {
+        Assert.assertTrue(BdpEstimator.isProbe(BdpEstimator.createPingData()));
+        Assert.assertFalse(BdpEstimator.isProbe(ByteBuffer.wrap(new byte[] {'*', '*', 'p', 'i', 'n', 'g', '*', '*'})));
+        Assert.assertFalse(BdpEstimator.isProbe(ByteBuffer.allocate(4)));
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http2.H2ConnectionException;
+import org.apache.hc.core5.http2.H2Error;
+import org.apache.hc.core5.http2.frame.FrameFlag;
+import org.apache.hc.core5.http2.frame.FrameType;
+import org.apache.hc.core5.http2.frame.RawFrame;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFrameBudget {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testFrameCost() throws Exception {
+        Assert.assertEquals(1, FrameBudget.getCost(new RawFrame(FrameType.PING.getValue(), 0, 0,
+                ByteBuffer.allocate(8))));
+        Assert.assertEquals(1, FrameBudget.getCost(new RawFrame(FrameType.SETTINGS.getValue(), 0, 0, null)));
+        Assert.assertEquals(1, FrameBudget.getCost(new RawFrame(FrameType.RST_STREAM.getValue(), 0, 1,
+                ByteBuffer.allocate(4))));
+        Assert.assertEquals(0, FrameBudget.getCost(new RawFrame(FrameType.WINDOW_UPDATE.getValue(), 0, 1,
+                ByteBuffer.allocate(4))));
+        Assert.assertEquals(0, FrameBudget.getCost(new RawFrame(FrameType.DATA.getValue(), 0, 1,
+                ByteBuffer.allocate(16))));
+        Assert.assertEquals(1, FrameBudget.getCost(new RawFrame(FrameType.DATA.getValue(), 0, 1, null)));
+        Assert.assertEquals(0, FrameBudget.getCost(new RawFrame(FrameType.DATA.getValue(),
+                FrameFlag.END_STREAM.getValue(), 1, null)));
+        final ByteBuffer paddingOnly = ByteBuffer.allocate(9);
+        paddingOnly.put(0, (byte) 8);
+        Assert.assertEquals(1, FrameBudget.getCost(new RawFrame(FrameType.DATA.getValue(),
+                FrameFlag.PADDED.getValue(), 1, paddingOnly)));
+        Assert.assertEquals(1, FrameBudget.getCost(new RawFrame(0xff, 0, 0, null)));
+    }
+
+    @Test
+    public void testHeaderCost() throws Exception {
+        Assert.assertEquals(0, FrameBudget.getHeaderCost(100, 10));
+        Assert.assertEquals(1, FrameBudget.getHeaderCost(1024, 10));
+        Assert.assertEquals(2, FrameBudget.getHeaderCost(1024, 16));
+        Assert.assertEquals(16, FrameBudget.getHeaderCost(8192, 128));
+    }
+
+    @Test
+    public void testBudgetExceeded() throws Exception {
+        final FrameBudget budget = new FrameBudget(10, WINDOW, 0);
+        for (int i = 0; i < 10; i++) {
+            budget.chargeFrame(FrameType.PING.getValue(), 1, i);
+        }
+        Assert.assertEquals(10, budget.getWindowCost());
+        Assert.assertEquals(10, budget.getFrameCount(FrameType.PING));
+        try {
+            budget.chargeFrame(FrameType.PING.getValue(), 1, 10);
+            Assert.fail("H2ConnectionException expected");
+        } catch (final H2ConnectionException ex) {
+            Assert.assertEquals(H2Error.ENHANCE_YOUR_CALM.getCode(), ex.getCode());
+            Assert.assertTrue(ex.getMessage().contains("PING"));
+        }
+    }
+
+    @Test
+    public void testBudgetReplenished() throws Exception {
+        final FrameBudget budget = new FrameBudget(10, WINDOW, 0);
+        long time = 0;
+        for (int n = 0; n < 5; n++) {
+            for (int i = 0; i < 10; i++) {
+                budget.chargeFrame(FrameType.SETTINGS.getValue(), 1, time);
+            }
+            time += WINDOW;
+        }
+        budget.chargeFrame(FrameType.SETTINGS.getValue(), 1, time);
+        Assert.assertEquals(1, budget.getWindowCost());
+        Assert.assertEquals(1, budget.getFrameCount(FrameType.SETTINGS));
+    }
+
+    @Test
+    public void testFreeFramesNotLimited() throws Exception {
+        final FrameBudget budget = new FrameBudget(10, WINDOW, 0);
+        for (int i = 0; i < 1000; i++) {
+            budget.chargeFrame(FrameType.DATA.getValue(), 0, 0);
+            budget.chargeFrame(FrameType.WINDOW_UPDATE.getValue(), 0, 0);
+        }
+        Assert.assertEquals(0, budget.getWindowCost());
+        Assert.assertEquals(1000, budget.getFrameCount(FrameType.DATA));
+    }
+
+    @Test
+    public void testHeaderDecodingCharged() throws Exception {
+        final FrameBudget budget = new FrameBudget(10, WINDOW, 0);
+        budget.chargeFrame(FrameType.HEADERS.getValue(), 1, 0);
+        budget.charge(FrameBudget.getHeaderCost(8192, 16));
+        Assert.assertEquals(10, budget.getWindowCost());
+        try {
+            budget.chargeFrame(FrameType.HEADERS.getValue(), 1, 0);
+            Assert.fail("H2ConnectionException expected");
+        } catch (final H2ConnectionException ex) {
+            Assert.assertEquals(H2Error.ENHANCE_YOUR_CALM.getCode(), ex.getCode());
+        }
+    }
+
+}
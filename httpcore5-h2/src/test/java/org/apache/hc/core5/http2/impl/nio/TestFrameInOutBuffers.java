@@ -28,6 +28,8 @@
 package org.apache.hc.core5.http2.impl.nio;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http2.H2ConnectionException;
@@ -39,6 +41,9 @@
 import org.apache.hc.core5.http2.frame.FrameType;
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -101,6 +106,52 @@ public void testPartialFrameWrite() throws Exception {
                 writableChannel.toByteArray());
     }
 
+    @Test
+    public void testAppendFramesBatch() throws Exception {
+        final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(
+                new BasicH2TransportMetrics(), 16 * 1024, 64 * 1024, HeapByteBufferAllocator.INSTANCE);
+
+        final RawFrame frame1 = new RawFrame(FrameType.WINDOW_UPDATE.getValue(), 0, 1,
+                ByteBuffer.wrap(new byte[]{0,0,1,0}));
+        final RawFrame frame2 = new RawFrame(FrameType.WINDOW_UPDATE.getValue(), 0, 3,
+                ByteBuffer.wrap(new byte[]{0,0,2,0}));
+        final RawFrame frame3 = new RawFrame(FrameType.DATA.getValue(), 0, 3,
+                ByteBuffer.wrap(new byte[]{1,2,3,4,5}));
+        Assert.assertTrue(outbuffer.hasCapacity(frame1));
+        outbuffer.append(frame1);
+        outbuffer.append(frame2);
+        outbuffer.append(frame3);
+        Assert.assertEquals(0, writableChannel.toByteArray().length);
+        Assert.assertEquals(64 * 1024 - 3 * FrameConsts.HEAD_LEN - 13, outbuffer.getRemainingCapacity());
+
+        outbuffer.flush(writableChannel);
+        Assert.assertTrue(outbuffer.isEmpty());
+        Assert.assertArrayEquals(new byte[] {
+                0,0,4,8,0,0,0,0,1,0,0,1,0,
+                0,0,4,8,0,0,0,0,3,0,0,2,0,
+                0,0,5,0,0,0,0,0,3,1,2,3,4,5}, writableChannel.toByteArray());
+        Assert.assertEquals(3, outbuffer.getMetrics().getFramesTransferred());
+        Assert.assertEquals(1, outbuffer.getMetrics().getIoOperations());
+        Assert.assertEquals(3 * FrameConsts.HEAD_LEN + 13, outbuffer.getMetrics().getBytesTransferred());
+    }
+
+    @Test
+    public void testAppendFrameExceedingCapacity() throws Exception {
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(
+                new BasicH2TransportMetrics(), 16, 0, HeapByteBufferAllocator.INSTANCE);
+        final RawFrame frame = new RawFrame(FrameType.DATA.getValue(), 0, 1,
+                ByteBuffer.wrap(new byte[]{1,2,3,4,5,6,7,8,9,10}));
+        outbuffer.append(frame);
+        Assert.assertFalse(outbuffer.hasCapacity(frame));
+        try {
+            outbuffer.append(frame);
+            Assert.fail("IllegalStateException expected");
+        } catch (final IllegalStateException expected) {
+        }
+        Assert.assertEquals(1, outbuffer.getMetrics().getFramesTransferred());
+    }
+
     @Test
     public void testReadFrameMultiple() throws Exception {
         final FrameInputBuffer inbuffer = new FrameInputBuffer(16 * 1024);
@@ -271,5 +322,157 @@ public void testReadFrameExceedingLimit() throws Exception {
         inbuffer.read(readableChannel);
     }
 
-}
+    @Test
+    public void testBufferHibernation() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(new BasicH2TransportMetrics(), 16 * 1024, allocator);
+        Assert.assertTrue(outbuffer.hibernate());
+        Assert.assertFalse(outbuffer.hibernate());
+
+        outbuffer.write(new RawFrame(FrameType.DATA.getValue(), 0, 1,
+                ByteBuffer.wrap(new byte[]{1,2,3,4,5})), writableChannel);
+        outbuffer.write(new RawFrame(FrameType.DATA.getValue(), 0, 1,
+                ByteBuffer.wrap(new byte[]{6,7,8})), writableChannel);
+        Assert.assertTrue(outbuffer.isEmpty());
+        Assert.assertTrue(outbuffer.hibernate());
+
+        final byte[] bytes = writableChannel.toByteArray();
+        final FrameInputBuffer inbuffer = new FrameInputBuffer(new BasicH2TransportMetrics(), 16 * 1024, allocator);
+        final ReadableByteChannelMock readableChannel = new ReadableByteChannelMock(bytes);
+        final RawFrame frame1 = inbuffer.read(readableChannel);
+        Assert.assertNotNull(frame1);
+        Assert.assertEquals(5, frame1.getPayloadContent().remaining());
+        Assert.assertFalse(inbuffer.hibernate());
+
+        final RawFrame frame2 = inbuffer.read(readableChannel);
+        Assert.assertNotNull(frame2);
+        Assert.assertEquals(3, frame2.getPayloadContent().remaining());
+        Assert.assertEquals(6, frame2.getPayloadContent().get());
+        Assert.assertTrue(inbuffer.hibernate());
+        Assert.assertFalse(inbuffer.hibernate());
+
+        try {
+            inbuffer.read(readableChannel);
+            Assert.fail("ConnectionClosedException expected");
+        } catch (final ConnectionClosedException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRetainedStorage() throws Exception {
+        final List<ByteBuffer> released = new ArrayList<>();
+        final ByteBufferAllocator allocator = new ByteBufferAllocator() {
+
+            @Override
+            public ByteBuffer allocate(final int capacity) {
+                return ByteBuffer.allocate(capacity);
+            }
+
+            @Override
+            public void release(final ByteBuffer buffer) {
+                released.add(buffer);
+            }
+
+        };
+        final FrameInputBuffer inbuffer = new FrameInputBuffer(
+                new BasicH2TransportMetrics(), FrameConsts.HEAD_LEN + 8, 8, allocator);
+        final ReadableByteChannelMock readableChannel = new ReadableByteChannelMock(
+                new byte[] {
+                        0,0,5,0,0,0,0,0,1,1,2,3,4,5,
+                        0,0,3,0,0,0,0,0,1,6,7,8
+                });
+
+        final RawFrame frame1 = inbuffer.read(readableChannel);
+        Assert.assertNotNull(frame1);
+        final ByteBuffer payload1 = frame1.getPayloadContent();
+        final FrameInputBuffer.Storage storage = inbuffer.retainStorage();
+
+        // The second frame needs the unprocessed input compacted
+        final RawFrame frame2 = inbuffer.read(readableChannel);
+        Assert.assertNotNull(frame2);
+        final ByteBuffer payload2 = frame2.getPayloadContent();
+        Assert.assertEquals(3, payload2.remaining());
+        Assert.assertEquals(6, payload2.get());
+        Assert.assertEquals(5, payload1.remaining());
+        Assert.assertEquals(1, payload1.get());
+        Assert.assertEquals(2, payload1.get());
+        Assert.assertTrue(released.isEmpty());
+
+        storage.release();
+        Assert.assertEquals(1, released.size());
+
+        inbuffer.release();
+        Assert.assertEquals(2, released.size());
+        Assert.assertNotSame(released.get(0), released.get(1));
+    }
+
+    @Test
+    public void testRetainedStorageAppendedToUntilFull() throws Exception {
+        final List<ByteBuffer> allocated = new ArrayList<>();
+        final List<ByteBuffer> released = new ArrayList<>();
+        final ByteBufferAllocator allocator = new ByteBufferAllocator() {
+
+            @Override
+            public ByteBuffer allocate(final int capacity) {
+                final ByteBuffer buffer = ByteBuffer.allocate(capacity);
+                allocated.add(buffer);
+                return buffer;
+            }
+
+            @Override
+            public void release(final ByteBuffer buffer) {
+                released.add(buffer);
+            }
+
+        };
+        final FrameInputBuffer inbuffer = new FrameInputBuffer(
+                new BasicH2TransportMetrics(), 32, 8, allocator);
+        final ReadableByteChannelMock readableChannel = new ReadableByteChannelMock(
+                new byte[] {
+                        0,0,5,0,0,0,0,0,1,1,2,3,4,5,
+                        0,0,3,0
+                },
+                new byte[] {
+                        0,0,0,0,1,6,7,8
+                },
+                new byte[] {
+                        0,0,4,0,0,0,0,0,1,9,10,11,12
+                });
 
+        final RawFrame frame1 = inbuffer.read(readableChannel);
+        Assert.assertNotNull(frame1);
+        final ByteBuffer payload1 = frame1.getPayloadContent();
+        final FrameInputBuffer.Storage storage1 = inbuffer.retainStorage();
+
+        // The rest of the second frame fits into the storage after the retained payload
+        final RawFrame frame2 = inbuffer.read(readableChannel);
+        Assert.assertNotNull(frame2);
+        final ByteBuffer payload2 = frame2.getPayloadContent();
+        Assert.assertEquals(3, payload2.remaining());
+        Assert.assertEquals(6, payload2.get());
+        Assert.assertEquals(1, allocated.size());
+        final FrameInputBuffer.Storage storage2 = inbuffer.retainStorage();
+        Assert.assertSame(storage1, storage2);
+
+        // The third frame does not fit any more
+        final RawFrame frame3 = inbuffer.read(readableChannel);
+        Assert.assertNotNull(frame3);
+        final ByteBuffer payload3 = frame3.getPayloadContent();
+        Assert.assertEquals(4, payload3.remaining());
+        Assert.assertEquals(9, payload3.get());
+        Assert.assertEquals(2, allocated.size());
+
+        Assert.assertEquals(5, payload1.remaining());
+        Assert.assertEquals(1, payload1.get());
+        Assert.assertEquals(7, payload2.get());
+        Assert.assertTrue(released.isEmpty());
+        storage1.release();
+        Assert.assertTrue(released.isEmpty());
+        storage2.release();
+        Assert.assertEquals(1, released.size());
+        Assert.assertSame(allocated.get(0), released.get(0));
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.http2.H2StreamPriority;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHttp2StreamScheduler {
+
+    static class StreamMock implements Http2StreamScheduler.Stream {
+
+        final int weight;
+        final AtomicInteger credit;
+        int remaining;
+        int transferred;
+        int completedAt;
+
+        StreamMock(final int weight, final int length) {
+            this.weight = weight;
+            this.credit = new AtomicInteger(0);
+            this.remaining = length;
+            this.completedAt = -1;
+        }
+
+        @Override
+        public int getWeight() {
+            return weight;
+        }
+
+        @Override
+        public AtomicInteger getOutputCredit() {
+            return credit;
+        }
+
+    }
+
+    /**
+     * Connection that accepts a fixed number of bytes per I/O cycle
+     * in frames of up to 16 KB each.
+     */
+    static class ConnectionMock implements Http2StreamScheduler.OutputHandler<StreamMock> {
+
+        final int capacity;
+        int cycle;
+        int written;
+
+        ConnectionMock(final int capacity) {
+            this.capacity = capacity;
+        }
+
+        void nextCycle() {
+            cycle++;
+            written = 0;
+        }
+
+        @Override
+        public boolean isActive(final StreamMock stream) {
+            return stream.remaining > 0;
+        }
+
+        @Override
+        public void produceOutput(final StreamMock stream) {
+            while (stream.remaining > 0 && !isOutputBlocked()) {
+                final int chunk = Math.min(
+                        Math.min(stream.remaining, stream.credit.get()),
+                        Math.min(16 * 1024, capacity - written));
+                if (chunk == 0) {
+                    break;
+                }
+                stream.credit.addAndGet(-chunk);
+                stream.remaining -= chunk;
+                stream.transferred += chunk;
+                written += chunk;
+            }
+            if (stream.remaining == 0) {
+                stream.completedAt = cycle;
+            }
+        }
+
+        @Override
+        public boolean isOutputBlocked() {
+            return written >= capacity;
+        }
+
+    }
+
+    @Test
+    public void testSmallStreamLatencyWithLargeStreams() throws Exception {
+        final Http2StreamScheduler<StreamMock> scheduler = new Http2StreamScheduler<>(16 * 1024);
+        final ConnectionMock connection = new ConnectionMock(64 * 1024);
+
+        final List<StreamMock> largeStreams = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final StreamMock stream = new StreamMock(H2StreamPriority.DEFAULT_WEIGHT, 4 * 1024 * 1024);
+            largeStreams.add(stream);
+            scheduler.add(stream);
+        }
+        // Let bulk transfers get going
+        for (int i = 0; i < 10; i++) {
+            connection.nextCycle();
+            scheduler.produceOutput(connection);
+        }
+        final List<StreamMock> smallStreams = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final StreamMock stream = new StreamMock(H2StreamPriority.DEFAULT_WEIGHT, 8 * 1024);
+            smallStreams.add(stream);
+            scheduler.add(stream);
+        }
+        final int start = connection.cycle;
+        while (scheduler.size() > 0) {
+            connection.nextCycle();
+            scheduler.produceOutput(connection);
+        }
+
+        int maxSmallLatency = 0;
+        for (final StreamMock stream: smallStreams) {
+            maxSmallLatency = Math.max(maxSmallLatency, stream.completedAt - start);
+        }
+        int minLargeLatency = Integer.MAX_VALUE;
+        for (final StreamMock stream: largeStreams) {
+            minLargeLatency = Math.min(minLargeLatency, stream.completedAt - start);
+        }
+        // 20 x 8 KB of small streams interleaved with 4 x 16 KB of large stream quanta
+        // per round fit into 4 cycles of 64 KB each
+        Assert.assertTrue("Small stream tail latency: " + maxSmallLatency, maxSmallLatency <= 4);
+        Assert.assertTrue(minLargeLatency > 200);
+    }
+
+    @Test
+    public void testOutputShareProportionalToWeight() throws Exception {
+        final Http2StreamScheduler<StreamMock> scheduler = new Http2StreamScheduler<>(16 * 1024);
+        final ConnectionMock connection = new ConnectionMock(64 * 1024);
+
+        final StreamMock stream1 = new StreamMock(8, Integer.MAX_VALUE);
+        final StreamMock stream2 = new StreamMock(16, Integer.MAX_VALUE);
+        final StreamMock stream3 = new StreamMock(64, Integer.MAX_VALUE);
+        scheduler.add(stream1);
+        scheduler.add(stream2);
+        scheduler.add(stream3);
+
+        for (int i = 0; i < 1000; i++) {
+            connection.nextCycle();
+            scheduler.produceOutput(connection);
+        }
+        final double share2 = (double) stream2.transferred / stream1.transferred;
+        final double share3 = (double) stream3.transferred / stream1.transferred;
+        Assert.assertEquals(2.0, share2, 0.05);
+        Assert.assertEquals(8.0, share3, 0.05);
+    }
+
+    @Test
+    public void testTurnRetainedWhileOutputBlocked() throws Exception {
+        final Http2StreamScheduler<StreamMock> scheduler = new Http2StreamScheduler<>(16 * 1024);
+        final ConnectionMock connection = new ConnectionMock(4 * 1024);
+
+        final StreamMock stream1 = new StreamMock(H2StreamPriority.DEFAULT_WEIGHT, 64 * 1024);
+        final StreamMock stream2 = new StreamMock(H2StreamPriority.DEFAULT_WEIGHT, 64 * 1024);
+        scheduler.add(stream1);
+        scheduler.add(stream2);
+
+        for (int i = 0; i < 4; i++) {
+            connection.nextCycle();
+            scheduler.produceOutput(connection);
+        }
+        Assert.assertEquals(16 * 1024, stream1.transferred);
+        Assert.assertEquals(0, stream2.transferred);
+
+        for (int i = 0; i < 4; i++) {
+            connection.nextCycle();
+            scheduler.produceOutput(connection);
+        }
+        Assert.assertEquals(16 * 1024, stream1.transferred);
+        Assert.assertEquals(16 * 1024, stream2.transferred);
+    }
+
+    @Test
+    public void testInactiveStreamsRemoved() throws Exception {
+        final Http2StreamScheduler<StreamMock> scheduler = new Http2StreamScheduler<>(1024);
+        final ConnectionMock connection = new ConnectionMock(64 * 1024);
+
+        final StreamMock stream1 = new StreamMock(H2StreamPriority.DEFAULT_WEIGHT, 0);
+        final StreamMock stream2 = new StreamMock(H2StreamPriority.DEFAULT_WEIGHT, 3000);
+        scheduler.add(stream1);
+        scheduler.add(stream2);
+        Assert.assertEquals(2, scheduler.size());
+
+        connection.nextCycle();
+        scheduler.produceOutput(connection);
+        Assert.assertEquals(0, scheduler.size());
+        Assert.assertEquals(3000, stream2.transferred);
+        Assert.assertEquals(1, stream2.completedAt);
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        final Http2StreamScheduler<StreamMock> scheduler = new Http2StreamScheduler<>(1024);
+        final ConnectionMock connection = new ConnectionMock(64 * 1024);
+
+        final StreamMock stream1 = new StreamMock(H2StreamPriority.DEFAULT_WEIGHT, 3000);
+        scheduler.add(stream1);
+        scheduler.add(new StreamMock(H2StreamPriority.DEFAULT_WEIGHT, 3000));
+        scheduler.clear();
+        Assert.assertEquals(0, scheduler.size());
+
+        connection.nextCycle();
+        scheduler.produceOutput(connection);
+        Assert.assertEquals(0, stream1.transferred);
+    }
+
+}
@@ -36,6 +36,7 @@
 
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.IOEventLoop;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.testing.classic.Wire;
 import org.slf4j.Logger;
@@ -199,6 +200,11 @@ public void updateWriteTime() {
         this.session.updateWriteTime();
     }
 
+    @Override
+    public IOEventLoop getEventLoop() {
+        return this.session.getEventLoop();
+    }
+
     @Override
     public long getLastReadTime() {
         return this.session.getLastReadTime();
@@ -0,0 +1,266 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.testing.nio;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncRequesterBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncServerBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.BasicResponseProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.FileDataStreamChannel;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.FileEntityProducer;
+import org.apache.hc.core5.http.nio.entity.NoopEntityConsumer;
+import org.apache.hc.core5.http.nio.ssl.BasicClientTlsStrategy;
+import org.apache.hc.core5.http.nio.ssl.BasicServerTlsStrategy;
+import org.apache.hc.core5.http.nio.ssl.SecurePortStrategy;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.testing.SSLTestContexts;
+import org.apache.hc.core5.util.Timeout;
+import org.hamcrest.CoreMatchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Serves file content with {@link FileEntityProducer} over undecorated I/O sessions
+ * so that plain HTTP/1.1 connections can transfer it directly from the file.
+ */
+@RunWith(Parameterized.class)
+public class Http1FileTransferTest {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> protocols() {
+        return Arrays.asList(new Object[][]{
+                { URIScheme.HTTP },
+                { URIScheme.HTTPS }
+        });
+    }
+
+    private static final Timeout TIMEOUT = Timeout.ofSeconds(30);
+
+    private final URIScheme scheme;
+
+    public Http1FileTransferTest(final URIScheme scheme) {
+        this.scheme = scheme;
+    }
+
+    private File file;
+    private byte[] content;
+    private AtomicInteger fileTransfers;
+    private HttpAsyncServer server;
+    private HttpAsyncRequester requester;
+
+    @Before
+    public void setup() throws Exception {
+        content = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+        file = File.createTempFile("testing", ".bin");
+        try (final OutputStream outStream = new FileOutputStream(file)) {
+            outStream.write(content);
+        }
+        fileTransfers = new AtomicInteger();
+        server = AsyncServerBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .register("*", new AsyncServerRequestHandler<Message<HttpRequest, Void>>() {
+
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+                            final HttpRequest request, final HttpContext context) throws HttpException {
+                        return new BasicRequestConsumer<>(new NoopEntityConsumer());
+                    }
+
+                    @Override
+                    public void handle(
+                            final Message<HttpRequest, Void> requestMessage,
+                            final ResponseTrigger responseTrigger,
+                            final HttpContext context) throws HttpException, IOException {
+                        responseTrigger.submitResponse(new BasicResponseProducer(
+                                HttpStatus.SC_OK,
+                                new TransferTrackingProducer(new FileEntityProducer(file, ContentType.APPLICATION_OCTET_STREAM))));
+                    }
+
+                })
+                .setTlsStrategy(scheme == URIScheme.HTTPS ? new BasicServerTlsStrategy(
+                        SSLTestContexts.createServerSSLContext(),
+                        new SecurePortStrategy() {
+
+                            @Override
+                            public boolean isSecure(final SocketAddress localAddress) {
+                                return true;
+                            }
+
+                        }) : null)
+                .create();
+        requester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setTlsStrategy(new BasicClientTlsStrategy(SSLTestContexts.createClientSSLContext()))
+                .create();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        if (requester != null) {
+            requester.shutdown(ShutdownType.IMMEDIATE);
+        }
+        if (server != null) {
+            server.shutdown(ShutdownType.IMMEDIATE);
+        }
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    class TransferTrackingProducer implements AsyncEntityProducer {
+
+        private final AsyncEntityProducer producer;
+
+        TransferTrackingProducer(final AsyncEntityProducer producer) {
+            this.producer = producer;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return producer.isRepeatable();
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            producer.failed(cause);
+        }
+
+        @Override
+        public long getContentLength() {
+            return producer.getContentLength();
+        }
+
+        @Override
+        public String getContentType() {
+            return producer.getContentType();
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return producer.getContentEncoding();
+        }
+
+        @Override
+        public boolean isChunked() {
+            return producer.isChunked();
+        }
+
+        @Override
+        public Set<String> getTrailerNames() {
+            return producer.getTrailerNames();
+        }
+
+        @Override
+        public int available() {
+            return producer.available();
+        }
+
+        @Override
+        public void produce(final DataStreamChannel channel) throws IOException {
+            if (channel instanceof FileDataStreamChannel && ((FileDataStreamChannel) channel).isFileTransferSupported()) {
+                fileTransfers.incrementAndGet();
+            }
+            producer.produce(channel);
+        }
+
+        @Override
+        public void releaseResources() {
+            producer.releaseResources();
+        }
+
+    }
+
+    @Test
+    public void testLargeFileTransfer() throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        requester.start();
+
+        final HttpHost target = new HttpHost("localhost", address.getPort(), scheme.id);
+        for (int i = 0; i < 3; i++) {
+            final Future<Message<HttpResponse, byte[]>> resultFuture = requester.execute(
+                    new BasicRequestProducer("GET", target, "/file"),
+                    new BasicResponseConsumer<>(new BasicAsyncEntityConsumer()), TIMEOUT, null);
+            final Message<HttpResponse, byte[]> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertThat(message, CoreMatchers.notNullValue());
+            Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+            Assert.assertTrue(Arrays.equals(content, message.getBody()));
+        }
+        if (scheme == URIScheme.HTTPS) {
+            // Encrypted content must go through the buffered path
+            Assert.assertEquals(0, fileTransfers.get());
+        } else {
+            Assert.assertTrue(fileTransfers.get() > 0);
+        }
+    }
+
+}
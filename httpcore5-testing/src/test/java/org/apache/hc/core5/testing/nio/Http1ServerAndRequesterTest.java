@@ -49,6 +49,7 @@
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.Message;
 import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.H1Config;
 import org.apache.hc.core5.http.impl.bootstrap.AsyncRequesterBootstrap;
 import org.apache.hc.core5.http.impl.bootstrap.AsyncServerBootstrap;
 import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
@@ -73,6 +74,7 @@
 import org.apache.hc.core5.reactor.ExceptionEvent;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.reactor.ssl.TlsSessionCache;
 import org.apache.hc.core5.testing.SSLTestContexts;
 import org.apache.hc.core5.testing.classic.LoggingConnPoolListener;
 import org.apache.hc.core5.util.Timeout;
@@ -328,6 +330,97 @@ public void testSequentialRequestsNonPersistentConnection() throws Exception {
         Assert.assertThat(body3, CoreMatchers.equalTo("some more stuff"));
     }
 
+    @Test
+    public void testNonPersistentConnectionSessionResumption() throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+
+        final TlsSessionCache sessionCache = new TlsSessionCache();
+        final HttpAsyncRequester cachingRequester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setTlsStrategy(new BasicClientTlsStrategy(
+                        SSLTestContexts.createClientSSLContext(), null, null, null, sessionCache))
+                .setIOSessionListener(LoggingIOSessionListener.INSTANCE)
+                .setStreamListener(LoggingHttp1StreamListener.INSTANCE_CLIENT)
+                .setConnPoolListener(LoggingConnPoolListener.INSTANCE)
+                .setIOSessionDecorator(LoggingIOSessionDecorator.INSTANCE)
+                .create();
+        try {
+            cachingRequester.start();
+
+            final HttpHost target = new HttpHost("localhost", address.getPort(), scheme.id);
+            for (int i = 0; i < 5; i++) {
+                final Future<Message<HttpResponse, String>> resultFuture = cachingRequester.execute(
+                        new BasicRequestProducer("POST", target, "/no-keep-alive/stuff",
+                                new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                        new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+                final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+                Assert.assertThat(message, CoreMatchers.notNullValue());
+                final HttpResponse response = message.getHead();
+                Assert.assertThat(response.getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+                Assert.assertThat(message.getBody(), CoreMatchers.equalTo("some stuff"));
+            }
+        } finally {
+            cachingRequester.shutdown(ShutdownType.GRACEFUL);
+        }
+        if (scheme == URIScheme.HTTPS) {
+            Assert.assertThat(sessionCache.getMisses(), CoreMatchers.equalTo(1L));
+            Assert.assertThat(sessionCache.getHits(), CoreMatchers.equalTo(4L));
+        } else {
+            Assert.assertThat(sessionCache.getMisses(), CoreMatchers.equalTo(0L));
+            Assert.assertThat(sessionCache.getHits(), CoreMatchers.equalTo(0L));
+        }
+    }
+
+    @Test
+    public void testLargeMessagesSmallSessionBuffer() throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+
+        final HttpAsyncRequester smallBufferRequester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setH1Config(H1Config.custom()
+                        .setBufferSize(1024)
+                        .build())
+                .setTlsStrategy(new BasicClientTlsStrategy(SSLTestContexts.createClientSSLContext()))
+                .setIOSessionListener(LoggingIOSessionListener.INSTANCE)
+                .setStreamListener(LoggingHttp1StreamListener.INSTANCE_CLIENT)
+                .setConnPoolListener(LoggingConnPoolListener.INSTANCE)
+                .setIOSessionDecorator(LoggingIOSessionDecorator.INSTANCE)
+                .create();
+        try {
+            smallBufferRequester.start();
+
+            final StringBuilder buffer = new StringBuilder();
+            for (int i = 0; buffer.length() < 100000; i++) {
+                buffer.append("line ").append(i).append("\r\n");
+            }
+            final String content = buffer.toString();
+            final HttpHost target = new HttpHost("localhost", address.getPort(), scheme.id);
+            for (int i = 0; i < 3; i++) {
+                final Future<Message<HttpResponse, String>> resultFuture = smallBufferRequester.execute(
+                        new BasicRequestProducer("POST", target, "/stuff",
+                                new StringAsyncEntityProducer(content, ContentType.TEXT_PLAIN)),
+                        new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+                final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+                Assert.assertThat(message, CoreMatchers.notNullValue());
+                final HttpResponse response = message.getHead();
+                Assert.assertThat(response.getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+                Assert.assertThat(message.getBody(), CoreMatchers.equalTo(content));
+            }
+        } finally {
+            smallBufferRequester.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
     @Test
     public void testSequentialRequestsSameEndpoint() throws Exception {
         server.start();
@@ -53,6 +53,7 @@
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -79,6 +80,7 @@
 import org.apache.hc.core5.http.ProtocolException;
 import org.apache.hc.core5.http.URIScheme;
 import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
 import org.apache.hc.core5.http.nio.AsyncPushConsumer;
 import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
 import org.apache.hc.core5.http.nio.AsyncResponseProducer;
@@ -92,6 +94,8 @@
 import org.apache.hc.core5.http.nio.CapacityChannel;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
 import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.http.nio.RetainableBuffer;
+import org.apache.hc.core5.http.nio.RetainingDataConsumer;
 import org.apache.hc.core5.http.nio.entity.AbstractClassicEntityConsumer;
 import org.apache.hc.core5.http.nio.entity.AbstractClassicEntityProducer;
 import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
@@ -367,6 +371,186 @@ public AsyncServerExchangeHandler get() {
         }
     }
 
+    @Test
+    public void testConcurrentPostsWithOutputBatching() throws Exception {
+        server.register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new EchoHandler(2048);
+            }
+
+        });
+        final H2Config h2Config = H2Config.custom().setOutputBatchSize(256 * 1024).build();
+        final InetSocketAddress serverEndpoint = server.start(h2Config);
+
+        client.start(h2Config);
+        final Future<ClientSessionEndpoint> connectFuture = client.connect(
+                "localhost", serverEndpoint.getPort(), TIMEOUT);
+        final ClientSessionEndpoint streamEndpoint = connectFuture.get();
+
+        final Queue<Future<Message<HttpResponse, String>>> queue = new LinkedList<>();
+        for (int i = 0; i < 10; i++) {
+            queue.add(streamEndpoint.execute(
+                    new BasicRequestProducer("POST", createRequestURI(serverEndpoint, "/echo"),
+                            new MultiLineEntityProducer("0123456789abcdef", 5000)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), null));
+        }
+        while (!queue.isEmpty()) {
+            final Future<Message<HttpResponse, String>> future = queue.remove();
+            final Message<HttpResponse, String> result = future.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertNotNull(result);
+            final HttpResponse response = result.getHead();
+            Assert.assertNotNull(response);
+            Assert.assertEquals(200, response.getCode());
+            final String body = result.getBody();
+            Assert.assertNotNull(body);
+            Assert.assertEquals(5000 * 18, body.length());
+            final StringTokenizer t = new StringTokenizer(body, "\r\n");
+            while (t.hasMoreTokens()) {
+                Assert.assertEquals("0123456789abcdef", t.nextToken());
+            }
+        }
+    }
+
+    static class RetainingHandler implements AsyncServerExchangeHandler, RetainingDataConsumer {
+
+        private final ExecutorService executorService;
+        private final StringBuilder content;
+        private final AtomicInteger retainedCount;
+        private volatile ResponseChannel responseChannel;
+
+        RetainingHandler(final ExecutorService executorService) {
+            this.executorService = executorService;
+            this.content = new StringBuilder();
+            this.retainedCount = new AtomicInteger(0);
+        }
+
+        @Override
+        public void handleRequest(
+                final HttpRequest request,
+                final EntityDetails entityDetails,
+                final ResponseChannel responseChannel,
+                final HttpContext context) throws HttpException, IOException {
+            this.responseChannel = responseChannel;
+            final Header h = request.getFirstHeader(HttpHeaders.EXPECT);
+            if (h != null && HeaderElements.CONTINUE.equalsIgnoreCase(h.getValue())) {
+                responseChannel.sendInformation(new BasicHttpResponse(HttpStatus.SC_CONTINUE));
+            }
+        }
+
+        @Override
+        public void consume(final RetainableBuffer src) throws IOException {
+            retainedCount.incrementAndGet();
+            // Retained data is released by another thread after the consume call has returned
+            src.retain();
+            executorService.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    content.append(StandardCharsets.US_ASCII.decode(src.data()));
+                    src.release();
+                }
+
+            });
+        }
+
+        @Override
+        public int consume(final ByteBuffer src) throws IOException {
+            throw new IllegalStateException("Message data expected to be retained");
+        }
+
+        @Override
+        public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+        }
+
+        @Override
+        public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+            executorService.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    final HttpResponse response = new BasicHttpResponse(HttpStatus.SC_OK);
+                    final StringTokenizer t = new StringTokenizer(content.toString(), "\r\n");
+                    boolean valid = true;
+                    while (t.hasMoreTokens()) {
+                        valid &= "0123456789abcdef".equals(t.nextToken());
+                    }
+                    response.addHeader("x-length", Integer.toString(content.length()));
+                    response.addHeader("x-valid", Boolean.toString(valid));
+                    response.addHeader("x-retained", Integer.toString(retainedCount.get()));
+                    try {
+                        responseChannel.sendResponse(response, null);
+                    } catch (final HttpException | IOException ignore) {
+                    }
+                }
+
+            });
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+
+        @Override
+        public void produce(final DataStreamChannel channel) throws IOException {
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+        }
+
+        @Override
+        public void releaseResources() {
+        }
+
+    }
+
+    @Test
+    public void testRetainingDataConsumer() throws Exception {
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            server.register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                @Override
+                public AsyncServerExchangeHandler get() {
+                    return new RetainingHandler(executorService);
+                }
+
+            });
+            // Exchange handler decorators would hide the ability of the handler to retain message data
+            final InetSocketAddress serverEndpoint = server.start(null, new Decorator<AsyncServerExchangeHandler>() {
+
+                @Override
+                public AsyncServerExchangeHandler decorate(final AsyncServerExchangeHandler handler) {
+                    return handler;
+                }
+
+            }, H2Config.DEFAULT);
+
+            client.start();
+            final Future<ClientSessionEndpoint> connectFuture = client.connect(
+                    "localhost", serverEndpoint.getPort(), TIMEOUT);
+            final ClientSessionEndpoint streamEndpoint = connectFuture.get();
+
+            final Future<Message<HttpResponse, String>> future1 = streamEndpoint.execute(
+                    new BasicRequestProducer("POST", createRequestURI(serverEndpoint, "/retain"),
+                            new MultiLineEntityProducer("0123456789abcdef", 20000)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), null);
+            final Message<HttpResponse, String> result1 = future1.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertNotNull(result1);
+            final HttpResponse response1 = result1.getHead();
+            Assert.assertNotNull(response1);
+            Assert.assertEquals(200, response1.getCode());
+            Assert.assertEquals(Integer.toString(20000 * 18), response1.getFirstHeader("x-length").getValue());
+            Assert.assertEquals("true", response1.getFirstHeader("x-valid").getValue());
+            Assert.assertTrue(Integer.parseInt(response1.getFirstHeader("x-retained").getValue()) > 0);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     public void testSlowResponseConsumer() throws Exception {
         server.register("/", new Supplier<AsyncServerExchangeHandler>() {
@@ -1012,6 +1196,50 @@ public void execute(final Boolean result) {
         Assert.assertEquals(n, count.get());
     }
 
+    @Test
+    public void testConnectionPingFloodExceedsFrameBudget() throws Exception {
+        server.register("/hello", new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new SingleLineResponseHandler("Hi there");
+            }
+
+        });
+        final InetSocketAddress serverEndpoint = server.start(H2Config.custom().setFrameBudget(100).build());
+
+        client.start();
+        final Future<ClientSessionEndpoint> connectFuture = client.connect(
+                "localhost", serverEndpoint.getPort(), TIMEOUT);
+        final ClientSessionEndpoint streamEndpoint = connectFuture.get();
+
+        final Future<Message<HttpResponse, String>> future1 = streamEndpoint.execute(
+                new BasicRequestProducer("GET", createRequestURI(serverEndpoint, "/hello")),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), null);
+        final Message<HttpResponse, String> result1 = future1.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+        Assert.assertNotNull(result1);
+        Assert.assertEquals(200, result1.getHead().getCode());
+
+        final int n = 500;
+        final CountDownLatch latch = new CountDownLatch(n);
+        final AtomicInteger count = new AtomicInteger(0);
+        for (int i = 0; i < n; i++) {
+            streamEndpoint.execute(new PingCommand(new BasicPingHandler(new Callback<Boolean>() {
+
+                @Override
+                public void execute(final Boolean result) {
+                    if (result) {
+                        count.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+
+            })), Command.Priority.NORMAL);
+        }
+        Assert.assertTrue(latch.await(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        Assert.assertTrue(count.get() < n);
+    }
+
     @Test
     public void testRequestWithInvalidConnectionHeader() throws Exception {
         server.register("/hello", new Supplier<AsyncServerExchangeHandler>() {
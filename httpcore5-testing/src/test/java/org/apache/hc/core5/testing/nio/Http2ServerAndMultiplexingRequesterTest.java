@@ -37,6 +37,7 @@
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.function.Supplier;
@@ -63,6 +64,8 @@
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.reactor.ExceptionEvent;
 import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOSessionListener;
 import org.apache.hc.core5.reactor.ListenerEndpoint;
 import org.apache.hc.core5.testing.SSLTestContexts;
 import org.apache.hc.core5.testing.TestingSupport;
@@ -291,6 +294,88 @@ public void testMultiplexedRequests() throws Exception {
         }
     }
 
+    @Test
+    public void testMultipleConnectionsPerHost() throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+
+        final AtomicInteger connectionCount = new AtomicInteger(0);
+        final Http2MultiplexingRequester multiRequester = Http2MultiplexingRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setTlsStrategy(new H2ClientTlsStrategy(SSLTestContexts.createClientSSLContext()))
+                .setMaxConnectionsPerHost(3)
+                .setMaxStreamsPerConnection(2)
+                .setStreamHighWaterMark(1)
+                .setIOSessionListener(new IOSessionListener() {
+
+                    @Override
+                    public void tlsStarted(final IOSession session) {
+                    }
+
+                    @Override
+                    public void tlsInbound(final IOSession session) {
+                    }
+
+                    @Override
+                    public void tlsOutbound(final IOSession session) {
+                    }
+
+                    @Override
+                    public void connected(final IOSession session) {
+                        connectionCount.incrementAndGet();
+                    }
+
+                    @Override
+                    public void inputReady(final IOSession session) {
+                    }
+
+                    @Override
+                    public void outputReady(final IOSession session) {
+                    }
+
+                    @Override
+                    public void timeout(final IOSession session) {
+                    }
+
+                    @Override
+                    public void exception(final IOSession session, final Exception ex) {
+                    }
+
+                    @Override
+                    public void disconnected(final IOSession session) {
+                    }
+
+                })
+                .create();
+        try {
+            multiRequester.start();
+
+            final HttpHost target = new HttpHost("localhost", address.getPort(), scheme.id);
+            final Queue<Future<Message<HttpResponse, String>>> queue = new LinkedList<>();
+            for (int i = 0; i < 20; i++) {
+                queue.add(multiRequester.execute(
+                        new BasicRequestProducer("POST", target, "/stuff-" + i,
+                                new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                        new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null));
+            }
+            while (!queue.isEmpty()) {
+                final Future<Message<HttpResponse, String>> resultFuture = queue.remove();
+                final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+                Assert.assertThat(message, CoreMatchers.notNullValue());
+                final HttpResponse response = message.getHead();
+                Assert.assertThat(response.getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+                Assert.assertThat(message.getBody(), CoreMatchers.equalTo("some stuff"));
+            }
+            Assert.assertEquals(3, connectionCount.get());
+        } finally {
+            multiRequester.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
     @Test
     public void testValidityCheck() throws Exception {
         server.start();
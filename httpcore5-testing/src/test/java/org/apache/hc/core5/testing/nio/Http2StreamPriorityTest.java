@@ -0,0 +1,186 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.testing.nio;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http2.H2Error;
+import org.apache.hc.core5.http2.frame.DefaultFrameFactory;
+import org.apache.hc.core5.http2.frame.FrameFactory;
+import org.apache.hc.core5.http2.frame.FrameFlag;
+import org.apache.hc.core5.http2.frame.FrameType;
+import org.apache.hc.core5.http2.frame.RawFrame;
+import org.apache.hc.core5.http2.hpack.HPackDecoder;
+import org.apache.hc.core5.http2.hpack.HPackEncoder;
+import org.apache.hc.core5.http2.impl.io.FrameInputBuffer;
+import org.apache.hc.core5.http2.impl.io.FrameOutputBuffer;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Exercises the handling of stream priority information sent by a raw HTTP/2 client.
+ */
+public class Http2StreamPriorityTest extends InternalHttp2ServerTestBase {
+
+    private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final FrameFactory frameFactory = DefaultFrameFactory.INSTANCE;
+    private final FrameOutputBuffer outputBuffer = new FrameOutputBuffer(16 * 1024);
+    private final FrameInputBuffer inputBuffer = new FrameInputBuffer(16 * 1024);
+    private final HPackEncoder encoder = new HPackEncoder(StandardCharsets.US_ASCII);
+    private final HPackDecoder decoder = new HPackDecoder(StandardCharsets.US_ASCII);
+
+    private Socket socket;
+    private InputStream inputStream;
+    private OutputStream outputStream;
+    private List<Header> requestHeaders;
+
+    @Before
+    public void connect() throws Exception {
+        server.register("/hello", new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new SingleLineResponseHandler("Hi there");
+            }
+
+        });
+        final InetSocketAddress serverEndpoint = server.start();
+        socket = new Socket("localhost", serverEndpoint.getPort());
+        socket.setSoTimeout(5000);
+        inputStream = socket.getInputStream();
+        outputStream = socket.getOutputStream();
+        outputStream.write(PREFACE);
+        outputBuffer.write(frameFactory.createSettings(), outputStream);
+        requestHeaders = Arrays.<Header>asList(
+                new BasicHeader(":method", "GET"),
+                new BasicHeader(":scheme", "http"),
+                new BasicHeader(":authority", "localhost:" + serverEndpoint.getPort()),
+                new BasicHeader(":path", "/hello"),
+                new BasicHeader("x-custom", "some custom value"));
+    }
+
+    @After
+    public void disconnect() throws Exception {
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    private RawFrame createHeaders(final int streamId, final int streamDependency) throws Exception {
+        final ByteArrayBuffer buffer = new ByteArrayBuffer(256);
+        if (streamDependency > 0) {
+            buffer.append(new byte[] {
+                    (byte) (streamDependency >> 24), (byte) (streamDependency >> 16),
+                    (byte) (streamDependency >> 8), (byte) streamDependency, 15 }, 0, 5);
+        }
+        // Repeated header blocks refer to entries of the dynamic table
+        encoder.encodeHeaders(buffer, requestHeaders);
+        final int flags = streamDependency > 0
+                ? FrameFlag.of(FrameFlag.END_STREAM, FrameFlag.END_HEADERS, FrameFlag.PRIORITY)
+                : FrameFlag.of(FrameFlag.END_STREAM, FrameFlag.END_HEADERS);
+        return new RawFrame(FrameType.HEADERS.getValue(), flags, streamId,
+                ByteBuffer.wrap(buffer.array(), 0, buffer.length()));
+    }
+
+    /**
+     * Reads frames until the response on the given stream is complete and returns
+     * the ids of the streams reset by the server.
+     */
+    private List<Integer> awaitResponse(final int streamId) throws Exception {
+        final List<Integer> resetStreams = new ArrayList<>();
+        boolean complete = false;
+        while (!complete) {
+            final RawFrame frame = inputBuffer.read(inputStream);
+            final FrameType type = FrameType.valueOf(frame.getType());
+            if (type == FrameType.SETTINGS && !frame.isFlagSet(FrameFlag.ACK)) {
+                outputBuffer.write(frameFactory.createSettingsAck(), outputStream);
+            } else if (type == FrameType.GOAWAY) {
+                Assert.fail("Connection terminated by the server");
+            } else if (type == FrameType.RST_STREAM) {
+                Assert.assertEquals(H2Error.PROTOCOL_ERROR.getCode(), frame.getPayload().getInt());
+                resetStreams.add(frame.getStreamId());
+            } else if (type == FrameType.HEADERS && frame.getStreamId() == streamId) {
+                final List<Header> headers = decoder.decodeHeaders(frame.getPayloadContent());
+                Assert.assertEquals(":status", headers.get(0).getName());
+                Assert.assertEquals("200", headers.get(0).getValue());
+                complete = frame.isFlagSet(FrameFlag.END_STREAM);
+            } else if (type == FrameType.HEADERS) {
+                // Keep the dynamic table of the decoder in sync
+                decoder.decodeHeaders(frame.getPayloadContent());
+            } else if (type == FrameType.DATA && frame.getStreamId() == streamId) {
+                complete = frame.isFlagSet(FrameFlag.END_STREAM);
+            }
+        }
+        return resetStreams;
+    }
+
+    @Test
+    public void testSelfDependentHeadersDecodedBeforeStreamReset() throws Exception {
+        outputBuffer.write(createHeaders(1, 1), outputStream);
+        outputBuffer.write(createHeaders(3, 0), outputStream);
+
+        final List<Integer> resetStreams = awaitResponse(3);
+        Assert.assertEquals(Arrays.asList(1), resetStreams);
+    }
+
+    @Test
+    public void testSelfDependentPriorityOfIdleStreamIgnored() throws Exception {
+        outputBuffer.write(frameFactory.createPriority(5, 5, false, 16), outputStream);
+        outputBuffer.write(createHeaders(1, 0), outputStream);
+
+        final List<Integer> resetStreams = awaitResponse(1);
+        Assert.assertTrue(resetStreams.isEmpty());
+    }
+
+    @Test
+    public void testSelfDependentPriorityOfClosedStreamReset() throws Exception {
+        outputBuffer.write(createHeaders(1, 0), outputStream);
+        Assert.assertTrue(awaitResponse(1).isEmpty());
+        outputBuffer.write(frameFactory.createPriority(1, 1, false, 16), outputStream);
+        outputBuffer.write(createHeaders(3, 0), outputStream);
+
+        final List<Integer> resetStreams = awaitResponse(3);
+        Assert.assertEquals(Arrays.asList(1), resetStreams);
+    }
+
+}
@@ -0,0 +1,288 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.testing.nio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpConnection;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.frame.FrameFlag;
+import org.apache.hc.core5.http2.frame.FrameType;
+import org.apache.hc.core5.http2.frame.RawFrame;
+import org.apache.hc.core5.http2.impl.Http2Processors;
+import org.apache.hc.core5.http2.impl.nio.ClientHttp2StreamMultiplexerFactory;
+import org.apache.hc.core5.http2.impl.nio.Http2OnlyClientProtocolNegotiator;
+import org.apache.hc.core5.http2.impl.nio.Http2StreamListener;
+import org.apache.hc.core5.reactor.ExceptionEvent;
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOEventHandlerFactory;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ProtocolIOSession;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class Http2WindowAutoTuningTest extends InternalHttp2ServerTestBase {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final TimeValue TIMEOUT = TimeValue.ofSeconds(30);
+    private static final int INITIAL_WINDOW_SIZE = 65535;
+    private static final int MAX_WINDOW_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * TCP proxy that delays data passed in either direction to simulate
+     * a high latency link.
+     */
+    static class LatencyProxy implements Closeable {
+
+        private static final byte[] EOF = new byte[0];
+
+        private final ServerSocket serverSocket;
+        private final ExecutorService executorService;
+        private final InetSocketAddress target;
+        private final long delay;
+
+        LatencyProxy(final InetSocketAddress target, final long delay) throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            this.executorService = Executors.newCachedThreadPool();
+            this.target = target;
+            this.delay = delay;
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        void start() {
+            executorService.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        while (!serverSocket.isClosed()) {
+                            final Socket client = serverSocket.accept();
+                            final Socket server = new Socket(target.getHostName(), target.getPort());
+                            relay(client, server);
+                            relay(server, client);
+                        }
+                    } catch (final IOException ignore) {
+                    }
+                }
+
+            });
+        }
+
+        private void relay(final Socket from, final Socket to) throws IOException {
+            final InputStream in = from.getInputStream();
+            final OutputStream out = to.getOutputStream();
+            final BlockingQueue<Object[]> queue = new LinkedBlockingQueue<>();
+            executorService.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    final byte[] buf = new byte[8192];
+                    try {
+                        int len;
+                        while ((len = in.read(buf)) != -1) {
+                            queue.add(new Object[] {System.currentTimeMillis() + delay, Arrays.copyOf(buf, len)});
+                        }
+                    } catch (final IOException ignore) {
+                    } finally {
+                        queue.add(new Object[] {System.currentTimeMillis() + delay, EOF});
+                    }
+                }
+
+            });
+            executorService.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        for (;;) {
+                            final Object[] chunk = queue.take();
+                            final long wait = (Long) chunk[0] - System.currentTimeMillis();
+                            if (wait > 0) {
+                                Thread.sleep(wait);
+                            }
+                            final byte[] data = (byte[]) chunk[1];
+                            if (data == EOF) {
+                                to.shutdownOutput();
+                                break;
+                            }
+                            out.write(data);
+                            out.flush();
+                        }
+                    } catch (final IOException | InterruptedException ignore) {
+                    }
+                }
+
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executorService.shutdownNow();
+        }
+
+    }
+
+    private Http2TestClient client;
+    private LatencyProxy proxy;
+
+    @Before
+    public void setup() throws Exception {
+        log.debug("Starting up test client");
+        client = new Http2TestClient(IOReactorConfig.DEFAULT, null);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        log.debug("Shutting down test client");
+        if (proxy != null) {
+            proxy.close();
+        }
+        if (client != null) {
+            client.shutdown(TimeValue.ofSeconds(5));
+            final List<ExceptionEvent> exceptionLog = client.getExceptionLog();
+            if (!exceptionLog.isEmpty()) {
+                for (final ExceptionEvent event: exceptionLog) {
+                    final Throwable cause = event.getCause();
+                    log.error("Unexpected " + cause.getClass() + " at " + event.getTimestamp(), cause);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWindowGrowthOverHighLatencyLink() throws Exception {
+        server.register("/", new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new MultiLineResponseHandler("0123456789abcdef", 100000);
+            }
+
+        });
+        final InetSocketAddress serverEndpoint = server.start();
+        proxy = new LatencyProxy(new InetSocketAddress("localhost", serverEndpoint.getPort()), 20);
+        proxy.start();
+
+        final AtomicInteger maxStreamWindow = new AtomicInteger(0);
+        final AtomicInteger settingsCount = new AtomicInteger(0);
+        final Http2StreamListener streamListener = new Http2StreamListener() {
+
+            @Override
+            public void onHeaderInput(final HttpConnection connection, final int streamId, final List<? extends Header> headers) {
+            }
+
+            @Override
+            public void onHeaderOutput(final HttpConnection connection, final int streamId, final List<? extends Header> headers) {
+            }
+
+            @Override
+            public void onFrameInput(final HttpConnection connection, final int streamId, final RawFrame frame) {
+            }
+
+            @Override
+            public void onFrameOutput(final HttpConnection connection, final int streamId, final RawFrame frame) {
+                if (FrameType.valueOf(frame.getType()) == FrameType.SETTINGS && !frame.isFlagSet(FrameFlag.ACK)) {
+                    settingsCount.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void onInputFlowControl(final HttpConnection connection, final int streamId, final int delta, final int actualSize) {
+                if (streamId != 0 && actualSize > maxStreamWindow.get()) {
+                    maxStreamWindow.set(actualSize);
+                }
+            }
+
+            @Override
+            public void onOutputFlowControl(final HttpConnection connection, final int streamId, final int delta, final int actualSize) {
+            }
+
+        };
+        final H2Config h2Config = H2Config.custom()
+                .setInitialWindowSize(INITIAL_WINDOW_SIZE)
+                .setMaxWindowSize(MAX_WINDOW_SIZE)
+                .build();
+        client.start(new IOEventHandlerFactory() {
+
+            @Override
+            public IOEventHandler createHandler(final ProtocolIOSession ioSession, final Object attachment) {
+                return new Http2OnlyClientProtocolNegotiator(ioSession, new ClientHttp2StreamMultiplexerFactory(
+                        Http2Processors.client(), null, h2Config, null, streamListener), false);
+            }
+
+        });
+        final Future<ClientSessionEndpoint> connectFuture = client.connect("localhost", proxy.getPort(), TIMEOUT);
+        final ClientSessionEndpoint streamEndpoint = connectFuture.get();
+
+        final Future<Message<HttpResponse, String>> future = streamEndpoint.execute(
+                new BasicRequestProducer("GET", new URI("http://localhost:" + serverEndpoint.getPort() + "/")),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), null);
+        final Message<HttpResponse, String> result = future.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+        Assert.assertNotNull(result);
+        Assert.assertEquals(200, result.getHead().getCode());
+        Assert.assertEquals(100000 * 18, result.getBody().length());
+
+        Assert.assertTrue("Window settings updated", settingsCount.get() > 1);
+        Assert.assertTrue("Stream window grown", maxStreamWindow.get() > INITIAL_WINDOW_SIZE);
+        Assert.assertTrue("Stream window bounded", maxStreamWindow.get() <= MAX_WINDOW_SIZE);
+    }
+
+}
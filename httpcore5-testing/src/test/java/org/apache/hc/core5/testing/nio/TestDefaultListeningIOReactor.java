@@ -27,19 +27,37 @@
 
 package org.apache.hc.core5.testing.nio;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.Socket;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.AbstractSelector;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hc.core5.concurrent.BasicFuture;
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.reactor.DefaultListeningIOReactor;
+import org.apache.hc.core5.reactor.IOEventLoop;
 import org.apache.hc.core5.reactor.IOEventHandler;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOWorkerSelectors;
+import org.apache.hc.core5.reactor.IOWorkerStats;
 import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.reactor.ListenerPolicy;
 import org.apache.hc.core5.reactor.ProtocolIOSession;
 import org.apache.hc.core5.util.TimeValue;
 import org.junit.After;
@@ -87,6 +105,46 @@ public void disconnected(final IOSession session) {
         }
     }
 
+    private static class CountingSelectorProvider extends SelectorProvider {
+
+        private final SelectorProvider provider = SelectorProvider.provider();
+        private final AtomicInteger selectorCount = new AtomicInteger(0);
+        private final AtomicInteger serverChannelCount = new AtomicInteger(0);
+
+        @Override
+        public DatagramChannel openDatagramChannel() throws IOException {
+            return provider.openDatagramChannel();
+        }
+
+        @Override
+        public DatagramChannel openDatagramChannel(final ProtocolFamily family) throws IOException {
+            return provider.openDatagramChannel(family);
+        }
+
+        @Override
+        public Pipe openPipe() throws IOException {
+            return provider.openPipe();
+        }
+
+        @Override
+        public AbstractSelector openSelector() throws IOException {
+            selectorCount.incrementAndGet();
+            return provider.openSelector();
+        }
+
+        @Override
+        public ServerSocketChannel openServerSocketChannel() throws IOException {
+            serverChannelCount.incrementAndGet();
+            return provider.openServerSocketChannel();
+        }
+
+        @Override
+        public SocketChannel openSocketChannel() throws IOException {
+            return provider.openSocketChannel();
+        }
+
+    }
+
     @Before
     public void setup() throws Exception {
         final IOReactorConfig reactorConfig = IOReactorConfig.custom()
@@ -156,4 +214,179 @@ public void testEndpointAlreadyBound() throws Exception {
         Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
     }
 
+    @Test
+    public void testReusePortEndpointUpAndDown() throws Exception {
+        this.ioreactor.shutdown(ShutdownType.IMMEDIATE);
+        this.ioreactor = new DefaultListeningIOReactor(new NoopIOEventHandlerFactory(), IOReactorConfig.custom()
+                .setIoThreadCount(2)
+                .setListenerPolicy(ListenerPolicy.REUSE_PORT)
+                .build(), null);
+        ioreactor.start();
+
+        final Future<ListenerEndpoint> future = ioreactor.listen(new InetSocketAddress("localhost", 0));
+        final ListenerEndpoint endpoint = future.get();
+        final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+        Assert.assertTrue(port > 0);
+        Assert.assertEquals(1, ioreactor.getEndpoints().size());
+
+        for (int i = 0; i < 4; i++) {
+            try (final Socket socket = new Socket("localhost", port)) {
+                Assert.assertTrue(socket.isConnected());
+            }
+        }
+
+        ioreactor.pause();
+        Assert.assertEquals(0, ioreactor.getEndpoints().size());
+        ioreactor.resume();
+
+        endpoint.close();
+        Assert.assertTrue(endpoint.isClosed());
+
+        ioreactor.shutdown(ShutdownType.IMMEDIATE);
+        ioreactor.awaitShutdown(TimeValue.ofSeconds(5));
+        Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
+    }
+
+    @Test
+    public void testLeastSessionsWorkerSelection() throws Exception {
+        this.ioreactor.shutdown(ShutdownType.IMMEDIATE);
+        this.ioreactor = new DefaultListeningIOReactor(new NoopIOEventHandlerFactory(), IOReactorConfig.custom()
+                .setIoThreadCount(2)
+                .setWorkerSelector(IOWorkerSelectors.leastSessions())
+                .build(), null);
+        ioreactor.start();
+
+        final ListenerEndpoint endpoint = ioreactor.listen(new InetSocketAddress("localhost", 0)).get();
+        final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+
+        final List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < 6; i++) {
+                sockets.add(new Socket("localhost", port));
+            }
+            final List<IOWorkerStats> workerStats = ioreactor.getWorkerStats();
+            Assert.assertEquals(2, workerStats.size());
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (workerStats.get(0).getSessionCount() + workerStats.get(1).getSessionCount() < 6
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(3, workerStats.get(0).getSessionCount());
+            Assert.assertEquals(3, workerStats.get(1).getSessionCount());
+            Assert.assertEquals(0, workerStats.get(0).getPendingCount());
+            Assert.assertEquals(0, workerStats.get(1).getPendingCount());
+        } finally {
+            for (final Socket socket: sockets) {
+                socket.close();
+            }
+        }
+
+        ioreactor.shutdown(ShutdownType.IMMEDIATE);
+        ioreactor.awaitShutdown(TimeValue.ofSeconds(5));
+        Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
+    }
+
+    @Test
+    public void testCustomSelectorProvider() throws Exception {
+        this.ioreactor.shutdown(ShutdownType.IMMEDIATE);
+        final CountingSelectorProvider selectorProvider = new CountingSelectorProvider();
+        this.ioreactor = new DefaultListeningIOReactor(new NoopIOEventHandlerFactory(), IOReactorConfig.custom()
+                .setIoThreadCount(2)
+                .setSelectorProvider(selectorProvider)
+                .build(), null);
+        // One selector per I/O worker plus one of the listener
+        Assert.assertEquals(3, selectorProvider.selectorCount.get());
+        ioreactor.start();
+
+        final ListenerEndpoint endpoint = ioreactor.listen(new InetSocketAddress("localhost", 0)).get();
+        final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+        Assert.assertEquals(1, selectorProvider.serverChannelCount.get());
+
+        try (final Socket socket = new Socket("localhost", port)) {
+            final List<IOWorkerStats> workerStats = ioreactor.getWorkerStats();
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (workerStats.get(0).getSessionCount() + workerStats.get(1).getSessionCount() < 1
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(1, workerStats.get(0).getSessionCount() + workerStats.get(1).getSessionCount());
+        }
+
+        ioreactor.shutdown(ShutdownType.IMMEDIATE);
+        ioreactor.awaitShutdown(TimeValue.ofSeconds(5));
+        Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
+    }
+
+    @Test
+    public void testSessionEventLoop() throws Exception {
+        this.ioreactor.shutdown(ShutdownType.IMMEDIATE);
+        final BasicFuture<Boolean> future = new BasicFuture<>(null);
+        this.ioreactor = new DefaultListeningIOReactor(new IOEventHandlerFactory() {
+
+            @Override
+            public IOEventHandler createHandler(final ProtocolIOSession ioSession, final Object attachment) {
+                return new IOEventHandler() {
+
+                    @Override
+                    public void connected(final IOSession session) {
+                        final IOEventLoop eventLoop = session.getEventLoop();
+                        final Thread thread = Thread.currentThread();
+                        eventLoop.schedule(new Runnable() {
+
+                            @Override
+                            public void run() {
+                                eventLoop.execute(new Runnable() {
+
+                                    @Override
+                                    public void run() {
+                                        future.completed(eventLoop.inEventLoop() && Thread.currentThread() == thread);
+                                    }
+
+                                });
+                            }
+
+                        }, TimeValue.ofMillis(50));
+                    }
+
+                    @Override
+                    public void inputReady(final IOSession session) {
+                    }
+
+                    @Override
+                    public void outputReady(final IOSession session) {
+                    }
+
+                    @Override
+                    public void timeout(final IOSession session) {
+                    }
+
+                    @Override
+                    public void exception(final IOSession session, final Exception cause) {
+                    }
+
+                    @Override
+                    public void disconnected(final IOSession session) {
+                    }
+                };
+            }
+
+        }, IOReactorConfig.custom()
+                .setIoThreadCount(1)
+                .setSelectInterval(5000)
+                .build(), null);
+        ioreactor.start();
+
+        final ListenerEndpoint endpoint = ioreactor.listen(new InetSocketAddress("localhost", 0)).get();
+        final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+
+        try (final Socket socket = new Socket("localhost", port)) {
+            // The scheduled task must not wait for the select interval to elapse
+            Assert.assertEquals(Boolean.TRUE, future.get(4, TimeUnit.SECONDS));
+        }
+
+        ioreactor.shutdown(ShutdownType.IMMEDIATE);
+        ioreactor.awaitShutdown(TimeValue.ofSeconds(5));
+        Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
+    }
+
 }
@@ -0,0 +1,233 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.testing.nio;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.ConnectionReuseStrategy;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncRequesterBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncServerBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.ssl.BasicClientTlsStrategy;
+import org.apache.hc.core5.http.nio.ssl.BasicServerTlsStrategy;
+import org.apache.hc.core5.http.nio.ssl.SecurePortStrategy;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.testing.SSLTestContexts;
+import org.apache.hc.core5.util.Timeout;
+import org.hamcrest.CoreMatchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TlsHandshakeStormTest {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final Timeout TIMEOUT = Timeout.ofSeconds(30);
+
+    private ExecutorService taskExecutor;
+    private AtomicLong taskCount;
+    private HttpAsyncServer server;
+    private HttpAsyncRequester requester;
+    private HttpAsyncRequester stormRequester;
+
+    @Before
+    public void setup() throws Exception {
+        taskExecutor = Executors.newFixedThreadPool(2);
+        taskCount = new AtomicLong();
+        server = AsyncServerBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(1)
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                    @Override
+                    public AsyncServerExchangeHandler get() {
+                        return new EchoHandler(2048);
+                    }
+
+                })
+                .setTlsStrategy(new BasicServerTlsStrategy(
+                        SSLTestContexts.createServerSSLContext(),
+                        new SecurePortStrategy() {
+
+                            @Override
+                            public boolean isSecure(final SocketAddress localAddress) {
+                                return true;
+                            }
+
+                        },
+                        null,
+                        null,
+                        null,
+                        new Executor() {
+
+                            @Override
+                            public void execute(final Runnable command) {
+                                taskCount.incrementAndGet();
+                                taskExecutor.execute(command);
+                            }
+
+                        }))
+                .create();
+        requester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setTlsStrategy(new BasicClientTlsStrategy(SSLTestContexts.createClientSSLContext()))
+                .create();
+        stormRequester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setConnectionReuseStrategy(new ConnectionReuseStrategy() {
+
+                    @Override
+                    public boolean keepAlive(
+                            final HttpRequest request, final HttpResponse response, final HttpContext context) {
+                        return false;
+                    }
+
+                })
+                .setDefaultMaxPerRoute(50)
+                .setMaxTotal(50)
+                .setTlsStrategy(new BasicClientTlsStrategy(SSLTestContexts.createClientSSLContext()))
+                .create();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        log.debug("Shutting down test client and server");
+        if (stormRequester != null) {
+            stormRequester.shutdown(ShutdownType.IMMEDIATE);
+        }
+        if (requester != null) {
+            requester.shutdown(ShutdownType.IMMEDIATE);
+        }
+        if (server != null) {
+            server.shutdown(ShutdownType.IMMEDIATE);
+        }
+        if (taskExecutor != null) {
+            taskExecutor.shutdownNow();
+        }
+    }
+
+    private Future<Message<HttpResponse, String>> execute(
+            final HttpAsyncRequester requester, final HttpHost target, final String path) {
+        return requester.execute(
+                new BasicRequestProducer("POST", target, path,
+                        new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+    }
+
+    private static void assertOk(final Message<HttpResponse, String> message) {
+        Assert.assertThat(message, CoreMatchers.notNullValue());
+        Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+        Assert.assertThat(message.getBody(), CoreMatchers.equalTo("some stuff"));
+    }
+
+    @Test
+    public void testExistingSessionLatencyDuringHandshakeStorm() throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        requester.start();
+        stormRequester.start();
+
+        final HttpHost target = new HttpHost("localhost", address.getPort(), URIScheme.HTTPS.id);
+        // Establish the persistent session before the storm
+        assertOk(execute(requester, target, "/warm-up").get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        final long tasksBeforeStorm = taskCount.get();
+        Assert.assertTrue(tasksBeforeStorm > 0);
+
+        final int n = 100;
+        final List<Future<Message<HttpResponse, String>>> stormFutures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            stormFutures.add(execute(stormRequester, target, "/storm"));
+        }
+
+        final List<Long> latencies = new ArrayList<>();
+        boolean stormDone = false;
+        while (!stormDone) {
+            final long start = System.nanoTime();
+            assertOk(execute(requester, target, "/existing").get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+            latencies.add(System.nanoTime() - start);
+            stormDone = true;
+            for (final Future<Message<HttpResponse, String>> stormFuture: stormFutures) {
+                if (!stormFuture.isDone()) {
+                    stormDone = false;
+                    break;
+                }
+            }
+        }
+        for (final Future<Message<HttpResponse, String>> stormFuture: stormFutures) {
+            assertOk(stormFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        }
+        Assert.assertTrue(taskCount.get() > tasksBeforeStorm);
+
+        Collections.sort(latencies);
+        final long p99 = latencies.get(Math.min(latencies.size() - 1, (int) Math.ceil(latencies.size() * 0.99) - 1));
+        log.debug("Existing session latency during handshake storm: "
+                + latencies.size() + " requests, p50 " + latencies.get(latencies.size() / 2) / 1000000
+                + " ms, p99 " + p99 / 1000000 + " ms");
+        Assert.assertTrue("p99 latency " + p99 / 1000000 + " ms", p99 < TimeUnit.SECONDS.toNanos(5));
+    }
+
+}
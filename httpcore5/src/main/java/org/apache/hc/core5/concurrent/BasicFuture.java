@@ -31,6 +31,9 @@
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.hc.core5.util.Args;
 
@@ -38,18 +41,37 @@
  * Basic implementation of the {@link Future} interface. {@code BasicFuture}
  * can be put into a completed state by invoking any of the following methods:
  * {@link #cancel()}, {@link #failed(Exception)}, or {@link #completed(Object)}.
+ * <p>
+ * The completion state is maintained without locking. Threads blocked in
+ * one of the {@code get} methods are parked and only woken up when
+ * the future gets completed.
+ * </p>
  *
  * @param <T> the future result type of an asynchronous operation.
  * @since 4.2
  */
 public class BasicFuture<T> implements Future<T>, Cancellable {
 
+    private static final int INCOMPLETE = 0;
+    private static final int COMPLETING = 1;
+    private static final int COMPLETED = 2;
+    private static final int FAILED = 3;
+    private static final int CANCELLED = 4;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<BasicFuture> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(BasicFuture.class, "state");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<BasicFuture, WaitNode> WAITERS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(BasicFuture.class, WaitNode.class, "waiters");
+
     private final FutureCallback<T> callback;
 
-    private volatile boolean completed;
-    private volatile boolean cancelled;
-    private volatile T result;
-    private volatile Exception ex;
+    private volatile int state;
+    private volatile WaitNode waiters;
+    // Written before and read after the volatile state transition
+    private T result;
+    private Exception ex;
 
     public BasicFuture(final FutureCallback<T> callback) {
         super();
@@ -58,65 +80,148 @@ public BasicFuture(final FutureCallback<T> callback) {
 
     @Override
     public boolean isCancelled() {
-        return this.cancelled;
+        return this.state == CANCELLED;
     }
 
     @Override
     public boolean isDone() {
-        return this.completed;
+        return this.state > COMPLETING;
     }
 
     private T getResult() throws ExecutionException {
-        if (this.ex != null) {
-            throw new ExecutionException(this.ex);
+        switch (this.state) {
+            case FAILED:
+                throw new ExecutionException(this.ex);
+            case CANCELLED:
+                throw new CancellationException();
+            default:
+                return this.result;
         }
-        if (cancelled) {
-            throw new CancellationException();
-        }
-        return this.result;
     }
 
     @Override
-    public synchronized T get() throws InterruptedException, ExecutionException {
-        while (!this.completed) {
-            wait();
+    public T get() throws InterruptedException, ExecutionException {
+        if (this.state <= COMPLETING) {
+            awaitCompletion(false, 0L);
         }
         return getResult();
     }
 
     @Override
-    public synchronized T get(final long timeout, final TimeUnit unit)
+    public T get(final long timeout, final TimeUnit unit)
             throws InterruptedException, ExecutionException, TimeoutException {
         Args.notNull(unit, "Time unit");
-        final long msecs = unit.toMillis(timeout);
-        final long startTime = (msecs <= 0) ? 0 : System.currentTimeMillis();
-        long waitTime = msecs;
-        if (this.completed) {
-            return getResult();
-        } else if (waitTime <= 0) {
-            throw new TimeoutException();
-        } else {
-            for (;;) {
-                wait(waitTime);
-                if (this.completed) {
-                    return getResult();
+        if (this.state <= COMPLETING) {
+            final long nanos = unit.toNanos(timeout);
+            if (nanos <= 0) {
+                throw new TimeoutException();
+            }
+            if (!awaitCompletion(true, nanos)) {
+                throw new TimeoutException();
+            }
+        }
+        return getResult();
+    }
+
+    /**
+     * Blocks until the future is done or the timeout expires.
+     *
+     * @return {@code true} if the future is done, {@code false} if timed out.
+     */
+    private boolean awaitCompletion(final boolean timed, final long timeoutNanos) throws InterruptedException {
+        final long deadline = timed ? System.nanoTime() + timeoutNanos : 0L;
+        WaitNode node = null;
+        boolean queued = false;
+        for (;;) {
+            final int s = this.state;
+            if (s > COMPLETING) {
+                if (node != null) {
+                    node.thread = null;
+                }
+                return true;
+            } else if (s == COMPLETING) {
+                // The outcome is about to be published
+                Thread.yield();
+            } else if (Thread.interrupted()) {
+                if (node != null) {
+                    removeWaiter(node);
                 }
-                waitTime = msecs - (System.currentTimeMillis() - startTime);
-                if (waitTime <= 0) {
-                    throw new TimeoutException();
+                throw new InterruptedException();
+            } else if (node == null) {
+                node = new WaitNode(Thread.currentThread());
+            } else if (!queued) {
+                final WaitNode head = this.waiters;
+                node.next = head;
+                queued = WAITERS_UPDATER.compareAndSet(this, head, node);
+            } else if (timed) {
+                final long nanos = deadline - System.nanoTime();
+                if (nanos <= 0) {
+                    removeWaiter(node);
+                    return false;
                 }
+                LockSupport.parkNanos(this, nanos);
+            } else {
+                LockSupport.park(this);
             }
         }
     }
 
-    public boolean completed(final T result) {
-        synchronized(this) {
-            if (this.completed) {
-                return false;
+    /**
+     * Unlinks a timed out or interrupted waiter along with any other waiters
+     * that have given up in the meantime.
+     */
+    private void removeWaiter(final WaitNode node) {
+        node.thread = null;
+        boolean retry = true;
+        while (retry) {
+            retry = false;
+            WaitNode pred = null;
+            WaitNode q = this.waiters;
+            while (q != null) {
+                final WaitNode next = q.next;
+                if (q.thread != null) {
+                    pred = q;
+                } else if (pred != null) {
+                    pred.next = next;
+                    if (pred.thread == null) {
+                        retry = true;
+                        break;
+                    }
+                } else if (!WAITERS_UPDATER.compareAndSet(this, q, next)) {
+                    retry = true;
+                    break;
+                }
+                q = next;
+            }
+        }
+    }
+
+    private void releaseWaiters() {
+        WaitNode q = WAITERS_UPDATER.getAndSet(this, null);
+        while (q != null) {
+            final Thread thread = q.thread;
+            if (thread != null) {
+                q.thread = null;
+                LockSupport.unpark(thread);
             }
-            this.completed = true;
-            this.result = result;
-            notifyAll();
+            q = q.next;
+        }
+    }
+
+    private boolean complete(final int outcome, final T result, final Exception exception) {
+        if (!STATE_UPDATER.compareAndSet(this, INCOMPLETE, COMPLETING)) {
+            return false;
+        }
+        this.result = result;
+        this.ex = exception;
+        this.state = outcome;
+        releaseWaiters();
+        return true;
+    }
+
+    public boolean completed(final T result) {
+        if (!complete(COMPLETED, result, null)) {
+            return false;
         }
         if (this.callback != null) {
             this.callback.completed(result);
@@ -125,13 +230,8 @@ public boolean completed(final T result) {
     }
 
     public boolean failed(final Exception exception) {
-        synchronized(this) {
-            if (this.completed) {
-                return false;
-            }
-            this.completed = true;
-            this.ex = exception;
-            notifyAll();
+        if (!complete(FAILED, null, exception)) {
+            return false;
         }
         if (this.callback != null) {
             this.callback.failed(exception);
@@ -141,13 +241,8 @@ public boolean failed(final Exception exception) {
 
     @Override
     public boolean cancel(final boolean mayInterruptIfRunning) {
-        synchronized(this) {
-            if (this.completed) {
-                return false;
-            }
-            this.completed = true;
-            this.cancelled = true;
-            notifyAll();
+        if (!complete(CANCELLED, null, null)) {
+            return false;
         }
         if (this.callback != null) {
             this.callback.cancelled();
@@ -160,4 +255,15 @@ public boolean cancel() {
         return cancel(true);
     }
 
+    private static final class WaitNode {
+
+        volatile Thread thread;
+        volatile WaitNode next;
+
+        WaitNode(final Thread thread) {
+            this.thread = thread;
+        }
+
+    }
+
 }
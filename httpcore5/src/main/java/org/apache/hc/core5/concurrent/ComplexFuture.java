@@ -55,6 +55,13 @@ public void setDependency(final Cancellable dependency) {
             dependency.cancel();
         } else {
             dependencyRef.set(dependency);
+            // Re-check in case the future got completed concurrently
+            if (isDone()) {
+                final Cancellable pending = dependencyRef.getAndSet(null);
+                if (pending != null) {
+                    pending.cancel();
+                }
+            }
         }
     }
 
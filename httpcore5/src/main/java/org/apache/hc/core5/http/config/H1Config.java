@@ -28,6 +28,8 @@
 package org.apache.hc.core5.http.config;
 
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 /**
  * HTTP/1.1 protocol parameters.
@@ -49,9 +51,11 @@ public class H1Config {
     private final int maxLineLength;
     private final int maxHeaderCount;
     private final int maxEmptyLineCount;
+    private final ByteBufferAllocator byteBufferAllocator;
 
     H1Config(final int bufferSize, final int chunkSizeHint, final int waitForContinueTimeout,
-             final int maxLineLength, final int maxHeaderCount, final int maxEmptyLineCount) {
+             final int maxLineLength, final int maxHeaderCount, final int maxEmptyLineCount,
+             final ByteBufferAllocator byteBufferAllocator) {
         super();
         this.bufferSize = bufferSize;
         this.chunkSizeHint = chunkSizeHint;
@@ -59,6 +63,7 @@ public class H1Config {
         this.maxLineLength = maxLineLength;
         this.maxHeaderCount = maxHeaderCount;
         this.maxEmptyLineCount = maxEmptyLineCount;
+        this.byteBufferAllocator = byteBufferAllocator;
     }
 
     public int getBufferSize() {
@@ -85,6 +90,15 @@ public int getMaxEmptyLineCount() {
         return this.maxEmptyLineCount;
     }
 
+    /**
+     * Allocator of session input and output buffers.
+     *
+     * @since 5.0
+     */
+    public ByteBufferAllocator getByteBufferAllocator() {
+        return this.byteBufferAllocator;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -94,6 +108,7 @@ public String toString() {
                 .append(", maxLineLength=").append(maxLineLength)
                 .append(", maxHeaderCount=").append(maxHeaderCount)
                 .append(", maxEmptyLineCount=").append(maxEmptyLineCount)
+                .append(", byteBufferAllocator=").append(byteBufferAllocator)
                 .append("]");
         return builder.toString();
     }
@@ -110,7 +125,8 @@ public static H1Config.Builder copy(final H1Config config) {
                 .setWaitForContinueTimeout(config.getWaitForContinueTimeout())
                 .setMaxHeaderCount(config.getMaxHeaderCount())
                 .setMaxLineLength(config.getMaxLineLength())
-                .setMaxEmptyLineCount(config.maxEmptyLineCount);
+                .setMaxEmptyLineCount(config.maxEmptyLineCount)
+                .setByteBufferAllocator(config.getByteBufferAllocator());
     }
 
     public static class Builder {
@@ -121,6 +137,7 @@ public static class Builder {
         private int maxLineLength;
         private int maxHeaderCount;
         private int maxEmptyLineCount;
+        private ByteBufferAllocator byteBufferAllocator;
 
         Builder() {
             this.bufferSize = -1;
@@ -129,6 +146,7 @@ public static class Builder {
             this.maxLineLength = -1;
             this.maxHeaderCount = -1;
             this.maxEmptyLineCount = 10;
+            this.byteBufferAllocator = HeapByteBufferAllocator.INSTANCE;
         }
 
         public Builder setBufferSize(final int bufferSize) {
@@ -161,8 +179,17 @@ public Builder setMaxEmptyLineCount(final int maxEmptyLineCount) {
             return this;
         }
 
+        /**
+         * @since 5.0
+         */
+        public Builder setByteBufferAllocator(final ByteBufferAllocator byteBufferAllocator) {
+            this.byteBufferAllocator = byteBufferAllocator;
+            return this;
+        }
+
         public H1Config build() {
-            return new H1Config(bufferSize > 0 ? bufferSize : 8192, chunkSizeHint, waitForContinueTimeout, maxLineLength, maxHeaderCount, maxEmptyLineCount);
+            return new H1Config(bufferSize > 0 ? bufferSize : 8192, chunkSizeHint, waitForContinueTimeout, maxLineLength, maxHeaderCount, maxEmptyLineCount,
+                    byteBufferAllocator != null ? byteBufferAllocator : HeapByteBufferAllocator.INSTANCE);
         }
 
     }
@@ -0,0 +1,86 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.apache.hc.core5.annotation.Internal;
+
+/**
+ * Locates delimiter bytes such as line feeds in byte buffers eight bytes at a time.
+ * <p>
+ * Each 64-bit word read from the buffer is XOR-ed with the delimiter repeated in every
+ * byte, which turns matching bytes into zero bytes. Zero bytes are then detected with
+ * carry-free arithmetic, so that the result is exact for every byte of the word and
+ * independent of the byte order of the buffer. Bytes that do not fill up a whole word
+ * are examined one by one.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Internal
+public final class DelimiterScanner {
+
+    private static final long LOW_7_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long LOW_BYTES = 0x0101010101010101L;
+
+    private DelimiterScanner() {
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given byte in the buffer
+     * between {@code from} (inclusive) and {@code to} (exclusive). The position
+     * and the limit of the buffer are not changed.
+     *
+     * @param buffer the buffer to scan.
+     * @param from the index to start the scan at.
+     * @param to the index to end the scan at.
+     * @param b the byte to look for.
+     * @return the index of the byte, or {@code -1} if not found.
+     */
+    public static int indexOf(final ByteBuffer buffer, final int from, final int to, final byte b) {
+        final long pattern = (b & 0xFFL) * LOW_BYTES;
+        final boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            final long x = buffer.getLong(i) ^ pattern;
+            // Sets the high bit of every byte that is zero and clears all other bits
+            final long mask = ~(((x & LOW_7_BITS) + LOW_7_BITS) | x | LOW_7_BITS);
+            if (mask != 0) {
+                return i + ((bigEndian ? Long.numberOfLeadingZeros(mask) : Long.numberOfTrailingZeros(mask)) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -30,6 +30,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.CharBuffer;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CoderResult;
@@ -37,6 +38,7 @@
 import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.http.MessageConstraintException;
 import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
+import org.apache.hc.core5.http.impl.DelimiterScanner;
 import org.apache.hc.core5.http.io.HttpTransportMetrics;
 import org.apache.hc.core5.http.io.SessionInputBuffer;
 import org.apache.hc.core5.util.Args;
@@ -58,6 +60,7 @@ public class SessionInputBufferImpl implements SessionInputBuffer {
 
     private final BasicHttpTransportMetrics metrics;
     private final byte[] buffer;
+    private final ByteBuffer bufferView;
     private final ByteArrayBuffer linebuffer;
     private final int minChunkLimit;
     private final int maxLineLen;
@@ -91,6 +94,7 @@ public SessionInputBufferImpl(
         Args.positive(buffersize, "Buffer size");
         this.metrics = metrics;
         this.buffer = new byte[buffersize];
+        this.bufferView = ByteBuffer.wrap(this.buffer).order(ByteOrder.nativeOrder());
         this.bufferpos = 0;
         this.bufferlen = 0;
         this.minChunkLimit = minChunkLimit >= 0 ? minChunkLimit : 512;
@@ -242,13 +246,7 @@ public int readLine(final CharArrayBuffer charbuffer, final InputStream inputStr
         boolean retry = true;
         while (retry) {
             // attempt to find end of line (LF)
-            int pos = -1;
-            for (int i = this.bufferpos; i < this.bufferlen; i++) {
-                if (this.buffer[i] == Chars.LF) {
-                    pos = i;
-                    break;
-                }
-            }
+            final int pos = DelimiterScanner.indexOf(this.bufferView, this.bufferpos, this.bufferlen, (byte) Chars.LF);
 
             if (this.maxLineLen > 0) {
                 final int currentLen = this.linebuffer.length()
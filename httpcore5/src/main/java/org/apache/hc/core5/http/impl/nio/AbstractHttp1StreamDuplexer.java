@@ -32,8 +32,10 @@
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -64,6 +66,7 @@
 import org.apache.hc.core5.http.nio.CapacityChannel;
 import org.apache.hc.core5.http.nio.ContentDecoder;
 import org.apache.hc.core5.http.nio.ContentEncoder;
+import org.apache.hc.core5.http.nio.FileContentEncoder;
 import org.apache.hc.core5.http.nio.NHttpMessageParser;
 import org.apache.hc.core5.http.nio.NHttpMessageWriter;
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
@@ -76,15 +79,21 @@
 import org.apache.hc.core5.reactor.ProtocolIOSession;
 import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 import org.apache.hc.core5.util.Identifiable;
 
 abstract class AbstractHttp1StreamDuplexer<IncomingMessage extends HttpMessage, OutgoingMessage extends HttpMessage>
         implements Identifiable, HttpConnection {
 
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
     private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
 
     private final ProtocolIOSession ioSession;
     private final H1Config h1Config;
+    private final ByteBufferAllocator allocator;
+    private final boolean hibernateBuffers;
     private final SessionInputBufferImpl inbuf;
     private final SessionOutputBufferImpl outbuf;
     private final BasicHttpTransportMetrics inTransportMetrics;
@@ -94,7 +103,7 @@ private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
     private final NHttpMessageWriter<OutgoingMessage> outgoingMessageWriter;
     private final ContentLengthStrategy incomingContentStrategy;
     private final ContentLengthStrategy outgoingContentStrategy;
-    private final ByteBuffer contentBuffer;
+    private ByteBuffer contentBuffer;
     private final Lock outputLock;
     private final AtomicInteger outputRequests;
 
@@ -116,11 +125,14 @@ private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
         this.ioSession = Args.notNull(ioSession, "I/O session");
         this.h1Config = h1Config != null ? h1Config : H1Config.DEFAULT;
         final int bufferSize = this.h1Config.getBufferSize();
+        this.allocator = this.h1Config.getByteBufferAllocator();
+        // Idle buffers are only worth giving up if the allocator can recycle them
+        this.hibernateBuffers = !(this.allocator instanceof HeapByteBufferAllocator);
         this.inbuf = new SessionInputBufferImpl(bufferSize, bufferSize < 512 ? bufferSize : 512,
                 this.h1Config.getMaxLineLength(),
-                CharCodingSupport.createDecoder(charCodingConfig));
+                CharCodingSupport.createDecoder(charCodingConfig), allocator);
         this.outbuf = new SessionOutputBufferImpl(bufferSize, bufferSize < 512 ? bufferSize : 512,
-                CharCodingSupport.createEncoder(charCodingConfig));
+                CharCodingSupport.createEncoder(charCodingConfig), allocator);
         this.inTransportMetrics = new BasicHttpTransportMetrics();
         this.outTransportMetrics = new BasicHttpTransportMetrics();
         this.connMetrics = new BasicHttpConnectionMetrics(inTransportMetrics, outTransportMetrics);
@@ -130,7 +142,7 @@ private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
                 DefaultContentLengthStrategy.INSTANCE;
         this.outgoingContentStrategy = outgoingContentStrategy != null ? outgoingContentStrategy :
                 DefaultContentLengthStrategy.INSTANCE;
-        this.contentBuffer = ByteBuffer.allocate(this.h1Config.getBufferSize());
+        this.contentBuffer = allocator.allocate(bufferSize);
         this.outputLock = new ReentrantLock();
         this.outputRequests = new AtomicInteger(0);
         this.connState = ConnectionState.READY;
@@ -300,6 +312,9 @@ public final void onInput() throws HttpException, IOException {
             if (incomingMessage != null) {
                 final ContentDecoder contentDecoder = incomingMessage.getBody();
 
+                if (contentBuffer.capacity() == 0) {
+                    contentBuffer = allocator.allocate(h1Config.getBufferSize());
+                }
                 int bytesRead;
                 while ((bytesRead = contentDecoder.read(contentBuffer)) > 0) {
                     if (bytesRead > 0) {
@@ -336,6 +351,10 @@ public void update(final int increment) throws IOException {
                 break;
             }
         }
+        if (hibernateBuffers && incomingMessage == null) {
+            inbuf.hibernate();
+            releaseContentBuffer();
+        }
     }
 
     public final void onOutput() throws IOException, HttpException {
@@ -385,6 +404,16 @@ public final void onOutput() throws IOException, HttpException {
                 }
             }
         }
+        if (hibernateBuffers && outgoingMessage == null) {
+            outputLock.lock();
+            try {
+                if (outgoingMessage == null) {
+                    outbuf.hibernate();
+                }
+            } finally {
+                outputLock.unlock();
+            }
+        }
         if (connState.compareTo(ConnectionState.SHUTDOWN) >= 0) {
             ioSession.close();
         }
@@ -430,6 +459,26 @@ public final void onDisconnect() {
                 break;
             }
         }
+        releaseBuffers();
+    }
+
+    private void releaseContentBuffer() {
+        final ByteBuffer oldContentBuffer = contentBuffer;
+        if (oldContentBuffer.capacity() > 0) {
+            contentBuffer = EMPTY_BUFFER;
+            allocator.release(oldContentBuffer);
+        }
+    }
+
+    private void releaseBuffers() {
+        releaseContentBuffer();
+        inbuf.release();
+        outputLock.lock();
+        try {
+            outbuf.release();
+        } finally {
+            outputLock.unlock();
+        }
     }
 
     void requestShutdown(final ShutdownType shutdownType) {
@@ -512,6 +561,38 @@ int streamOutput(final ByteBuffer src) throws IOException {
         }
     }
 
+    boolean isStreamTransferSupported() {
+        outputLock.lock();
+        try {
+            // Zero-copy transfer is only possible to a plain socket channel
+            return outgoingMessage != null
+                    && outgoingMessage.getBody() instanceof FileContentEncoder
+                    && ioSession.channel() instanceof SocketChannel;
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    long streamTransfer(final FileChannel src, final long position, final long count) throws IOException {
+        outputLock.lock();
+        try {
+            if (outgoingMessage == null) {
+                throw new ClosedChannelException();
+            }
+            final ContentEncoder contentEncoder = outgoingMessage.getBody();
+            if (!(contentEncoder instanceof FileContentEncoder)) {
+                throw new IllegalStateException("Content encoder does not support file transfer");
+            }
+            final long bytesWritten = ((FileContentEncoder) contentEncoder).transfer(src, position, count);
+            if (bytesWritten > 0) {
+                ioSession.setEvent(SelectionKey.OP_WRITE);
+            }
+            return bytesWritten;
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
     enum MessageDelineation { NONE, CHUNK_CODED, MESSAGE_HEAD}
 
     MessageDelineation endOutputStream(final List<? extends Header> trailers) throws IOException {
@@ -29,6 +29,7 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.List;
@@ -138,6 +139,16 @@ public int write(final ByteBuffer src) throws IOException {
                 return streamOutput(src);
             }
 
+            @Override
+            public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+                return streamTransfer(src, position, count);
+            }
+
+            @Override
+            public boolean isFileTransferSupported() {
+                return isStreamTransferSupported();
+            }
+
             @Override
             public void complete(final List<? extends Header> trailers) throws IOException {
                 endOutputStream(trailers);
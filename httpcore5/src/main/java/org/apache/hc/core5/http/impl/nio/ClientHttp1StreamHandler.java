@@ -28,6 +28,7 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -48,6 +49,7 @@
 import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
 import org.apache.hc.core5.http.nio.CapacityChannel;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.FileDataStreamChannel;
 import org.apache.hc.core5.http.nio.RequestChannel;
 import org.apache.hc.core5.http.nio.ResourceHolder;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
@@ -79,7 +81,7 @@ class ClientHttp1StreamHandler implements ResourceHolder {
             final AsyncClientExchangeHandler exchangeHandler,
             final HttpCoreContext context) {
         this.outputChannel = outputChannel;
-        this.internalDataChannel = new DataStreamChannel() {
+        this.internalDataChannel = new FileDataStreamChannel() {
 
             @Override
             public void requestOutput() {
@@ -97,6 +99,16 @@ public int write(final ByteBuffer src) throws IOException {
                 return outputChannel.write(src);
             }
 
+            @Override
+            public boolean isFileTransferSupported() {
+                return outputChannel.isFileTransferSupported();
+            }
+
+            @Override
+            public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+                return outputChannel.transfer(src, position, count);
+            }
+
             @Override
             public void endStream() throws IOException {
                 endStream(null);
@@ -30,6 +30,10 @@
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
+
 /**
  * A buffer that expand its capacity on demand. Internally, this class is backed
  * by an instance of {@link ByteBuffer}.
@@ -40,9 +44,13 @@
  */
 public class ExpandableBuffer {
 
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
     public final static int INPUT_MODE = 0;
     public final static int OUTPUT_MODE = 1;
 
+    private final ByteBufferAllocator allocator;
+    private final int buffersize;
     private int mode;
     private ByteBuffer buffer;
 
@@ -50,13 +58,27 @@ public class ExpandableBuffer {
      * Allocates buffer of the given size using the given allocator.
      *
      * @param buffersize the buffer size.
+     * @param allocator allocator used to obtain and return buffers.
+     *
+     * @since 5.0
      */
-    protected ExpandableBuffer(final int buffersize) {
+    protected ExpandableBuffer(final int buffersize, final ByteBufferAllocator allocator) {
         super();
-        this.buffer = ByteBuffer.allocate(buffersize);
+        this.allocator = Args.notNull(allocator, "Buffer allocator");
+        this.buffersize = buffersize;
+        this.buffer = allocator.allocate(buffersize);
         this.mode = INPUT_MODE;
     }
 
+    /**
+     * Allocates buffer of the given size on the heap.
+     *
+     * @param buffersize the buffer size.
+     */
+    protected ExpandableBuffer(final int buffersize) {
+        this(buffersize, HeapByteBufferAllocator.INSTANCE);
+    }
+
     /**
      * Returns the current mode:
      * <p>
@@ -100,9 +122,12 @@ protected void setInputMode() {
 
     private void expandCapacity(final int capacity) {
         final ByteBuffer oldbuffer = this.buffer;
-        this.buffer = ByteBuffer.allocate(capacity);
+        this.buffer = this.allocator.allocate(Math.max(capacity, this.buffersize));
         oldbuffer.flip();
         this.buffer.put(oldbuffer);
+        if (oldbuffer.capacity() > 0) {
+            this.allocator.release(oldbuffer);
+        }
     }
 
     /**
@@ -170,6 +195,9 @@ public int length() {
      * @return buffer length.
      */
     public int capacity() {
+        if (this.buffer.capacity() == 0) {
+            ensureCapacity(this.buffersize);
+        }
         setInputMode();
         return this.buffer.remaining();
     }
@@ -182,6 +210,38 @@ protected void clear() {
         this.mode = INPUT_MODE;
     }
 
+    /**
+     * Returns the underlying buffer to the allocator discarding its content.
+     * The buffer remains usable afterwards and re-allocates its storage on demand.
+     *
+     * @since 5.0
+     */
+    protected void release() {
+        final ByteBuffer oldbuffer = this.buffer;
+        this.buffer = EMPTY_BUFFER;
+        this.mode = INPUT_MODE;
+        if (oldbuffer.capacity() > 0) {
+            this.allocator.release(oldbuffer);
+        }
+    }
+
+    /**
+     * Returns the underlying buffer to the allocator if it contains no data.
+     * The storage is re-allocated with the initial capacity on demand.
+     *
+     * @return {@code true} if the buffer storage has been released,
+     *   {@code false} otherwise.
+     *
+     * @since 5.0
+     */
+    protected boolean hibernate() {
+        if (this.buffer.capacity() == 0 || hasData()) {
+            return false;
+        }
+        release();
+        return true;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
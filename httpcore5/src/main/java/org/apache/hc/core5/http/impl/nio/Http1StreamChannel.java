@@ -30,9 +30,9 @@
 
 import org.apache.hc.core5.http.HttpException;
 import org.apache.hc.core5.http.HttpMessage;
-import org.apache.hc.core5.http.nio.ContentEncoder;
+import org.apache.hc.core5.http.nio.FileContentEncoder;
 
-interface Http1StreamChannel<OutgoingMessage extends HttpMessage> extends ContentEncoder {
+interface Http1StreamChannel<OutgoingMessage extends HttpMessage> extends FileContentEncoder {
 
     void close();
 
@@ -50,4 +50,6 @@
 
     void setSocketTimeout(int timeout);
 
+    boolean isFileTransferSupported();
+
 }
@@ -29,6 +29,7 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.List;
@@ -143,6 +144,16 @@ public int write(final ByteBuffer src) throws IOException {
                 return streamOutput(src);
             }
 
+            @Override
+            public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+                return streamTransfer(src, position, count);
+            }
+
+            @Override
+            public boolean isFileTransferSupported() {
+                return isStreamTransferSupported();
+            }
+
             @Override
             public void complete(final List<? extends Header> trailers) throws IOException {
                 endOutputStream(trailers);
@@ -451,6 +462,24 @@ public int write(final ByteBuffer src) throws IOException {
             }
         }
 
+        @Override
+        public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+            synchronized (this) {
+                if (direct) {
+                    return channel.transfer(src, position, count);
+                } else {
+                    return 0;
+                }
+            }
+        }
+
+        @Override
+        public boolean isFileTransferSupported() {
+            synchronized (this) {
+                return direct && channel.isFileTransferSupported();
+            }
+        }
+
         @Override
         public void complete(final List<? extends Header> trailers) throws IOException {
             synchronized (this) {
@@ -28,6 +28,7 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -48,6 +49,7 @@
 import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
 import org.apache.hc.core5.http.nio.CapacityChannel;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.FileDataStreamChannel;
 import org.apache.hc.core5.http.nio.HandlerFactory;
 import org.apache.hc.core5.http.nio.ResourceHolder;
 import org.apache.hc.core5.http.nio.ResponseChannel;
@@ -80,7 +82,7 @@ class ServerHttp1StreamHandler implements ResourceHolder {
             final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
             final HttpCoreContext context) {
         this.outputChannel = outputChannel;
-        this.internalDataChannel = new DataStreamChannel() {
+        this.internalDataChannel = new FileDataStreamChannel() {
 
             @Override
             public void requestOutput() {
@@ -101,6 +103,16 @@ public int write(final ByteBuffer src) throws IOException {
                 return outputChannel.write(src);
             }
 
+            @Override
+            public boolean isFileTransferSupported() {
+                return outputChannel.isFileTransferSupported();
+            }
+
+            @Override
+            public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+                return outputChannel.transfer(src, position, count);
+            }
+
             @Override
             public void endStream() throws IOException {
                 endStream(null);
@@ -38,9 +38,12 @@
 
 import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.http.MessageConstraintException;
+import org.apache.hc.core5.http.impl.DelimiterScanner;
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.CharArrayBuffer;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 /**
  * Default implementation of {@link SessionInputBuffer} based on
@@ -73,7 +76,29 @@ public SessionInputBufferImpl(
             final int lineBuffersize,
             final int maxLineLen,
             final CharsetDecoder chardecoder) {
-        super(buffersize);
+        this(buffersize, lineBuffersize, maxLineLen, chardecoder, HeapByteBufferAllocator.INSTANCE);
+    }
+
+    /**
+     *  Creates SessionInputBufferImpl instance.
+     *
+     * @param buffersize input buffer size
+     * @param lineBuffersize buffer size for line operations. Has effect only if
+     *   {@code chardecoder} is not {@code null}.
+     * @param maxLineLen maximum line length.
+     * @param chardecoder chardecoder to be used for decoding HTTP protocol elements.
+     *   If {@code null} simple type cast will be used for byte to char conversion.
+     * @param allocator allocator of the input buffer.
+     *
+     * @since 5.0
+     */
+    public SessionInputBufferImpl(
+            final int buffersize,
+            final int lineBuffersize,
+            final int maxLineLen,
+            final CharsetDecoder chardecoder,
+            final ByteBufferAllocator allocator) {
+        super(buffersize, allocator);
         this.lineBuffersize = Args.positive(lineBuffersize, "Line buffer size");
         this.maxLineLen = maxLineLen > 0 ? maxLineLen : 0;
         this.chardecoder = chardecoder;
@@ -203,14 +228,8 @@ public boolean readLine(
 
         setOutputMode();
         // See if there is LF char present in the buffer
-        int pos = -1;
-        for (int i = buffer().position(); i < buffer().limit(); i++) {
-            final int b = buffer().get(i);
-            if (b == Chars.LF) {
-                pos = i + 1;
-                break;
-            }
-        }
+        final int lf = DelimiterScanner.indexOf(buffer(), buffer().position(), buffer().limit(), (byte) Chars.LF);
+        int pos = lf != -1 ? lf + 1 : -1;
 
         if (this.maxLineLen > 0) {
             final int currentLen = (pos > 0 ? pos : buffer().limit()) - buffer().position();
@@ -40,7 +40,9 @@
 import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.http.nio.SessionOutputBuffer;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.CharArrayBuffer;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 /**
  * Default implementation of {@link SessionOutputBuffer} based on
@@ -72,7 +74,27 @@ public SessionOutputBufferImpl(
             final int buffersize,
             final int lineBuffersize,
             final CharsetEncoder charencoder) {
-        super(buffersize);
+        this(buffersize, lineBuffersize, charencoder, HeapByteBufferAllocator.INSTANCE);
+    }
+
+    /**
+     *  Creates SessionOutputBufferImpl instance.
+     *
+     * @param buffersize input buffer size
+     * @param lineBuffersize buffer size for line operations. Has effect only if
+     *   {@code charencoder} is not {@code null}.
+     * @param charencoder charencoder to be used for encoding HTTP protocol elements.
+     *   If {@code null} simple type cast will be used for char to byte conversion.
+     * @param allocator allocator of the output buffer.
+     *
+     * @since 5.0
+     */
+    public SessionOutputBufferImpl(
+            final int buffersize,
+            final int lineBuffersize,
+            final CharsetEncoder charencoder,
+            final ByteBufferAllocator allocator) {
+        super(buffersize, allocator);
         this.lineBuffersize = Args.positive(lineBuffersize, "Line buffer size");
         this.charencoder = charencoder;
     }
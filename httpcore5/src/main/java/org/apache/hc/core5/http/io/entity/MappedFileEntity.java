@@ -0,0 +1,161 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.io.entity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.MappedFileCache;
+
+/**
+ * An entity that delivers the contents of a file through a read-only
+ * memory mapping shared with other entities serving the same file.
+ * <p>
+ * The file gets mapped when the entity is created. Mappings are obtained
+ * from a {@link MappedFileCache}, so that frequently requested files get
+ * served with no reads from the file system. The content is copied from
+ * the mapping to the output stream in chunks through a single small buffer.
+ * The entity content reflects the state of the file at the moment
+ * of its creation.
+ * </p>
+ * <p>
+ * Files larger than the maximum total size of the cache are mapped anew
+ * for every entity. {@link FileEntity} is usually a better choice for such
+ * files.
+ * </p>
+ *
+ * @since 5.0
+ */
+public class MappedFileEntity extends AbstractHttpEntity {
+
+    private final ByteBuffer content;
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int off, final int len) throws IOException {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int chunk = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, chunk);
+            return chunk;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            final int chunk = (int) Math.min(n, buffer.remaining());
+            buffer.position(buffer.position() + chunk);
+            return chunk;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return buffer.remaining();
+        }
+
+    }
+
+    public MappedFileEntity(
+            final File file, final ContentType contentType, final MappedFileCache cache) throws IOException {
+        super();
+        Args.notNull(file, "File");
+        Args.notNull(cache, "Mapped file cache");
+        this.content = cache.get(file);
+        if (contentType != null) {
+            setContentType(contentType.toString());
+        }
+    }
+
+    public MappedFileEntity(final File file, final ContentType contentType) throws IOException {
+        this(file, contentType, MappedFileCache.DEFAULT);
+    }
+
+    public MappedFileEntity(final File file) throws IOException {
+        this(file, null);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return content.remaining();
+    }
+
+    @Override
+    public InputStream getContent() throws IOException, UnsupportedOperationException {
+        return new ByteBufferInputStream(content.duplicate());
+    }
+
+    @Override
+    public void writeTo(final OutputStream outstream) throws IOException {
+        Args.notNull(outstream, "Output stream");
+        final ByteBuffer buffer = content.duplicate();
+        final byte[] chunk = new byte[Math.min(OUTPUT_BUFFER_SIZE, buffer.remaining())];
+        while (buffer.hasRemaining()) {
+            final int len = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, len);
+            outstream.write(chunk, 0, len);
+        }
+        outstream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+}
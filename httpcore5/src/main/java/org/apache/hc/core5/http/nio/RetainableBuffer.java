@@ -0,0 +1,76 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Reference counted chunk of message data shared with the transport it has been
+ * received from.
+ * <p>
+ * The data is valid for the duration of the call it is passed to. Consumers that
+ * wish to keep the data past that call without copying it must {@link #retain()}
+ * the buffer and {@link #release()} it once done with it. The storage backing
+ * the data gets re-used only after all references have been released.
+ * </p>
+ *
+ * @see RetainingDataConsumer
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public interface RetainableBuffer {
+
+    /**
+     * Returns a view of the data. Each call returns a view with independent
+     * position and limit.
+     */
+    ByteBuffer data();
+
+    /**
+     * Returns the length of the data in bytes.
+     */
+    int length();
+
+    /**
+     * Increments the reference count of this buffer.
+     *
+     * @throws IllegalStateException if the buffer has already been released.
+     */
+    RetainableBuffer retain();
+
+    /**
+     * Decrements the reference count of this buffer.
+     *
+     * @return {@code true} if the last reference has been released,
+     *   {@code false} otherwise.
+     */
+    boolean release();
+
+}
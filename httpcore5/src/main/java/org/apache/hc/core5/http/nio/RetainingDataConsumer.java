@@ -0,0 +1,49 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio;
+
+import java.io.IOException;
+
+/**
+ * Asynchronous data consumer capable of taking over incoming data without
+ * copying it.
+ * <p>
+ * Transports supporting this mode pass incoming data to
+ * {@link #consume(RetainableBuffer)} instead of {@link #consume(java.nio.ByteBuffer)}.
+ * Flow control credit for the data is returned to the opposite endpoint once
+ * the buffer has been released, so consumers retaining data apply back-pressure
+ * simply by holding on to it and should not grant any capacity of their own
+ * through {@link #updateCapacity(CapacityChannel)}.
+ * </p>
+ *
+ * @since 5.0
+ */
+public interface RetainingDataConsumer extends AsyncDataConsumer {
+
+    void consume(RetainableBuffer src) throws IOException;
+
+}
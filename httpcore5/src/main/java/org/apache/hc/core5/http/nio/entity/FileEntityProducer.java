@@ -30,33 +30,42 @@
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.nio.AsyncEntityProducer;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.FileDataStreamChannel;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.Asserts;
 
 /**
+ * {@link AsyncEntityProducer} implementation that streams content of a file.
+ * <p>
+ * Content gets transferred directly from the file to the network channel
+ * whenever the data stream channel is a {@link FileDataStreamChannel} capable
+ * of file transfer, and read through an intermediate buffer otherwise.
+ *
  * @since 5.0
  */
 public final class FileEntityProducer implements AsyncEntityProducer {
 
     private final File file;
-    private final ByteBuffer bytebuf;
+    private final int bufferSize;
     private final long length;
     private final ContentType contentType;
     private final AtomicReference<Exception> exception;
 
     private AtomicReference<RandomAccessFile> accessFileRef;
+    private ByteBuffer bytebuf;
     private boolean eof;
 
     public FileEntityProducer(final File file, final int bufferSize, final ContentType contentType) {
         this.file = Args.notNull(file, "File");
         this.length = file.length();
-        this.bytebuf = ByteBuffer.allocate((int)(bufferSize > this.length ? bufferSize : this.length));
+        this.bufferSize = bufferSize;
         this.contentType = contentType;
         this.accessFileRef = new AtomicReference<>(null);
         this.exception = new AtomicReference<>(null);
@@ -112,18 +121,35 @@ public void produce(final DataStreamChannel channel) throws IOException {
             accessFile = new RandomAccessFile(file, "r");
             Asserts.check(accessFileRef.getAndSet(accessFile) == null, "Illegal producer state");
         }
-        if (!eof) {
-            final int bytesRead = accessFile.getChannel().read(bytebuf);
-            if (bytesRead < 0) {
+        final FileChannel fileChannel = accessFile.getChannel();
+        if (!eof && (bytebuf == null || bytebuf.position() == 0) && channel instanceof FileDataStreamChannel
+                && ((FileDataStreamChannel) channel).isFileTransferSupported()) {
+            // Hand the file region over to the transport bypassing the intermediate buffer
+            final long position = fileChannel.position();
+            final long bytesTransferred = position < length ? ((FileDataStreamChannel) channel).transfer(
+                    fileChannel, position, length - position) : 0;
+            fileChannel.position(position + bytesTransferred);
+            if (position + bytesTransferred >= length
+                    || (bytesTransferred == 0 && position >= fileChannel.size())) {
                 eof = true;
             }
+        } else {
+            if (bytebuf == null) {
+                bytebuf = ByteBuffer.allocate((int) Math.max(1, Math.min(bufferSize, this.length)));
+            }
+            if (!eof) {
+                final int bytesRead = fileChannel.read(bytebuf);
+                if (bytesRead < 0) {
+                    eof = true;
+                }
+            }
+            if (bytebuf.position() > 0) {
+                bytebuf.flip();
+                channel.write(bytebuf);
+                bytebuf.compact();
+            }
         }
-        if (bytebuf.position() > 0) {
-            bytebuf.flip();
-            channel.write(bytebuf);
-            bytebuf.compact();
-        }
-        if (eof && bytebuf.position() == 0) {
+        if (eof && (bytebuf == null || bytebuf.position() == 0)) {
             channel.endStream();
             releaseResources();
         }
@@ -143,6 +169,9 @@ public Exception getException() {
     @Override
     public void releaseResources() {
         eof = false;
+        if (bytebuf != null) {
+            bytebuf.clear();
+        }
         final RandomAccessFile accessFile = accessFileRef.getAndSet(null);
         if (accessFile != null) {
             try {
@@ -0,0 +1,147 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.MappedFileCache;
+
+/**
+ * {@link AsyncEntityProducer} implementation that streams content of a file
+ * through a read-only memory mapping shared with other producers serving
+ * the same file.
+ * <p>
+ * The file gets mapped when the producer is created. Mappings are obtained
+ * from a {@link MappedFileCache}, so that frequently requested files get
+ * served with no reads from the file system and no buffer allocation even
+ * where content cannot be transferred directly from the file to the network
+ * channel, such as with HTTP/2 or TLS. The produced content reflects
+ * the state of the file at the moment of the producer creation.
+ * </p>
+ *
+ * @since 5.0
+ */
+public final class MappedFileEntityProducer implements AsyncEntityProducer {
+
+    private final ByteBuffer content;
+    private final ContentType contentType;
+    private final AtomicReference<Exception> exception;
+
+    private ByteBuffer slice;
+
+    public MappedFileEntityProducer(
+            final File file, final ContentType contentType, final MappedFileCache cache) throws IOException {
+        Args.notNull(file, "File");
+        Args.notNull(cache, "Mapped file cache");
+        this.content = cache.get(file);
+        this.contentType = contentType;
+        this.exception = new AtomicReference<>(null);
+    }
+
+    public MappedFileEntityProducer(final File file, final ContentType contentType) throws IOException {
+        this(file, contentType, MappedFileCache.DEFAULT);
+    }
+
+    public MappedFileEntityProducer(final File file) throws IOException {
+        this(file, ContentType.APPLICATION_OCTET_STREAM);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType != null ? contentType.toString() : null;
+    }
+
+    @Override
+    public long getContentLength() {
+        return content.remaining();
+    }
+
+    @Override
+    public int available() {
+        final ByteBuffer buffer = slice;
+        return buffer != null ? buffer.remaining() : content.remaining();
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return null;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return false;
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+        return null;
+    }
+
+    @Override
+    public void produce(final DataStreamChannel channel) throws IOException {
+        if (slice == null) {
+            slice = content.duplicate();
+        }
+        if (slice.hasRemaining()) {
+            channel.write(slice);
+        }
+        if (!slice.hasRemaining()) {
+            channel.endStream();
+            releaseResources();
+        }
+    }
+
+    @Override
+    public void failed(final Exception cause) {
+        if (exception.compareAndSet(null, cause)) {
+            releaseResources();
+        }
+    }
+
+    public Exception getException() {
+        return exception.get();
+    }
+
+    @Override
+    public void releaseResources() {
+        slice = null;
+    }
+
+}
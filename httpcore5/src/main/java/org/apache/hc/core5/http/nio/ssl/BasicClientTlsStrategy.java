@@ -28,6 +28,7 @@
 package org.apache.hc.core5.http.nio.ssl;
 
 import java.net.SocketAddress;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLContext;
 
@@ -36,6 +37,7 @@
 import org.apache.hc.core5.reactor.ssl.SSLBufferManagement;
 import org.apache.hc.core5.reactor.ssl.SSLSessionInitializer;
 import org.apache.hc.core5.reactor.ssl.SSLSessionVerifier;
+import org.apache.hc.core5.reactor.ssl.TlsSessionCache;
 import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
 import org.apache.hc.core5.ssl.SSLContexts;
 import org.apache.hc.core5.util.Args;
@@ -52,16 +54,47 @@ public class BasicClientTlsStrategy implements TlsStrategy {
     private final SSLBufferManagement sslBufferManagement;
     private final SSLSessionInitializer initializer;
     private final SSLSessionVerifier verifier;
+    private final Executor delegatedTaskExecutor;
 
+    /**
+     * @param sessionCache optional cache of TLS sessions that may be resumed.
+     *                     May be {@code null}.
+     * @param delegatedTaskExecutor optional executor of delegated tasks of the SSL engine.
+     *                              Tasks get executed by the I/O dispatch thread if {@code null}.
+     */
     public BasicClientTlsStrategy(
             final SSLContext sslContext,
             final SSLBufferManagement sslBufferManagement,
             final SSLSessionInitializer initializer,
-            final SSLSessionVerifier verifier) {
+            final SSLSessionVerifier verifier,
+            final TlsSessionCache sessionCache,
+            final Executor delegatedTaskExecutor) {
         this.sslContext = Args.notNull(sslContext, "SSL context");
         this.sslBufferManagement = sslBufferManagement;
-        this.initializer = initializer;
-        this.verifier = verifier;
+        this.initializer = sessionCache != null ? sessionCache.decorate(initializer) : initializer;
+        this.verifier = sessionCache != null ? sessionCache.decorate(verifier) : verifier;
+        this.delegatedTaskExecutor = delegatedTaskExecutor;
+    }
+
+    /**
+     * @param sessionCache optional cache of TLS sessions that may be resumed.
+     *                     May be {@code null}.
+     */
+    public BasicClientTlsStrategy(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier,
+            final TlsSessionCache sessionCache) {
+        this(sslContext, sslBufferManagement, initializer, verifier, sessionCache, null);
+    }
+
+    public BasicClientTlsStrategy(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier) {
+        this(sslContext, sslBufferManagement, initializer, verifier, null);
     }
 
     public BasicClientTlsStrategy(
@@ -94,7 +127,7 @@ public boolean upgrade(
             final Object attachment) {
         final String scheme = host != null ? host.getSchemeName() : null;
         if (URIScheme.HTTPS.same(scheme)) {
-            tlsSession.startTls(sslContext, sslBufferManagement, initializer, verifier);
+            tlsSession.startTls(sslContext, sslBufferManagement, initializer, verifier, delegatedTaskExecutor);
             return true;
         }
         return false;
@@ -28,6 +28,7 @@
 package org.apache.hc.core5.http.nio.ssl;
 
 import java.net.SocketAddress;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLContext;
 
@@ -52,18 +53,34 @@ public class BasicServerTlsStrategy implements TlsStrategy {
     private final SSLBufferManagement sslBufferManagement;
     private final SSLSessionInitializer initializer;
     private final SSLSessionVerifier verifier;
+    private final Executor delegatedTaskExecutor;
 
+    /**
+     * @param delegatedTaskExecutor optional executor of delegated tasks of the SSL engine.
+     *                              Tasks get executed by the I/O dispatch thread if {@code null}.
+     */
     public BasicServerTlsStrategy(
             final SSLContext sslContext,
             final SecurePortStrategy securePortStrategy,
             final SSLBufferManagement sslBufferManagement,
             final SSLSessionInitializer initializer,
-            final SSLSessionVerifier verifier) {
+            final SSLSessionVerifier verifier,
+            final Executor delegatedTaskExecutor) {
         this.sslContext = Args.notNull(sslContext, "SSL context");
         this.securePortStrategy = securePortStrategy;
         this.sslBufferManagement = sslBufferManagement;
         this.initializer = initializer;
         this.verifier = verifier;
+        this.delegatedTaskExecutor = delegatedTaskExecutor;
+    }
+
+    public BasicServerTlsStrategy(
+            final SSLContext sslContext,
+            final SecurePortStrategy securePortStrategy,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier) {
+        this(sslContext, securePortStrategy, sslBufferManagement, initializer, verifier, null);
     }
 
     public BasicServerTlsStrategy(
@@ -97,7 +114,7 @@ public boolean upgrade(
             final SocketAddress remoteAddress,
             final Object attachment) {
         if (securePortStrategy != null && securePortStrategy.isSecure(localAddress)) {
-            tlsSession.startTls(sslContext, sslBufferManagement, initializer, verifier);
+            tlsSession.startTls(sslContext, sslBufferManagement, initializer, verifier, delegatedTaskExecutor);
             return true;
         }
         return false;
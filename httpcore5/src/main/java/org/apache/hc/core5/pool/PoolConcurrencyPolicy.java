@@ -41,6 +41,11 @@ public enum PoolConcurrencyPolicy {
     /**
      * Strict connection max limit guarantees.
      */
-    STRICT
+    STRICT,
+
+    /**
+     * Strict connection max limit guarantees with per route locking.
+     */
+    STRIPED
 
 }
@@ -0,0 +1,926 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.pool;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.Experimental;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.io.GracefullyCloseable;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Connection pool with strict connection limit guarantees and per route
+ * locking.
+ * <p>
+ * Unlike {@link StrictConnPool} this pool does not guard its state with
+ * a single pool-wide lock. Each route has its own lock protecting its leased
+ * and available connections as well as its pending lease requests. The total
+ * number of allocated connections is tracked by an atomic counter of permits
+ * that must be acquired before a new connection can be allocated for any route.
+ * Once all permits have been taken a request may still be satisfied by closing
+ * an idle connection of another route, in which case its permit is taken over.
+ * </p>
+ *
+ * @param <T> route
+ * @param <C> connection object
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+@Experimental
+public class StripedConnPool<T, C extends GracefullyCloseable> implements ManagedConnPool<T, C> {
+
+    private final TimeValue timeToLive;
+    private final ConnPoolListener<T> connPoolListener;
+    private final PoolReusePolicy policy;
+    private final ConcurrentMap<T, PerRoutePool<T, C>> routeToPool;
+    private final ConcurrentMap<T, Integer> maxPerRoute;
+    private final ConcurrentLinkedQueue<LeaseRequest<T, C>> completedRequests;
+    private final AtomicInteger allocatedCount;
+    private final AtomicInteger pendingCount;
+    private final AtomicBoolean isShutDown;
+
+    private volatile int defaultMaxPerRoute;
+    private volatile int maxTotal;
+
+    public StripedConnPool(
+            final int defaultMaxPerRoute,
+            final int maxTotal,
+            final TimeValue timeToLive,
+            final PoolReusePolicy policy,
+            final ConnPoolListener<T> connPoolListener) {
+        super();
+        Args.positive(defaultMaxPerRoute, "Max per route value");
+        Args.positive(maxTotal, "Max total value");
+        this.timeToLive = TimeValue.defaultsToNegativeOneMillisecond(timeToLive);
+        this.connPoolListener = connPoolListener;
+        this.policy = policy != null ? policy : PoolReusePolicy.LIFO;
+        this.routeToPool = new ConcurrentHashMap<>();
+        this.maxPerRoute = new ConcurrentHashMap<>();
+        this.completedRequests = new ConcurrentLinkedQueue<>();
+        this.allocatedCount = new AtomicInteger(0);
+        this.pendingCount = new AtomicInteger(0);
+        this.isShutDown = new AtomicBoolean(false);
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+        this.maxTotal = maxTotal;
+    }
+
+    public StripedConnPool(final int defaultMaxPerRoute, final int maxTotal) {
+        this(defaultMaxPerRoute, maxTotal, TimeValue.NEG_ONE_MILLISECONDS, PoolReusePolicy.LIFO, null);
+    }
+
+    public boolean isShutdown() {
+        return this.isShutDown.get();
+    }
+
+    @Override
+    public void shutdown(final ShutdownType shutdownType) {
+        if (this.isShutDown.compareAndSet(false, true)) {
+            fireCallbacks();
+            for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+                pool.lock.lock();
+                try {
+                    pool.shutdown(shutdownType);
+                } finally {
+                    pool.lock.unlock();
+                }
+            }
+            this.routeToPool.clear();
+            this.allocatedCount.set(0);
+            this.pendingCount.set(0);
+        }
+    }
+
+    @Override
+    public void close() {
+        shutdown(ShutdownType.GRACEFUL);
+    }
+
+    private PerRoutePool<T, C> getPool(final T route) {
+        PerRoutePool<T, C> pool = this.routeToPool.get(route);
+        if (pool == null) {
+            final PerRoutePool<T, C> newPool = new PerRoutePool<>(route, this.policy);
+            pool = this.routeToPool.putIfAbsent(route, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    @Override
+    public Future<PoolEntry<T, C>> lease(
+            final T route, final Object state,
+            final Timeout requestTimeout,
+            final FutureCallback<PoolEntry<T, C>> callback) {
+        Args.notNull(route, "Route");
+        Args.notNull(requestTimeout, "Request timeout");
+        Asserts.check(!this.isShutDown.get(), "Connection pool shut down");
+        final BasicFuture<PoolEntry<T, C>> future = new BasicFuture<>(callback);
+        final PerRoutePool<T, C> pool = getPool(route);
+        boolean queued = false;
+        boolean contended = false;
+        pool.lock.lock();
+        try {
+            final LeaseRequest<T, C> request = new LeaseRequest<>(route, state, requestTimeout, future);
+            final boolean completed = processPendingRequest(pool, request);
+            if (!request.isDone() && !completed) {
+                pool.pending.add(request);
+                this.pendingCount.incrementAndGet();
+                queued = true;
+            }
+            if (request.isDone()) {
+                this.completedRequests.add(request);
+            }
+        } finally {
+            contended = unlock(pool);
+        }
+        if (queued && pool.awaitingPermit) {
+            // A permit or an idle connection may have been freed up by another route
+            // while the request was being queued
+            pool.lock.lock();
+            try {
+                processPendingRequests(pool);
+            } finally {
+                contended |= unlock(pool);
+            }
+        }
+        if (contended) {
+            processAwaitingRoutes(null);
+        }
+        fireCallbacks();
+        return future;
+    }
+
+    public Future<PoolEntry<T, C>> lease(final T route, final Object state) {
+        return lease(route, state, Timeout.DISABLED, null);
+    }
+
+    @Override
+    public void release(final PoolEntry<T, C> entry, final boolean reusable) {
+        if (entry == null) {
+            return;
+        }
+        if (this.isShutDown.get()) {
+            return;
+        }
+        if (!reusable) {
+            entry.discardConnection(ShutdownType.GRACEFUL);
+        }
+        final PerRoutePool<T, C> pool = getPool(entry.getRoute());
+        boolean contended = false;
+        pool.lock.lock();
+        try {
+            if (pool.isLeased(entry)) {
+                if (this.connPoolListener != null) {
+                    this.connPoolListener.onRelease(entry.getRoute(), this);
+                }
+                final boolean keepAlive = entry.hasConnection() && reusable;
+                pool.free(entry, keepAlive);
+                if (!keepAlive) {
+                    entry.discardConnection(ShutdownType.GRACEFUL);
+                    this.allocatedCount.decrementAndGet();
+                }
+                processNextPendingRequest(pool);
+            } else {
+                throw new IllegalStateException("Pool entry is not present in the set of leased entries");
+            }
+        } finally {
+            contended = unlock(pool);
+        }
+        processAwaitingRoutes(contended ? null : pool);
+        fireCallbacks();
+    }
+
+    private void processPendingRequests(final PerRoutePool<T, C> pool) {
+        pool.awaitingPermit = false;
+        final ListIterator<LeaseRequest<T, C>> it = pool.pending.listIterator();
+        while (it.hasNext()) {
+            final LeaseRequest<T, C> request = it.next();
+            final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
+            if (future.isCancelled()) {
+                it.remove();
+                this.pendingCount.decrementAndGet();
+                continue;
+            }
+            final boolean completed = processPendingRequest(pool, request);
+            if (request.isDone() || completed) {
+                it.remove();
+                this.pendingCount.decrementAndGet();
+            }
+            if (request.isDone()) {
+                this.completedRequests.add(request);
+            }
+        }
+    }
+
+    private void processNextPendingRequest(final PerRoutePool<T, C> pool) {
+        final boolean awaitingPermit = pool.awaitingPermit;
+        pool.awaitingPermit = false;
+        final ListIterator<LeaseRequest<T, C>> it = pool.pending.listIterator();
+        while (it.hasNext()) {
+            final LeaseRequest<T, C> request = it.next();
+            final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
+            if (future.isCancelled()) {
+                it.remove();
+                this.pendingCount.decrementAndGet();
+                continue;
+            }
+            final boolean completed = processPendingRequest(pool, request);
+            if (request.isDone() || completed) {
+                it.remove();
+                this.pendingCount.decrementAndGet();
+            }
+            if (request.isDone()) {
+                this.completedRequests.add(request);
+            }
+            if (completed) {
+                if (awaitingPermit && it.hasNext()) {
+                    // Requests not processed may still be blocked by the max total limit
+                    pool.awaitingPermit = true;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gives routes whose pending requests are blocked by the max total limit
+     * a chance to make progress. Must not be called with a route lock held.
+     */
+    private void processAwaitingRoutes(final PerRoutePool<T, C> excluded) {
+        PerRoutePool<T, C> skipped = excluded;
+        boolean contended;
+        do {
+            if (this.pendingCount.get() == 0) {
+                return;
+            }
+            contended = false;
+            for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+                if (pool != skipped && pool.awaitingPermit) {
+                    pool.lock.lock();
+                    try {
+                        processPendingRequests(pool);
+                    } finally {
+                        contended |= unlock(pool);
+                    }
+                }
+            }
+            skipped = null;
+        } while (contended);
+    }
+
+    /**
+     * Releases the lock of the route. Returns {@code true} if a pending request
+     * of another route failed to evict an idle connection of this route while
+     * the lock was held, in which case the caller is expected to retry awaiting
+     * routes once it no longer holds any route lock.
+     */
+    private boolean unlock(final PerRoutePool<T, C> pool) {
+        pool.lock.unlock();
+        if (pool.evictionContended) {
+            pool.evictionContended = false;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean processPendingRequest(final PerRoutePool<T, C> pool, final LeaseRequest<T, C> request) {
+        final Object state = request.getState();
+        final long deadline = request.getDeadline();
+
+        final long now = System.currentTimeMillis();
+        if (now > deadline) {
+            request.failed(new TimeoutException());
+            return false;
+        }
+
+        PoolEntry<T, C> entry;
+        for (;;) {
+            entry = pool.getFree(state);
+            if (entry == null) {
+                break;
+            }
+            if (entry.getExpiry() < System.currentTimeMillis()) {
+                entry.discardConnection(ShutdownType.GRACEFUL);
+                pool.remove(entry);
+                this.allocatedCount.decrementAndGet();
+            } else {
+                break;
+            }
+        }
+        if (entry != null) {
+            request.completed(entry);
+            if (this.connPoolListener != null) {
+                this.connPoolListener.onLease(entry.getRoute(), this);
+            }
+            return true;
+        }
+
+        // New connection is needed
+        final int maxPerRoute = getMax(pool.getRoute());
+        // Shrink the pool prior to allocating a new connection
+        final int excess = Math.max(0, pool.getAllocatedCount() + 1 - maxPerRoute);
+        if (excess > 0) {
+            for (int i = 0; i < excess; i++) {
+                final PoolEntry<T, C> lastUsed = pool.getLastUsed();
+                if (lastUsed == null) {
+                    break;
+                }
+                lastUsed.discardConnection(ShutdownType.GRACEFUL);
+                pool.remove(lastUsed);
+                this.allocatedCount.decrementAndGet();
+            }
+        }
+
+        if (pool.getAllocatedCount() < maxPerRoute) {
+            if (!acquirePermit()) {
+                // Take over the permit of an idle connection, preferably one of this route
+                final PoolEntry<T, C> lastUsed = pool.getLastUsed();
+                if (lastUsed != null) {
+                    lastUsed.discardConnection(ShutdownType.GRACEFUL);
+                    pool.remove(lastUsed);
+                } else {
+                    // Flag the route before attempting eviction, so that a thread
+                    // holding the lock of another route is bound to see it
+                    final boolean awaitingPermit = pool.awaitingPermit;
+                    pool.awaitingPermit = true;
+                    if (!evictIdle(pool)) {
+                        return false;
+                    }
+                    pool.awaitingPermit = awaitingPermit;
+                }
+            }
+            entry = pool.createEntry(this.timeToLive);
+            request.completed(entry);
+            if (this.connPoolListener != null) {
+                this.connPoolListener.onLease(entry.getRoute(), this);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acquirePermit() {
+        for (;;) {
+            final int current = this.allocatedCount.get();
+            if (current >= this.maxTotal) {
+                return false;
+            }
+            if (this.allocatedCount.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Closes the least recently used idle connection of another route. Routes
+     * whose lock is currently held by another thread are skipped, as the caller
+     * already holds the lock of its own route. In this case the holder of the lock
+     * is made to retry awaiting routes once it has released the lock.
+     */
+    private boolean evictIdle(final PerRoutePool<T, C> excluded) {
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            if (pool != excluded && pool.getAvailableCount() > 0 && tryLockForEviction(pool)) {
+                try {
+                    final PoolEntry<T, C> lastUsed = pool.getLastUsed();
+                    if (lastUsed != null) {
+                        lastUsed.discardConnection(ShutdownType.GRACEFUL);
+                        pool.remove(lastUsed);
+                        return true;
+                    }
+                } finally {
+                    if (unlock(pool)) {
+                        // Hand the retry over to the caller, which still holds
+                        // the lock of its own route
+                        excluded.evictionContended = true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean tryLockForEviction(final PerRoutePool<T, C> pool) {
+        if (pool.lock.tryLock()) {
+            return true;
+        }
+        pool.evictionContended = true;
+        // The lock may have been released before the flag was raised
+        return pool.lock.tryLock();
+    }
+
+    private void fireCallbacks() {
+        LeaseRequest<T, C> request;
+        while ((request = this.completedRequests.poll()) != null) {
+            final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
+            final Exception ex = request.getException();
+            final PoolEntry<T, C> result = request.getResult();
+            boolean successfullyCompleted = false;
+            if (ex != null) {
+                future.failed(ex);
+            } else if (result != null) {
+                if (future.completed(result)) {
+                    successfullyCompleted = true;
+                }
+            } else {
+                future.cancel();
+            }
+            if (!successfullyCompleted) {
+                release(result, true);
+            }
+        }
+    }
+
+    public void validatePendingRequests() {
+        final long now = System.currentTimeMillis();
+        boolean contended = false;
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                final ListIterator<LeaseRequest<T, C>> it = pool.pending.listIterator();
+                while (it.hasNext()) {
+                    final LeaseRequest<T, C> request = it.next();
+                    final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
+                    if (future.isCancelled() && !request.isDone()) {
+                        it.remove();
+                        this.pendingCount.decrementAndGet();
+                    } else {
+                        final long deadline = request.getDeadline();
+                        if (now > deadline) {
+                            request.failed(new TimeoutException());
+                        }
+                        if (request.isDone()) {
+                            it.remove();
+                            this.pendingCount.decrementAndGet();
+                            this.completedRequests.add(request);
+                        }
+                    }
+                }
+            } finally {
+                contended |= unlock(pool);
+            }
+        }
+        if (contended) {
+            processAwaitingRoutes(null);
+        }
+        fireCallbacks();
+    }
+
+    private int getMax(final T route) {
+        final Integer v = this.maxPerRoute.get(route);
+        if (v != null) {
+            return v.intValue();
+        }
+        return this.defaultMaxPerRoute;
+    }
+
+    @Override
+    public void setMaxTotal(final int max) {
+        Args.positive(max, "Max value");
+        this.maxTotal = max;
+        processAwaitingRoutes(null);
+        fireCallbacks();
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return this.maxTotal;
+    }
+
+    @Override
+    public void setDefaultMaxPerRoute(final int max) {
+        Args.positive(max, "Max value");
+        this.defaultMaxPerRoute = max;
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return this.defaultMaxPerRoute;
+    }
+
+    @Override
+    public void setMaxPerRoute(final T route, final int max) {
+        Args.notNull(route, "Route");
+        if (max > -1) {
+            this.maxPerRoute.put(route, Integer.valueOf(max));
+        } else {
+            this.maxPerRoute.remove(route);
+        }
+    }
+
+    @Override
+    public int getMaxPerRoute(final T route) {
+        Args.notNull(route, "Route");
+        return getMax(route);
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        int leasedTotal = 0;
+        int pendingTotal = 0;
+        int availableTotal = 0;
+        boolean contended = false;
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                leasedTotal += pool.getLeasedCount();
+                pendingTotal += pool.getPendingCount();
+                availableTotal += pool.getAvailableCount();
+            } finally {
+                contended |= unlock(pool);
+            }
+        }
+        if (contended) {
+            processAwaitingRoutes(null);
+        }
+        fireCallbacks();
+        return new PoolStats(leasedTotal, pendingTotal, availableTotal, this.maxTotal);
+    }
+
+    @Override
+    public PoolStats getStats(final T route) {
+        Args.notNull(route, "Route");
+        final PerRoutePool<T, C> pool = getPool(route);
+        final PoolStats stats;
+        boolean contended = false;
+        pool.lock.lock();
+        try {
+            stats = new PoolStats(
+                    pool.getLeasedCount(),
+                    pool.getPendingCount(),
+                    pool.getAvailableCount(),
+                    getMax(route));
+        } finally {
+            contended = unlock(pool);
+        }
+        if (contended) {
+            processAwaitingRoutes(null);
+        }
+        fireCallbacks();
+        return stats;
+    }
+
+    /**
+     * Returns snapshot of all knows routes
+     */
+    @Override
+    public Set<T> getRoutes() {
+        return new HashSet<>(this.routeToPool.keySet());
+    }
+
+    /**
+     * Enumerates all available connections.
+     */
+    public void enumAvailable(final Callback<PoolEntry<T, C>> callback) {
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                final Iterator<PoolEntry<T, C>> it = pool.available.iterator();
+                while (it.hasNext()) {
+                    final PoolEntry<T, C> entry = it.next();
+                    callback.execute(entry);
+                    if (!entry.hasConnection()) {
+                        it.remove();
+                        this.allocatedCount.decrementAndGet();
+                    }
+                }
+                processPendingRequests(pool);
+            } finally {
+                // awaiting routes are processed below in any case
+                unlock(pool);
+            }
+        }
+        processAwaitingRoutes(null);
+        fireCallbacks();
+    }
+
+    /**
+     * Enumerates all leased connections.
+     */
+    public void enumLeased(final Callback<PoolEntry<T, C>> callback) {
+        boolean contended = false;
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                final Iterator<PoolEntry<T, C>> it = pool.leased.iterator();
+                while (it.hasNext()) {
+                    final PoolEntry<T, C> entry = it.next();
+                    callback.execute(entry);
+                }
+                processPendingRequests(pool);
+            } finally {
+                contended |= unlock(pool);
+            }
+        }
+        if (contended) {
+            processAwaitingRoutes(null);
+        }
+        fireCallbacks();
+    }
+
+    @Override
+    public void closeIdle(final TimeValue idleTime) {
+        final long deadline = System.currentTimeMillis() - (TimeValue.isPositive(idleTime) ? idleTime.toMillis() : 0);
+        enumAvailable(new Callback<PoolEntry<T, C>>() {
+
+            @Override
+            public void execute(final PoolEntry<T, C> entry) {
+                if (entry.getUpdated() <= deadline) {
+                    entry.discardConnection(ShutdownType.GRACEFUL);
+                }
+            }
+
+        });
+    }
+
+    @Override
+    public void closeExpired() {
+        final long now = System.currentTimeMillis();
+        enumAvailable(new Callback<PoolEntry<T, C>>() {
+
+            @Override
+            public void execute(final PoolEntry<T, C> entry) {
+                if (entry.getExpiry() < now) {
+                    entry.discardConnection(ShutdownType.GRACEFUL);
+                }
+            }
+
+        });
+    }
+
+    @Override
+    public String toString() {
+        final PoolStats totalStats = getTotalStats();
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[leased: ");
+        buffer.append(totalStats.getLeased());
+        buffer.append("][available: ");
+        buffer.append(totalStats.getAvailable());
+        buffer.append("][pending: ");
+        buffer.append(totalStats.getPending());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    static class LeaseRequest<T, C extends GracefullyCloseable> {
+
+        private final T route;
+        private final Object state;
+        private final long deadline;
+        private final BasicFuture<PoolEntry<T, C>> future;
+        private final AtomicBoolean completed;
+        private volatile PoolEntry<T, C> result;
+        private volatile Exception ex;
+
+        LeaseRequest(
+                final T route,
+                final Object state,
+                final Timeout requestTimeout,
+                final BasicFuture<PoolEntry<T, C>> future) {
+            super();
+            this.route = route;
+            this.state = state;
+            this.deadline = Timeout.calculateDeadline(System.currentTimeMillis(), requestTimeout);
+            this.future = future;
+            this.completed = new AtomicBoolean(false);
+        }
+
+        public T getRoute() {
+            return this.route;
+        }
+
+        public Object getState() {
+            return this.state;
+        }
+
+        public long getDeadline() {
+            return this.deadline;
+        }
+
+        public boolean isDone() {
+            return this.completed.get();
+        }
+
+        public void failed(final Exception ex) {
+            if (this.completed.compareAndSet(false, true)) {
+                this.ex = ex;
+            }
+        }
+
+        public void completed(final PoolEntry<T, C> result) {
+            if (this.completed.compareAndSet(false, true)) {
+                this.result = result;
+            }
+        }
+
+        public BasicFuture<PoolEntry<T, C>> getFuture() {
+            return this.future;
+        }
+
+        public PoolEntry<T, C> getResult() {
+            return this.result;
+        }
+
+        public Exception getException() {
+            return this.ex;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder buffer = new StringBuilder();
+            buffer.append("[");
+            buffer.append(this.route);
+            buffer.append("][");
+            buffer.append(this.state);
+            buffer.append("]");
+            return buffer.toString();
+        }
+
+    }
+
+    static class PerRoutePool<T, C extends GracefullyCloseable> {
+
+        private final T route;
+        private final PoolReusePolicy policy;
+        private final Lock lock;
+        private final Set<PoolEntry<T, C>> leased;
+        // most recently released entries first
+        private final LinkedList<PoolEntry<T, C>> available;
+        private final LinkedList<LeaseRequest<T, C>> pending;
+
+        // set if a pending request of this route could not be served due to the max total limit
+        private volatile boolean awaitingPermit;
+        // set if another route failed to evict an idle connection of this route
+        // because its lock was held
+        private volatile boolean evictionContended;
+
+        PerRoutePool(final T route, final PoolReusePolicy policy) {
+            super();
+            this.route = route;
+            this.policy = policy;
+            this.lock = new ReentrantLock();
+            this.leased = new HashSet<>();
+            this.available = new LinkedList<>();
+            this.pending = new LinkedList<>();
+        }
+
+        public final T getRoute() {
+            return route;
+        }
+
+        public int getLeasedCount() {
+            return this.leased.size();
+        }
+
+        public int getAvailableCount() {
+            return this.available.size();
+        }
+
+        public int getPendingCount() {
+            return this.pending.size();
+        }
+
+        public int getAllocatedCount() {
+            return this.available.size() + this.leased.size();
+        }
+
+        public boolean isLeased(final PoolEntry<T, C> entry) {
+            return this.leased.contains(entry);
+        }
+
+        private Iterator<PoolEntry<T, C>> availableIterator() {
+            switch (policy) {
+                case LIFO:
+                    return this.available.iterator();
+                case FIFO:
+                    return this.available.descendingIterator();
+                default:
+                    throw new IllegalStateException("Unexpected ConnPoolPolicy value: " + policy);
+            }
+        }
+
+        public PoolEntry<T, C> getFree(final Object state) {
+            if (!this.available.isEmpty()) {
+                if (state != null) {
+                    final Iterator<PoolEntry<T, C>> it = availableIterator();
+                    while (it.hasNext()) {
+                        final PoolEntry<T, C> entry = it.next();
+                        if (state.equals(entry.getState())) {
+                            it.remove();
+                            this.leased.add(entry);
+                            return entry;
+                        }
+                    }
+                }
+                final Iterator<PoolEntry<T, C>> it = availableIterator();
+                while (it.hasNext()) {
+                    final PoolEntry<T, C> entry = it.next();
+                    if (entry.getState() == null) {
+                        it.remove();
+                        this.leased.add(entry);
+                        return entry;
+                    }
+                }
+            }
+            return null;
+        }
+
+        public PoolEntry<T, C> getLastUsed() {
+            return this.available.peekLast();
+        }
+
+        public boolean remove(final PoolEntry<T, C> entry) {
+            return this.available.remove(entry) || this.leased.remove(entry);
+        }
+
+        public void free(final PoolEntry<T, C> entry, final boolean reusable) {
+            final boolean found = this.leased.remove(entry);
+            Asserts.check(found, "Entry %s has not been leased from this pool", entry);
+            if (reusable) {
+                this.available.addFirst(entry);
+            }
+        }
+
+        public PoolEntry<T, C> createEntry(final TimeValue timeToLive) {
+            final PoolEntry<T, C> entry = new PoolEntry<>(this.route, timeToLive);
+            this.leased.add(entry);
+            return entry;
+        }
+
+        public void shutdown(final ShutdownType shutdownType) {
+            PoolEntry<T, C> availableEntry;
+            while ((availableEntry = available.poll()) != null) {
+                availableEntry.discardConnection(shutdownType);
+            }
+            for (final PoolEntry<T, C> entry: this.leased) {
+                entry.discardConnection(shutdownType);
+            }
+            this.leased.clear();
+            this.pending.clear();
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder buffer = new StringBuilder();
+            buffer.append("[route: ");
+            buffer.append(this.route);
+            buffer.append("][leased: ");
+            buffer.append(this.leased.size());
+            buffer.append("][available: ");
+            buffer.append(this.available.size());
+            buffer.append("][pending: ");
+            buffer.append(this.pending.size());
+            buffer.append("]");
+            return buffer.toString();
+        }
+
+    }
+
+}
@@ -32,6 +32,7 @@
 import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
 import java.util.Date;
 import java.util.Queue;
 import java.util.Set;
@@ -47,18 +48,22 @@ abstract class AbstractSingleCoreIOReactor implements IOReactor {
     private final AtomicReference<IOReactorStatus> status;
     private final Object shutdownMutex;
 
+    final SelectorProvider selectorProvider;
     final Selector selector;
+    final SelectorWakeup selectorWakeup;
 
-    AbstractSingleCoreIOReactor(final Queue<ExceptionEvent> auditLog) {
+    AbstractSingleCoreIOReactor(final Queue<ExceptionEvent> auditLog, final SelectorProvider selectorProvider) {
         super();
         this.auditLog = auditLog;
+        this.selectorProvider = selectorProvider != null ? selectorProvider : SelectorProvider.provider();
         this.shutdownMutex = new Object();
         this.status = new AtomicReference<>(IOReactorStatus.INACTIVE);
         try {
-            this.selector = Selector.open();
+            this.selector = this.selectorProvider.openSelector();
         } catch (final IOException ex) {
             throw new IllegalStateException("Unexpected failure opening I/O selector", ex);
         }
+        this.selectorWakeup = new SelectorWakeup(this.selector);
     }
 
     @Override
@@ -70,12 +75,21 @@ void addExceptionEvent(final Throwable ex) {
         this.auditLog.add(new ExceptionEvent(ex, new Date()));
     }
 
+    final int select(final long timeout) throws IOException {
+        return this.selectorWakeup.select(timeout);
+    }
+
+    final void wakeup() {
+        this.selectorWakeup.wakeup();
+    }
+
     abstract void doExecute() throws IOException;
 
     abstract void doTerminate() throws IOException;
 
     public void execute() {
         if (this.status.compareAndSet(IOReactorStatus.INACTIVE, IOReactorStatus.ACTIVE)) {
+            this.selectorWakeup.bind(Thread.currentThread());
             try {
                 doExecute();
             } catch (final ClosedSelectorException ignore) {
@@ -136,7 +150,7 @@ public final void initiateShutdown() {
                 this.shutdownMutex.notifyAll();
             }
         } else if (this.status.compareAndSet(IOReactorStatus.ACTIVE, IOReactorStatus.SHUTTING_DOWN)) {
-            this.selector.wakeup();
+            wakeup();
         }
     }
 
@@ -152,7 +166,7 @@ public final void shutdown(final ShutdownType shutdownType) {
         } else {
             final IOReactorStatus previousStatus = this.status.getAndSet(IOReactorStatus.SHUT_DOWN);
             if (previousStatus.compareTo(IOReactorStatus.ACTIVE) == 0) {
-                this.selector.wakeup();
+                wakeup();
             }
             synchronized (this.shutdownMutex) {
                 this.shutdownMutex.notifyAll();
@@ -30,13 +30,13 @@
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.concurrent.FutureCallback;
@@ -62,7 +62,7 @@ public class DefaultConnectingIOReactor implements IOReactorService, ConnectionI
     private final int workerCount;
     private final SingleCoreIOReactor[] dispatchers;
     private final MultiCoreIOReactor ioReactor;
-    private final AtomicInteger currentWorker;
+    private final IOWorkerSelector workerSelector;
 
     private final static ThreadFactory THREAD_FACTORY = new DefaultThreadFactory("I/O client dispatch", true);
 
@@ -90,7 +90,8 @@ public DefaultConnectingIOReactor(
             threads[i] = (threadFactory != null ? threadFactory : THREAD_FACTORY).newThread(new IOReactorWorker(dispatcher));
         }
         this.ioReactor = new MultiCoreIOReactor(this.dispatchers, threads);
-        this.currentWorker = new AtomicInteger(0);
+        final IOWorkerSelector selector = ioReactorConfig != null ? ioReactorConfig.getWorkerSelector() : null;
+        this.workerSelector = selector != null ? selector : IOWorkerSelectors.roundRobin();
     }
 
     public DefaultConnectingIOReactor(
@@ -136,7 +137,7 @@ public Future<IOSession> connect(
         if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
             throw new IOReactorShutdownException("I/O reactor has been shut down");
         }
-        final int i = Math.abs(currentWorker.incrementAndGet() % workerCount);
+        final int i = workerSelector.select(dispatchers);
         try {
             return dispatchers[i].connect(remoteEndpoint, remoteAddress, localAddress, timeout, attachment, callback);
         } catch (final IOReactorShutdownException ex) {
@@ -145,6 +146,15 @@ public Future<IOSession> connect(
         }
     }
 
+    /**
+     * Returns load metrics of individual I/O workers of this I/O reactor.
+     *
+     * @since 5.0
+     */
+    public List<IOWorkerStats> getWorkerStats() {
+        return Collections.<IOWorkerStats>unmodifiableList(Arrays.asList(dispatchers));
+    }
+
     @Override
     public void initiateShutdown() {
         ioReactor.initiateShutdown();
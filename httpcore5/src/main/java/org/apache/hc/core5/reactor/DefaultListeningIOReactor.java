@@ -31,15 +31,24 @@
 import java.net.SocketAddress;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hc.core5.concurrent.BasicFuture;
 import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
@@ -55,6 +64,12 @@
  * I/O session equally across multiple I/O worker threads for a more optimal resource
  * utilization and a better I/O performance. Usually it is recommended to have
  * one worker I/O reactor per physical CPU core.
+ * <p>
+ * With {@link ListenerPolicy#REUSE_PORT} each worker I/O reactor listens on its own
+ * {@code SO_REUSEPORT} socket and accepts connections without involvement
+ * of the listener thread, which keeps serving as a fallback on platforms
+ * that do not support the option.
+ * </p>
  *
  * @since 4.0
  */
@@ -68,7 +83,11 @@ public class DefaultListeningIOReactor implements IOReactorService, ConnectionIn
     private final SingleCoreIOReactor[] dispatchers;
     private final SingleCoreListeningIOReactor listener;
     private final MultiCoreIOReactor ioReactor;
-    private final AtomicInteger currentWorker;
+    private final IOWorkerSelector workerSelector;
+    private final boolean reusePort;
+    private final ConcurrentMap<ListenerEndpoint, Boolean> reusePortEndpoints;
+    private final Queue<ListenerEndpointRequest> pausedRequests;
+    private final AtomicBoolean paused;
 
     /**
      * Creates an instance of DefaultListeningIOReactor with the given configuration.
@@ -91,6 +110,12 @@ public DefaultListeningIOReactor(
         Args.notNull(eventHandlerFactory, "Event handler factory");
         this.auditLog = new ConcurrentLinkedDeque<>();
         this.workerCount = ioReactorConfig != null ? ioReactorConfig.getIoThreadCount() : IOReactorConfig.DEFAULT.getIoThreadCount();
+        this.reusePort = ioReactorConfig != null
+                && ioReactorConfig.getListenerPolicy() == ListenerPolicy.REUSE_PORT
+                && ReusePortSupport.isAvailable();
+        this.reusePortEndpoints = new ConcurrentHashMap<>();
+        this.pausedRequests = new ConcurrentLinkedQueue<>();
+        this.paused = new AtomicBoolean(false);
         this.dispatchers = new SingleCoreIOReactor[workerCount];
         final Thread[] threads = new Thread[workerCount + 1];
         for (int i = 0; i < this.dispatchers.length; i++) {
@@ -118,7 +143,8 @@ public void execute(final SocketChannel channel) {
         threads[0] = (listenerThreadFactory != null ? listenerThreadFactory : LISTENER_THREAD_FACTORY).newThread(new IOReactorWorker(listener));
 
         this.ioReactor = new MultiCoreIOReactor(ioReactors, threads);
-        this.currentWorker = new AtomicInteger(0);
+        final IOWorkerSelector selector = ioReactorConfig != null ? ioReactorConfig.getWorkerSelector() : null;
+        this.workerSelector = selector != null ? selector : IOWorkerSelectors.roundRobin();
     }
 
     /**
@@ -155,26 +181,153 @@ public void start() {
 
     @Override
     public Future<ListenerEndpoint> listen(final SocketAddress address, final FutureCallback<ListenerEndpoint> callback) {
-        return listener.listen(address, callback);
+        if (!reusePort) {
+            return listener.listen(address, callback);
+        }
+        if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
+            throw new IOReactorShutdownException("I/O reactor has been shut down");
+        }
+        final BasicFuture<ListenerEndpoint> future = new BasicFuture<>(callback);
+        final ListenerEndpointRequest request = new ListenerEndpointRequest(address, future);
+        if (paused.get()) {
+            pausedRequests.add(request);
+        } else {
+            listenReusePort(request);
+        }
+        return future;
     }
 
     public Future<ListenerEndpoint> listen(final SocketAddress address) {
         return listen(address, null);
     }
 
+    /**
+     * Binds the first dispatcher to the requested address and then all the others
+     * to the actual address bound, which may differ if an ephemeral port was requested.
+     */
+    private void listenReusePort(final ListenerEndpointRequest request) {
+        dispatchers[0].listen(request.address, new FutureCallback<ListenerEndpoint>() {
+
+            @Override
+            public void completed(final ListenerEndpoint first) {
+                final ReusePortListenerEndpoint endpoint = new ReusePortListenerEndpoint(first.getAddress());
+                endpoint.add(first);
+                listenRemaining(request, endpoint);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                request.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                request.cancel();
+            }
+
+        });
+    }
+
+    private void listenRemaining(final ListenerEndpointRequest request, final ReusePortListenerEndpoint endpoint) {
+        final AtomicInteger pending = new AtomicInteger(workerCount - 1);
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final FutureCallback<ListenerEndpoint> callback = new FutureCallback<ListenerEndpoint>() {
+
+            private void done() {
+                if (pending.decrementAndGet() == 0 && !failed.get()) {
+                    if (request.isCancelled()) {
+                        endpoint.shutdown(ShutdownType.IMMEDIATE);
+                    } else {
+                        reusePortEndpoints.put(endpoint, Boolean.TRUE);
+                        request.completed(endpoint);
+                    }
+                }
+            }
+
+            @Override
+            public void completed(final ListenerEndpoint result) {
+                endpoint.add(result);
+                done();
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                if (failed.compareAndSet(false, true)) {
+                    endpoint.shutdown(ShutdownType.IMMEDIATE);
+                    request.failed(ex);
+                }
+                done();
+            }
+
+            @Override
+            public void cancelled() {
+                failed(new IOReactorShutdownException("I/O reactor has been shut down"));
+            }
+
+        };
+        if (workerCount == 1) {
+            reusePortEndpoints.put(endpoint, Boolean.TRUE);
+            request.completed(endpoint);
+            return;
+        }
+        for (int i = 1; i < workerCount; i++) {
+            try {
+                dispatchers[i].listen(endpoint.getAddress(), callback);
+            } catch (final IOReactorShutdownException ex) {
+                callback.failed(ex);
+            }
+        }
+    }
+
     @Override
     public Set<ListenerEndpoint> getEndpoints() {
-        return listener.getEndpoints();
+        if (!reusePort) {
+            return listener.getEndpoints();
+        }
+        final Set<ListenerEndpoint> set = new HashSet<>();
+        final Iterator<ListenerEndpoint> it = this.reusePortEndpoints.keySet().iterator();
+        while (it.hasNext()) {
+            final ListenerEndpoint endpoint = it.next();
+            if (!endpoint.isClosed()) {
+                set.add(endpoint);
+            } else {
+                it.remove();
+            }
+        }
+        return set;
     }
 
     @Override
     public void pause() throws IOException {
-        listener.pause();
+        if (!reusePort) {
+            listener.pause();
+            return;
+        }
+        if (paused.compareAndSet(false, true)) {
+            final Iterator<ListenerEndpoint> it = this.reusePortEndpoints.keySet().iterator();
+            while (it.hasNext()) {
+                final ListenerEndpoint endpoint = it.next();
+                if (!endpoint.isClosed()) {
+                    endpoint.close();
+                    this.pausedRequests.add(new ListenerEndpointRequest(endpoint.getAddress(), null));
+                }
+                it.remove();
+            }
+        }
     }
 
     @Override
     public void resume() throws IOException {
-        listener.resume();
+        if (!reusePort) {
+            listener.resume();
+            return;
+        }
+        if (paused.compareAndSet(true, false)) {
+            ListenerEndpointRequest request;
+            while ((request = this.pausedRequests.poll()) != null) {
+                listenReusePort(request);
+            }
+        }
     }
 
     @Override
@@ -188,7 +341,7 @@ public List<ExceptionEvent> getExceptionLog() {
     }
 
     private void enqueueChannel(final SocketChannel socketChannel) {
-        final int i = Math.abs(currentWorker.incrementAndGet() % workerCount);
+        final int i = workerSelector.select(dispatchers);
         try {
             dispatchers[i].enqueueChannel(socketChannel);
         } catch (final IOReactorShutdownException ex) {
@@ -208,7 +361,7 @@ public Future<IOSession> connect(
         if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
             throw new IOReactorShutdownException("I/O reactor has been shut down");
         }
-        final int i = Math.abs(currentWorker.incrementAndGet() % workerCount);
+        final int i = workerSelector.select(dispatchers);
         try {
             return dispatchers[i].connect(remoteEndpoint, remoteAddress, localAddress, timeout, attachment, callback);
         } catch (final IOReactorShutdownException ex) {
@@ -217,6 +370,15 @@ public Future<IOSession> connect(
         }
     }
 
+    /**
+     * Returns load metrics of individual I/O workers of this I/O reactor.
+     *
+     * @since 5.0
+     */
+    public List<IOWorkerStats> getWorkerStats() {
+        return Collections.<IOWorkerStats>unmodifiableList(Arrays.asList(dispatchers));
+    }
+
     @Override
     public void initiateShutdown() {
         ioReactor.initiateShutdown();
@@ -0,0 +1,75 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.concurrent.Executor;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Event loop of an I/O reactor thread, which can run arbitrary tasks in
+ * the same thread that dispatches I/O events of the sessions it manages.
+ * <p>
+ * Tasks submitted to the event loop are executed in order of submission
+ * between I/O event dispatch cycles, in bounded batches so that task
+ * execution cannot starve I/O event processing. Tasks must not block.
+ * Code run by the event loop can access the state of the sessions managed
+ * by the event loop without any further synchronization.
+ * </p>
+ *
+ * @since 5.0
+ */
+public interface IOEventLoop extends Executor {
+
+    /**
+     * Determines whether the current thread is the thread of this event loop.
+     */
+    boolean inEventLoop();
+
+    /**
+     * Submits the task for execution by the event loop.
+     *
+     * @param task the task to execute.
+     * @throws java.util.concurrent.RejectedExecutionException if the event loop has been shut down.
+     */
+    @Override
+    void execute(Runnable task);
+
+    /**
+     * Schedules the task for execution by the event loop once the given delay
+     * has elapsed. The precision of the delay depends on the I/O reactor select
+     * interval, which bounds the time the event loop spends waiting for I/O events.
+     *
+     * @param task the task to execute.
+     * @param delay the delay.
+     * @return handle that can be used to cancel the task.
+     * @throws java.util.concurrent.RejectedExecutionException if the event loop has been shut down.
+     */
+    Cancellable schedule(Runnable task, TimeValue delay);
+
+}
@@ -27,11 +27,13 @@
 
 package org.apache.hc.core5.reactor;
 
+import java.nio.channels.spi.SelectorProvider;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
@@ -55,6 +57,11 @@ public final class IOReactorConfig {
     private final int sndBufSize;
     private final int rcvBufSize;
     private final int backlogSize;
+    private final TimeoutCheckPolicy timeoutCheckPolicy;
+    private final ByteBufferAllocator byteBufferAllocator;
+    private final ListenerPolicy listenerPolicy;
+    private final IOWorkerSelector workerSelector;
+    private final SelectorProvider selectorProvider;
 
     IOReactorConfig(
             final long selectInterval,
@@ -66,7 +73,12 @@ public final class IOReactorConfig {
             final boolean tcpNoDelay,
             final int sndBufSize,
             final int rcvBufSize,
-            final int backlogSize) {
+            final int backlogSize,
+            final TimeoutCheckPolicy timeoutCheckPolicy,
+            final ByteBufferAllocator byteBufferAllocator,
+            final ListenerPolicy listenerPolicy,
+            final IOWorkerSelector workerSelector,
+            final SelectorProvider selectorProvider) {
         super();
         this.selectInterval = selectInterval;
         this.ioThreadCount = Args.positive(ioThreadCount, "ioThreadCount");
@@ -78,6 +90,11 @@ public final class IOReactorConfig {
         this.sndBufSize = sndBufSize;
         this.rcvBufSize = rcvBufSize;
         this.backlogSize = backlogSize;
+        this.timeoutCheckPolicy = timeoutCheckPolicy;
+        this.byteBufferAllocator = byteBufferAllocator;
+        this.listenerPolicy = listenerPolicy;
+        this.workerSelector = workerSelector;
+        this.selectorProvider = selectorProvider;
     }
 
     /**
@@ -193,6 +210,69 @@ public int getBacklogSize() {
         return backlogSize;
     }
 
+    /**
+     * Determines the strategy used by I/O dispatchers to detect timed out sessions.
+     * <p>
+     * Default: {@link TimeoutCheckPolicy#FULL_SCAN}
+     *
+     * @since 5.0
+     */
+    public TimeoutCheckPolicy getTimeoutCheckPolicy() {
+        return timeoutCheckPolicy;
+    }
+
+    /**
+     * Determines the allocator used by I/O sessions to obtain TLS network and application
+     * buffers. If not set, TLS buffers are allocated per session as defined by the TLS
+     * strategy.
+     * <p>
+     * Default: {@code null}
+     *
+     * @since 5.0
+     */
+    public ByteBufferAllocator getByteBufferAllocator() {
+        return byteBufferAllocator;
+    }
+
+    /**
+     * Determines the strategy used by listening I/O reactors to accept incoming connections.
+     * <p>
+     * Default: {@link ListenerPolicy#SINGLE_ACCEPTOR}
+     *
+     * @since 5.0
+     */
+    public ListenerPolicy getListenerPolicy() {
+        return listenerPolicy;
+    }
+
+    /**
+     * Determines the strategy used by multi-core I/O reactors to assign new connections
+     * to I/O workers. If not set, connections are assigned to workers in turn.
+     * <p>
+     * Default: {@code null}
+     *
+     * @see IOWorkerSelectors
+     * @since 5.0
+     */
+    public IOWorkerSelector getWorkerSelector() {
+        return workerSelector;
+    }
+
+    /**
+     * Determines the provider of selectors and socket channels used by I/O reactors.
+     * A custom provider must supply standard {@link java.nio.channels.SocketChannel}
+     * and {@link java.nio.channels.ServerSocketChannel} implementations. If not set,
+     * the system-wide default provider is used.
+     * <p>
+     * Default: {@code null}
+     *
+     * @see SelectorProvider#provider()
+     * @since 5.0
+     */
+    public SelectorProvider getSelectorProvider() {
+        return selectorProvider;
+    }
+
     public static Builder custom() {
         return new Builder();
     }
@@ -209,7 +289,12 @@ public static Builder copy(final IOReactorConfig config) {
             .setTcpNoDelay(config.isTcpNoDelay())
             .setSndBufSize(config.getSndBufSize())
             .setRcvBufSize(config.getRcvBufSize())
-            .setBacklogSize(config.getBacklogSize());
+            .setBacklogSize(config.getBacklogSize())
+            .setTimeoutCheckPolicy(config.getTimeoutCheckPolicy())
+            .setByteBufferAllocator(config.getByteBufferAllocator())
+            .setListenerPolicy(config.getListenerPolicy())
+            .setWorkerSelector(config.getWorkerSelector())
+            .setSelectorProvider(config.getSelectorProvider());
     }
 
     public static class Builder {
@@ -251,6 +336,11 @@ public static void setDefaultMaxIoThreadCount(final int defaultMaxIoThreadCount)
         private int sndBufSize;
         private int rcvBufSize;
         private int backlogSize;
+        private TimeoutCheckPolicy timeoutCheckPolicy;
+        private ByteBufferAllocator byteBufferAllocator;
+        private ListenerPolicy listenerPolicy;
+        private IOWorkerSelector workerSelector;
+        private SelectorProvider selectorProvider;
 
         Builder() {
             this.selectInterval = 1000;
@@ -263,6 +353,11 @@ public static void setDefaultMaxIoThreadCount(final int defaultMaxIoThreadCount)
             this.sndBufSize = 0;
             this.rcvBufSize = 0;
             this.backlogSize = 0;
+            this.timeoutCheckPolicy = TimeoutCheckPolicy.FULL_SCAN;
+            this.byteBufferAllocator = null;
+            this.listenerPolicy = ListenerPolicy.SINGLE_ACCEPTOR;
+            this.workerSelector = null;
+            this.selectorProvider = null;
         }
 
         public Builder setSelectInterval(final long selectInterval) {
@@ -325,6 +420,43 @@ public Builder setBacklogSize(final int backlogSize) {
             return this;
         }
 
+        public Builder setTimeoutCheckPolicy(final TimeoutCheckPolicy timeoutCheckPolicy) {
+            this.timeoutCheckPolicy = timeoutCheckPolicy;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setByteBufferAllocator(final ByteBufferAllocator byteBufferAllocator) {
+            this.byteBufferAllocator = byteBufferAllocator;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setListenerPolicy(final ListenerPolicy listenerPolicy) {
+            this.listenerPolicy = listenerPolicy;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setWorkerSelector(final IOWorkerSelector workerSelector) {
+            this.workerSelector = workerSelector;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setSelectorProvider(final SelectorProvider selectorProvider) {
+            this.selectorProvider = selectorProvider;
+            return this;
+        }
+
         public IOReactorConfig build() {
             return new IOReactorConfig(
                     selectInterval, ioThreadCount,
@@ -333,7 +465,12 @@ public IOReactorConfig build() {
                     TimeValue.defaultsToNegativeOneMillisecond(soLinger),
                     soKeepAlive,
                     tcpNoDelay,
-                    sndBufSize, rcvBufSize, backlogSize);
+                    sndBufSize, rcvBufSize, backlogSize,
+                    timeoutCheckPolicy != null ? timeoutCheckPolicy : TimeoutCheckPolicy.FULL_SCAN,
+                    byteBufferAllocator,
+                    listenerPolicy != null ? listenerPolicy : ListenerPolicy.SINGLE_ACCEPTOR,
+                    workerSelector,
+                    selectorProvider);
         }
 
     }
@@ -351,6 +488,11 @@ public String toString() {
                 .append(", sndBufSize=").append(this.sndBufSize)
                 .append(", rcvBufSize=").append(this.rcvBufSize)
                 .append(", backlogSize=").append(this.backlogSize)
+                .append(", timeoutCheckPolicy=").append(this.timeoutCheckPolicy)
+                .append(", byteBufferAllocator=").append(this.byteBufferAllocator)
+                .append(", listenerPolicy=").append(this.listenerPolicy)
+                .append(", workerSelector=").append(this.workerSelector)
+                .append(", selectorProvider=").append(this.selectorProvider)
                 .append("]");
         return builder.toString();
     }
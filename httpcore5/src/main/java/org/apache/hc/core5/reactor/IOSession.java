@@ -206,4 +206,15 @@ public interface IOSession extends GracefullyCloseable, Identifiable {
      */
     void updateWriteTime();
 
+    /**
+     * Returns the event loop of the I/O reactor thread that manages this session.
+     * Tasks submitted to the event loop are executed by the same thread that
+     * dispatches I/O events of this session.
+     *
+     * @return the event loop or {@code null} if not supported by the I/O reactor.
+     *
+     * @since 5.0
+     */
+    IOEventLoop getEventLoop();
+
 }
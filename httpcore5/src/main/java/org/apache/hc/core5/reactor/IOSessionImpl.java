@@ -52,6 +52,10 @@ class IOSessionImpl implements IOSession {
     private final Lock lock;
     private final String id;
     private final AtomicInteger status;
+    private final AtomicInteger eventMask;
+    private final TimingWheel timingWheel;
+    private final SelectorWakeup selectorWakeup;
+    private final IOEventLoop eventLoop;
 
     private volatile IOEventHandler eventHandler;
     private volatile int socketTimeout;
@@ -63,11 +67,26 @@ class IOSessionImpl implements IOSession {
      *
      * @param key the selection key.
      * @param socketChannel the socket channel
+     * @param timingWheel the timing wheel to notify of socket timeout changes.
+     *   Can be {@code null}.
+     * @param selectorWakeup the wakeup policy of the I/O reactor owning the selector.
+     *   Can be {@code null}, in which case the selector is woken up on every change.
+     * @param eventLoop the event loop of the I/O reactor owning the selector.
+     *   Can be {@code null}.
      */
-    public IOSessionImpl(final SelectionKey key, final SocketChannel socketChannel) {
+    public IOSessionImpl(
+            final SelectionKey key,
+            final SocketChannel socketChannel,
+            final TimingWheel timingWheel,
+            final SelectorWakeup selectorWakeup,
+            final IOEventLoop eventLoop) {
         super();
         this.key = Args.notNull(key, "Selection key");
         this.channel = Args.notNull(socketChannel, "Socket channel");
+        this.timingWheel = timingWheel;
+        this.selectorWakeup = selectorWakeup;
+        this.eventLoop = eventLoop;
+        this.eventMask = new AtomicInteger(key.interestOps());
         this.commandQueue = new ConcurrentLinkedDeque<>();
         this.lock = new ReentrantLock();
         this.socketTimeout = 0;
@@ -77,6 +96,46 @@ public IOSessionImpl(final SelectionKey key, final SocketChannel socketChannel)
         this.lastWriteTime = System.currentTimeMillis();
     }
 
+    /**
+     * Creates new instance of IOSessionImpl.
+     *
+     * @param key the selection key.
+     * @param socketChannel the socket channel
+     * @param timingWheel the timing wheel to notify of socket timeout changes.
+     *   Can be {@code null}.
+     * @param selectorWakeup the wakeup policy of the I/O reactor owning the selector.
+     *   Can be {@code null}, in which case the selector is woken up on every change.
+     */
+    public IOSessionImpl(
+            final SelectionKey key,
+            final SocketChannel socketChannel,
+            final TimingWheel timingWheel,
+            final SelectorWakeup selectorWakeup) {
+        this(key, socketChannel, timingWheel, selectorWakeup, null);
+    }
+
+    /**
+     * Creates new instance of IOSessionImpl.
+     *
+     * @param key the selection key.
+     * @param socketChannel the socket channel
+     * @param timingWheel the timing wheel to notify of socket timeout changes.
+     *   Can be {@code null}.
+     */
+    public IOSessionImpl(final SelectionKey key, final SocketChannel socketChannel, final TimingWheel timingWheel) {
+        this(key, socketChannel, timingWheel, null, null);
+    }
+
+    /**
+     * Creates new instance of IOSessionImpl.
+     *
+     * @param key the selection key.
+     * @param socketChannel the socket channel
+     */
+    public IOSessionImpl(final SelectionKey key, final SocketChannel socketChannel) {
+        this(key, socketChannel, null, null, null);
+    }
+
     @Override
     public String getId() {
         return id;
@@ -132,8 +191,9 @@ public void setEventMask(final int newValue) {
         if (this.status.get() == CLOSED) {
             return;
         }
-        this.key.interestOps(newValue);
-        this.key.selector().wakeup();
+        if (this.eventMask.getAndSet(newValue) != newValue) {
+            applyEventMask();
+        }
     }
 
     @Override
@@ -141,13 +201,17 @@ public void setEvent(final int op) {
         if (this.status.get() == CLOSED) {
             return;
         }
-        lock.lock();
-        try {
-            this.key.interestOps(this.key.interestOps() | op);
-        } finally {
-            lock.unlock();
+        for (;;) {
+            final int current = this.eventMask.get();
+            final int newValue = current | op;
+            if (current == newValue) {
+                return;
+            }
+            if (this.eventMask.compareAndSet(current, newValue)) {
+                break;
+            }
         }
-        this.key.selector().wakeup();
+        applyEventMask();
     }
 
     @Override
@@ -155,13 +219,35 @@ public void clearEvent(final int op) {
         if (this.status.get() == CLOSED) {
             return;
         }
-        lock.lock();
-        try {
-            this.key.interestOps(this.key.interestOps() & ~op);
-        } finally {
-            lock.unlock();
+        for (;;) {
+            final int current = this.eventMask.get();
+            final int newValue = current & ~op;
+            if (current == newValue) {
+                return;
+            }
+            if (this.eventMask.compareAndSet(current, newValue)) {
+                break;
+            }
+        }
+        applyEventMask();
+    }
+
+    /**
+     * Propagates the current event mask to the selection key. Concurrent updates
+     * may get applied out of order, in which case the last thread to notice
+     * the discrepancy re-applies the most recent event mask.
+     */
+    private void applyEventMask() {
+        int ops;
+        do {
+            ops = this.eventMask.get();
+            this.key.interestOps(ops);
+        } while (ops != this.eventMask.get());
+        if (this.selectorWakeup != null) {
+            this.selectorWakeup.interestOpsChanged();
+        } else {
+            this.key.selector().wakeup();
         }
-        this.key.selector().wakeup();
     }
 
     @Override
@@ -172,6 +258,9 @@ public int getSocketTimeout() {
     @Override
     public void setSocketTimeout(final int timeout) {
         this.socketTimeout = timeout;
+        if (this.timingWheel != null) {
+            this.timingWheel.schedule(this.key);
+        }
     }
 
     @Override
@@ -184,6 +273,11 @@ public void updateWriteTime() {
         lastWriteTime = System.currentTimeMillis();
     }
 
+    @Override
+    public IOEventLoop getEventLoop() {
+        return this.eventLoop;
+    }
+
     @Override
     public long getLastReadTime() {
         return lastReadTime;
@@ -203,7 +297,9 @@ public void close() {
                 this.key.channel().close();
             } catch (final IOException ignore) {
             }
-            if (this.key.selector().isOpen()) {
+            if (this.selectorWakeup != null) {
+                this.selectorWakeup.wakeup();
+            } else if (this.key.selector().isOpen()) {
                 this.key.selector().wakeup();
             }
         }
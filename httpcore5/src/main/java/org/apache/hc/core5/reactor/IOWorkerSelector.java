@@ -0,0 +1,51 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+/**
+ * Strategy used by multi-core I/O reactors to choose the I/O worker a new connection
+ * gets assigned to.
+ * <p>
+ * Implementations must be thread-safe as new connections can be assigned
+ * concurrently.
+ * </p>
+ *
+ * @see IOWorkerSelectors
+ * @since 5.0
+ */
+public interface IOWorkerSelector {
+
+    /**
+     * Selects the I/O worker for a new connection.
+     *
+     * @param workers current metrics of all I/O workers. The array must not be modified.
+     * @return index of the selected worker in the {@code workers} array.
+     */
+    int select(IOWorkerStats[] workers);
+
+}
@@ -0,0 +1,140 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Standard {@link IOWorkerSelector} implementations.
+ *
+ * @since 5.0
+ */
+public final class IOWorkerSelectors {
+
+    private IOWorkerSelectors() {
+    }
+
+    static int load(final IOWorkerStats worker) {
+        return worker.getSessionCount() + worker.getPendingCount();
+    }
+
+    /**
+     * Returns a selector that assigns connections to workers in turn irrespective
+     * of their load.
+     */
+    public static IOWorkerSelector roundRobin() {
+        return new RoundRobinSelector();
+    }
+
+    /**
+     * Returns a selector that assigns connections to the worker with the fewest
+     * active and pending sessions. Ties are resolved in a round-robin manner.
+     */
+    public static IOWorkerSelector leastSessions() {
+        return new LeastSessionsSelector();
+    }
+
+    /**
+     * Returns a selector that picks two workers at random and assigns connections
+     * to the one with fewer active and pending sessions. This gives a nearly
+     * optimal balance at a constant cost irrespective of the number of workers.
+     */
+    public static IOWorkerSelector powerOfTwoChoices() {
+        return new PowerOfTwoChoicesSelector();
+    }
+
+    static final class RoundRobinSelector implements IOWorkerSelector {
+
+        private final AtomicInteger currentWorker = new AtomicInteger(0);
+
+        @Override
+        public int select(final IOWorkerStats[] workers) {
+            return Math.abs(currentWorker.incrementAndGet() % workers.length);
+        }
+
+        @Override
+        public String toString() {
+            return "ROUND_ROBIN";
+        }
+
+    }
+
+    static final class LeastSessionsSelector implements IOWorkerSelector {
+
+        private final AtomicInteger currentWorker = new AtomicInteger(0);
+
+        @Override
+        public int select(final IOWorkerStats[] workers) {
+            final int n = workers.length;
+            final int start = Math.abs(currentWorker.incrementAndGet() % n);
+            int selected = start;
+            int minLoad = load(workers[start]);
+            for (int i = 1; i < n && minLoad > 0; i++) {
+                final int idx = (start + i) % n;
+                final int load = load(workers[idx]);
+                if (load < minLoad) {
+                    minLoad = load;
+                    selected = idx;
+                }
+            }
+            return selected;
+        }
+
+        @Override
+        public String toString() {
+            return "LEAST_SESSIONS";
+        }
+
+    }
+
+    static final class PowerOfTwoChoicesSelector implements IOWorkerSelector {
+
+        @Override
+        public int select(final IOWorkerStats[] workers) {
+            final int n = workers.length;
+            if (n == 1) {
+                return 0;
+            }
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final int i1 = random.nextInt(n);
+            int i2 = random.nextInt(n - 1);
+            if (i2 >= i1) {
+                i2++;
+            }
+            return load(workers[i2]) < load(workers[i1]) ? i2 : i1;
+        }
+
+        @Override
+        public String toString() {
+            return "POWER_OF_TWO_CHOICES";
+        }
+
+    }
+
+}
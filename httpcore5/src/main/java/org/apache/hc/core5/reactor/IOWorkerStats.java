@@ -0,0 +1,69 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+/**
+ * Load metrics of an individual I/O worker (dispatcher) of a multi-core I/O reactor.
+ * <p>
+ * Metrics are maintained by the worker thread and can be read by any thread. Values read
+ * from other threads are not guaranteed to be mutually consistent.
+ * </p>
+ *
+ * @since 5.0
+ */
+public interface IOWorkerStats {
+
+    /**
+     * Returns the number of I/O sessions currently managed by the worker.
+     */
+    int getSessionCount();
+
+    /**
+     * Returns the number of accepted channels and connection requests that have been
+     * assigned to the worker but not yet processed by it.
+     */
+    int getPendingCount();
+
+    /**
+     * Returns the total number of I/O events processed by the worker since it was started.
+     */
+    long getEventCount();
+
+    /**
+     * Returns the number of I/O events per second processed by the worker over the last
+     * sample period of about one second.
+     */
+    long getEventRate();
+
+    /**
+     * Returns the total number of times other threads have woken up the worker blocked
+     * in a select operation since it was started.
+     */
+    long getWakeupCount();
+
+}
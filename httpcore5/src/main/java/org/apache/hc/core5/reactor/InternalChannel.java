@@ -35,6 +35,12 @@
 
 abstract class InternalChannel implements GracefullyCloseable {
 
+    /**
+     * Tick this channel is currently scheduled for by {@link TimingWheel}.
+     * Only accessed by the I/O reactor thread.
+     */
+    long timeoutTick = -1;
+
     abstract void onIOEvent(final int ops) throws IOException;
 
     abstract void onTimeout() throws IOException;
@@ -32,6 +32,7 @@
 import java.nio.channels.ByteChannel;
 import java.nio.channels.SelectionKey;
 import java.util.Queue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -48,12 +49,14 @@
 import org.apache.hc.core5.reactor.ssl.SSLSessionVerifier;
 import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 
 final class InternalDataChannel extends InternalChannel implements ProtocolIOSession {
 
     private final IOSession ioSession;
     private final NamedEndpoint namedEndpoint;
     private final IOSessionListener sessionListener;
+    private final SSLBufferManagement defaultSslBufferManagement;
     private final AtomicReference<SSLIOSession> tlsSessionRef;
     private final Queue<InternalDataChannel> closedSessions;
     private final AtomicReference<IOEventHandler> handlerRef;
@@ -64,11 +67,13 @@ final class InternalDataChannel extends InternalChannel implements ProtocolIOSes
             final IOSession ioSession,
             final NamedEndpoint namedEndpoint,
             final IOSessionListener sessionListener,
+            final ByteBufferAllocator byteBufferAllocator,
             final Queue<InternalDataChannel> closedSessions) {
         this.ioSession = ioSession;
         this.namedEndpoint = namedEndpoint;
         this.closedSessions = closedSessions;
         this.sessionListener = sessionListener;
+        this.defaultSslBufferManagement = byteBufferAllocator != null ? SSLBufferManagement.pooled(byteBufferAllocator) : null;
         this.tlsSessionRef = new AtomicReference<>(null);
         this.handlerRef = new AtomicReference<>(null);
         this.connected = new AtomicBoolean(false);
@@ -110,7 +115,7 @@ void onIOEvent(final int readyOps) throws IOException {
             if ((readyOps & SelectionKey.OP_CONNECT) != 0) {
                 ioSession.clearEvent(SelectionKey.OP_CONNECT);
             }
-            if ((readyOps & SelectionKey.OP_READ) != 0) {
+            if ((readyOps & SelectionKey.OP_READ) != 0 || tlsSession.isInputPending()) {
                 ioSession.updateReadTime();
                 do {
                     tlsSession.resetReadCount();
@@ -212,12 +217,22 @@ public void startTls(
             final SSLBufferManagement sslBufferManagement,
             final SSLSessionInitializer initializer,
             final SSLSessionVerifier verifier) {
+        startTls(sslContext, sslBufferManagement, initializer, verifier, null);
+    }
+
+    @Override
+    public void startTls(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier,
+            final Executor delegatedTaskExecutor) {
         if (!tlsSessionRef.compareAndSet(null, new SSLIOSession(
                 namedEndpoint,
                 ioSession,
                 namedEndpoint != null ? SSLMode.CLIENT : SSLMode.SERVER,
                 sslContext,
-                sslBufferManagement,
+                sslBufferManagement != null ? sslBufferManagement : defaultSslBufferManagement,
                 initializer,
                 verifier,
                 new Callback<SSLIOSession>() {
@@ -240,7 +255,8 @@ public void execute(final SSLIOSession sslSession) {
                         }
                     }
 
-                }))) {
+                },
+                delegatedTaskExecutor))) {
             throw new IllegalStateException("TLS already activated");
         }
     }
@@ -367,6 +383,11 @@ public void updateWriteTime() {
         ioSession.updateWriteTime();
     }
 
+    @Override
+    public IOEventLoop getEventLoop() {
+        return ioSession.getEventLoop();
+    }
+
     @Override
     public long getLastReadTime() {
         return ioSession.getLastReadTime();
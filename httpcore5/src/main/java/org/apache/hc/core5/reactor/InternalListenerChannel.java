@@ -0,0 +1,113 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.io.ShutdownType;
+
+/**
+ * Listener socket registered with the selector of an I/O dispatcher
+ * that accepts incoming connections directly into the same dispatcher.
+ */
+final class InternalListenerChannel extends InternalChannel {
+
+    private final ServerSocketChannel serverChannel;
+    private final ListenerEndpoint endpoint;
+    private final Callback<SocketChannel> channelCallback;
+    private final Callback<Exception> exceptionCallback;
+
+    InternalListenerChannel(
+            final ServerSocketChannel serverChannel,
+            final ListenerEndpoint endpoint,
+            final Callback<SocketChannel> channelCallback,
+            final Callback<Exception> exceptionCallback) {
+        super();
+        this.serverChannel = serverChannel;
+        this.endpoint = endpoint;
+        this.channelCallback = channelCallback;
+        this.exceptionCallback = exceptionCallback;
+    }
+
+    ListenerEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    void onIOEvent(final int readyOps) throws IOException {
+        if ((readyOps & SelectionKey.OP_ACCEPT) != 0) {
+            for (;;) {
+                final SocketChannel socketChannel;
+                try {
+                    socketChannel = serverChannel.accept();
+                } catch (final IOException ex) {
+                    // Do not give up listening on transient failures such as running out of file descriptors
+                    exceptionCallback.execute(ex);
+                    break;
+                }
+                if (socketChannel == null) {
+                    break;
+                }
+                channelCallback.execute(socketChannel);
+            }
+        }
+    }
+
+    @Override
+    int getTimeout() {
+        return 0;
+    }
+
+    @Override
+    long getLastReadTime() {
+        return 0;
+    }
+
+    @Override
+    void onTimeout() throws IOException {
+    }
+
+    @Override
+    void onException(final Exception cause) {
+        exceptionCallback.execute(cause);
+    }
+
+    @Override
+    public void close() throws IOException {
+        endpoint.close();
+    }
+
+    @Override
+    public void shutdown(final ShutdownType shutdownType) {
+        endpoint.shutdown(shutdownType);
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+/**
+ * Enumeration of strategies used by listening I/O reactors to accept
+ * incoming connections.
+ *
+ * @since 5.0
+ */
+public enum ListenerPolicy {
+
+    /**
+     * A dedicated listener thread accepts all incoming connections and hands them
+     * over to I/O dispatchers in a round-robin fashion.
+     */
+    SINGLE_ACCEPTOR,
+
+    /**
+     * Each I/O dispatcher binds its own listener socket to the same address with
+     * {@code SO_REUSEPORT} and accepts connections directly, leaving it to the kernel
+     * to spread incoming connections across dispatchers. Only available on Linux
+     * with a Java runtime that supports {@code SO_REUSEPORT}, otherwise
+     * {@link #SINGLE_ACCEPTOR} is used.
+     */
+    REUSE_PORT
+
+}
@@ -0,0 +1,71 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.channels.NetworkChannel;
+import java.util.Locale;
+
+/**
+ * Access to the {@code SO_REUSEPORT} socket option, which is only exposed
+ * by Java 9 and newer.
+ */
+final class ReusePortSupport {
+
+    private static final SocketOption<Boolean> SO_REUSEPORT = lookup();
+
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> lookup() {
+        final String osName = System.getProperty("os.name", "");
+        // Other platforms either lack the option or do not balance connections across sockets
+        if (!osName.toLowerCase(Locale.ROOT).startsWith("linux")) {
+            return null;
+        }
+        try {
+            return (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+        } catch (final ReflectiveOperationException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    private ReusePortSupport() {
+    }
+
+    static boolean isAvailable() {
+        return SO_REUSEPORT != null;
+    }
+
+    static void enable(final NetworkChannel channel) throws IOException {
+        if (SO_REUSEPORT == null || !channel.supportedOptions().contains(SO_REUSEPORT)) {
+            throw new UnsupportedOperationException("SO_REUSEPORT not supported");
+        }
+        channel.setOption(SO_REUSEPORT, Boolean.TRUE);
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Array backed set of selected keys that can be swapped into the selector
+ * implementation of the JRE in place of its hash set, so that selecting keys
+ * and iterating over them does not generate any garbage.
+ * <p>
+ * The set relies on the selector never adding the same key twice within a single
+ * select operation and on the I/O reactor thread resetting the set after having
+ * processed the selected keys. It does not support removal of individual keys.
+ * Keys cancelled after they have been selected remain in the set until it gets reset.
+ * </p>
+ */
+final class SelectedKeySet extends AbstractSet<SelectionKey> {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private SelectionKey[] keys;
+    private int size;
+
+    SelectedKeySet() {
+        this.keys = new SelectionKey[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Replaces the selected key set of the given selector with a new instance
+     * of this class.
+     *
+     * @return the installed set or {@code null} if the selector is not
+     *   the JRE implementation or its internals are not accessible.
+     */
+    static SelectedKeySet install(final Selector selector) {
+        try {
+            final Class<?> selectorImplClass = Class.forName(
+                    "sun.nio.ch.SelectorImpl", false, ClassLoader.getSystemClassLoader());
+            if (!selectorImplClass.isInstance(selector) || !isOpen(selectorImplClass)) {
+                return null;
+            }
+            final Field selectedKeysField = selectorImplClass.getDeclaredField("selectedKeys");
+            final Field publicSelectedKeysField = selectorImplClass.getDeclaredField("publicSelectedKeys");
+            selectedKeysField.setAccessible(true);
+            publicSelectedKeysField.setAccessible(true);
+            final SelectedKeySet selectedKeySet = new SelectedKeySet();
+            selectedKeysField.set(selector, selectedKeySet);
+            publicSelectedKeysField.set(selector, selectedKeySet);
+            return selectedKeySet;
+        } catch (final ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Determines whether the package of the given class is open to this class,
+     * which is always the case with Java 8 and older. Checking upfront avoids
+     * illegal reflective access warnings with Java 9 and newer.
+     */
+    private static boolean isOpen(final Class<?> clazz) throws ReflectiveOperationException {
+        final Method getModule;
+        try {
+            getModule = Class.class.getMethod("getModule");
+        } catch (final NoSuchMethodException ex) {
+            return true;
+        }
+        final Object module = getModule.invoke(clazz);
+        final Object thisModule = getModule.invoke(SelectedKeySet.class);
+        final Method isOpen = module.getClass().getMethod("isOpen", String.class, getModule.getReturnType());
+        return (Boolean) isOpen.invoke(module, clazz.getPackage().getName(), thisModule);
+    }
+
+    @Override
+    public boolean add(final SelectionKey key) {
+        if (key == null) {
+            return false;
+        }
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size << 1);
+        }
+        this.keys[this.size++] = key;
+        return true;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return false;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        reset();
+    }
+
+    SelectionKey get(final int index) {
+        return this.keys[index];
+    }
+
+    void reset() {
+        Arrays.fill(this.keys, 0, this.size, null);
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<SelectionKey> iterator() {
+        return new Iterator<SelectionKey>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < size;
+            }
+
+            @Override
+            public SelectionKey next() {
+                if (this.index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return keys[this.index++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+        };
+    }
+
+}
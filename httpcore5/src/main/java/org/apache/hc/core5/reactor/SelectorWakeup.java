@@ -0,0 +1,107 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.channels.Selector;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Wakes up the selector of an I/O reactor only when necessary.
+ * <p>
+ * Wakeup requests are coalesced, so that the selector gets woken up at most once
+ * per select cycle. Requests made by the I/O reactor thread itself never wake up
+ * the selector, as the thread cannot be blocked in a select operation at that moment.
+ * They merely make the next select operation return immediately. Changes of interest
+ * operations do not even need that when made by the I/O reactor thread, as they get
+ * picked up by the next select operation anyway.
+ * </p>
+ * <p>
+ * The I/O reactor thread is expected to select with {@link #select(long)}.
+ * </p>
+ */
+final class SelectorWakeup {
+
+    private final Selector selector;
+    private final AtomicBoolean pending;
+    private final AtomicLong count;
+
+    private volatile Thread thread;
+
+    SelectorWakeup(final Selector selector) {
+        this.selector = Args.notNull(selector, "Selector");
+        this.pending = new AtomicBoolean(false);
+        this.count = new AtomicLong(0);
+    }
+
+    void bind(final Thread thread) {
+        this.thread = thread;
+    }
+
+    boolean inEventLoop() {
+        return Thread.currentThread() == this.thread;
+    }
+
+    /**
+     * Makes sure the I/O reactor thread does not block in a select operation
+     * before it has processed pending tasks.
+     */
+    void wakeup() {
+        if (this.pending.compareAndSet(false, true) && !inEventLoop()) {
+            this.count.incrementAndGet();
+            this.selector.wakeup();
+        }
+    }
+
+    /**
+     * Makes sure a change of interest operations takes effect if the I/O reactor
+     * thread is blocked in a select operation.
+     */
+    void interestOpsChanged() {
+        if (!inEventLoop()) {
+            wakeup();
+        }
+    }
+
+    /**
+     * Selects channels ready for I/O without blocking if a wakeup is pending.
+     * Must only be called by the I/O reactor thread.
+     */
+    int select(final long timeout) throws IOException {
+        final int readyCount = this.pending.get() ? this.selector.selectNow() : this.selector.select(timeout);
+        this.pending.set(false);
+        return readyCount;
+    }
+
+    long getCount() {
+        return this.count.get();
+    }
+
+}
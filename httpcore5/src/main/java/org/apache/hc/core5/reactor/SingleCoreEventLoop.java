@@ -0,0 +1,249 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * {@link IOEventLoop} of a single I/O reactor thread.
+ * <p>
+ * Tasks can be submitted by any thread. Scheduled tasks are kept in a priority queue
+ * that is only ever accessed by the I/O reactor thread. The I/O reactor thread is
+ * expected to call {@link #runTasks()} once per select cycle and to limit the time
+ * it blocks in a select operation to {@link #nextSelectTimeout(long)}.
+ * </p>
+ */
+final class SingleCoreEventLoop implements IOEventLoop {
+
+    static final int MAX_TASKS_PER_CYCLE = 1024;
+
+    private final SelectorWakeup selectorWakeup;
+    private final Callback<Exception> exceptionCallback;
+    private final Queue<Runnable> taskQueue;
+    private final PriorityQueue<ScheduledTask> scheduledTasks;
+    private final AtomicBoolean shutdown;
+
+    private long sequence;
+
+    SingleCoreEventLoop(final SelectorWakeup selectorWakeup, final Callback<Exception> exceptionCallback) {
+        this.selectorWakeup = Args.notNull(selectorWakeup, "Selector wakeup");
+        this.exceptionCallback = exceptionCallback;
+        this.taskQueue = new ConcurrentLinkedQueue<>();
+        this.scheduledTasks = new PriorityQueue<>();
+        this.shutdown = new AtomicBoolean(false);
+    }
+
+    @Override
+    public boolean inEventLoop() {
+        return this.selectorWakeup.inEventLoop();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        Args.notNull(task, "Task");
+        if (this.shutdown.get()) {
+            throw new RejectedExecutionException("I/O event loop has been shut down");
+        }
+        this.taskQueue.add(task);
+        this.selectorWakeup.wakeup();
+    }
+
+    @Override
+    public Cancellable schedule(final Runnable task, final TimeValue delay) {
+        Args.notNull(task, "Task");
+        Args.notNull(delay, "Delay");
+        final long now = System.currentTimeMillis();
+        final long delayMillis = Math.max(delay.toMillis(), 0);
+        final long deadline = delayMillis < Long.MAX_VALUE - now ? now + delayMillis : Long.MAX_VALUE;
+        final ScheduledTask scheduledTask = new ScheduledTask(task, deadline);
+        if (inEventLoop()) {
+            if (this.shutdown.get()) {
+                throw new RejectedExecutionException("I/O event loop has been shut down");
+            }
+            addScheduledTask(scheduledTask);
+        } else {
+            execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    addScheduledTask(scheduledTask);
+                }
+
+            });
+        }
+        return scheduledTask;
+    }
+
+    private void addScheduledTask(final ScheduledTask scheduledTask) {
+        if (!scheduledTask.isDone()) {
+            scheduledTask.sequence = this.sequence++;
+            this.scheduledTasks.add(scheduledTask);
+        }
+    }
+
+    /**
+     * Runs scheduled tasks that are due followed by submitted tasks, up to
+     * {@link #MAX_TASKS_PER_CYCLE} tasks in total. If that limit is reached
+     * the next select operation is made not to block, so that remaining tasks
+     * get executed in the next cycle without delaying I/O event processing.
+     * Must only be called by the I/O reactor thread.
+     *
+     * @return the number of tasks executed.
+     */
+    int runTasks() {
+        final long now = System.currentTimeMillis();
+        int count = 0;
+        ScheduledTask scheduledTask;
+        while (count < MAX_TASKS_PER_CYCLE
+                && (scheduledTask = this.scheduledTasks.peek()) != null && scheduledTask.deadline <= now) {
+            this.scheduledTasks.poll();
+            if (scheduledTask.markDone()) {
+                runTask(scheduledTask.task);
+                count++;
+            }
+        }
+        Runnable task;
+        while (count < MAX_TASKS_PER_CYCLE && (task = this.taskQueue.poll()) != null) {
+            runTask(task);
+            count++;
+        }
+        if (count == MAX_TASKS_PER_CYCLE) {
+            this.selectorWakeup.wakeup();
+        }
+        return count;
+    }
+
+    private void runTask(final Runnable task) {
+        try {
+            task.run();
+        } catch (final RuntimeException ex) {
+            if (this.exceptionCallback != null) {
+                this.exceptionCallback.execute(ex);
+            }
+        }
+    }
+
+    /**
+     * Returns the time the I/O reactor thread may block in the next select operation
+     * without delaying the next scheduled task. If a scheduled task is already due,
+     * the next select operation is made not to block.
+     * Must only be called by the I/O reactor thread.
+     *
+     * @param selectInterval the default select timeout.
+     */
+    long nextSelectTimeout(final long selectInterval) {
+        ScheduledTask scheduledTask;
+        while ((scheduledTask = this.scheduledTasks.peek()) != null && scheduledTask.isDone()) {
+            this.scheduledTasks.poll();
+        }
+        if (scheduledTask == null) {
+            return selectInterval;
+        }
+        final long delay = scheduledTask.deadline - System.currentTimeMillis();
+        if (delay <= 0) {
+            this.selectorWakeup.wakeup();
+            return selectInterval;
+        }
+        return selectInterval > 0 ? Math.min(selectInterval, delay) : delay;
+    }
+
+    /**
+     * Rejects any further tasks and discards the pending ones.
+     * Must only be called by the I/O reactor thread.
+     */
+    void shutdown() {
+        this.shutdown.set(true);
+        this.taskQueue.clear();
+        for (final ScheduledTask scheduledTask: this.scheduledTasks) {
+            scheduledTask.markDone();
+        }
+        this.scheduledTasks.clear();
+    }
+
+    int getPendingTaskCount() {
+        return this.taskQueue.size() + this.scheduledTasks.size();
+    }
+
+    @Override
+    public String toString() {
+        return "[tasks=" + this.taskQueue.size() + ", scheduled=" + this.scheduledTasks.size()
+                + ", shutdown=" + this.shutdown.get() + "]";
+    }
+
+    private final class ScheduledTask implements Cancellable, Comparable<ScheduledTask> {
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicBoolean done;
+
+        private long sequence;
+
+        ScheduledTask(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+            this.done = new AtomicBoolean(false);
+        }
+
+        boolean isDone() {
+            return this.done.get();
+        }
+
+        boolean markDone() {
+            return this.done.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel() {
+            if (markDone()) {
+                if (inEventLoop()) {
+                    scheduledTasks.remove(this);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(final ScheduledTask other) {
+            if (this.deadline != other.deadline) {
+                return this.deadline < other.deadline ? -1 : 1;
+            }
+            return this.sequence < other.sequence ? -1 : (this.sequence == other.sequence ? 0 : 1);
+        }
+
+    }
+
+}
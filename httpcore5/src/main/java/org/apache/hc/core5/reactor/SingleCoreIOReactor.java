@@ -29,19 +29,25 @@
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.UnknownHostException;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hc.core5.concurrent.BasicFuture;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.function.Decorator;
@@ -50,7 +56,7 @@
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.TimeValue;
 
-class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements ConnectionInitiator {
+class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements ConnectionInitiator, IOWorkerStats {
 
     private static final int MAX_CHANNEL_REQUESTS = 10000;
 
@@ -62,9 +68,23 @@ class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements Connect
     private final Queue<InternalDataChannel> closedSessions;
     private final Queue<SocketChannel> channelQueue;
     private final Queue<IOSessionRequest> requestQueue;
+    private final Queue<ListenerEndpointRequest> listenerRequestQueue;
+    private final ConcurrentMap<ListenerEndpoint, Boolean> listenerEndpoints;
+    private final Callback<SocketChannel> acceptCallback;
+    private final Callback<Exception> exceptionCallback;
     private final AtomicBoolean shutdownInitiated;
+    private final TimingWheel timingWheel;
+    private final SelectedKeySet selectedKeySet;
+    private final SingleCoreEventLoop eventLoop;
+
+    private final AtomicInteger pendingCount;
 
     private volatile long lastTimeoutCheck;
+    private volatile int sessionCount;
+    private volatile long eventCount;
+    private volatile long eventRate;
+    private long lastRateSample;
+    private long lastRateSampleCount;
 
     SingleCoreIOReactor(
             final Queue<ExceptionEvent> auditLog,
@@ -73,16 +93,43 @@ class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements Connect
             final Decorator<IOSession> ioSessionDecorator,
             final IOSessionListener sessionListener,
             final Callback<IOSession> sessionShutdownCallback) {
-        super(auditLog);
+        super(auditLog, reactorConfig != null ? reactorConfig.getSelectorProvider() : null);
         this.eventHandlerFactory = Args.notNull(eventHandlerFactory, "Event handler factory");
         this.reactorConfig = Args.notNull(reactorConfig, "I/O reactor config");
         this.ioSessionDecorator = ioSessionDecorator;
         this.sessionListener = sessionListener;
         this.sessionShutdownCallback = sessionShutdownCallback;
         this.shutdownInitiated = new AtomicBoolean(false);
+        this.pendingCount = new AtomicInteger(0);
         this.closedSessions = new ConcurrentLinkedQueue<>();
         this.channelQueue = new ConcurrentLinkedQueue<>();
         this.requestQueue = new ConcurrentLinkedQueue<>();
+        this.listenerRequestQueue = new ConcurrentLinkedQueue<>();
+        this.listenerEndpoints = new ConcurrentHashMap<>();
+        this.acceptCallback = new Callback<SocketChannel>() {
+
+            @Override
+            public void execute(final SocketChannel socketChannel) {
+                try {
+                    processChannel(socketChannel);
+                } catch (final IOException ignore) {
+                    // already logged and closed
+                }
+            }
+
+        };
+        this.exceptionCallback = new Callback<Exception>() {
+
+            @Override
+            public void execute(final Exception ex) {
+                addExceptionEvent(ex);
+            }
+
+        };
+        this.timingWheel = reactorConfig.getTimeoutCheckPolicy() == TimeoutCheckPolicy.TIMING_WHEEL ?
+                new TimingWheel(Math.max(reactorConfig.getSelectInterval(), 1), System.currentTimeMillis()) : null;
+        this.selectedKeySet = SelectedKeySet.install(this.selector);
+        this.eventLoop = new SingleCoreEventLoop(this.selectorWakeup, this.exceptionCallback);
     }
 
     void enqueueChannel(final SocketChannel socketChannel) throws IOReactorShutdownException {
@@ -90,15 +137,64 @@ void enqueueChannel(final SocketChannel socketChannel) throws IOReactorShutdownE
         if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
             throw new IOReactorShutdownException("I/O reactor has been shut down");
         }
+        this.pendingCount.incrementAndGet();
         this.channelQueue.add(socketChannel);
-        this.selector.wakeup();
+        wakeup();
+    }
+
+    IOEventLoop getEventLoop() {
+        return this.eventLoop;
+    }
+
+    @Override
+    public int getSessionCount() {
+        return this.sessionCount;
+    }
+
+    @Override
+    public int getPendingCount() {
+        return Math.max(this.pendingCount.get(), 0);
+    }
+
+    @Override
+    public long getEventCount() {
+        return this.eventCount;
+    }
+
+    @Override
+    public long getEventRate() {
+        return this.eventRate;
+    }
+
+    @Override
+    public long getWakeupCount() {
+        return this.selectorWakeup.getCount();
+    }
+
+    /**
+     * Binds a listener socket to the given address with {@code SO_REUSEPORT} enabled
+     * and accepts incoming connections directly into this I/O reactor. Several I/O reactors
+     * can listen on the same address at the same time.
+     */
+    Future<ListenerEndpoint> listen(
+            final SocketAddress address,
+            final FutureCallback<ListenerEndpoint> callback) throws IOReactorShutdownException {
+        if (getStatus().compareTo(IOReactorStatus.SHUTTING_DOWN) >= 0) {
+            throw new IOReactorShutdownException("I/O reactor has been shut down");
+        }
+        final BasicFuture<ListenerEndpoint> future = new BasicFuture<>(callback);
+        this.listenerRequestQueue.add(new ListenerEndpointRequest(address, future));
+        wakeup();
+        return future;
     }
 
     @Override
     void doTerminate() {
         closePendingChannels();
         closePendingConnectionRequests();
+        closeListeners();
         processClosedSessions();
+        this.eventLoop.shutdown();
     }
 
     @Override
@@ -106,10 +202,11 @@ void doExecute() throws IOException {
         final long selectTimeout = this.reactorConfig.getSelectInterval();
         while (!Thread.currentThread().isInterrupted()) {
 
-            final int readyCount = this.selector.select(selectTimeout);
+            final int readyCount = select(this.eventLoop.nextSelectTimeout(selectTimeout));
 
             if (getStatus().compareTo(IOReactorStatus.SHUTTING_DOWN) >= 0) {
                 if (this.shutdownInitiated.compareAndSet(false, true)) {
+                    closeListeners();
                     initiateSessionShutdown();
                 }
                 closePendingChannels();
@@ -120,18 +217,28 @@ void doExecute() throws IOException {
 
             // Process selected I/O events
             if (readyCount > 0) {
-                processEvents(this.selector.selectedKeys());
+                this.eventCount += readyCount;
+                if (this.selectedKeySet != null) {
+                    processSelectedKeys(this.selectedKeySet);
+                } else {
+                    processEvents(this.selector.selectedKeys());
+                }
             }
 
             validateActiveChannels();
+            sampleEventRate();
 
             // Process closed sessions
             processClosedSessions();
 
+            // Run tasks submitted to the event loop
+            this.eventLoop.runTasks();
+
             // If active process new channels
             if (getStatus().compareTo(IOReactorStatus.ACTIVE) == 0) {
                 processPendingChannels();
                 processPendingConnectionRequests();
+                processPendingListenerRequests();
             }
 
             // Exit select loop if graceful shutdown has been completed
@@ -158,6 +265,10 @@ private void initiateSessionShutdown() {
 
     private void validateActiveChannels() {
         final long currentTime = System.currentTimeMillis();
+        if (this.timingWheel != null) {
+            this.timingWheel.expire(currentTime);
+            return;
+        }
         if( (currentTime - this.lastTimeoutCheck) >= this.reactorConfig.getSelectInterval()) {
             this.lastTimeoutCheck = currentTime;
             for (final SelectionKey key : this.selector.keys()) {
@@ -166,57 +277,143 @@ private void validateActiveChannels() {
         }
     }
 
+    private void sampleEventRate() {
+        final long currentTime = System.currentTimeMillis();
+        final long elapsed = currentTime - this.lastRateSample;
+        if (elapsed >= 1000) {
+            final long count = this.eventCount;
+            this.eventRate = this.lastRateSample > 0 ? (count - this.lastRateSampleCount) * 1000 / elapsed : 0;
+            this.lastRateSample = currentTime;
+            this.lastRateSampleCount = count;
+        }
+    }
+
     private void processEvents(final Set<SelectionKey> selectedKeys) {
         for (final SelectionKey key : selectedKeys) {
-            final InternalChannel channel = (InternalChannel) key.attachment();
-            try {
-                channel.handleIOEvent(key.readyOps());
-            } catch (final CancelledKeyException ex) {
-                channel.shutdown(ShutdownType.GRACEFUL);
-            }
+            processEvent(key);
         }
         selectedKeys.clear();
     }
 
+    private void processSelectedKeys(final SelectedKeySet selectedKeys) {
+        for (int i = 0; i < selectedKeys.size(); i++) {
+            processEvent(selectedKeys.get(i));
+        }
+        selectedKeys.reset();
+    }
+
+    private void processEvent(final SelectionKey key) {
+        final InternalChannel channel = (InternalChannel) key.attachment();
+        if (channel == null) {
+            // Cancelled by a preceding event handler
+            return;
+        }
+        try {
+            channel.handleIOEvent(key.readyOps());
+        } catch (final CancelledKeyException ex) {
+            channel.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
     private void processPendingChannels() throws IOException {
         SocketChannel socketChannel;
         for (int i = 0; i < MAX_CHANNEL_REQUESTS && (socketChannel = this.channelQueue.poll()) != null; i++) {
+            this.pendingCount.decrementAndGet();
+            if (!processChannel(socketChannel)) {
+                return;
+            }
+        }
+    }
+
+    private boolean processChannel(final SocketChannel socketChannel) throws IOException {
+        try {
+            prepareSocket(socketChannel.socket());
+            socketChannel.configureBlocking(false);
+        } catch (final IOException ex) {
+            addExceptionEvent(ex);
             try {
-                prepareSocket(socketChannel.socket());
-                socketChannel.configureBlocking(false);
-            } catch (final IOException ex) {
-                addExceptionEvent(ex);
-                try {
-                    socketChannel.close();
-                } catch (final IOException ex2) {
-                    addExceptionEvent(ex2);
-                }
-                throw ex;
+                socketChannel.close();
+            } catch (final IOException ex2) {
+                addExceptionEvent(ex2);
+            }
+            throw ex;
+        }
+        final SelectionKey key;
+        try {
+            key = socketChannel.register(this.selector, SelectionKey.OP_READ);
+        } catch (final ClosedChannelException ex) {
+            return false;
+        }
+        IOSession ioSession = new IOSessionImpl(key, socketChannel, timingWheel, selectorWakeup, eventLoop);
+        if (ioSessionDecorator != null) {
+            ioSession = ioSessionDecorator.decorate(ioSession);
+        }
+        final InternalDataChannel dataChannel = new InternalDataChannel(
+                ioSession, null, sessionListener, this.reactorConfig.getByteBufferAllocator(), closedSessions);
+        dataChannel.upgrade(this.eventHandlerFactory.createHandler(dataChannel, null));
+        dataChannel.setSocketTimeout(this.reactorConfig.getSoTimeout().toMillisIntBound());
+        key.attach(dataChannel);
+        this.sessionCount++;
+        dataChannel.handleIOEvent(SelectionKey.OP_CONNECT);
+        return true;
+    }
+
+    private void processPendingListenerRequests() {
+        ListenerEndpointRequest request;
+        while ((request = this.listenerRequestQueue.poll()) != null) {
+            if (request.isCancelled()) {
+                continue;
             }
-            final SelectionKey key;
+            final ServerSocketChannel serverChannel;
             try {
-                key = socketChannel.register(this.selector, SelectionKey.OP_READ);
-            } catch (final ClosedChannelException ex) {
-                return;
+                serverChannel = this.selectorProvider.openServerSocketChannel();
+            } catch (final IOException ex) {
+                request.failed(ex);
+                continue;
             }
-            IOSession ioSession = new IOSessionImpl(key, socketChannel);
-            if (ioSessionDecorator != null) {
-                ioSession = ioSessionDecorator.decorate(ioSession);
+            try {
+                final ServerSocket socket = serverChannel.socket();
+                ReusePortSupport.enable(serverChannel);
+                socket.setReuseAddress(this.reactorConfig.isSoReuseAddress());
+                if (this.reactorConfig.getRcvBufSize() > 0) {
+                    socket.setReceiveBufferSize(this.reactorConfig.getRcvBufSize());
+                }
+                serverChannel.configureBlocking(false);
+                socket.bind(request.address, this.reactorConfig.getBacklogSize());
+
+                final SelectionKey key = serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+                final ListenerEndpoint endpoint = new ListenerEndpointImpl(key, socket.getLocalSocketAddress());
+                key.attach(new InternalListenerChannel(serverChannel, endpoint, this.acceptCallback, this.exceptionCallback));
+                this.listenerEndpoints.put(endpoint, Boolean.TRUE);
+                request.completed(endpoint);
+            } catch (final IOException | RuntimeException ex) {
+                try {
+                    serverChannel.close();
+                } catch (final IOException ignore) {
+                }
+                request.failed(ex);
             }
-            final InternalDataChannel dataChannel = new InternalDataChannel(ioSession, null, sessionListener, closedSessions);
-            dataChannel.upgrade(this.eventHandlerFactory.createHandler(dataChannel, null));
-            dataChannel.setSocketTimeout(this.reactorConfig.getSoTimeout().toMillisIntBound());
-            key.attach(dataChannel);
-            dataChannel.handleIOEvent(SelectionKey.OP_CONNECT);
         }
     }
 
+    private void closeListeners() {
+        ListenerEndpointRequest request;
+        while ((request = this.listenerRequestQueue.poll()) != null) {
+            request.cancel();
+        }
+        for (final ListenerEndpoint endpoint: this.listenerEndpoints.keySet()) {
+            endpoint.shutdown(ShutdownType.IMMEDIATE);
+        }
+        this.listenerEndpoints.clear();
+    }
+
     private void processClosedSessions() {
         for (;;) {
             final InternalDataChannel dataChannel = this.closedSessions.poll();
             if (dataChannel == null) {
                 break;
             }
+            this.sessionCount--;
             try {
                 dataChannel.disconnected();
             } catch (final CancelledKeyException ex) {
@@ -249,8 +446,9 @@ public Future<IOSession> connect(
                 attachment,
                 callback);
 
+        this.pendingCount.incrementAndGet();
         this.requestQueue.add(sessionRequest);
-        this.selector.wakeup();
+        wakeup();
 
         return sessionRequest;
     }
@@ -282,10 +480,11 @@ private void validateAddress(final SocketAddress address) throws UnknownHostExce
     private void processPendingConnectionRequests() {
         IOSessionRequest sessionRequest;
         for (int i = 0; i < MAX_CHANNEL_REQUESTS && (sessionRequest = this.requestQueue.poll()) != null; i++) {
+            this.pendingCount.decrementAndGet();
             if (!sessionRequest.isCancelled()) {
                 final SocketChannel socketChannel;
                 try {
-                    socketChannel = SocketChannel.open();
+                    socketChannel = this.selectorProvider.openSocketChannel();
                 } catch (final IOException ex) {
                     sessionRequest.failed(ex);
                     return;
@@ -326,13 +525,15 @@ public InternalDataChannel create(
                     final SocketChannel socketChannel,
                     final NamedEndpoint namedEndpoint,
                     final Object attachment) {
-                IOSession ioSession = new IOSessionImpl(key, socketChannel);
+                IOSession ioSession = new IOSessionImpl(key, socketChannel, timingWheel, selectorWakeup, eventLoop);
                 if (ioSessionDecorator != null) {
                     ioSession = ioSessionDecorator.decorate(ioSession);
                 }
-                final InternalDataChannel dataChannel = new InternalDataChannel(ioSession, namedEndpoint, sessionListener, closedSessions);
+                final InternalDataChannel dataChannel = new InternalDataChannel(
+                        ioSession, namedEndpoint, sessionListener, reactorConfig.getByteBufferAllocator(), closedSessions);
                 dataChannel.upgrade(eventHandlerFactory.createHandler(dataChannel, attachment));
                 dataChannel.setSocketTimeout(reactorConfig.getSoTimeout().toMillisIntBound());
+                sessionCount++;
                 return dataChannel;
             }
 
@@ -342,12 +543,16 @@ public InternalDataChannel create(
         } else {
             key.attach(channel);
             sessionRequest.assign(channel);
+            if (timingWheel != null) {
+                timingWheel.schedule(key);
+            }
         }
     }
 
     private void closePendingChannels() {
         SocketChannel socketChannel;
         while ((socketChannel = this.channelQueue.poll()) != null) {
+            this.pendingCount.decrementAndGet();
             try {
                 socketChannel.close();
             } catch (final IOException ex) {
@@ -359,6 +564,7 @@ private void closePendingChannels() {
     private void closePendingConnectionRequests() {
         IOSessionRequest sessionRequest;
         while ((sessionRequest = this.requestQueue.poll()) != null) {
+            this.pendingCount.decrementAndGet();
             sessionRequest.cancel();
         }
     }
@@ -61,7 +61,7 @@ class SingleCoreListeningIOReactor extends AbstractSingleCoreIOReactor implement
             final Queue<ExceptionEvent> auditLog,
             final IOReactorConfig ioReactorConfig,
             final Callback<SocketChannel> callback) {
-        super(auditLog);
+        super(auditLog, ioReactorConfig != null ? ioReactorConfig.getSelectorProvider() : null);
         this.reactorConfig = ioReactorConfig != null ? ioReactorConfig : IOReactorConfig.DEFAULT;
         this.callback = callback;
         this.requestQueue = new ConcurrentLinkedQueue<>();
@@ -85,7 +85,7 @@ protected final void doExecute() throws IOException {
                 break;
             }
 
-            final int readyCount = this.selector.select(selectTimeout);
+            final int readyCount = select(selectTimeout);
 
             if (getStatus().compareTo(IOReactorStatus.ACTIVE) != 0) {
                 break;
@@ -140,7 +140,7 @@ public Future<ListenerEndpoint> listen(final SocketAddress address, final Future
         }
         final BasicFuture<ListenerEndpoint> future = new BasicFuture<>(callback);
         this.requestQueue.add(new ListenerEndpointRequest(address, future));
-        this.selector.wakeup();
+        wakeup();
         return future;
     }
 
@@ -151,7 +151,7 @@ private void processSessionRequests() throws IOException {
                 continue;
             }
             final SocketAddress address = request.address;
-            final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+            final ServerSocketChannel serverChannel = this.selectorProvider.openServerSocketChannel();
             try {
                 final ServerSocket socket = serverChannel.socket();
                 socket.setReuseAddress(this.reactorConfig.isSoReuseAddress());
@@ -209,7 +209,7 @@ public void pause() throws IOException {
     @Override
     public void resume() throws IOException {
         if (paused.compareAndSet(true, false)) {
-            this.selector.wakeup();
+            wakeup();
         }
     }
 
@@ -0,0 +1,50 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+/**
+ * Enumeration of strategies used by I/O reactors to detect timed out sessions.
+ *
+ * @since 5.0
+ */
+public enum TimeoutCheckPolicy {
+
+    /**
+     * All registered channels are checked for expiry once per select interval.
+     * Cost of each check is proportional to the total number of channels.
+     */
+    FULL_SCAN,
+
+    /**
+     * Channels are tracked by a hashed timing wheel ticking once per select interval.
+     * Cost of each check is proportional to the number of channels whose timeout
+     * may have expired.
+     */
+    TIMING_WHEEL
+
+}
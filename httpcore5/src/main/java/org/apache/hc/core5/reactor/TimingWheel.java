@@ -0,0 +1,195 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Hashed timing wheel used by {@link SingleCoreIOReactor} to keep track of channel
+ * timeouts without having to visit every registered channel on each select interval.
+ * <p>
+ * Channels are scheduled by their selection key. Re-scheduling requests can be submitted
+ * from any thread with {@link #schedule(SelectionKey)} and get applied by the I/O reactor
+ * thread on the next call to {@link #expire(long)}. Deadline extensions caused by read
+ * activity are not tracked eagerly: a channel is re-evaluated when its tick expires and,
+ * if its actual deadline lies in the future, gets moved to the corresponding bucket.
+ * </p>
+ * <p>
+ * With the exception of {@link #schedule(SelectionKey)} methods of this class must only
+ * be called by the I/O reactor thread.
+ * </p>
+ */
+final class TimingWheel {
+
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickDuration;
+    private final int mask;
+    private final List<Entry>[] buckets;
+    private final Queue<SelectionKey> pendingKeys;
+
+    private List<Entry> spare;
+    private long currentTick;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(final long tickDuration, final int wheelSize, final long now) {
+        this.tickDuration = Args.positive(tickDuration, "Tick duration");
+        Args.check(wheelSize > 1 && (wheelSize & (wheelSize - 1)) == 0, "Wheel size must be a power of two");
+        this.mask = wheelSize - 1;
+        this.buckets = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            this.buckets[i] = new ArrayList<>();
+        }
+        this.spare = new ArrayList<>();
+        this.pendingKeys = new ConcurrentLinkedQueue<>();
+        this.currentTick = now / tickDuration;
+    }
+
+    TimingWheel(final long tickDuration, final long now) {
+        this(tickDuration, DEFAULT_WHEEL_SIZE, now);
+    }
+
+    /**
+     * Requests the channel attached to the given key to be re-scheduled
+     * according to its current timeout settings. Can be called from any thread.
+     */
+    void schedule(final SelectionKey key) {
+        if (key != null) {
+            pendingKeys.add(key);
+        }
+    }
+
+    /**
+     * Checks all channels scheduled for expiry at or before the given time
+     * and re-schedules those that are still active.
+     */
+    void expire(final long now) {
+        SelectionKey key;
+        while ((key = pendingKeys.poll()) != null) {
+            if (key.isValid()) {
+                final Object attachment = key.attachment();
+                if (attachment instanceof InternalChannel) {
+                    add(key, (InternalChannel) attachment);
+                }
+            }
+        }
+        final long targetTick = now / tickDuration;
+        if (targetTick <= currentTick) {
+            return;
+        }
+        // Visit every bucket at most once even if the clock has moved past a full revolution
+        final long startTick = Math.max(currentTick + 1, targetTick - mask);
+        currentTick = targetTick;
+        for (long tick = startTick; tick <= targetTick; tick++) {
+            final int idx = (int) (tick & mask);
+            final List<Entry> bucket = buckets[idx];
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            buckets[idx] = spare;
+            for (int i = 0; i < bucket.size(); i++) {
+                process(bucket.get(i), now);
+            }
+            bucket.clear();
+            spare = bucket;
+        }
+    }
+
+    private void process(final Entry entry, final long now) {
+        final SelectionKey key = entry.key;
+        if (!key.isValid()) {
+            return;
+        }
+        final Object attachment = key.attachment();
+        if (!(attachment instanceof InternalChannel)) {
+            return;
+        }
+        final InternalChannel channel = (InternalChannel) attachment;
+        if (channel.timeoutTick != entry.tick) {
+            // Superseded by a more recent schedule
+            return;
+        }
+        if (entry.tick > currentTick) {
+            buckets[(int) (entry.tick & mask)].add(entry);
+            return;
+        }
+        channel.timeoutTick = -1;
+        channel.checkTimeout(now);
+        if (key.isValid() && key.attachment() == channel) {
+            add(key, channel);
+        }
+    }
+
+    private void add(final SelectionKey key, final InternalChannel channel) {
+        final int timeout = channel.getTimeout();
+        if (timeout <= 0) {
+            channel.timeoutTick = -1;
+            return;
+        }
+        final long deadline = channel.getLastReadTime() + timeout;
+        long tick = deadline / tickDuration + 1;
+        if (tick <= currentTick) {
+            tick = currentTick + 1;
+        } else if (tick - currentTick > mask) {
+            tick = currentTick + mask;
+        }
+        if (channel.timeoutTick > currentTick && channel.timeoutTick <= tick) {
+            // Already due earlier; the deadline will be re-evaluated then
+            return;
+        }
+        channel.timeoutTick = tick;
+        buckets[(int) (tick & mask)].add(new Entry(key, tick));
+    }
+
+    int size() {
+        int total = 0;
+        for (final List<Entry> bucket : buckets) {
+            total += bucket.size();
+        }
+        return total;
+    }
+
+    private static final class Entry {
+
+        final SelectionKey key;
+        final long tick;
+
+        Entry(final SelectionKey key, final long tick) {
+            this.key = key;
+            this.tick = tick;
+        }
+
+    }
+
+}
@@ -30,6 +30,7 @@
 import java.nio.ByteBuffer;
 
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 
 /**
  * @since 5.0
@@ -41,6 +42,16 @@ public abstract class SSLBufferManagement {
 
     public abstract SSLBuffer create(int size);
 
+    /**
+     * Creates buffer management that acquires buffers from the given allocator only
+     * when needed and gives them back to the allocator as soon as they are empty.
+     *
+     * @param allocator the buffer allocator.
+     */
+    public static SSLBufferManagement pooled(final ByteBufferAllocator allocator) {
+        return new PooledSSLBufferManagement(Args.notNull(allocator, "Buffer allocator"));
+    }
+
     static SSLBuffer create(final SSLBufferManagement mode, final int size) {
         if (mode == null) {
             return STATIC.create(size);
@@ -133,4 +144,66 @@ public boolean hasData() {
 
     }
 
+    private static final class PooledSSLBufferManagement extends SSLBufferManagement {
+
+        private final ByteBufferAllocator allocator;
+
+        PooledSSLBufferManagement(final ByteBufferAllocator allocator) {
+            this.allocator = allocator;
+        }
+
+        @Override
+        public SSLBuffer create(final int size) {
+            return new PooledBuffer(allocator, size);
+        }
+
+        @Override
+        public String toString() {
+            return "pooled " + allocator;
+        }
+
+    }
+
+    private static final class PooledBuffer implements SSLBuffer {
+
+        private final ByteBufferAllocator allocator;
+        private final int length;
+        private ByteBuffer wrapped;
+
+        public PooledBuffer(final ByteBufferAllocator allocator, final int size) {
+            Args.positive(size, "size");
+            this.allocator = allocator;
+            this.length = size;
+        }
+
+        @Override
+        public ByteBuffer acquire() {
+            if (wrapped != null) {
+                return wrapped;
+            }
+            wrapped = allocator.allocate(length);
+            return wrapped;
+        }
+
+        @Override
+        public void release() {
+            if (wrapped != null) {
+                final ByteBuffer buffer = wrapped;
+                wrapped = null;
+                allocator.release(buffer);
+            }
+        }
+
+        @Override
+        public boolean isAcquired() {
+            return wrapped != null;
+        }
+
+        @Override
+        public boolean hasData() {
+            return wrapped != null && wrapped.position() > 0;
+        }
+
+    }
+
 }
@@ -33,7 +33,10 @@
 import java.nio.channels.ByteChannel;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectionKey;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 
@@ -53,6 +56,7 @@
 import org.apache.hc.core5.net.NamedEndpoint;
 import org.apache.hc.core5.reactor.Command;
 import org.apache.hc.core5.reactor.EventMask;
+import org.apache.hc.core5.reactor.IOEventLoop;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.ssl.ReflectionSupport;
 import org.apache.hc.core5.util.Args;
@@ -81,6 +85,7 @@ public class SSLIOSession implements IOSession {
     private final SSLSessionInitializer initializer;
     private final SSLSessionVerifier verifier;
     private final Callback<SSLIOSession> callback;
+    private final Executor taskExecutor;
     private final AtomicLong bytesReadCount;
 
     private int appEventMask;
@@ -90,6 +95,8 @@ public class SSLIOSession implements IOSession {
     private volatile int status;
     private volatile boolean initialized;
     private TlsDetails tlsDetails;
+    private boolean taskPending;
+    private boolean inputPending;
 
     /**
      * Creates new instance of {@code SSLIOSession} class with static SSL buffers.
@@ -136,6 +143,34 @@ public SSLIOSession(
             final SSLSessionInitializer initializer,
             final SSLSessionVerifier verifier,
             final Callback<SSLIOSession> callback) {
+        this(targetEndpoint, session, sslMode, sslContext, sslBufferManagement, initializer, verifier, callback, null);
+    }
+
+    /**
+     * Creates new instance of {@code SSLIOSession} class.
+     *
+     * @param session I/O session to be decorated with the TLS/SSL capabilities.
+     * @param sslMode SSL mode (client or server)
+     * @param targetEndpoint target endpoint (applicable in client mode only). May be {@code null}.
+     * @param sslContext SSL context to use for this I/O session.
+     * @param sslBufferManagement buffer management mode
+     * @param initializer optional SSL session initializer. May be {@code null}.
+     * @param verifier optional SSL session verifier. May be {@code null}.
+     * @param taskExecutor optional executor of delegated tasks of the SSL engine. Tasks get
+     *                     executed by the I/O dispatch thread if {@code null}.
+     *
+     * @since 5.0
+     */
+    public SSLIOSession(
+            final NamedEndpoint targetEndpoint,
+            final IOSession session,
+            final SSLMode sslMode,
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier,
+            final Callback<SSLIOSession> callback,
+            final Executor taskExecutor) {
         super();
         Args.notNull(session, "IO session");
         Args.notNull(sslContext, "SSL context");
@@ -145,6 +180,7 @@ public SSLIOSession(
         this.initializer = initializer;
         this.verifier = verifier;
         this.callback = callback;
+        this.taskExecutor = taskExecutor;
 
         this.appEventMask = session.getEventMask();
         if (this.sslMode == SSLMode.CLIENT && targetEndpoint != null) {
@@ -162,30 +198,42 @@ public SSLIOSession(
         // Allocate buffers for application (unencrypted) data
         final int appBufferSize = sslSession.getApplicationBufferSize();
         this.inPlain = SSLBufferManagement.create(sslBufferManagement, appBufferSize);
-        this.channel = new ByteChannel() {
+        this.channel = new PlainChannel();
+        this.bytesReadCount = new AtomicLong(0);
+    }
 
-            @Override
-            public int write(final ByteBuffer src) throws IOException {
-                return SSLIOSession.this.writePlain(src);
-            }
+    private class PlainChannel implements ByteChannel, GatheringByteChannel {
 
-            @Override
-            public int read(final ByteBuffer dst) throws IOException {
-                return SSLIOSession.this.readPlain(dst);
-            }
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            return SSLIOSession.this.writePlain(src);
+        }
 
-            @Override
-            public void close() throws IOException {
-                SSLIOSession.this.close();
-            }
+        @Override
+        public long write(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+            return SSLIOSession.this.writePlain(srcs, offset, length);
+        }
 
-            @Override
-            public boolean isOpen() {
-                return !SSLIOSession.this.isClosed();
-            }
+        @Override
+        public long write(final ByteBuffer[] srcs) throws IOException {
+            return SSLIOSession.this.writePlain(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            return SSLIOSession.this.readPlain(dst);
+        }
+
+        @Override
+        public void close() throws IOException {
+            SSLIOSession.this.close();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !SSLIOSession.this.isClosed();
+        }
 
-        };
-        this.bytesReadCount = new AtomicLong(0);
     }
 
     @Override
@@ -269,6 +317,15 @@ private SSLEngineResult doWrap(final ByteBuffer src, final ByteBuffer dst) throw
         }
     }
 
+    private SSLEngineResult doWrap(
+            final ByteBuffer[] srcs, final int offset, final int length, final ByteBuffer dst) throws SSLException {
+        try {
+            return this.sslEngine.wrap(srcs, offset, length, dst);
+        } catch (final RuntimeException ex) {
+            throw convert(ex);
+        }
+    }
+
     private SSLEngineResult doUnwrap(final ByteBuffer src, final ByteBuffer dst) throws SSLException {
         try {
             return this.sslEngine.unwrap(src, dst);
@@ -288,6 +345,48 @@ private void doRunTask() throws SSLException {
         }
     }
 
+    private void scheduleTasks() throws SSLException {
+        if (this.taskPending) {
+            return;
+        }
+        this.taskPending = true;
+        try {
+            this.taskExecutor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        for (Runnable r = sslEngine.getDelegatedTask(); r != null; r = sslEngine.getDelegatedTask()) {
+                            r.run();
+                        }
+                    } catch (final RuntimeException ignore) {
+                        // The SSL engine re-throws task failures upon the next wrap or unwrap
+                    }
+                    resumeHandshake();
+                }
+
+            });
+        } catch (final RejectedExecutionException ex) {
+            this.taskPending = false;
+            doRunTask();
+        }
+    }
+
+    private void resumeHandshake() {
+        this.session.lock().lock();
+        try {
+            this.taskPending = false;
+            this.inputPending = this.inEncrypted.hasData();
+            if (this.status != CLOSED && !this.session.isClosed()) {
+                // Hand the handshake back over to the I/O dispatch thread
+                this.session.setEventMask(EventMask.READ_WRITE);
+            }
+        } catch (final CancelledKeyException ignore) {
+        } finally {
+            this.session.lock().unlock();
+        }
+    }
+
     private void doHandshake() throws SSLException {
         boolean handshaking = true;
 
@@ -338,7 +437,13 @@ private void doHandshake() throws SSLException {
                 }
                 break;
             case NEED_TASK:
-                doRunTask();
+                if (this.taskExecutor != null) {
+                    // Suspend the handshake until delegated tasks have been completed
+                    scheduleTasks();
+                    handshaking = false;
+                } else {
+                    doRunTask();
+                }
                 break;
             case NOT_HANDSHAKING:
                 handshaking = false;
@@ -395,9 +500,13 @@ private void updateEventMask() {
             newMask = EventMask.READ;
             break;
         case NOT_HANDSHAKING:
-            newMask = this.appEventMask;
+            // Only await the closure of the session by the opposite endpoint once closing
+            newMask = this.status == ACTIVE ? this.appEventMask : EventMask.READ;
             break;
         case NEED_TASK:
+            if (this.taskPending) {
+                newMask = 0;
+            }
             break;
         case FINISHED:
             break;
@@ -506,19 +615,42 @@ private boolean decryptData() throws SSLException {
     public boolean isAppInputReady() throws IOException {
         this.session.lock().lock();
         try {
+            this.inputPending = false;
             do {
                 final int bytesRead = receiveEncryptedData();
                 if (bytesRead == -1) {
                     this.endOfStream = true;
                 }
                 doHandshake();
-                final HandshakeStatus status = this.sslEngine.getHandshakeStatus();
-                if (status == HandshakeStatus.NOT_HANDSHAKING || status == HandshakeStatus.FINISHED) {
+                // Application data of an active session gets decrypted when read
+                // into the destination buffer
+                if (isHandshakeComplete() && (this.status != ACTIVE || this.endOfStream)) {
                     decryptData();
                 }
-            } while (this.sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_TASK);
-            // Some decrypted data is available or at the end of stream
-            return this.inPlain.hasData() || (this.endOfStream && this.status == ACTIVE);
+            } while (this.sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_TASK && !this.taskPending);
+            // Some decrypted or application data is available or at the end of stream
+            return this.inPlain.hasData()
+                    || (this.status == ACTIVE && isHandshakeComplete() && this.inEncrypted.hasData())
+                    || (this.endOfStream && this.status == ACTIVE);
+        } finally {
+            this.session.lock().unlock();
+        }
+    }
+
+    private boolean isHandshakeComplete() {
+        final HandshakeStatus status = this.sslEngine.getHandshakeStatus();
+        return status == HandshakeStatus.NOT_HANDSHAKING || status == HandshakeStatus.FINISHED;
+    }
+
+    /**
+     * Returns whether encrypted inbound data has been received while the handshake
+     * was suspended pending completion of delegated tasks and is yet to be processed
+     * with {@link #isAppInputReady()}.
+     */
+    public boolean isInputPending() {
+        this.session.lock().lock();
+        try {
+            return this.inputPending;
         } finally {
             this.session.lock().unlock();
         }
@@ -606,30 +738,124 @@ private int writePlain(final ByteBuffer src) throws IOException {
         }
     }
 
-    private int readPlain(final ByteBuffer dst) {
-        Args.notNull(dst, "Byte buffer");
+    private long writePlain(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+        Args.notNull(srcs, "Byte buffers");
         this.session.lock().lock();
         try {
-            if (this.inPlain.hasData()) {
-                // Acquire buffer
-                final ByteBuffer inPlainBuf = this.inPlain.acquire();
-
-                // Perform opertaions
-                inPlainBuf.flip();
-                final int n = Math.min(inPlainBuf.remaining(), dst.remaining());
-                for (int i = 0; i < n; i++) {
-                    dst.put(inPlainBuf.get());
+            if (this.status != ACTIVE) {
+                throw new ClosedChannelException();
+            }
+            final ByteBuffer outEncryptedBuf = this.outEncrypted.acquire();
+            long bytesConsumed = 0;
+            // Wrap as many records as the output buffer can take
+            for (;;) {
+                final SSLEngineResult result = doWrap(srcs, offset, length, outEncryptedBuf);
+                if (result.getStatus() == Status.CLOSED) {
+                    this.status = CLOSED;
+                }
+                bytesConsumed += result.bytesConsumed();
+                if (result.getStatus() != Status.OK || result.bytesConsumed() == 0 || !hasRemaining(srcs, offset, length)) {
+                    break;
                 }
-                inPlainBuf.compact();
+            }
+            return bytesConsumed;
+        } finally {
+            this.session.lock().unlock();
+        }
+    }
 
-                // Release if empty
-                if (inPlainBuf.position() == 0) {
-                    this.inPlain.release();
+    private static boolean hasRemaining(final ByteBuffer[] srcs, final int offset, final int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (srcs[i].hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int copyPlain(final ByteBuffer dst) {
+        // Acquire buffer
+        final ByteBuffer inPlainBuf = this.inPlain.acquire();
+
+        // Perform operations
+        inPlainBuf.flip();
+        final int n = Math.min(inPlainBuf.remaining(), dst.remaining());
+        if (n < inPlainBuf.remaining()) {
+            final int limit = inPlainBuf.limit();
+            inPlainBuf.limit(inPlainBuf.position() + n);
+            dst.put(inPlainBuf);
+            inPlainBuf.limit(limit);
+        } else {
+            dst.put(inPlainBuf);
+        }
+        inPlainBuf.compact();
+
+        // Release if empty
+        if (inPlainBuf.position() == 0) {
+            this.inPlain.release();
+        }
+        return n;
+    }
+
+    private int unwrapPlain(final ByteBuffer dst) throws SSLException {
+        int n = 0;
+        while (this.inEncrypted.hasData() && dst.hasRemaining()) {
+            // Unwrap straight into the destination saving a copy through the intermediate buffer
+            final ByteBuffer inEncryptedBuf = this.inEncrypted.acquire();
+            inEncryptedBuf.flip();
+            final SSLEngineResult result = doUnwrap(inEncryptedBuf, dst);
+            inEncryptedBuf.compact();
+            if (inEncryptedBuf.position() == 0) {
+                this.inEncrypted.release();
+            }
+            n += result.bytesProduced();
+            final Status status = result.getStatus();
+            if (status == Status.BUFFER_UNDERFLOW && this.endOfStream) {
+                throw new SSLException("Unable to decrypt incoming data due to unexpected end of stream");
+            }
+            if (status != Status.OK) {
+                break;
+            }
+            if (result.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING) {
+                doHandshake();
+                updateEventMask();
+                break;
+            }
+        }
+        return n;
+    }
+
+    private int readPlain(final ByteBuffer dst) throws IOException {
+        Args.notNull(dst, "Byte buffer");
+        this.session.lock().lock();
+        try {
+            int n = 0;
+            if (this.inPlain.hasData()) {
+                n += copyPlain(dst);
+            }
+            if (!this.inPlain.hasData() && this.inEncrypted.hasData()) {
+                n += unwrapPlain(dst);
+                // Decrypt through the intermediate buffer if the destination is too small
+                // to take a whole record or unwrapping stopped at a post-handshake message,
+                // carrying on past records that produce no application data
+                while (n == 0 && this.inEncrypted.hasData() && decryptData()) {
+                    if (!isHandshakeComplete()) {
+                        doHandshake();
+                        updateEventMask();
+                    }
+                    if (this.inPlain.hasData()) {
+                        n += copyPlain(dst);
+                    }
+                    if (!isHandshakeComplete()) {
+                        break;
+                    }
                 }
+            }
+            if (n > 0) {
                 bytesReadCount.addAndGet(n);
                 return n;
             }
-            if (this.endOfStream) {
+            if (this.endOfStream && !this.inEncrypted.hasData()) {
                 return -1;
             }
             return 0;
@@ -794,6 +1020,11 @@ public void updateWriteTime() {
         this.session.updateWriteTime();
     }
 
+    @Override
+    public IOEventLoop getEventLoop() {
+        return this.session.getEventLoop();
+    }
+
     @Override
     public long getLastReadTime() {
         return this.session.getLastReadTime();
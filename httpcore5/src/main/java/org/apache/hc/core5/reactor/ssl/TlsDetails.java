@@ -38,10 +38,16 @@ public final class TlsDetails {
 
     private final SSLSession sslSession;
     private final String applicationProtocol;
+    private final boolean sessionResumed;
 
-    public TlsDetails(final SSLSession sslSession, final String applicationProtocol) {
+    public TlsDetails(final SSLSession sslSession, final String applicationProtocol, final boolean sessionResumed) {
         this.sslSession = sslSession;
         this.applicationProtocol = applicationProtocol;
+        this.sessionResumed = sessionResumed;
+    }
+
+    public TlsDetails(final SSLSession sslSession, final String applicationProtocol) {
+        this(sslSession, applicationProtocol, false);
     }
 
     public SSLSession getSSLSession() {
@@ -52,11 +58,20 @@ public String getApplicationProtocol() {
         return applicationProtocol;
     }
 
+    /**
+     * Returns {@code true} if the handshake resumed a session cached by
+     * a {@link TlsSessionCache}.
+     */
+    public boolean isSessionResumed() {
+        return sessionResumed;
+    }
+
     @Override
     public String toString() {
         return "TlsDetails{" +
                 "sslSession=" + sslSession +
                 ", applicationProtocol='" + applicationProtocol + '\'' +
+                ", sessionResumed=" + sessionResumed +
                 '}';
     }
 
@@ -0,0 +1,248 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor.ssl;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.ssl.ReflectionSupport;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Bounded cache of client side TLS sessions keyed by the endpoint they have been
+ * established with.
+ * <p>
+ * JSSE resumes sessions kept by the {@link javax.net.ssl.SSLContext} whenever
+ * an {@link SSLEngine} gets created for a peer host and port it has already
+ * completed a handshake with. This cache limits the number of endpoints and
+ * the age of sessions that may be resumed by invalidating sessions that get
+ * evicted or have expired, and keeps track of how many handshakes resumed
+ * a previously established session.
+ * </p>
+ * <p>
+ * The cache gets applied to TLS sessions through the {@link SSLSessionInitializer}
+ * and {@link SSLSessionVerifier} returned by its {@code decorate} methods.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class TlsSessionCache {
+
+    private final int maxSize;
+    private final long timeToLiveMillis;
+    private final Map<URIAuthority, SSLSession> sessionMap;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * @param maxSize the maximum number of endpoints to keep sessions for.
+     * @param timeToLive the maximum age of sessions that may be resumed, counting
+     *                   from the full handshake that established them.
+     */
+    public TlsSessionCache(final int maxSize, final TimeValue timeToLive) {
+        this.maxSize = Args.positive(maxSize, "Max size");
+        this.timeToLiveMillis = Args.notNull(timeToLive, "Time to live").toMillis();
+        this.sessionMap = new LinkedHashMap<URIAuthority, SSLSession>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<URIAuthority, SSLSession> eldest) {
+                if (size() > TlsSessionCache.this.maxSize) {
+                    eldest.getValue().invalidate();
+                    return true;
+                }
+                return false;
+            }
+
+        };
+        this.hits = new AtomicLong(0);
+        this.misses = new AtomicLong(0);
+    }
+
+    public TlsSessionCache() {
+        this(1000, TimeValue.ofHours(1));
+    }
+
+    private boolean isExpired(final SSLSession session, final long now) {
+        return !session.isValid() || now - session.getCreationTime() >= timeToLiveMillis;
+    }
+
+    private static boolean isResumed(final SSLSession previous, final SSLSession session) {
+        // TLS 1.3 resumption issues a new session id but retains the creation time
+        // of the session established by the full handshake
+        return Arrays.equals(previous.getId(), session.getId())
+                || previous.getCreationTime() == session.getCreationTime();
+    }
+
+    /**
+     * Invalidates the session cached for the given endpoint if it has expired,
+     * forcing the next handshake with the endpoint to be a full one.
+     *
+     * @param endpoint the endpoint about to be connected to. May be {@code null}.
+     */
+    public void prepare(final NamedEndpoint endpoint) {
+        if (endpoint == null) {
+            return;
+        }
+        final URIAuthority key = new URIAuthority(endpoint);
+        synchronized (sessionMap) {
+            final SSLSession session = sessionMap.get(key);
+            if (session != null && isExpired(session, System.currentTimeMillis())) {
+                sessionMap.remove(key);
+                session.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Records the session established with the given endpoint.
+     *
+     * @param endpoint the endpoint connected to. May be {@code null}.
+     * @param session the session established by the handshake.
+     * @return {@code true} if the handshake resumed the session previously
+     *   established with the endpoint, {@code false} otherwise.
+     */
+    public boolean update(final NamedEndpoint endpoint, final SSLSession session) {
+        if (endpoint == null || session == null) {
+            return false;
+        }
+        final URIAuthority key = new URIAuthority(endpoint);
+        final SSLSession previous;
+        synchronized (sessionMap) {
+            previous = sessionMap.put(key, session);
+        }
+        final boolean resumed = previous != null && isResumed(previous, session);
+        if (resumed) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return resumed;
+    }
+
+    /**
+     * Returns the number of handshakes that resumed a cached session.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of handshakes that established a new session.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (sessionMap) {
+            return sessionMap.size();
+        }
+    }
+
+    /**
+     * Removes all sessions from the cache and invalidates them.
+     */
+    public void clear() {
+        synchronized (sessionMap) {
+            for (final SSLSession session: sessionMap.values()) {
+                session.invalidate();
+            }
+            sessionMap.clear();
+        }
+    }
+
+    /**
+     * Decorates the given initializer with expiration of cached sessions.
+     *
+     * @param initializer the initializer to decorate. May be {@code null}.
+     */
+    public SSLSessionInitializer decorate(final SSLSessionInitializer initializer) {
+        return new SSLSessionInitializer() {
+
+            @Override
+            public void initialize(final NamedEndpoint endpoint, final SSLEngine sslEngine) {
+                if (initializer != null) {
+                    initializer.initialize(endpoint, sslEngine);
+                }
+                prepare(endpoint);
+            }
+
+        };
+    }
+
+    /**
+     * Decorates the given verifier with caching of verified sessions. The returned
+     * {@link TlsDetails} tell whether the session has been resumed.
+     *
+     * @param verifier the verifier to decorate. May be {@code null}.
+     */
+    public SSLSessionVerifier decorate(final SSLSessionVerifier verifier) {
+        return new SSLSessionVerifier() {
+
+            @Override
+            public TlsDetails verify(final NamedEndpoint endpoint, final SSLEngine sslEngine) throws SSLException {
+                final TlsDetails tlsDetails = verifier != null ? verifier.verify(endpoint, sslEngine) : null;
+                final SSLSession sslSession;
+                final String applicationProtocol;
+                if (tlsDetails != null) {
+                    sslSession = tlsDetails.getSSLSession();
+                    applicationProtocol = tlsDetails.getApplicationProtocol();
+                } else {
+                    sslSession = sslEngine.getSession();
+                    applicationProtocol = ReflectionSupport.callGetter(sslEngine, "ApplicationProtocol", String.class);
+                }
+                return new TlsDetails(sslSession, applicationProtocol, update(endpoint, sslSession));
+            }
+
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "TlsSessionCache{" +
+                "maxSize=" + maxSize +
+                ", size=" + size() +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                '}';
+    }
+
+}
@@ -27,6 +27,8 @@
 
 package org.apache.hc.core5.reactor.ssl;
 
+import java.util.concurrent.Executor;
+
 import javax.net.ssl.SSLContext;
 
 /**
@@ -42,6 +44,18 @@ void startTls(
             SSLSessionInitializer initializer,
             SSLSessionVerifier verifier) throws UnsupportedOperationException;
 
+    /**
+     * Starts TLS session over the transport, optionally executing delegated tasks
+     * of the SSL engine such as certificate validation and key exchange computations
+     * with the given executor instead of the I/O dispatch thread.
+     */
+    void startTls(
+            SSLContext sslContext,
+            SSLBufferManagement sslBufferManagement,
+            SSLSessionInitializer initializer,
+            SSLSessionVerifier verifier,
+            Executor delegatedTaskExecutor) throws UnsupportedOperationException;
+
     TlsDetails getTlsDetails();
 
 }
@@ -0,0 +1,55 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Abstract {@link ByteBuffer} allocator used for session and protocol buffers.
+ * <p>
+ * Implementations must be thread safe. Buffers handed out by {@link #allocate(int)}
+ * can be larger than requested. They may be returned to the allocator by calling
+ * {@link #release(ByteBuffer)} once no longer in use, after which they must not be
+ * accessed by the caller any more.
+ * </p>
+ *
+ * @since 5.0
+ */
+public interface ByteBufferAllocator {
+
+    /**
+     * Returns a cleared buffer with at least the given capacity.
+     */
+    ByteBuffer allocate(int capacity);
+
+    /**
+     * Returns the given buffer to the allocator. Buffers not allocated by this
+     * allocator are silently discarded.
+     */
+    void release(ByteBuffer buffer);
+
+}
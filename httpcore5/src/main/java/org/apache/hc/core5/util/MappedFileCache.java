@@ -0,0 +1,201 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Bounded cache of read-only memory mappings of files.
+ * <p>
+ * Mappings are keyed by the canonical path of the file and get replaced
+ * once the last modification time or the length of the file changes.
+ * The least recently used mappings are evicted once either the maximum
+ * number of entries or the maximum total size of mapped content is exceeded.
+ * Files larger than the maximum total size get mapped on demand and are
+ * never cached. Each request of such a file creates a new mapping, which is
+ * only released once garbage collected, so large files are better served
+ * by reading them.
+ * </p>
+ * <p>
+ * The cache hands out independent views of the shared mapping, so that
+ * concurrent consumers can read the same content without any copying.
+ * Evicted mappings are released by the JRE once no longer referenced.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class MappedFileCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final long DEFAULT_MAX_TOTAL_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Default cache shared by the mapped file entities.
+     */
+    public static final MappedFileCache DEFAULT = new MappedFileCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_TOTAL_SIZE);
+
+    private static class Entry {
+
+        final long lastModified;
+        final long length;
+        final ByteBuffer content;
+
+        Entry(final long lastModified, final long length, final ByteBuffer content) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.content = content;
+        }
+
+    }
+
+    private final int maxEntries;
+    private final long maxTotalSize;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long totalSize;
+
+    /**
+     * @param maxEntries maximum number of cached mappings.
+     * @param maxTotalSize maximum total size in bytes of cached mappings.
+     */
+    public MappedFileCache(final int maxEntries, final long maxTotalSize) {
+        this.maxEntries = Args.notNegative(maxEntries, "Max entries");
+        this.maxTotalSize = Args.notNegative(maxTotalSize, "Max total size");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public MappedFileCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_TOTAL_SIZE);
+    }
+
+    /**
+     * Returns a read-only view of the entire content of the given file
+     * positioned at its beginning. The view shares the underlying mapping
+     * with all other views of the same file version. Files larger than
+     * the maximum total size are mapped anew on every call.
+     *
+     * @param file the file to map.
+     * @return view of the file content.
+     * @throws IOException in case of an I/O error or if the file is too large
+     *   to be mapped into a single buffer.
+     */
+    public ByteBuffer get(final File file) throws IOException {
+        Args.notNull(file, "File");
+        final String key = file.getCanonicalPath();
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        synchronized (this.entries) {
+            final Entry entry = this.entries.get(key);
+            if (entry != null) {
+                if (entry.lastModified == lastModified && entry.length == length) {
+                    return entry.content.duplicate();
+                }
+                this.entries.remove(key);
+                this.totalSize -= entry.length;
+            }
+        }
+        final ByteBuffer content = map(file, length);
+        if (this.maxEntries > 0 && length <= this.maxTotalSize) {
+            synchronized (this.entries) {
+                final Entry previous = this.entries.put(key, new Entry(lastModified, length, content));
+                if (previous != null) {
+                    this.totalSize -= previous.length;
+                }
+                this.totalSize += length;
+                evict();
+            }
+        }
+        return content.duplicate();
+    }
+
+    private void evict() {
+        final Iterator<Entry> iterator = this.entries.values().iterator();
+        while (iterator.hasNext()
+                && (this.entries.size() > this.maxEntries || this.totalSize > this.maxTotalSize)) {
+            final Entry entry = iterator.next();
+            iterator.remove();
+            this.totalSize -= entry.length;
+        }
+    }
+
+    private static ByteBuffer map(final File file, final long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("File too large to be mapped: " + file);
+        }
+        try (final RandomAccessFile accessFile = new RandomAccessFile(file, "r")) {
+            final FileChannel fileChannel = accessFile.getChannel();
+            // The mapping stays valid after the channel has been closed
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, length).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Discards all cached mappings.
+     */
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.totalSize = 0;
+        }
+    }
+
+    /**
+     * @return number of cached mappings.
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * @return total size in bytes of cached mappings.
+     */
+    public long getTotalSize() {
+        synchronized (this.entries) {
+            return this.totalSize;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (this.entries) {
+            return "[entries: " + this.entries.size() + "; total size: " + this.totalSize + "]";
+        }
+    }
+
+}
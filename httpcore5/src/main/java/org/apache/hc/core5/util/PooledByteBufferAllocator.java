@@ -0,0 +1,417 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * {@link ByteBufferAllocator} that recycles released buffers.
+ * <p>
+ * Buffer capacities are rounded up to the next power of two starting with
+ * {@value #MIN_BUFFER_SIZE} bytes, so that buffers of the same size class
+ * are interchangeable. Released buffers are first kept in a small cache
+ * local to the releasing thread, which is usually an I/O dispatch thread
+ * that will soon need a buffer of the same size for another connection,
+ * and then in a bounded cache shared by all threads. Buffers exceeding
+ * the maximum pooled size are allocated on demand and never cached.
+ * </p>
+ * <p>
+ * Only buffers created by the allocator itself are recycled. The pool keeps
+ * a few buffer objects sharing the same storage and hands them out in turn,
+ * and only the buffer handed out last can return the storage to the pool.
+ * Foreign buffers, such as buffers wrapping an array owned by the caller or
+ * slices of pooled buffers, as well as buffers released more than once, are
+ * discarded. So is a late release by a previous owner of the storage, unless
+ * the storage has been handed out as often as it has buffer objects since.
+ * Releasing a buffer twice therefore remains an error of the caller. The
+ * buffer objects are created along with their storage, so recycling does not
+ * generate garbage. Allocated buffers are tracked by weak references, so
+ * buffers never released by their users are garbage collected as usual.
+ * </p>
+ * <p>
+ * Optionally the allocator can hand out direct buffers, which saves the copy
+ * of data to and from a temporary direct buffer the JRE makes on each socket
+ * read and write from a heap buffer.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class PooledByteBufferAllocator implements ByteBufferAllocator {
+
+    public static final int MIN_BUFFER_SIZE = 1024;
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+    public static final int DEFAULT_THREAD_CACHE_SIZE = 8;
+    public static final int DEFAULT_SHARED_CACHE_SIZE = 4 * 1024 * 1024;
+
+    static final int GENERATIONS = 4;
+
+    private static final int MIN_SHIFT = 10;
+    private static final int MAX_BUFFER_SIZE = 1 << 30;
+    private static final int REGISTRY_STRIPES = 16;
+
+    private final boolean direct;
+    private final int maxBufferSize;
+    private final int threadCacheSize;
+    private final Queue<Chunk>[] sharedCaches;
+    private final AtomicInteger[] sharedCounts;
+    private final int[] sharedLimits;
+    private final ThreadLocal<ArrayDeque<Chunk>[]> threadCaches;
+    private final Registry[] registries;
+    private final ReferenceQueue<ByteBuffer> queue;
+
+    /**
+     * @param direct {@code true} to allocate direct buffers, {@code false} to allocate heap buffers.
+     * @param maxBufferSize maximum buffer size subject to pooling. Rounded up to a power of two.
+     * @param threadCacheSize maximum number of buffers per size class cached by each thread.
+     * @param sharedCacheSize maximum total size in bytes of buffers per size class
+     *   cached in the pool shared by all threads.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PooledByteBufferAllocator(
+            final boolean direct,
+            final int maxBufferSize,
+            final int threadCacheSize,
+            final int sharedCacheSize) {
+        Args.check(maxBufferSize >= MIN_BUFFER_SIZE && maxBufferSize <= MAX_BUFFER_SIZE,
+                "Max buffer size must be between " + MIN_BUFFER_SIZE + " and " + MAX_BUFFER_SIZE);
+        Args.notNegative(threadCacheSize, "Thread cache size");
+        Args.notNegative(sharedCacheSize, "Shared cache size");
+        this.direct = direct;
+        final int classCount = sizeClass(maxBufferSize) + 1;
+        this.maxBufferSize = classSize(classCount - 1);
+        this.threadCacheSize = threadCacheSize;
+        this.sharedCaches = new Queue[classCount];
+        this.sharedCounts = new AtomicInteger[classCount];
+        this.sharedLimits = new int[classCount];
+        for (int i = 0; i < classCount; i++) {
+            this.sharedCaches[i] = new ConcurrentLinkedQueue<>();
+            this.sharedCounts[i] = new AtomicInteger(0);
+            this.sharedLimits[i] = sharedCacheSize / classSize(i);
+        }
+        this.threadCaches = new ThreadLocal<ArrayDeque<Chunk>[]>() {
+
+            @Override
+            protected ArrayDeque<Chunk>[] initialValue() {
+                final ArrayDeque<Chunk>[] caches = new ArrayDeque[classCount];
+                for (int i = 0; i < caches.length; i++) {
+                    caches[i] = new ArrayDeque<>();
+                }
+                return caches;
+            }
+
+        };
+        this.registries = new Registry[REGISTRY_STRIPES];
+        for (int i = 0; i < this.registries.length; i++) {
+            this.registries[i] = new Registry();
+        }
+        this.queue = new ReferenceQueue<>();
+    }
+
+    public PooledByteBufferAllocator(final boolean direct) {
+        this(direct, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_THREAD_CACHE_SIZE, DEFAULT_SHARED_CACHE_SIZE);
+    }
+
+    public PooledByteBufferAllocator() {
+        this(false);
+    }
+
+    static int sizeClass(final int capacity) {
+        if (capacity <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+        return Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+
+    static int classSize(final int sizeClass) {
+        return 1 << (sizeClass + MIN_SHIFT);
+    }
+
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    private ByteBuffer create(final int capacity) {
+        return this.direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static int hash(final ByteBuffer buffer) {
+        final int h = System.identityHashCode(buffer);
+        return h ^ (h >>> 16);
+    }
+
+    private Registry registry(final int hash) {
+        // High bits select the stripe, low bits the bucket within the stripe
+        return this.registries[(hash >>> 24) & (REGISTRY_STRIPES - 1)];
+    }
+
+    private Chunk createChunk(final int capacity) {
+        expunge();
+        final ByteBuffer storage = create(capacity);
+        final Chunk chunk = new Chunk();
+        for (int i = 0; i < GENERATIONS; i++) {
+            // The storage itself is never handed out, so that each buffer
+            // can be garbage collected regardless of the others
+            final ByteBuffer buffer = storage.duplicate();
+            final int hash = hash(buffer);
+            final Slot slot = new Slot(buffer, chunk, i, hash, this.queue);
+            chunk.buffers[i] = buffer;
+            chunk.slots[i] = slot;
+            registry(hash).add(slot);
+        }
+        return chunk;
+    }
+
+    private void expunge() {
+        Slot stale;
+        while ((stale = (Slot) this.queue.poll()) != null) {
+            for (final Slot slot : stale.chunk.slots) {
+                registry(slot.hash).remove(slot);
+            }
+        }
+    }
+
+    @Override
+    public ByteBuffer allocate(final int capacity) {
+        Args.notNegative(capacity, "Buffer capacity");
+        if (capacity > this.maxBufferSize) {
+            return create(capacity);
+        }
+        final int sizeClass = sizeClass(capacity);
+        Chunk chunk = this.threadCaches.get()[sizeClass].pollLast();
+        if (chunk == null) {
+            chunk = this.sharedCaches[sizeClass].poll();
+            if (chunk != null) {
+                this.sharedCounts[sizeClass].decrementAndGet();
+            }
+        }
+        if (chunk == null) {
+            chunk = createChunk(classSize(sizeClass));
+        }
+        final ByteBuffer buffer = chunk.acquire();
+        buffer.clear();
+        return buffer;
+    }
+
+    @Override
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null || buffer.isDirect() != this.direct || buffer.isReadOnly()) {
+            return;
+        }
+        final int capacity = buffer.capacity();
+        if (capacity < MIN_BUFFER_SIZE || capacity > this.maxBufferSize || (capacity & (capacity - 1)) != 0) {
+            return;
+        }
+        final int hash = hash(buffer);
+        final Slot slot = registry(hash).lookup(buffer, hash);
+        // Discard foreign buffers and buffers not handed out last by their chunk
+        if (slot == null || !slot.chunk.release(buffer, slot.generation)) {
+            return;
+        }
+        final Chunk chunk = slot.chunk;
+        final int sizeClass = sizeClass(capacity);
+        final ArrayDeque<Chunk> threadCache = this.threadCaches.get()[sizeClass];
+        if (threadCache.size() < this.threadCacheSize) {
+            threadCache.addLast(chunk);
+            return;
+        }
+        final AtomicInteger count = this.sharedCounts[sizeClass];
+        if (count.incrementAndGet() <= this.sharedLimits[sizeClass]) {
+            this.sharedCaches[sizeClass].add(chunk);
+        } else {
+            count.decrementAndGet();
+            chunk.discard();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[direct=" + this.direct + ", maxBufferSize=" + this.maxBufferSize + "]";
+    }
+
+    /**
+     * Buffers sharing the same storage, which are handed out in turn.
+     */
+    static final class Chunk {
+
+        static final AtomicIntegerFieldUpdater<Chunk> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "state");
+
+        static final int DISCARDED = -1;
+
+        final ByteBuffer[] buffers;
+        final Slot[] slots;
+        // Generation of the buffer to be handed out next, shifted left by one,
+        // with the lowest bit set while that buffer is in use
+        volatile int state;
+
+        Chunk() {
+            this.buffers = new ByteBuffer[GENERATIONS];
+            this.slots = new Slot[GENERATIONS];
+        }
+
+        ByteBuffer acquire() {
+            final int generation = this.state >>> 1;
+            final ByteBuffer buffer = this.buffers[generation];
+            // The buffer in use is weakly referenced only, so it can be garbage collected
+            this.buffers[generation] = null;
+            this.state = (generation << 1) | 1;
+            return buffer;
+        }
+
+        boolean release(final ByteBuffer buffer, final int generation) {
+            if (!STATE.compareAndSet(this, (generation << 1) | 1, ((generation + 1) % GENERATIONS) << 1)) {
+                return false;
+            }
+            this.buffers[generation] = buffer;
+            return true;
+        }
+
+        void discard() {
+            // Dropped from the pool for good, the buffers may be garbage collected
+            this.state = DISCARDED;
+            Arrays.fill(this.buffers, null);
+        }
+
+    }
+
+    /**
+     * Weak reference to a buffer created by the allocator.
+     */
+    static final class Slot extends WeakReference<ByteBuffer> {
+
+        final Chunk chunk;
+        final int generation;
+        final int hash;
+        Slot next;
+
+        Slot(
+                final ByteBuffer buffer,
+                final Chunk chunk,
+                final int generation,
+                final int hash,
+                final ReferenceQueue<ByteBuffer> queue) {
+            super(buffer, queue);
+            this.chunk = chunk;
+            this.generation = generation;
+            this.hash = hash;
+        }
+
+    }
+
+    /**
+     * Identity hash table of the buffers created by the allocator. The table is
+     * only modified when buffers are created or garbage collected. Lookups do not
+     * lock the table unless the buffer is not found.
+     */
+    static final class Registry {
+
+        private volatile Slot[] table;
+        private int size;
+
+        Registry() {
+            this.table = new Slot[16];
+        }
+
+        private static Slot find(final Slot[] table, final ByteBuffer buffer, final int hash) {
+            for (Slot slot = table[hash & (table.length - 1)]; slot != null; slot = slot.next) {
+                if (slot.get() == buffer) {
+                    return slot;
+                }
+            }
+            return null;
+        }
+
+        Slot lookup(final ByteBuffer buffer, final int hash) {
+            final Slot slot = find(this.table, buffer, hash);
+            if (slot != null) {
+                return slot;
+            }
+            // Unlocked lookups can miss slots moved by a concurrent modification
+            synchronized (this) {
+                return find(this.table, buffer, hash);
+            }
+        }
+
+        synchronized void add(final Slot slot) {
+            if (this.size >= this.table.length - (this.table.length >>> 2)) {
+                resize();
+            }
+            final Slot[] current = this.table;
+            final int i = slot.hash & (current.length - 1);
+            slot.next = current[i];
+            current[i] = slot;
+            this.size++;
+        }
+
+        synchronized void remove(final Slot stale) {
+            final Slot[] current = this.table;
+            final int i = stale.hash & (current.length - 1);
+            Slot prev = null;
+            for (Slot slot = current[i]; slot != null; prev = slot, slot = slot.next) {
+                if (slot == stale) {
+                    if (prev == null) {
+                        current[i] = slot.next;
+                    } else {
+                        prev.next = slot.next;
+                    }
+                    this.size--;
+                    return;
+                }
+            }
+        }
+
+        private void resize() {
+            final Slot[] current = this.table;
+            final Slot[] newTable = new Slot[current.length << 1];
+            for (int i = 0; i < current.length; i++) {
+                Slot slot = current[i];
+                while (slot != null) {
+                    final Slot next = slot.next;
+                    final int n = slot.hash & (newTable.length - 1);
+                    slot.next = newTable[n];
+                    newTable[n] = slot;
+                    slot = next;
+                }
+            }
+            this.table = newTable;
+        }
+
+    }
+
+}
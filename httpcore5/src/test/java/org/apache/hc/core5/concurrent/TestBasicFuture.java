@@ -27,9 +27,12 @@
 package org.apache.hc.core5.concurrent;
 
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -229,4 +232,94 @@ public void testAsyncNegativeTimeout() throws Exception {
         future.get(-1, TimeUnit.MILLISECONDS);
     }
 
+    @Test
+    public void testMultipleWaiters() throws Exception {
+        final BasicFuture<Object> future = new BasicFuture<>(null);
+        final Object result = new Object();
+        final CountDownLatch done = new CountDownLatch(4);
+        final AtomicInteger matches = new AtomicInteger(0);
+        for (int i = 0; i < 4; i++) {
+            final boolean timed = i % 2 == 0;
+            final Thread t = new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        final Object value = timed ? future.get(60, TimeUnit.SECONDS) : future.get();
+                        if (value == result) {
+                            matches.incrementAndGet();
+                        }
+                    } catch (final Exception ex) {
+                    } finally {
+                        done.countDown();
+                    }
+                }
+
+            };
+            t.setDaemon(true);
+            t.start();
+        }
+        Thread.sleep(100);
+        future.completed(result);
+        Assert.assertTrue(done.await(60, TimeUnit.SECONDS));
+        Assert.assertEquals(4, matches.get());
+    }
+
+    @Test
+    public void testTimedOutWaiterDoesNotAffectOthers() throws Exception {
+        final BasicFuture<Object> future = new BasicFuture<>(null);
+        final Object result = new Object();
+        final AtomicReference<Object> valueRef = new AtomicReference<>(null);
+        final Thread t = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    valueRef.set(future.get());
+                } catch (final Exception ex) {
+                }
+            }
+
+        };
+        t.setDaemon(true);
+        t.start();
+        try {
+            future.get(50, TimeUnit.MILLISECONDS);
+            Assert.fail("TimeoutException expected");
+        } catch (final TimeoutException ex) {
+            // expected
+        }
+        future.completed(result);
+        t.join(60000);
+        Assert.assertSame(result, valueRef.get());
+        Assert.assertSame(result, future.get(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testInterruptedWaiter() throws Exception {
+        final BasicFuture<Object> future = new BasicFuture<>(null);
+        final AtomicReference<Exception> exceptionRef = new AtomicReference<>(null);
+        final Thread t = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    future.get();
+                } catch (final Exception ex) {
+                    exceptionRef.set(ex);
+                }
+            }
+
+        };
+        t.setDaemon(true);
+        t.start();
+        Thread.sleep(50);
+        t.interrupt();
+        t.join(60000);
+        Assert.assertTrue(exceptionRef.get() instanceof InterruptedException);
+        Assert.assertFalse(future.isDone());
+        Assert.assertTrue(future.cancel());
+        Assert.assertTrue(future.isCancelled());
+    }
+
 }
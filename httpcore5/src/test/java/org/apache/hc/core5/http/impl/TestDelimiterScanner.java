@@ -0,0 +1,108 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestDelimiterScanner {
+
+    private static int naiveIndexOf(final byte[] b, final int from, final int to, final byte target) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ByteBuffer[] wrap(final byte[] b) {
+        final ByteBuffer direct = ByteBuffer.allocateDirect(b.length);
+        direct.put(b);
+        direct.clear();
+        return new ByteBuffer[] {
+                ByteBuffer.wrap(b).order(ByteOrder.BIG_ENDIAN),
+                ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN),
+                direct.duplicate().order(ByteOrder.BIG_ENDIAN),
+                direct.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        };
+    }
+
+    @Test
+    public void testFindLineFeed() throws Exception {
+        final byte[] b = "GET / HTTP/1.1\r\nHost: localhost\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        for (final ByteBuffer buffer: wrap(b)) {
+            Assert.assertEquals(15, DelimiterScanner.indexOf(buffer, 0, b.length, (byte) '\n'));
+            Assert.assertEquals(32, DelimiterScanner.indexOf(buffer, 16, b.length, (byte) '\n'));
+            Assert.assertEquals(20, DelimiterScanner.indexOf(buffer, 16, b.length, (byte) ':'));
+            Assert.assertEquals(-1, DelimiterScanner.indexOf(buffer, 0, 15, (byte) '\n'));
+            Assert.assertEquals(-1, DelimiterScanner.indexOf(buffer, 0, 0, (byte) '\n'));
+            Assert.assertEquals(0, buffer.position());
+            Assert.assertEquals(b.length, buffer.limit());
+        }
+    }
+
+    @Test
+    public void testEveryPositionAndRange() throws Exception {
+        final byte[] b = new byte[40];
+        for (int i = 0; i < b.length; i++) {
+            // Bytes that differ from the delimiter only in the high bit or in the lowest bit
+            b[i] = (byte) ((i % 3 == 0) ? 0x8A : (i % 3 == 1) ? 0x0B : 0x80);
+        }
+        for (int pos = 0; pos < b.length; pos++) {
+            b[pos] = '\n';
+            for (final ByteBuffer buffer: wrap(b)) {
+                for (int from = 0; from < b.length; from++) {
+                    for (int to = from; to <= b.length; to++) {
+                        Assert.assertEquals(naiveIndexOf(b, from, to, (byte) '\n'),
+                                DelimiterScanner.indexOf(buffer, from, to, (byte) '\n'));
+                    }
+                }
+            }
+            b[pos] = (byte) 0x8A;
+        }
+    }
+
+    @Test
+    public void testHighBitDelimiter() throws Exception {
+        final byte[] b = new byte[24];
+        b[3] = (byte) 0x7F;
+        b[11] = (byte) 0xFF;
+        b[19] = (byte) 0xFF;
+        for (final ByteBuffer buffer: wrap(b)) {
+            Assert.assertEquals(11, DelimiterScanner.indexOf(buffer, 0, b.length, (byte) 0xFF));
+            Assert.assertEquals(19, DelimiterScanner.indexOf(buffer, 12, b.length, (byte) 0xFF));
+            Assert.assertEquals(0, DelimiterScanner.indexOf(buffer, 0, b.length, (byte) 0));
+            Assert.assertEquals(4, DelimiterScanner.indexOf(buffer, 3, b.length, (byte) 0));
+        }
+    }
+
+}
@@ -45,6 +45,7 @@
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
 import org.apache.hc.core5.http.nio.SessionOutputBuffer;
 import org.apache.hc.core5.util.CharArrayBuffer;
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -622,4 +623,54 @@ public void testUnmappableInputActionReplace() throws Exception {
         Assert.assertEquals("This text contains a circumflex ? !!!\r\n", result);
     }
 
+    @Test
+    public void testInputBufferHibernation() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(1024, 16, 0, null, allocator);
+        final ByteBuffer storage = inbuf.buffer();
+
+        inbuf.fill(newChannel("One\r\nTwo"));
+        final CharArrayBuffer line = new CharArrayBuffer(64);
+        Assert.assertTrue(inbuf.readLine(line, false));
+        Assert.assertEquals("One", line.toString());
+        Assert.assertFalse(inbuf.hibernate());
+
+        line.clear();
+        Assert.assertTrue(inbuf.readLine(line, true));
+        Assert.assertEquals("Two", line.toString());
+        Assert.assertTrue(inbuf.hibernate());
+        Assert.assertEquals(0, inbuf.buffer().capacity());
+        Assert.assertFalse(inbuf.hasData());
+        Assert.assertFalse(inbuf.hibernate());
+
+        inbuf.fill(newChannel("Three\r\n"));
+        Assert.assertSame(storage.array(), inbuf.buffer().array());
+        line.clear();
+        Assert.assertTrue(inbuf.readLine(line, false));
+        Assert.assertEquals("Three", line.toString());
+    }
+
+    @Test
+    public void testOutputBufferHibernation() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final SessionOutputBufferImpl outbuf = new SessionOutputBufferImpl(1024, 16, null, allocator);
+        final ByteArrayOutputStream outstream = new ByteArrayOutputStream();
+        final WritableByteChannel channel = newChannel(outstream);
+
+        outbuf.write(ByteBuffer.wrap(new byte[] {'a', 'b', 'c'}));
+        Assert.assertFalse(outbuf.hibernate());
+        outbuf.flush(channel);
+        Assert.assertTrue(outbuf.hibernate());
+        Assert.assertEquals(0, outbuf.buffer().capacity());
+        Assert.assertEquals(1024, outbuf.capacity());
+
+        Assert.assertTrue(outbuf.hibernate());
+        final CharArrayBuffer chbuffer = new CharArrayBuffer(16);
+        chbuffer.append("def");
+        outbuf.writeLine(chbuffer);
+        Assert.assertEquals(1024, outbuf.buffer().capacity());
+        outbuf.flush(channel);
+        Assert.assertEquals("abcdef\r\n", new String(outstream.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
 }
@@ -0,0 +1,168 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.io.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.util.MappedFileCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MappedFileEntity}.
+ *
+ */
+public class TestMappedFileEntity {
+
+    @Test
+    public void testBasics() throws Exception {
+        final File tmpfile = File.createTempFile("testfile", ".txt");
+        tmpfile.deleteOnExit();
+        final MappedFileCache cache = new MappedFileCache(8, 1024);
+        final MappedFileEntity httpentity = new MappedFileEntity(tmpfile, ContentType.TEXT_PLAIN, cache);
+
+        Assert.assertEquals(tmpfile.length(), httpentity.getContentLength());
+        Assert.assertEquals(ContentType.TEXT_PLAIN.toString(), httpentity.getContentType());
+        final InputStream content = httpentity.getContent();
+        Assert.assertNotNull(content);
+        Assert.assertEquals(-1, content.read());
+        content.close();
+        Assert.assertTrue(httpentity.isRepeatable());
+        Assert.assertFalse(httpentity.isStreaming());
+        cache.clear();
+        if (!tmpfile.delete()){
+            Assert.fail("Failed to delete: "+tmpfile);
+        }
+    }
+
+    @Test
+    public void testIllegalConstructor() throws Exception {
+        try {
+            new MappedFileEntity(null, ContentType.TEXT_PLAIN);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testWriteTo() throws Exception {
+        final File tmpfile = File.createTempFile("testfile", ".txt");
+        tmpfile.deleteOnExit();
+
+        final FileOutputStream outstream = new FileOutputStream(tmpfile);
+        outstream.write(0);
+        outstream.write(1);
+        outstream.write(2);
+        outstream.write(3);
+        outstream.close();
+
+        final MappedFileCache cache = new MappedFileCache(8, 1024);
+        final MappedFileEntity httpentity = new MappedFileEntity(tmpfile, ContentType.TEXT_PLAIN, cache);
+
+        for (int n = 0; n < 2; n++) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            httpentity.writeTo(out);
+            final byte[] bytes = out.toByteArray();
+            Assert.assertNotNull(bytes);
+            Assert.assertEquals(tmpfile.length(), bytes.length);
+            for (int i = 0; i < 4; i++) {
+                Assert.assertEquals(i, bytes[i]);
+            }
+        }
+
+        final InputStream content = httpentity.getContent();
+        final byte[] bytes = new byte[8];
+        Assert.assertEquals(1, content.skip(1));
+        Assert.assertEquals(3, content.read(bytes, 0, bytes.length));
+        Assert.assertEquals(1, bytes[0]);
+        Assert.assertEquals(3, bytes[2]);
+        Assert.assertEquals(-1, content.read(bytes, 0, bytes.length));
+        content.close();
+
+        cache.clear();
+        if (!tmpfile.delete()){
+            Assert.fail("Failed to delete: "+tmpfile);
+        }
+
+        try {
+            httpentity.writeTo(null);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testWriteToInChunks() throws Exception {
+        final File tmpfile = File.createTempFile("testfile", ".bin");
+        tmpfile.deleteOnExit();
+
+        final byte[] data = new byte[10000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        try (final FileOutputStream outstream = new FileOutputStream(tmpfile)) {
+            outstream.write(data);
+        }
+
+        // Larger than the cache, mapped for this entity only
+        final MappedFileCache cache = new MappedFileCache(8, 1024);
+        final MappedFileEntity httpentity = new MappedFileEntity(tmpfile, ContentType.DEFAULT_BINARY, cache);
+        Assert.assertEquals(0, cache.size());
+
+        final int[] writes = new int[1];
+        final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+
+            @Override
+            public synchronized void write(final byte[] b, final int off, final int len) {
+                Assert.assertTrue(len <= AbstractHttpEntity.OUTPUT_BUFFER_SIZE);
+                writes[0]++;
+                super.write(b, off, len);
+            }
+
+            @Override
+            public void write(final byte[] b) throws IOException {
+                Assert.fail("Unexpected write");
+            }
+
+        };
+        httpentity.writeTo(out);
+        Assert.assertArrayEquals(data, out.toByteArray());
+        Assert.assertEquals(3, writes[0]);
+
+        if (!tmpfile.delete()){
+            Assert.fail("Failed to delete: "+tmpfile);
+        }
+    }
+
+}
@@ -29,8 +29,11 @@
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 
 import org.apache.hc.core5.http.ContentType;
@@ -38,6 +41,7 @@
 import org.apache.hc.core5.http.nio.AsyncEntityProducer;
 import org.apache.hc.core5.http.nio.BasicDataStreamChannel;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.FileDataStreamChannel;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -104,4 +108,92 @@ public void testTextContentRepeatable() throws Exception {
         }
     }
 
+    static class FileTransferChannel extends BasicDataStreamChannel implements FileDataStreamChannel {
+
+        private final WritableByteChannelMock byteChannel;
+        private final boolean transferSupported;
+        private final int chunk;
+        private int writes;
+        private int transfers;
+
+        FileTransferChannel(final WritableByteChannelMock byteChannel, final boolean transferSupported, final int chunk) {
+            super(byteChannel);
+            this.byteChannel = byteChannel;
+            this.transferSupported = transferSupported;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            writes++;
+            return super.write(src);
+        }
+
+        @Override
+        public boolean isFileTransferSupported() {
+            return transferSupported;
+        }
+
+        @Override
+        public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+            transfers++;
+            return src.transferTo(position, Math.min(count, chunk), byteChannel);
+        }
+
+    }
+
+    @Test
+    public void testFileTransfer() throws Exception {
+        final AsyncEntityProducer producer = new FileEntityProducer(tempFile, ContentType.TEXT_PLAIN);
+
+        for (int i = 0; i < 3; i++) {
+            final WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024);
+            final FileTransferChannel streamChannel = new FileTransferChannel(byteChannel, true, 4);
+
+            producer.produce(streamChannel);
+            Assert.assertTrue(byteChannel.isOpen());
+            producer.produce(streamChannel);
+
+            Assert.assertFalse(byteChannel.isOpen());
+            Assert.assertEquals("abcdef", byteChannel.dump(StandardCharsets.US_ASCII));
+            Assert.assertEquals(2, streamChannel.transfers);
+            Assert.assertEquals(0, streamChannel.writes);
+
+            producer.releaseResources();
+        }
+    }
+
+    @Test
+    public void testFileTransferNotSupported() throws Exception {
+        final AsyncEntityProducer producer = new FileEntityProducer(tempFile, ContentType.TEXT_PLAIN);
+
+        final WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024);
+        final FileTransferChannel streamChannel = new FileTransferChannel(byteChannel, false, 4);
+
+        producer.produce(streamChannel);
+        producer.produce(streamChannel);
+
+        Assert.assertFalse(byteChannel.isOpen());
+        Assert.assertEquals("abcdef", byteChannel.dump(StandardCharsets.US_ASCII));
+        Assert.assertEquals(0, streamChannel.transfers);
+        Assert.assertTrue(streamChannel.writes > 0);
+    }
+
+    @Test
+    public void testFileLargerThanBuffer() throws Exception {
+        final AsyncEntityProducer producer = new FileEntityProducer(tempFile, 4, ContentType.TEXT_PLAIN);
+
+        final WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024);
+        final FileTransferChannel streamChannel = new FileTransferChannel(byteChannel, false, 4);
+
+        for (int i = 0; i < 10 && byteChannel.isOpen(); i++) {
+            producer.produce(streamChannel);
+        }
+
+        Assert.assertFalse(byteChannel.isOpen());
+        Assert.assertEquals("abcdef", byteChannel.dump(StandardCharsets.US_ASCII));
+        Assert.assertEquals(0, streamChannel.transfers);
+        Assert.assertEquals(2, streamChannel.writes);
+    }
+
 }
@@ -0,0 +1,137 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIOWorkerSelectors {
+
+    static class TestWorkerStats implements IOWorkerStats {
+
+        int sessionCount;
+        int pendingCount;
+
+        TestWorkerStats(final int sessionCount, final int pendingCount) {
+            this.sessionCount = sessionCount;
+            this.pendingCount = pendingCount;
+        }
+
+        @Override
+        public int getSessionCount() {
+            return sessionCount;
+        }
+
+        @Override
+        public int getPendingCount() {
+            return pendingCount;
+        }
+
+        @Override
+        public long getEventCount() {
+            return 0;
+        }
+
+        @Override
+        public long getEventRate() {
+            return 0;
+        }
+
+        @Override
+        public long getWakeupCount() {
+            return 0;
+        }
+
+    }
+
+    private static IOWorkerStats[] workers(final int... sessionCounts) {
+        final IOWorkerStats[] workers = new IOWorkerStats[sessionCounts.length];
+        for (int i = 0; i < sessionCounts.length; i++) {
+            workers[i] = new TestWorkerStats(sessionCounts[i], 0);
+        }
+        return workers;
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        final IOWorkerSelector selector = IOWorkerSelectors.roundRobin();
+        final IOWorkerStats[] workers = workers(10, 0, 0);
+        final int[] counts = new int[workers.length];
+        for (int i = 0; i < 30; i++) {
+            counts[selector.select(workers)]++;
+        }
+        Assert.assertArrayEquals(new int[] {10, 10, 10}, counts);
+    }
+
+    @Test
+    public void testLeastSessions() throws Exception {
+        final IOWorkerSelector selector = IOWorkerSelectors.leastSessions();
+        final IOWorkerStats[] workers = workers(10, 3, 7, 3);
+        for (int i = 0; i < 20; i++) {
+            final int selected = selector.select(workers);
+            Assert.assertTrue(selected == 1 || selected == 3);
+        }
+        ((TestWorkerStats) workers[2]).sessionCount = 1;
+        Assert.assertEquals(2, selector.select(workers));
+        ((TestWorkerStats) workers[2]).pendingCount = 5;
+        final int selected = selector.select(workers);
+        Assert.assertTrue(selected == 1 || selected == 3);
+    }
+
+    @Test
+    public void testLeastSessionsBalancesLoad() throws Exception {
+        final IOWorkerSelector selector = IOWorkerSelectors.leastSessions();
+        final IOWorkerStats[] workers = workers(5, 0, 2, 0);
+        for (int i = 0; i < 13; i++) {
+            ((TestWorkerStats) workers[selector.select(workers)]).sessionCount++;
+        }
+        for (final IOWorkerStats worker: workers) {
+            Assert.assertEquals(5, worker.getSessionCount());
+        }
+    }
+
+    @Test
+    public void testPowerOfTwoChoices() throws Exception {
+        final IOWorkerSelector selector = IOWorkerSelectors.powerOfTwoChoices();
+        Assert.assertEquals(0, selector.select(workers(100)));
+
+        final IOWorkerStats[] pair = workers(100, 0);
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(1, selector.select(pair));
+        }
+
+        final IOWorkerStats[] workers = workers(0, 0, 0, 0, 0, 0, 0, 0);
+        for (int i = 0; i < 8000; i++) {
+            ((TestWorkerStats) workers[selector.select(workers)]).sessionCount++;
+        }
+        for (final IOWorkerStats worker: workers) {
+            Assert.assertTrue(Math.abs(worker.getSessionCount() - 1000) <= 10);
+        }
+    }
+
+}
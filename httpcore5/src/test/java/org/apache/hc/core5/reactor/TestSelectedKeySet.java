@@ -0,0 +1,103 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSelectedKeySet {
+
+    @Test
+    public void testAddAndReset() throws Exception {
+        try (final Selector selector = Selector.open()) {
+            final Pipe pipe = Pipe.open();
+            try {
+                pipe.source().configureBlocking(false);
+                final SelectionKey key = pipe.source().register(selector, SelectionKey.OP_READ);
+
+                final SelectedKeySet selectedKeySet = new SelectedKeySet();
+                for (int i = 0; i < 1000; i++) {
+                    Assert.assertTrue(selectedKeySet.add(key));
+                }
+                Assert.assertFalse(selectedKeySet.add(null));
+                Assert.assertEquals(1000, selectedKeySet.size());
+                Assert.assertSame(key, selectedKeySet.get(999));
+
+                final Iterator<SelectionKey> it = selectedKeySet.iterator();
+                int count = 0;
+                while (it.hasNext()) {
+                    Assert.assertSame(key, it.next());
+                    count++;
+                }
+                Assert.assertEquals(1000, count);
+
+                selectedKeySet.reset();
+                Assert.assertEquals(0, selectedKeySet.size());
+                Assert.assertTrue(selectedKeySet.isEmpty());
+            } finally {
+                pipe.source().close();
+                pipe.sink().close();
+            }
+        }
+    }
+
+    @Test
+    public void testInstall() throws Exception {
+        try (final Selector selector = Selector.open()) {
+            final SelectedKeySet selectedKeySet = SelectedKeySet.install(selector);
+            // Falls back to the selector's own key set if its internals are not accessible
+            final Pipe pipe = Pipe.open();
+            try {
+                pipe.source().configureBlocking(false);
+                final SelectionKey key = pipe.source().register(selector, SelectionKey.OP_READ);
+                pipe.sink().write(ByteBuffer.wrap(new byte[] {1}));
+
+                Assert.assertEquals(1, selector.select(5000));
+                Assert.assertEquals(1, selector.selectedKeys().size());
+                Assert.assertTrue(key.isReadable());
+                if (selectedKeySet != null) {
+                    Assert.assertSame(selectedKeySet, selector.selectedKeys());
+                    Assert.assertSame(key, selectedKeySet.get(0));
+                    selectedKeySet.reset();
+                } else {
+                    selector.selectedKeys().clear();
+                }
+                Assert.assertEquals(0, selector.selectedKeys().size());
+            } finally {
+                pipe.source().close();
+                pipe.sink().close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.nio.channels.Selector;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSelectorWakeup {
+
+    private Selector selector;
+    private SelectorWakeup selectorWakeup;
+
+    @Before
+    public void setup() throws Exception {
+        selector = Selector.open();
+        selectorWakeup = new SelectorWakeup(selector);
+        selectorWakeup.bind(Thread.currentThread());
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        selector.close();
+    }
+
+    private void wakeupFromOtherThread(final int count) throws Exception {
+        final Thread thread = new Thread() {
+
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    selectorWakeup.wakeup();
+                    selectorWakeup.interestOpsChanged();
+                }
+            }
+
+        };
+        thread.start();
+        thread.join();
+    }
+
+    @Test
+    public void testWakeupsCoalesced() throws Exception {
+        wakeupFromOtherThread(10);
+        Assert.assertEquals(1, selectorWakeup.getCount());
+
+        final long start = System.currentTimeMillis();
+        selectorWakeup.select(10000);
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+
+        wakeupFromOtherThread(10);
+        Assert.assertEquals(2, selectorWakeup.getCount());
+    }
+
+    @Test
+    public void testWakeupFromEventLoop() throws Exception {
+        selectorWakeup.wakeup();
+        selectorWakeup.wakeup();
+        Assert.assertEquals(0, selectorWakeup.getCount());
+
+        final long start = System.currentTimeMillis();
+        selectorWakeup.select(10000);
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+
+        wakeupFromOtherThread(1);
+        Assert.assertEquals(1, selectorWakeup.getCount());
+    }
+
+    @Test
+    public void testInterestOpsChangedFromEventLoop() throws Exception {
+        selectorWakeup.interestOpsChanged();
+        Assert.assertEquals(0, selectorWakeup.getCount());
+
+        // Nothing should make the select operation return early
+        final long start = System.currentTimeMillis();
+        selectorWakeup.select(100);
+        Assert.assertTrue(System.currentTimeMillis() - start >= 90);
+    }
+
+}
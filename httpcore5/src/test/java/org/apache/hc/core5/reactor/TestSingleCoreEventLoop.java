@@ -0,0 +1,208 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSingleCoreEventLoop {
+
+    private Selector selector;
+    private SelectorWakeup selectorWakeup;
+    private List<Exception> exceptions;
+    private SingleCoreEventLoop eventLoop;
+
+    @Before
+    public void setup() throws Exception {
+        selector = Selector.open();
+        selectorWakeup = new SelectorWakeup(selector);
+        selectorWakeup.bind(Thread.currentThread());
+        exceptions = new ArrayList<>();
+        eventLoop = new SingleCoreEventLoop(selectorWakeup, new Callback<Exception>() {
+
+            @Override
+            public void execute(final Exception ex) {
+                exceptions.add(ex);
+            }
+
+        });
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        selector.close();
+    }
+
+    private static Runnable record(final List<String> log, final String name) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                log.add(name);
+            }
+
+        };
+    }
+
+    @Test
+    public void testTasksExecutedInOrder() throws Exception {
+        final List<String> log = new ArrayList<>();
+        eventLoop.execute(record(log, "a"));
+        eventLoop.execute(record(log, "b"));
+        eventLoop.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                throw new IllegalStateException("Oppsie");
+            }
+
+        });
+        eventLoop.execute(record(log, "c"));
+        Assert.assertTrue(log.isEmpty());
+
+        Assert.assertEquals(4, eventLoop.runTasks());
+        Assert.assertEquals(3, log.size());
+        Assert.assertEquals("a", log.get(0));
+        Assert.assertEquals("b", log.get(1));
+        Assert.assertEquals("c", log.get(2));
+        Assert.assertEquals(1, exceptions.size());
+        Assert.assertEquals(0, eventLoop.runTasks());
+    }
+
+    @Test
+    public void testTasksExecutedInBoundedBatches() throws Exception {
+        final List<String> log = new ArrayList<>();
+        final int total = SingleCoreEventLoop.MAX_TASKS_PER_CYCLE + 10;
+        for (int i = 0; i < total; i++) {
+            eventLoop.execute(record(log, Integer.toString(i)));
+        }
+        selectorWakeup.select(0);
+
+        Assert.assertEquals(SingleCoreEventLoop.MAX_TASKS_PER_CYCLE, eventLoop.runTasks());
+
+        // Remaining tasks must not be delayed by the next select operation
+        final long start = System.currentTimeMillis();
+        selectorWakeup.select(10000);
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+
+        Assert.assertEquals(10, eventLoop.runTasks());
+        Assert.assertEquals(total, log.size());
+    }
+
+    @Test
+    public void testExecuteFromOtherThreadWakesUpSelector() throws Exception {
+        final List<String> log = new ArrayList<>();
+        final Thread thread = new Thread() {
+
+            @Override
+            public void run() {
+                Assert.assertFalse(eventLoop.inEventLoop());
+                eventLoop.execute(record(log, "a"));
+            }
+
+        };
+        Assert.assertTrue(eventLoop.inEventLoop());
+        thread.start();
+        thread.join();
+
+        final long start = System.currentTimeMillis();
+        selectorWakeup.select(10000);
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        Assert.assertEquals(1, eventLoop.runTasks());
+        Assert.assertEquals(1, log.size());
+    }
+
+    @Test
+    public void testScheduledTasks() throws Exception {
+        final List<String> log = new ArrayList<>();
+        eventLoop.schedule(record(log, "b"), TimeValue.ofMillis(100));
+        eventLoop.schedule(record(log, "a"), TimeValue.ofMillis(50));
+        final Cancellable cancellable = eventLoop.schedule(record(log, "c"), TimeValue.ofMillis(50));
+        eventLoop.schedule(record(log, "d"), TimeValue.ofSeconds(60));
+
+        Assert.assertTrue(eventLoop.nextSelectTimeout(1000) <= 50);
+        Assert.assertTrue(cancellable.cancel());
+        Assert.assertFalse(cancellable.cancel());
+
+        Assert.assertEquals(0, eventLoop.runTasks());
+        Thread.sleep(150);
+        Assert.assertEquals(2, eventLoop.runTasks());
+        Assert.assertEquals(2, log.size());
+        Assert.assertEquals("a", log.get(0));
+        Assert.assertEquals("b", log.get(1));
+        Assert.assertEquals(1000, eventLoop.nextSelectTimeout(1000));
+        Assert.assertEquals(1, eventLoop.getPendingTaskCount());
+    }
+
+    @Test
+    public void testDueScheduledTaskMakesSelectNonBlocking() throws Exception {
+        eventLoop.schedule(record(new ArrayList<String>(), "a"), TimeValue.ZERO_MILLISECONDS);
+        final long selectTimeout = eventLoop.nextSelectTimeout(10000);
+
+        final long start = System.currentTimeMillis();
+        selectorWakeup.select(selectTimeout);
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        Assert.assertEquals(1, eventLoop.runTasks());
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        final List<String> log = new ArrayList<>();
+        eventLoop.execute(record(log, "a"));
+        final Cancellable cancellable = eventLoop.schedule(record(log, "b"), TimeValue.ofMillis(1));
+        eventLoop.shutdown();
+
+        Assert.assertFalse(cancellable.cancel());
+        Assert.assertEquals(0, eventLoop.getPendingTaskCount());
+        Assert.assertEquals(0, eventLoop.runTasks());
+        Assert.assertTrue(log.isEmpty());
+
+        try {
+            eventLoop.execute(record(log, "c"));
+            Assert.fail("RejectedExecutionException should have been thrown");
+        } catch (final RejectedExecutionException ex) {
+            // expected
+        }
+        try {
+            eventLoop.schedule(record(log, "d"), TimeValue.ofMillis(1));
+            Assert.fail("RejectedExecutionException should have been thrown");
+        } catch (final RejectedExecutionException ex) {
+            // expected
+        }
+    }
+
+}
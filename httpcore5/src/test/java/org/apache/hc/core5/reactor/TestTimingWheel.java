@@ -0,0 +1,205 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+import org.apache.hc.core5.io.ShutdownType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTimingWheel {
+
+    static class TestChannel extends InternalChannel {
+
+        volatile int timeout;
+        volatile long lastReadTime;
+        int timeoutCount;
+
+        @Override
+        void onIOEvent(final int ops) throws IOException {
+        }
+
+        @Override
+        void onTimeout() throws IOException {
+            timeoutCount++;
+        }
+
+        @Override
+        void onException(final Exception cause) {
+        }
+
+        @Override
+        int getTimeout() {
+            return timeout;
+        }
+
+        @Override
+        long getLastReadTime() {
+            return lastReadTime;
+        }
+
+        @Override
+        public void shutdown(final ShutdownType shutdownType) {
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+
+    }
+
+    private Selector selector;
+    private Pipe pipe;
+
+    @Before
+    public void setup() throws Exception {
+        selector = Selector.open();
+        pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        pipe.source().close();
+        pipe.sink().close();
+        selector.close();
+    }
+
+    private SelectionKey register(final TestChannel channel) throws Exception {
+        return pipe.source().register(selector, SelectionKey.OP_READ, channel);
+    }
+
+    @Test
+    public void testTimeoutFiredOnExpiry() throws Exception {
+        final TimingWheel wheel = new TimingWheel(100, 16, 0);
+        final TestChannel channel = new TestChannel();
+        channel.timeout = 250;
+        channel.lastReadTime = 0;
+        final SelectionKey key = register(channel);
+        wheel.schedule(key);
+
+        wheel.expire(10);
+        Assert.assertEquals(1, wheel.size());
+        wheel.expire(200);
+        Assert.assertEquals(0, channel.timeoutCount);
+        wheel.expire(300);
+        Assert.assertEquals(1, channel.timeoutCount);
+        // Still expired on the next tick unless the timeout gets reset
+        wheel.expire(400);
+        Assert.assertEquals(2, channel.timeoutCount);
+    }
+
+    @Test
+    public void testReadActivityPostponesTimeout() throws Exception {
+        final TimingWheel wheel = new TimingWheel(100, 16, 0);
+        final TestChannel channel = new TestChannel();
+        channel.timeout = 250;
+        channel.lastReadTime = 0;
+        final SelectionKey key = register(channel);
+        wheel.schedule(key);
+        wheel.expire(0);
+
+        channel.lastReadTime = 250;
+        wheel.expire(300);
+        Assert.assertEquals(0, channel.timeoutCount);
+        Assert.assertEquals(1, wheel.size());
+        wheel.expire(500);
+        Assert.assertEquals(0, channel.timeoutCount);
+        wheel.expire(600);
+        Assert.assertEquals(1, channel.timeoutCount);
+    }
+
+    @Test
+    public void testNoTimeout() throws Exception {
+        final TimingWheel wheel = new TimingWheel(100, 16, 0);
+        final TestChannel channel = new TestChannel();
+        channel.timeout = 0;
+        final SelectionKey key = register(channel);
+        wheel.schedule(key);
+        wheel.expire(0);
+        Assert.assertEquals(0, wheel.size());
+        wheel.expire(100000);
+        Assert.assertEquals(0, channel.timeoutCount);
+    }
+
+    @Test
+    public void testTimeoutReduced() throws Exception {
+        final TimingWheel wheel = new TimingWheel(100, 16, 0);
+        final TestChannel channel = new TestChannel();
+        channel.timeout = 1000;
+        final SelectionKey key = register(channel);
+        wheel.schedule(key);
+        wheel.expire(0);
+
+        channel.timeout = 100;
+        wheel.schedule(key);
+        wheel.expire(200);
+        Assert.assertEquals(1, channel.timeoutCount);
+        // Superseded entry must not fire once more
+        channel.timeout = 0;
+        wheel.expire(1200);
+        Assert.assertEquals(1, channel.timeoutCount);
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testTimeoutBeyondWheelHorizon() throws Exception {
+        final TimingWheel wheel = new TimingWheel(100, 4, 0);
+        final TestChannel channel = new TestChannel();
+        channel.timeout = 1000;
+        final SelectionKey key = register(channel);
+        wheel.schedule(key);
+        for (long now = 0; now <= 1000; now += 100) {
+            wheel.expire(now);
+            Assert.assertEquals(0, channel.timeoutCount);
+        }
+        wheel.expire(1100);
+        Assert.assertEquals(1, channel.timeoutCount);
+    }
+
+    @Test
+    public void testCancelledKeyDropped() throws Exception {
+        final TimingWheel wheel = new TimingWheel(100, 16, 0);
+        final TestChannel channel = new TestChannel();
+        channel.timeout = 100;
+        final SelectionKey key = register(channel);
+        wheel.schedule(key);
+        wheel.expire(0);
+        key.cancel();
+        wheel.expire(500);
+        Assert.assertEquals(0, channel.timeoutCount);
+        Assert.assertEquals(0, wheel.size());
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor.ssl;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.IOEventLoop;
+import org.apache.hc.core5.reactor.IOSession;
+
+/**
+ * In-memory {@link IOSession} whose channel writes into the input of its peer.
+ */
+public class IOSessionMock implements IOSession {
+
+    private final String id;
+    private final Lock lock;
+    private final ByteBuffer input;
+    private final ByteChannel channel;
+
+    private IOSessionMock peer;
+    private int readLimit;
+    private int eventMask;
+    private int socketTimeout;
+    private volatile int status;
+
+    public IOSessionMock(final String id, final int bufferSize) {
+        super();
+        this.id = id;
+        this.lock = new ReentrantLock();
+        this.input = ByteBuffer.allocate(bufferSize);
+        this.channel = new InternalChannel();
+        this.readLimit = Integer.MAX_VALUE;
+    }
+
+    public static void connect(final IOSessionMock session1, final IOSessionMock session2) {
+        session1.peer = session2;
+        session2.peer = session1;
+    }
+
+    /**
+     * Limits the number of bytes the channel of this session yields to reads.
+     */
+    public void setReadLimit(final int readLimit) {
+        this.readLimit = readLimit;
+    }
+
+    /**
+     * Returns the number of bytes written by the peer yet to be read.
+     */
+    public int available() {
+        return this.input.position();
+    }
+
+    private class InternalChannel implements ByteChannel {
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            if (status == CLOSED) {
+                throw new ClosedChannelException();
+            }
+            if (input.position() == 0 && peer.status == CLOSED) {
+                return -1;
+            }
+            input.flip();
+            final int n = Math.min(Math.min(input.remaining(), dst.remaining()), readLimit);
+            final int limit = input.limit();
+            input.limit(input.position() + n);
+            dst.put(input);
+            input.limit(limit);
+            input.compact();
+            readLimit -= n;
+            return n;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            if (status == CLOSED) {
+                throw new ClosedChannelException();
+            }
+            final int n = src.remaining();
+            peer.input.put(src);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return status != CLOSED;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOSessionMock.this.close();
+        }
+
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public Lock lock() {
+        return this.lock;
+    }
+
+    @Override
+    public void enqueue(final Command command, final Command.Priority priority) {
+    }
+
+    @Override
+    public boolean hasCommands() {
+        return false;
+    }
+
+    @Override
+    public Command poll() {
+        return null;
+    }
+
+    @Override
+    public ByteChannel channel() {
+        return this.channel;
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return null;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    public int getEventMask() {
+        return this.eventMask;
+    }
+
+    @Override
+    public void setEventMask(final int ops) {
+        this.eventMask = ops;
+    }
+
+    @Override
+    public void setEvent(final int op) {
+        this.eventMask |= op;
+    }
+
+    @Override
+    public void clearEvent(final int op) {
+        this.eventMask &= ~op;
+    }
+
+    @Override
+    public void close() {
+        this.status = CLOSED;
+    }
+
+    @Override
+    public void shutdown(final ShutdownType shutdownType) {
+        this.status = CLOSED;
+    }
+
+    @Override
+    public int getStatus() {
+        return this.status;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.status == CLOSED;
+    }
+
+    @Override
+    public int getSocketTimeout() {
+        return this.socketTimeout;
+    }
+
+    @Override
+    public void setSocketTimeout(final int timeout) {
+        this.socketTimeout = timeout;
+    }
+
+    @Override
+    public long getLastReadTime() {
+        return 0;
+    }
+
+    @Override
+    public long getLastWriteTime() {
+        return 0;
+    }
+
+    @Override
+    public void updateReadTime() {
+    }
+
+    @Override
+    public void updateWriteTime() {
+    }
+
+    @Override
+    public IOEventLoop getEventLoop() {
+        return null;
+    }
+
+}
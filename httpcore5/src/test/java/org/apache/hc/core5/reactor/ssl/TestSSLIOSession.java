@@ -0,0 +1,229 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor.ssl;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Random;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.ssl.SSLContextBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSSLIOSession {
+
+    private IOSessionMock clientSession;
+    private IOSessionMock serverSession;
+    private SSLIOSession client;
+    private SSLIOSession server;
+
+    @Before
+    public void setUp() throws Exception {
+        final URL resource = getClass().getResource("/test.keystore");
+        final char[] password = "nopassword".toCharArray();
+        final SSLContext serverSSLContext = SSLContextBuilder.create()
+                .loadKeyMaterial(resource, password, password)
+                .build();
+        final SSLContext clientSSLContext = SSLContextBuilder.create()
+                .loadTrustMaterial(resource, password)
+                .build();
+        this.clientSession = new IOSessionMock("client", 256 * 1024);
+        this.serverSession = new IOSessionMock("server", 256 * 1024);
+        IOSessionMock.connect(this.clientSession, this.serverSession);
+        this.client = new SSLIOSession(null, this.clientSession, SSLMode.CLIENT, clientSSLContext, null, null, null);
+        this.server = new SSLIOSession(null, this.serverSession, SSLMode.SERVER, serverSSLContext, null, null, null);
+        this.client.initialize();
+        this.server.initialize();
+        for (int i = 0; i < 20; i++) {
+            transfer(this.client, this.server);
+            transfer(this.server, this.client);
+        }
+        Assert.assertNotNull(this.client.getTlsDetails());
+        Assert.assertNotNull(this.server.getTlsDetails());
+        Assert.assertEquals(0, this.clientSession.available());
+        Assert.assertEquals(0, this.serverSession.available());
+    }
+
+    /**
+     * Flushes encrypted output of the sender and receives it at the receiver.
+     */
+    private static boolean transfer(final SSLIOSession sender, final SSLIOSession receiver) throws Exception {
+        sender.outboundTransport();
+        if (receiver.getStatus() == IOSession.CLOSED) {
+            return false;
+        }
+        final boolean ready = receiver.isAppInputReady();
+        receiver.inboundTransport();
+        return ready;
+    }
+
+    private static byte[] randomBytes(final int len) {
+        final byte[] b = new byte[len];
+        new Random(len).nextBytes(b);
+        return b;
+    }
+
+    private static byte[] toArray(final ByteBuffer buffer) {
+        buffer.flip();
+        final byte[] b = new byte[buffer.remaining()];
+        buffer.get(b);
+        return b;
+    }
+
+    private static void write(final SSLIOSession session, final byte[] b) throws Exception {
+        final ByteBuffer src = ByteBuffer.wrap(b);
+        while (src.hasRemaining()) {
+            Assert.assertTrue(session.channel().write(src) > 0);
+            session.outboundTransport();
+        }
+    }
+
+    @Test
+    public void testReadIntoDestinationSmallerThanRecord() throws Exception {
+        final byte[] content = randomBytes(1000);
+        write(this.server, content);
+        Assert.assertTrue(transfer(this.server, this.client));
+
+        final ByteChannel channel = this.client.channel();
+        final ByteBuffer result = ByteBuffer.allocate(content.length);
+        final ByteBuffer dst = ByteBuffer.allocate(16);
+        for (int n = channel.read(dst); n > 0; n = channel.read(dst)) {
+            Assert.assertTrue(n <= 16);
+            dst.flip();
+            result.put(dst);
+            dst.clear();
+            if (!result.hasRemaining()) {
+                break;
+            }
+        }
+        Assert.assertArrayEquals(content, toArray(result));
+        Assert.assertEquals(0, channel.read(dst));
+        Assert.assertEquals(content.length, this.client.getReadCount());
+    }
+
+    @Test
+    public void testPartialRecordReportedAsInputReady() throws Exception {
+        final byte[] content = randomBytes(100);
+        write(this.server, content);
+        this.clientSession.setReadLimit(10);
+        Assert.assertTrue(transfer(this.server, this.client));
+
+        final ByteChannel channel = this.client.channel();
+        final ByteBuffer dst = ByteBuffer.allocate(1024);
+        Assert.assertEquals(0, channel.read(dst));
+        Assert.assertTrue(this.client.isAppInputReady());
+
+        this.clientSession.setReadLimit(Integer.MAX_VALUE);
+        Assert.assertTrue(this.client.isAppInputReady());
+        Assert.assertEquals(content.length, channel.read(dst));
+        Assert.assertArrayEquals(content, toArray(dst));
+    }
+
+    @Test
+    public void testPostHandshakeRecordFollowedByApplicationData() throws Exception {
+        // The handshake leaves any post-handshake messages of the server such as
+        // TLS 1.3 session tickets undecrypted in the input buffer of the client
+        final byte[] content = randomBytes(100);
+        write(this.server, content);
+        Assert.assertTrue(transfer(this.server, this.client));
+
+        final ByteChannel channel = this.client.channel();
+        final ByteBuffer dst = ByteBuffer.allocate(8192);
+        Assert.assertEquals(content.length, channel.read(dst));
+        Assert.assertArrayEquals(content, toArray(dst));
+        Assert.assertEquals(IOSession.ACTIVE, this.client.getStatus());
+    }
+
+    @Test
+    public void testCloseNotifyFollowingApplicationData() throws Exception {
+        final byte[] content = randomBytes(100);
+        write(this.server, content);
+        this.server.close();
+        for (int i = 0; i < 3; i++) {
+            this.server.outboundTransport();
+        }
+        Assert.assertTrue(this.server.isOutboundDone());
+        Assert.assertTrue(this.client.isAppInputReady());
+
+        final ByteChannel channel = this.client.channel();
+        final ByteBuffer dst = ByteBuffer.allocate(1024);
+        Assert.assertEquals(content.length, channel.read(dst));
+        Assert.assertArrayEquals(content, toArray(dst));
+        Assert.assertTrue(this.client.isInboundDone());
+        dst.clear();
+        Assert.assertEquals(0, channel.read(dst));
+
+        this.client.close();
+        for (int i = 0; i < 3; i++) {
+            transfer(this.client, this.server);
+            transfer(this.server, this.client);
+        }
+        Assert.assertEquals(IOSession.CLOSED, this.client.getStatus());
+        Assert.assertEquals(IOSession.CLOSED, this.server.getStatus());
+    }
+
+    @Test
+    public void testPartiallyConsumedGatheringWrite() throws Exception {
+        final byte[] content1 = randomBytes(20000);
+        final byte[] content2 = randomBytes(30000);
+        final ByteBuffer skipped = ByteBuffer.wrap(new byte[] {1, 2, 3});
+        final ByteBuffer[] srcs = new ByteBuffer[] {
+                skipped, ByteBuffer.wrap(content1), ByteBuffer.wrap(content2) };
+        final GatheringByteChannel channel = (GatheringByteChannel) this.client.channel();
+
+        final long n = channel.write(srcs, 1, 2);
+        Assert.assertTrue(n > 0);
+        Assert.assertTrue(n < content1.length + content2.length);
+        Assert.assertEquals(n, srcs[1].position() + srcs[2].position());
+        Assert.assertEquals(0, channel.write(srcs, 1, 2));
+
+        final ByteBuffer result = ByteBuffer.allocate(content1.length + content2.length);
+        final ByteBuffer dst = ByteBuffer.allocate(8192);
+        long total = n;
+        for (int i = 0; i < 100 && result.hasRemaining(); i++) {
+            transfer(this.client, this.server);
+            total += channel.write(srcs, 1, 2);
+            while (this.server.channel().read(dst) > 0) {
+                dst.flip();
+                result.put(dst);
+                dst.clear();
+            }
+        }
+        Assert.assertEquals(content1.length + content2.length, total);
+        Assert.assertEquals(0, skipped.position());
+        final ByteBuffer expected = ByteBuffer.allocate(content1.length + content2.length);
+        expected.put(content1).put(content2);
+        Assert.assertArrayEquals(toArray(expected), toArray(result));
+    }
+
+}
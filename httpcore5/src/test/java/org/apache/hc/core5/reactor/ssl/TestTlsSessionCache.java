@@ -0,0 +1,154 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor.ssl;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestTlsSessionCache {
+
+    private static SSLSession createSession(final byte[] id, final long creationTime) {
+        final SSLSession session = Mockito.mock(SSLSession.class);
+        Mockito.when(session.getId()).thenReturn(id);
+        Mockito.when(session.getCreationTime()).thenReturn(creationTime);
+        Mockito.when(session.isValid()).thenReturn(true);
+        return session;
+    }
+
+    @Test
+    public void testResumedSessionWithSameId() throws Exception {
+        final TlsSessionCache cache = new TlsSessionCache(10, TimeValue.ofHours(1));
+        final NamedEndpoint endpoint = new URIAuthority("somehost", 443);
+        final long now = System.currentTimeMillis();
+        final SSLSession session = createSession(new byte[] {1, 2, 3}, now);
+
+        cache.prepare(endpoint);
+        Assert.assertFalse(cache.update(endpoint, session));
+        cache.prepare(endpoint);
+        Assert.assertTrue(cache.update(endpoint, session));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testResumedSessionWithNewId() throws Exception {
+        final TlsSessionCache cache = new TlsSessionCache(10, TimeValue.ofHours(1));
+        final NamedEndpoint endpoint = new URIAuthority("somehost", 443);
+        final long now = System.currentTimeMillis();
+
+        Assert.assertFalse(cache.update(endpoint, createSession(new byte[] {1}, now)));
+        Assert.assertTrue(cache.update(endpoint, createSession(new byte[] {2}, now)));
+        Assert.assertFalse(cache.update(endpoint, createSession(new byte[] {3}, now + 1000)));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testEndpointsCachedSeparately() throws Exception {
+        final TlsSessionCache cache = new TlsSessionCache(10, TimeValue.ofHours(1));
+        final long now = System.currentTimeMillis();
+        final SSLSession session = createSession(new byte[] {1}, now);
+
+        Assert.assertFalse(cache.update(new URIAuthority("somehost", 443), session));
+        Assert.assertFalse(cache.update(new URIAuthority("somehost", 8443), session));
+        Assert.assertFalse(cache.update(new URIAuthority("otherhost", 443), session));
+        Assert.assertTrue(cache.update(new URIAuthority("somehost", 8443), session));
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testExpiredSessionInvalidated() throws Exception {
+        final TlsSessionCache cache = new TlsSessionCache(10, TimeValue.ofMinutes(1));
+        final NamedEndpoint endpoint = new URIAuthority("somehost", 443);
+        final SSLSession session = createSession(new byte[] {1}, System.currentTimeMillis() - 120000);
+
+        cache.update(endpoint, session);
+        cache.prepare(endpoint);
+        Mockito.verify(session).invalidate();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testValidSessionRetained() throws Exception {
+        final TlsSessionCache cache = new TlsSessionCache(10, TimeValue.ofMinutes(1));
+        final NamedEndpoint endpoint = new URIAuthority("somehost", 443);
+        final SSLSession session = createSession(new byte[] {1}, System.currentTimeMillis());
+
+        cache.update(endpoint, session);
+        cache.prepare(endpoint);
+        Mockito.verify(session, Mockito.never()).invalidate();
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEldestSessionEvicted() throws Exception {
+        final TlsSessionCache cache = new TlsSessionCache(2, TimeValue.ofHours(1));
+        final long now = System.currentTimeMillis();
+        final SSLSession session1 = createSession(new byte[] {1}, now);
+        final SSLSession session2 = createSession(new byte[] {2}, now);
+        final SSLSession session3 = createSession(new byte[] {3}, now);
+
+        cache.update(new URIAuthority("host1", 443), session1);
+        cache.update(new URIAuthority("host2", 443), session2);
+        cache.prepare(new URIAuthority("host1", 443));
+        cache.update(new URIAuthority("host3", 443), session3);
+        Assert.assertEquals(2, cache.size());
+        Mockito.verify(session1, Mockito.never()).invalidate();
+        Mockito.verify(session2).invalidate();
+    }
+
+    @Test
+    public void testDecoratedVerifier() throws Exception {
+        final TlsSessionCache cache = new TlsSessionCache(10, TimeValue.ofHours(1));
+        final NamedEndpoint endpoint = new URIAuthority("somehost", 443);
+        final SSLSession session = createSession(new byte[] {1}, System.currentTimeMillis());
+        final SSLSessionVerifier verifier = cache.decorate(new SSLSessionVerifier() {
+
+            @Override
+            public TlsDetails verify(final NamedEndpoint endpoint, final SSLEngine sslEngine) {
+                return new TlsDetails(session, "h2");
+            }
+
+        });
+
+        final TlsDetails tlsDetails1 = verifier.verify(endpoint, null);
+        Assert.assertSame(session, tlsDetails1.getSSLSession());
+        Assert.assertEquals("h2", tlsDetails1.getApplicationProtocol());
+        Assert.assertFalse(tlsDetails1.isSessionResumed());
+        final TlsDetails tlsDetails2 = verifier.verify(endpoint, null);
+        Assert.assertTrue(tlsDetails2.isSessionResumed());
+    }
+
+}
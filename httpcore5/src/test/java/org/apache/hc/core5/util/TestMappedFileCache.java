@@ -0,0 +1,157 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMappedFileCache {
+
+    private final List<File> files = new ArrayList<>();
+
+    private File createFile(final String content) throws IOException {
+        final File file = File.createTempFile("testing", ".txt");
+        files.add(file);
+        try (final FileOutputStream outstream = new FileOutputStream(file)) {
+            outstream.write(content.getBytes(StandardCharsets.US_ASCII));
+        }
+        return file;
+    }
+
+    private static String asString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    @After
+    public void cleanup() {
+        for (final File file: files) {
+            file.delete();
+        }
+        files.clear();
+    }
+
+    @Test
+    public void testSharedMapping() throws Exception {
+        final MappedFileCache cache = new MappedFileCache(8, 1024);
+        final File file = createFile("abcdef");
+
+        final ByteBuffer buffer1 = cache.get(file);
+        final ByteBuffer buffer2 = cache.get(file);
+        Assert.assertNotSame(buffer1, buffer2);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(6, cache.getTotalSize());
+
+        Assert.assertEquals("abc", asString((ByteBuffer) buffer1.limit(3)));
+        Assert.assertEquals("abcdef", asString(buffer2));
+        Assert.assertEquals("abcdef", asString(cache.get(file)));
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testReadOnly() throws Exception {
+        final MappedFileCache cache = new MappedFileCache(8, 1024);
+        final File file = createFile("abcdef");
+        cache.get(file).put((byte) 'x');
+    }
+
+    @Test
+    public void testModifiedFileRemapped() throws Exception {
+        final MappedFileCache cache = new MappedFileCache(8, 1024);
+        final File file = createFile("abcdef");
+
+        Assert.assertEquals("abcdef", asString(cache.get(file)));
+
+        try (final FileOutputStream outstream = new FileOutputStream(file, true)) {
+            outstream.write("ghi".getBytes(StandardCharsets.US_ASCII));
+        }
+        Assert.assertEquals("abcdefghi", asString(cache.get(file)));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(9, cache.getTotalSize());
+    }
+
+    @Test
+    public void testEvictionByCount() throws Exception {
+        final MappedFileCache cache = new MappedFileCache(2, 1024);
+        final File file1 = createFile("1");
+        final File file2 = createFile("22");
+        final File file3 = createFile("333");
+
+        cache.get(file1);
+        cache.get(file2);
+        cache.get(file1);
+        cache.get(file3);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(4, cache.getTotalSize());
+    }
+
+    @Test
+    public void testEvictionBySize() throws Exception {
+        final MappedFileCache cache = new MappedFileCache(8, 10);
+        final File file1 = createFile("11111");
+        final File file2 = createFile("22222");
+        final File file3 = createFile("333");
+        final File file4 = createFile("44444444444");
+
+        cache.get(file1);
+        cache.get(file2);
+        Assert.assertEquals(10, cache.getTotalSize());
+        cache.get(file3);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(8, cache.getTotalSize());
+
+        Assert.assertEquals("44444444444", asString(cache.get(file4)));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(8, cache.getTotalSize());
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        final MappedFileCache cache = new MappedFileCache(8, 1024);
+        final File file = createFile("");
+        Assert.assertEquals(0, cache.get(file).remaining());
+    }
+
+    @Test
+    public void testCachingDisabled() throws Exception {
+        final MappedFileCache cache = new MappedFileCache(0, 1024);
+        final File file = createFile("abcdef");
+        Assert.assertEquals("abcdef", asString(cache.get(file)));
+        Assert.assertEquals(0, cache.size());
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.util;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PooledByteBufferAllocator}.
+ */
+public class TestPooledByteBufferAllocator {
+
+    @Test
+    public void testSizeClasses() throws Exception {
+        Assert.assertEquals(0, PooledByteBufferAllocator.sizeClass(0));
+        Assert.assertEquals(0, PooledByteBufferAllocator.sizeClass(1024));
+        Assert.assertEquals(1, PooledByteBufferAllocator.sizeClass(1025));
+        Assert.assertEquals(1, PooledByteBufferAllocator.sizeClass(2048));
+        Assert.assertEquals(5, PooledByteBufferAllocator.sizeClass(16709));
+        Assert.assertEquals(1024, PooledByteBufferAllocator.classSize(0));
+        Assert.assertEquals(32768, PooledByteBufferAllocator.classSize(5));
+    }
+
+    @Test
+    public void testAllocateRoundsUpCapacity() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final ByteBuffer buffer = allocator.allocate(3000);
+        Assert.assertEquals(4096, buffer.capacity());
+        Assert.assertEquals(0, buffer.position());
+        Assert.assertEquals(4096, buffer.limit());
+        Assert.assertFalse(buffer.isDirect());
+    }
+
+    @Test
+    public void testReleasedBufferReused() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(true);
+        final ByteBuffer buffer1 = allocator.allocate(8192);
+        Assert.assertTrue(buffer1.isDirect());
+        buffer1.put((byte) 1).flip();
+        allocator.release(buffer1);
+        final ByteBuffer buffer2 = allocator.allocate(5000);
+        Assert.assertNotSame(buffer1, buffer2);
+        Assert.assertEquals(0, buffer2.position());
+        Assert.assertEquals(8192, buffer2.limit());
+        Assert.assertEquals(1, buffer2.get(0));
+        final ByteBuffer buffer3 = allocator.allocate(5000);
+        Assert.assertEquals(0, buffer3.get(0));
+    }
+
+    @Test
+    public void testSharedCache() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 4096, 0, 2048);
+        final ByteBuffer buffer1 = allocator.allocate(1024);
+        final ByteBuffer buffer2 = allocator.allocate(1024);
+        final ByteBuffer buffer3 = allocator.allocate(1024);
+        allocator.release(buffer1);
+        allocator.release(buffer2);
+        allocator.release(buffer3);
+        Assert.assertSame(buffer1.array(), allocator.allocate(1024).array());
+        Assert.assertSame(buffer2.array(), allocator.allocate(1024).array());
+        Assert.assertNotSame(buffer3.array(), allocator.allocate(1024).array());
+    }
+
+    @Test
+    public void testForeignBuffersNotPooled() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 4096, 8, 0);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(1024);
+        final ByteBuffer odd = ByteBuffer.allocate(1500);
+        final ByteBuffer large = ByteBuffer.allocate(8192);
+        final ByteBuffer readOnly = ByteBuffer.allocate(2048).asReadOnlyBuffer();
+        allocator.release(direct);
+        allocator.release(odd);
+        allocator.release(large);
+        allocator.release(readOnly);
+        allocator.release(null);
+        Assert.assertNotSame(direct, allocator.allocate(1024));
+        Assert.assertNotSame(odd, allocator.allocate(1500));
+        Assert.assertNotSame(readOnly, allocator.allocate(2048));
+        final ByteBuffer oversized = allocator.allocate(10000);
+        Assert.assertEquals(10000, oversized.capacity());
+    }
+
+    @Test
+    public void testWrappedArraysAndSlicesNotPooled() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 4096, 8, 0);
+        final byte[] array = new byte[2048];
+        final ByteBuffer wrapped = ByteBuffer.wrap(array);
+        allocator.release(wrapped);
+        final ByteBuffer buffer1 = allocator.allocate(2048);
+        Assert.assertNotSame(wrapped, buffer1);
+        Assert.assertNotSame(array, buffer1.array());
+
+        final ByteBuffer slice = ByteBuffer.allocate(4096);
+        slice.position(2048);
+        allocator.release(slice.slice());
+        final ByteBuffer buffer2 = allocator.allocate(2048);
+        Assert.assertNotSame(buffer1.array(), buffer2.array());
+        Assert.assertEquals(0, buffer2.arrayOffset());
+
+        final ByteBuffer pooled = allocator.allocate(4096);
+        pooled.limit(2048);
+        allocator.release(pooled.slice());
+        allocator.release(pooled.duplicate());
+        Assert.assertNotSame(pooled.array(), allocator.allocate(4096).array());
+    }
+
+    @Test
+    public void testDoubleReleaseIgnored() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 4096, 8, 0);
+        final ByteBuffer buffer = allocator.allocate(2048);
+        allocator.release(buffer);
+        allocator.release(buffer);
+        Assert.assertSame(buffer.array(), allocator.allocate(2048).array());
+        Assert.assertNotSame(buffer.array(), allocator.allocate(2048).array());
+    }
+
+    @Test
+    public void testStaleReleaseIgnored() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 4096, 8, 0);
+        final ByteBuffer buffer1 = allocator.allocate(2048);
+        allocator.release(buffer1);
+        final ByteBuffer buffer2 = allocator.allocate(2048);
+        Assert.assertSame(buffer1.array(), buffer2.array());
+
+        // Late release by the previous owner must not return the storage in use
+        allocator.release(buffer1);
+        final ByteBuffer buffer3 = allocator.allocate(2048);
+        Assert.assertNotSame(buffer2.array(), buffer3.array());
+
+        allocator.release(buffer2);
+        Assert.assertSame(buffer2.array(), allocator.allocate(2048).array());
+    }
+
+    @Test
+    public void testBuffersHandedOutInTurn() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 4096, 8, 0);
+        final ByteBuffer[] buffers = new ByteBuffer[PooledByteBufferAllocator.GENERATIONS];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = allocator.allocate(2048);
+            allocator.release(buffers[i]);
+            if (i > 0) {
+                Assert.assertNotSame(buffers[i - 1], buffers[i]);
+                Assert.assertSame(buffers[i - 1].array(), buffers[i].array());
+            }
+        }
+        for (int i = 0; i < buffers.length; i++) {
+            final ByteBuffer buffer = allocator.allocate(2048);
+            Assert.assertSame(buffers[i], buffer);
+            allocator.release(buffer);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxBufferSize() throws Exception {
+        new PooledByteBufferAllocator(false, 512, 8, 0);
+    }
+
+}